@@ -57,6 +57,10 @@ import java.util.TreeSet;
  * <dt> <b>-batch</b> </dt> <dd> to run in batch mode, with no user
  * interface. </dd>
  *
+ * <dt> <b>-daemon DIRNAME</b> </dt> <dd> to run in batch mode, and then
+ * stay resident to process the jobs dropped into the provided spool
+ * directory (see {@link Daemon}). </dd>
+ *
  * <dt> <b>-step (STEPNAME | &#64;STEPLIST)+</b> </dt> <dd> to run all the
  * specified steps (including the steps which are mandatory to get to the
  * specified ones). 'STEPNAME' can be any one of the step names (the case is
@@ -104,6 +108,11 @@ import java.util.TreeSet;
  * <dt> <b>-export (DIRNAME | FILENAME)</b> </dt> <dd> to define an output
  * path to MusicXML file (or directory). Same note as for -bench.</dd>
  *
+ * <dt> <b>-manifest FILENAME</b> </dt> <dd> to define a batch manifest
+ * file, which records the progress of the batch, so that a restarted batch
+ * skips the input files already processed (see
+ * {@link org.audiveris.omr.score.BatchManifest}).</dd>
+ *
  * </dd> </dl>
  *
  * @author Hervé Bitteur
@@ -145,6 +154,10 @@ public class CLI
         "Specifies to run with no graphic user interface",
         Card.NONE,
         null),
+        DAEMON(
+        "Stays resident in batch, processing jobs from a spool directory",
+        Card.SINGLE,
+        "DIRNAME"),
         STEP(
         "Defines a series of target steps",
         Card.MULTIPLE,
@@ -180,7 +193,11 @@ public class CLI
         EXPORT(
         "Defines an output path to MusicXML file (or directory)",
         Card.SINGLE,
-        "(DIRNAME|FILENAME)");
+        "(DIRNAME|FILENAME)"),
+        MANIFEST(
+        "Defines a batch manifest file, to skip inputs already processed",
+        Card.SINGLE,
+        "FILENAME");
         //~ Instance fields ----------------------------------------------------
 
         /** Info about command itself */
@@ -464,6 +481,12 @@ public class CLI
 
                     break;
 
+                case DAEMON:
+                    params.daemonPath = token;
+                    params.batchMode = true;
+
+                    break;
+
                 case BENCH:
                     params.benchPath = token;
 
@@ -474,6 +497,11 @@ public class CLI
 
                     break;
 
+                case MANIFEST:
+                    params.manifestPath = token;
+
+                    break;
+
                 //                case MIDI :
                 //                    params.midiPath = token;
                 //
@@ -629,6 +657,9 @@ public class CLI
         /** Flag that indicates a batch mode */
         boolean batchMode = false;
 
+        /** Spool directory of daemon mode, if any */
+        String daemonPath = null;
+
         /** The set of desired steps */
         final Set<Step> desiredSteps = new LinkedHashSet<>();
 
@@ -658,6 +689,9 @@ public class CLI
         /** Where printed score (PDF) is to be saved */
         String printPath = null;
 
+        /** Where batch progress is to be recorded */
+        String manifestPath = null;
+
         //~ Constructors -------------------------------------------------------
         private Parameters ()
         {
@@ -0,0 +1,670 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                                D a e m o n                                 //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+
+import org.audiveris.omr.glyph.GlyphNetwork;
+import org.audiveris.omr.glyph.GlyphRegression;
+import org.audiveris.omr.glyph.ShapeChecker;
+
+import org.audiveris.omr.score.Score;
+import org.audiveris.omr.score.ScoresManager;
+
+import org.audiveris.omr.step.ProcessingCancellationException;
+import org.audiveris.omr.step.Step;
+import org.audiveris.omr.step.Stepping;
+import org.audiveris.omr.step.Steps;
+
+import org.audiveris.omr.util.BatchScheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+
+/**
+ * Class {@code Daemon} keeps the application resident in batch mode, to
+ * process the jobs dropped into a spool directory, so that the JVM start,
+ * the loading of music font, evaluators and JAXB contexts are paid only once
+ * for many input files.
+ *
+ * <p>A job is a properties file, with the {@value #JOB_EXTENSION}
+ * extension, which is processed as the command line would do:
+ * <dl>
+ * <dt><b>input</b></dt> <dd>the image file to process (mandatory)</dd>
+ * <dt><b>steps</b></dt> <dd>the target step names, separated by spaces or
+ * commas</dd>
+ * <dt><b>pages</b></dt> <dd>the specific pages to process, counted from 1
+ * </dd>
+ * <dt><b>export</b></dt> <dd>the MusicXML output file (or directory), which
+ * implies the EXPORT step</dd>
+ * <dt><b>print</b></dt> <dd>the PDF output file (or directory), which
+ * implies the PRINT step</dd>
+ * </dl>
+ * A client should write the job file under another name, and then rename it
+ * with the job extension, so that the daemon never reads a partial job.</p>
+ *
+ * <p>When a job is taken, its file is renamed with the
+ * {@value #RUNNING_EXTENSION} extension, and then with the
+ * {@value #DONE_EXTENSION} or {@value #FAILED_EXTENSION} extension when
+ * the job is over, including a job cancelled before it could start. The job
+ * status (state, elapsed time, error message) is reported in a companion
+ * properties file, with the {@value #STATUS_EXTENSION} extension.</p>
+ *
+ * <p>Jobs are run by a single long-lived loop of a {@link BatchScheduler},
+ * with the same admission control and time-out as command line inputs, the
+ * spool directory being polled while other jobs are running. The daemon
+ * stops when a file named {@value #STOP_FILE} appears in the spool directory
+ * (this file is then deleted), once the jobs already taken are over, or when
+ * the application is interrupted.</p>
+ *
+ * <p>At start, the {@value #RUNNING_EXTENSION} files left by a previous
+ * daemon which ended abruptly are marked as failed, since they may be the
+ * very cause of the abrupt end.</p>
+ *
+ * @author Hervé Bitteur
+ */
+public class Daemon
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(Daemon.class);
+
+    /** Extension of a job waiting in spool directory */
+    public static final String JOB_EXTENSION = ".job";
+
+    /** Extension of a job being processed */
+    public static final String RUNNING_EXTENSION = ".running";
+
+    /** Extension of a job successfully processed */
+    public static final String DONE_EXTENSION = ".done";
+
+    /** Extension of a job whose processing failed */
+    public static final String FAILED_EXTENSION = ".failed";
+
+    /** Extension of a job status file */
+    public static final String STATUS_EXTENSION = ".status";
+
+    /** Name of the file which stops the daemon */
+    public static final String STOP_FILE = "stop";
+
+    //~ Enumerations -----------------------------------------------------------
+    /** Possible job states */
+    public static enum State
+    {
+        //~ Enumeration constant initializers ----------------------------------
+
+        /** Job being processed */
+        RUNNING,
+        /** Job successfully processed */
+        DONE,
+        /** Job processing failed */
+        FAILED;
+
+    }
+
+    //~ Instance fields --------------------------------------------------------
+    /** The spool directory */
+    private final File spool;
+
+    /** The scheduler of jobs */
+    private final BatchScheduler scheduler;
+
+    //~ Constructors -----------------------------------------------------------
+    //--------//
+    // Daemon //
+    //--------//
+    /**
+     * Creates a new Daemon object.
+     *
+     * @param spool     the spool directory, created if needed
+     * @param scheduler the scheduler to run jobs
+     */
+    public Daemon (File spool,
+                   BatchScheduler scheduler)
+    {
+        this.spool = spool;
+        this.scheduler = scheduler;
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //-----//
+    // run //
+    //-----//
+    /**
+     * Process the jobs of the spool directory, until asked to stop.
+     *
+     * @return false if any job failed
+     */
+    public boolean run ()
+    {
+        if (!spool.isDirectory() && !spool.mkdirs()) {
+            logger.warn("Cannot create spool directory {}", spool);
+
+            return false;
+        }
+
+        recover();
+        warmUp();
+        logger.info("Daemon waiting for jobs in {}", spool);
+
+        boolean success = false;
+
+        try {
+            success = scheduler.run(
+                    new BatchScheduler.Feed()
+            {
+                @Override
+                public List<BatchScheduler.Job> next ()
+                {
+                    if (Thread.currentThread()
+                            .isInterrupted() || checkStop()) {
+                        return null;
+                    }
+
+                    return takeJobs();
+                }
+            },
+                    constants.pollingPeriod.getValue());
+        } catch (InterruptedException ex) {
+            logger.info("Daemon interrupted");
+            Thread.currentThread()
+                    .interrupt();
+        }
+
+        logger.info("Daemon stopped");
+
+        return success;
+    }
+
+    //---------//
+    // recover //
+    //---------//
+    /**
+     * Mark as failed the jobs left running by a previous daemon.
+     */
+    void recover ()
+    {
+        File[] files = spool.listFiles(
+                new FilenameFilter()
+        {
+            @Override
+            public boolean accept (File dir,
+                                   String name)
+            {
+                return name.endsWith(RUNNING_EXTENSION);
+            }
+        });
+
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files);
+
+        for (File file : files) {
+            File input = null;
+
+            try {
+                input = Request.read(file).input;
+            } catch (Exception ignored) {
+            }
+
+            logger.warn("Job {} left running by previous daemon", file);
+            end(
+                    getRadix(file),
+                    State.FAILED,
+                    input,
+                    0,
+                    "Interrupted by end of previous daemon");
+        }
+    }
+
+    //----------//
+    // takeJobs //
+    //----------//
+    /**
+     * Take all the jobs currently waiting in the spool directory, in
+     * their name order.
+     *
+     * @return the jobs taken
+     */
+    List<BatchScheduler.Job> takeJobs ()
+    {
+        List<BatchScheduler.Job> jobs = new ArrayList<>();
+        File[] files = spool.listFiles(
+                new FilenameFilter()
+        {
+            @Override
+            public boolean accept (File dir,
+                                   String name)
+            {
+                return name.endsWith(JOB_EXTENSION);
+            }
+        });
+
+        if (files == null) {
+            return jobs;
+        }
+
+        Arrays.sort(files);
+
+        for (File file : files) {
+            String radix = getRadix(file);
+            File running = new File(spool, radix + RUNNING_EXTENSION);
+
+            // Claim the job
+            if (!file.renameTo(running)) {
+                logger.warn("Cannot take job {}", file);
+
+                continue;
+            }
+
+            try {
+                final Request request = Request.read(running);
+                writeStatus(radix, State.RUNNING, request.input, 0, null);
+                jobs.add(
+                        new BatchScheduler.Job(
+                        radix,
+                        request.input.length(),
+                        createTask(radix, request))
+                {
+                    @Override
+                    public void cancelled ()
+                    {
+                        end(
+                                name,
+                                State.FAILED,
+                                request.input,
+                                0,
+                                "Cancelled before start");
+                    }
+                });
+            } catch (Exception ex) {
+                logger.warn("Invalid job {} {}", file, ex.toString());
+                end(radix, State.FAILED, null, 0, ex.toString());
+            }
+        }
+
+        return jobs;
+    }
+
+    //-----------//
+    // checkStop //
+    //-----------//
+    /**
+     * Check whether the daemon is asked to stop.
+     */
+    private boolean checkStop ()
+    {
+        File stop = new File(spool, STOP_FILE);
+
+        if (stop.exists()) {
+            if (!stop.delete()) {
+                logger.warn("Cannot delete {}", stop);
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    //------------//
+    // createTask //
+    //------------//
+    /**
+     * Prepare the processing of a job.
+     */
+    private Callable<Void> createTask (final String radix,
+                                       final Request request)
+    {
+        return new Callable<Void>()
+        {
+            @Override
+            public Void call ()
+                    throws Exception
+            {
+                final long start = System.currentTimeMillis();
+                State state = State.FAILED;
+                String message = null;
+                Score score = null;
+
+                logger.info(
+                        "Job {} launching {} on {} {}",
+                        radix,
+                        request.steps,
+                        request.input,
+                        (request.pages != null) ? ("pages " + request.pages)
+                        : "");
+
+                try {
+                    if (!request.input.exists()) {
+                        throw new IOException(
+                                "Could not find file " + request.input);
+                    }
+
+                    score = new Score(request.input);
+
+                    ScoresManager manager = ScoresManager.getInstance();
+
+                    if (request.export != null) {
+                        score.setExportFile(
+                                request.export.isDirectory()
+                                ? manager.getDefaultExportFile(
+                                request.export,
+                                score) : request.export);
+                    }
+
+                    if (request.print != null) {
+                        score.setPrintFile(
+                                request.print.isDirectory()
+                                ? manager.getDefaultPrintFile(
+                                request.print,
+                                score) : request.print);
+                    }
+
+                    Stepping.processScore(request.steps, request.pages, score);
+
+                    if (Thread.currentThread()
+                            .isInterrupted()) {
+                        throw new ProcessingCancellationException();
+                    }
+
+                    state = State.DONE;
+                } catch (ProcessingCancellationException pce) {
+                    message = "Cancelled";
+
+                    if (score != null) {
+                        score.getBench()
+                                .recordCancellation();
+                    }
+
+                    throw pce;
+                } catch (Exception ex) {
+                    message = ex.toString();
+                    logger.warn("Job " + radix + " failed", ex);
+
+                    throw ex;
+                } finally {
+                    if (score != null) {
+                        score.close();
+                    }
+
+                    end(
+                            radix,
+                            state,
+                            request.input,
+                            System.currentTimeMillis() - start,
+                            message);
+                }
+
+                return null;
+            }
+        };
+    }
+
+    //-----//
+    // end //
+    //-----//
+    /**
+     * Record the end of a job.
+     */
+    private void end (String radix,
+                      State state,
+                      File input,
+                      long elapsed,
+                      String message)
+    {
+        writeStatus(radix, state, input, elapsed, message);
+
+        File running = new File(spool, radix + RUNNING_EXTENSION);
+        File target = new File(
+                spool,
+                radix
+                + ((state == State.DONE) ? DONE_EXTENSION : FAILED_EXTENSION));
+
+        try {
+            Files.move(
+                    running.toPath(),
+                    target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            logger.warn("Cannot rename {} {}", running, ex.toString());
+        }
+
+        logger.info("Job {} {}", radix, state);
+    }
+
+    //----------//
+    // getRadix //
+    //----------//
+    private static String getRadix (File file)
+    {
+        String name = file.getName();
+
+        return name.substring(0, name.lastIndexOf('.'));
+    }
+
+    //--------//
+    // warmUp //
+    //--------//
+    /**
+     * Load once for all the engines needed by every job.
+     */
+    private void warmUp ()
+    {
+        logger.info("Daemon warming up...");
+        GlyphNetwork.getInstance();
+        GlyphRegression.getInstance();
+        ShapeChecker.getInstance();
+    }
+
+    //-------------//
+    // writeStatus //
+    //-------------//
+    /**
+     * Write the job status file, via a temporary file so that a client
+     * never reads a partial status.
+     */
+    private void writeStatus (String radix,
+                              State state,
+                              File input,
+                              long elapsed,
+                              String message)
+    {
+        Properties props = new Properties();
+        props.setProperty("state", state.name());
+
+        if (input != null) {
+            props.setProperty("input", input.getPath());
+        }
+
+        if (state != State.RUNNING) {
+            props.setProperty("elapsed", Long.toString(elapsed));
+        }
+
+        if (message != null) {
+            props.setProperty("message", message);
+        }
+
+        File status = new File(spool, radix + STATUS_EXTENSION);
+        File temp = new File(spool, radix + STATUS_EXTENSION + ".tmp");
+
+        try {
+            OutputStream os = new FileOutputStream(temp);
+
+            try {
+                props.store(os, "Job " + radix + " " + new Date());
+            } finally {
+                os.close();
+            }
+
+            Files.move(
+                    temp.toPath(),
+                    status.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            logger.warn("Cannot write status {} {}", status, ex.toString());
+        }
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //---------//
+    // Request //
+    //---------//
+    /**
+     * The parameters of a job, as read from its file.
+     */
+    static class Request
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** The input image file */
+        final File input;
+
+        /** The desired steps */
+        final Set<Step> steps = new LinkedHashSet<>();
+
+        /** The specific pages, if any */
+        SortedSet<Integer> pages;
+
+        /** The export file or directory, if any */
+        File export;
+
+        /** The print file or directory, if any */
+        File print;
+
+        //~ Constructors -------------------------------------------------------
+        Request (Properties props)
+        {
+            String name = props.getProperty("input");
+
+            if ((name == null) || name.trim()
+                    .isEmpty()) {
+                throw new IllegalArgumentException("No input defined");
+            }
+
+            input = new File(name.trim());
+
+            for (String token : tokens(props.getProperty("steps"))) {
+                steps.add(Steps.valueOf(token.toUpperCase(Locale.ENGLISH)));
+            }
+
+            for (String token : tokens(props.getProperty("pages"))) {
+                if (pages == null) {
+                    pages = new TreeSet<>();
+                }
+
+                pages.add(Integer.parseInt(token));
+            }
+
+            String exportName = props.getProperty("export");
+
+            if (exportName != null) {
+                export = new File(exportName.trim());
+                steps.add(Steps.valueOf(Steps.EXPORT));
+            }
+
+            String printName = props.getProperty("print");
+
+            if (printName != null) {
+                print = new File(printName.trim());
+                steps.add(Steps.valueOf(Steps.PRINT));
+            }
+        }
+
+        //~ Methods ------------------------------------------------------------
+        static Request read (File file)
+                throws IOException
+        {
+            Properties props = new Properties();
+            InputStream is = new FileInputStream(file);
+
+            try {
+                props.load(is);
+            } finally {
+                is.close();
+            }
+
+            return new Request(props);
+        }
+
+        private static List<String> tokens (String str)
+        {
+            List<String> list = new ArrayList<>();
+
+            if (str != null) {
+                for (String token : str.split("[\\s,]+")) {
+                    if (!token.isEmpty()) {
+                        list.add(token);
+                    }
+                }
+            }
+
+            return list;
+        }
+    }
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Integer pollingPeriod = new Constant.Integer(
+                "ms",
+                500,
+                "Period for checking the daemon spool directory");
+
+    }
+}
@@ -27,19 +27,32 @@ import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantManager;
 import org.audiveris.omr.constant.ConstantSet;
 
+import org.audiveris.omr.glyph.SymbolGlyphDescriptor;
+import org.audiveris.omr.glyph.facets.GlyphValue;
+
+import org.audiveris.omr.math.LinearEvaluator;
+import org.audiveris.omr.math.NeuralNetwork;
+
+import org.audiveris.omr.score.BatchManifest;
 import org.audiveris.omr.score.Score;
+import org.audiveris.omr.score.ScoreExporter;
 
+import org.audiveris.omr.script.Script;
 import org.audiveris.omr.script.ScriptManager;
 
 import org.audiveris.omr.step.ProcessingCancellationException;
 import org.audiveris.omr.step.Stepping;
 
+import org.audiveris.omr.text.TextBuilder;
+
 import org.audiveris.omr.ui.MainGui;
 import org.audiveris.omr.ui.symbol.MusicFont;
 
+import org.audiveris.omr.util.BatchScheduler;
 import org.audiveris.omr.util.ClassUtil;
 import org.audiveris.omr.util.Clock;
 import org.audiveris.omr.util.Dumping;
+import org.audiveris.omr.util.JaxbContexts;
 import org.audiveris.omr.util.OmrExecutors;
 
 import org.jdesktop.application.Application;
@@ -48,14 +61,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
 import java.util.SortedSet;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Class {@code Main} is the main class for OMR application.
@@ -87,6 +99,9 @@ public class Main
     /** Parameters read from CLI */
     private static CLI.Parameters parameters;
 
+    /** Batch manifest, if any */
+    private static BatchManifest manifest;
+
     /** The application dumping service */
     public static final Dumping dumping = new Dumping(Main.class.getPackage());
 
@@ -122,6 +137,11 @@ public class Main
         // Environment
         showEnvironment();
 
+        // JAXB contexts, built in the background
+        if (constants.preloadJaxbContexts.isSet()) {
+            preloadJaxbContexts();
+        }
+
         // Native libs
         //loadNativeLibraries();
 
@@ -138,30 +158,33 @@ public class Main
             // Check MusicFont is loaded
             MusicFont.checkMusicFont();
 
+            // Record batch progress?
+            if (parameters.manifestPath != null) {
+                try {
+                    manifest = new BatchManifest(
+                            new File(parameters.manifestPath));
+                } catch (IOException ex) {
+                    logger.warn("Cannot use batch manifest", ex);
+                    failure = true;
+                }
+            }
+
             // Launch the required tasks, if any
-            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
-            tasks.addAll(getFilesTasks());
-            tasks.addAll(getScriptsTasks());
+            List<BatchScheduler.Job> jobs = getBatchJobs();
+
+            // One scheduler shared by batch tasks and daemon, so that
+            // cancelled tasks still running keep counting against the
+            // maximum concurrency
+            BatchScheduler scheduler = (!jobs.isEmpty()
+                                        || (parameters.daemonPath != null))
+                    ? createScheduler() : null;
 
-            if (!tasks.isEmpty()) {
+            if (!jobs.isEmpty()) {
                 try {
-                    logger.info("Submitting {} task(s)", tasks.size());
-
-                    List<Future<Void>> futures = OmrExecutors.getCachedLowExecutor()
-                            .invokeAll(
-                            tasks,
-                            constants.processTimeOut.getValue(),
-                            TimeUnit.SECONDS);
-                    logger.info("Checking {} task(s)", tasks.size());
-
-                    // Check for time-out
-                    for (Future<Void> future : futures) {
-                        try {
-                            future.get();
-                        } catch (Exception ex) {
-                            logger.warn("Future exception", ex);
-                            failure = true;
-                        }
+                    logger.info("Submitting {} task(s)", jobs.size());
+
+                    if (!scheduler.run(jobs)) {
+                        failure = true;
                     }
                 } catch (Exception ex) {
                     logger.warn("Error in processing tasks", ex);
@@ -169,9 +192,26 @@ public class Main
                 }
             }
 
+            // Stay resident to process spooled jobs?
+            if (parameters.daemonPath != null) {
+                Daemon daemon = new Daemon(
+                        new File(parameters.daemonPath),
+                        scheduler);
+
+                if (!daemon.run()) {
+                    failure = true;
+                }
+            }
+
+            if (manifest != null) {
+                manifest.close();
+            }
+
             // At this point all tasks have completed (normally or not)
-            // So shutdown immediately the executors
+            // So shutdown immediately the executors and the OCR engines
             OmrExecutors.shutdown(true);
+            TextBuilder.getOcr()
+                    .shutdown();
 
             // Store latest constant values on disk?
             if (constants.persistBatchCliConstants.getValue()) {
@@ -197,7 +237,11 @@ public class Main
      */
     public static String getBenchPath ()
     {
-        return parameters.benchPath;
+        if (parameters == null) {
+            return null;
+        } else {
+            return parameters.benchPath;
+        }
     }
 
     //-----------------//
@@ -243,59 +287,8 @@ public class Main
         List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
 
         // Launch desired step on each score in parallel
-        for (final String name : parameters.inputNames) {
-            final File file = new File(name);
-
-            tasks.add(
-                    new Callable<Void>()
-            {
-                @Override
-                public Void call ()
-                        throws Exception
-                {
-                    if (!parameters.desiredSteps.isEmpty()) {
-                        logger.info(
-                                "Launching {} on {} {}",
-                                parameters.desiredSteps,
-                                name,
-                                (parameters.pages != null)
-                                ? ("pages "
-                                   + parameters.pages)
-                                : "");
-                    }
-
-                    if (file.exists()) {
-                        final Score score = new Score(file);
-
-                        try {
-                            Stepping.processScore(
-                                    parameters.desiredSteps,
-                                    parameters.pages,
-                                    score);
-                        } catch (ProcessingCancellationException pce) {
-                            logger.warn("Cancelled " + score, pce);
-                            score.getBench()
-                                    .recordCancellation();
-                            throw pce;
-                        } catch (Throwable ex) {
-                            logger.warn("Exception occurred", ex);
-                            throw ex;
-                        } finally {
-                            // Close (when in batch mode only)
-                            if (gui == null) {
-                                score.close();
-                            }
-
-                            return null;
-                        }
-                    } else {
-                        String msg = "Could not find file "
-                                     + file.getCanonicalPath();
-                        logger.warn(msg);
-                        throw new RuntimeException(msg);
-                    }
-                }
-            });
+        for (String name : parameters.inputNames) {
+            tasks.add(createFileTask(name));
         }
 
         return tasks;
@@ -314,6 +307,19 @@ public class Main
         return gui;
     }
 
+    //-------------//
+    // getManifest //
+    //-------------//
+    /**
+     * Report the batch manifest, if any
+     *
+     * @return the batch manifest, or null
+     */
+    public static BatchManifest getManifest ()
+    {
+        return manifest;
+    }
+
     //-------------//
     // getMidiPath //
     //-------------//
@@ -367,21 +373,7 @@ public class Main
 
         // Launch desired scripts in parallel
         for (String name : parameters.scriptNames) {
-            final String scriptName = name;
-
-            tasks.add(
-                    new Callable<Void>()
-            {
-                @Override
-                public Void call ()
-                        throws Exception
-                {
-                    ScriptManager.getInstance()
-                            .loadAndRun(new File(scriptName));
-
-                    return null;
-                }
-            });
+            tasks.add(createScriptTask(name));
         }
 
         return tasks;
@@ -423,6 +415,174 @@ public class Main
         }
     }
 
+    //----------------//
+    // createFileTask //
+    //----------------//
+    /**
+     * Prepare the processing of an image file listed on command line
+     *
+     * @param name the image file name
+     * @return the proper callable
+     */
+    private static Callable<Void> createFileTask (final String name)
+    {
+        final File file = new File(name);
+
+        return new Callable<Void>()
+        {
+            @Override
+            public Void call ()
+                    throws Exception
+            {
+                if (!parameters.desiredSteps.isEmpty()) {
+                    logger.info(
+                            "Launching {} on {} {}",
+                            parameters.desiredSteps,
+                            name,
+                            (parameters.pages != null)
+                            ? ("pages "
+                               + parameters.pages)
+                            : "");
+                }
+
+                if (file.exists()) {
+                    final Score score = new Score(file);
+
+                    try {
+                        if (manifest != null) {
+                            manifest.start(score, parameters.pages);
+                        }
+
+                        Stepping.processScore(
+                                parameters.desiredSteps,
+                                parameters.pages,
+                                score);
+
+                        if ((manifest != null)
+                            && !manifest.complete(
+                                score,
+                                parameters.desiredSteps)) {
+                            logger.warn("{} not completely processed", name);
+                        }
+                    } catch (ProcessingCancellationException pce) {
+                        logger.warn("Cancelled " + score, pce);
+                        score.getBench()
+                                .recordCancellation();
+                        throw pce;
+                    } catch (Throwable ex) {
+                        logger.warn("Exception occurred", ex);
+                        throw ex;
+                    } finally {
+                        // Close (when in batch mode only)
+                        if (gui == null) {
+                            score.close();
+                        }
+
+                        return null;
+                    }
+                } else {
+                    String msg = "Could not find file "
+                                 + file.getCanonicalPath();
+                    logger.warn(msg);
+                    throw new RuntimeException(msg);
+                }
+            }
+        };
+    }
+
+    //-----------------//
+    // createScheduler //
+    //-----------------//
+    /**
+     * Create the scheduler for batch tasks, according to the batch
+     * constants.
+     *
+     * @return the scheduler
+     */
+    private static BatchScheduler createScheduler ()
+    {
+        int maxTasks = constants.maxConcurrentTasks.getValue();
+
+        if (maxTasks <= 0) {
+            maxTasks = OmrExecutors.getNumberOfCpus();
+        }
+
+        logger.info("At most {} batch task(s) at a time", maxTasks);
+
+        return new BatchScheduler(
+                OmrExecutors.getCachedLowExecutor(),
+                maxTasks,
+                constants.minAvailableMemory.getValue() * 1024L * 1024L,
+                constants.processTimeOut.getValue());
+    }
+
+    //------------------//
+    // createScriptTask //
+    //------------------//
+    /**
+     * Prepare the processing of a script listed on command line
+     *
+     * @param scriptName the script file name
+     * @return the proper callable
+     */
+    private static Callable<Void> createScriptTask (final String scriptName)
+    {
+        return new Callable<Void>()
+        {
+            @Override
+            public Void call ()
+                    throws Exception
+            {
+                ScriptManager.getInstance()
+                        .loadAndRun(new File(scriptName));
+
+                return null;
+            }
+        };
+    }
+
+    //--------------//
+    // getBatchJobs //
+    //--------------//
+    /**
+     * Prepare the batch processing of image files and scripts listed on
+     * command line, weighted by file size.
+     *
+     * @return the collection of jobs
+     */
+    private static List<BatchScheduler.Job> getBatchJobs ()
+    {
+        List<BatchScheduler.Job> jobs = new ArrayList<>();
+
+        for (String name : parameters.inputNames) {
+            if ((manifest != null)
+                && manifest.isComplete(
+                    new File(name),
+                    parameters.desiredSteps,
+                    parameters.pages)) {
+                logger.info("{} already processed", name);
+
+                continue;
+            }
+
+            jobs.add(
+                    new BatchScheduler.Job(
+                    name,
+                    new File(name).length(),
+                    createFileTask(name)));
+        }
+
+        for (String name : parameters.scriptNames) {
+            jobs.add(
+                    new BatchScheduler.Job(
+                    name,
+                    new File(name).length(),
+                    createScriptTask(name)));
+        }
+
+        return jobs;
+    }
+
     //------------//
     // initialize //
     //------------//
@@ -470,6 +630,25 @@ public class Main
         }
     }
 
+    //---------------------//
+    // preloadJaxbContexts //
+    //---------------------//
+    /**
+     * Launch the background creation of all the JAXB contexts used by
+     * the application, so that the first (un)marshalling does not have to
+     * wait for it.
+     */
+    private static void preloadJaxbContexts ()
+    {
+        ScoreExporter.preload();
+        JaxbContexts.preload(
+                Script.class,
+                GlyphValue.class,
+                SymbolGlyphDescriptor.class,
+                NeuralNetwork.class,
+                LinearEvaluator.class);
+    }
+
     //---------//
     // process //
     //---------//
@@ -554,7 +733,21 @@ public class Main
         private final Constant.Integer processTimeOut = new Constant.Integer(
                 "Seconds",
                 300,
-                "Process time-out, specified in seconds");
+                "Process time-out for each input file, specified in seconds");
+
+        private final Constant.Integer maxConcurrentTasks = new Constant.Integer(
+                "Tasks",
+                0,
+                "Maximum number of batch tasks at a time (0 for number of CPUs)");
+
+        private final Constant.Integer minAvailableMemory = new Constant.Integer(
+                "MB",
+                512,
+                "Minimum available heap to start another batch task");
+
+        private final Constant.Boolean preloadJaxbContexts = new Constant.Boolean(
+                true,
+                "Should we build JAXB contexts in the background at startup?");
 
     }
 }
@@ -23,6 +23,8 @@
 // </editor-fold>
 package org.audiveris.omr.action;
 
+import org.audiveris.omr.util.JaxbContexts;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,9 +37,7 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
@@ -57,9 +57,6 @@ public class Actions
     /** Usual logger utility */
     private static final Logger logger = LoggerFactory.getLogger(Actions.class);
 
-    /** Context for JAXB unmarshalling */
-    private static volatile JAXBContext jaxbContext;
-
     /** The collection of all actions loaded so far */
     private static final Set<ActionDescriptor> allDescriptors = new LinkedHashSet<>();
 
@@ -187,12 +184,7 @@ public class Actions
     public static void loadActionsFrom (InputStream in)
             throws JAXBException
     {
-        if (jaxbContext == null) {
-            jaxbContext = JAXBContext.newInstance(Actions.class);
-        }
-
-        Unmarshaller um = jaxbContext.createUnmarshaller();
-        Actions actions = (Actions) um.unmarshal(in);
+        Actions actions = (Actions) JaxbContexts.unmarshal(Actions.class, in);
 
         for (ActionDescriptor desc : actions.descriptors) {
             logger.debug("Descriptor unmarshalled {}", desc);
@@ -204,6 +204,19 @@ public abstract class Check<C extends Checkable>
         return name;
     }
 
+    //--------------//
+    // getRedResult //
+    //--------------//
+    /**
+     * Report the failure assigned to a checked object when RED
+     *
+     * @return the failure result of this check
+     */
+    public FailureResult getRedResult ()
+    {
+        return redResult;
+    }
+
     //-------------//
     // isCovariant //
     //-------------//
@@ -23,12 +23,18 @@
 // </editor-fold>
 package org.audiveris.omr.check;
 
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class {@code CheckSuite} represents a suite of homogeneous checks,
@@ -37,6 +43,24 @@ import java.util.List;
  * Every check in the suite is assigned a weight, to represent its relative
  * importance in the suite.
  *
+ * <p>For evaluation, the suite is compiled into an {@link Evaluator}, with
+ * plain arrays of checks and weights.
+ * Since the suite gives up at the first RED check, the evaluator can run the
+ * checks in an adaptive order: the order is periodically recomputed from the
+ * measured cost and RED rate of each check, so that the cheap and selective
+ * checks are run first.
+ * The grade does not depend on this order: it is RED as soon as one check is
+ * RED, and otherwise the weights of GREEN checks are summed in declaration
+ * order.
+ * Nor does the failure recorded in a checked object: when a RED check is met,
+ * the checks declared before it and not run yet are run, to record the
+ * failure of the first RED check in declaration order.
+ * However, a suite whose checks depend on other side-effects of previous
+ * checks must stay in declaration order, see {@link #setAdaptive}.</p>
+ *
+ * <p>Objects flagged as VIP, or debug logging, always use declaration order,
+ * to get a complete trace.</p>
+ *
  * @param <C> the subtype of Checkable-compatible objects used in the
  *            homogeneous collection of checks in this suite
  *
@@ -46,9 +70,21 @@ public class CheckSuite<C extends Checkable>
 {
     //~ Static fields/initializers ---------------------------------------------
 
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
     /** Usual logger utility */
     private static final Logger logger = LoggerFactory.getLogger(CheckSuite.class);
 
+    /** Number of passes between two timing samples (power of 2) */
+    private static final int SAMPLING_PERIOD = 16;
+
+    /** Number of passes between two computations of check order */
+    private static final int ORDERING_PERIOD = 1024;
+
+    /** Maximum number of checks for an evaluator (bits of a long) */
+    private static final int MAX_CHECKS = 64;
+
     //~ Instance fields --------------------------------------------------------
     /** Name of this suite */
     protected String name;
@@ -65,6 +101,12 @@ public class CheckSuite<C extends Checkable>
     /** Total checks weight */
     private double totalWeight = 0.0d;
 
+    /** Can checks be evaluated in an adaptive order? */
+    private boolean adaptive = true;
+
+    /** Compiled evaluator, if any */
+    private volatile Evaluator<C> evaluator;
+
     //~ Constructors -----------------------------------------------------------
     //------------//
     // CheckSuite //
@@ -98,6 +140,7 @@ public class CheckSuite<C extends Checkable>
         checks.add(check);
         weights.add(weight);
         totalWeight += weight;
+        evaluator = null;
     }
 
     //--------//
@@ -156,7 +199,9 @@ public class CheckSuite<C extends Checkable>
                     check.getLow(),
                     check.getHigh()));
         }
-        
+
+        sb.append(getStatistics());
+
         logger.info(sb.toString());
     }
 
@@ -186,6 +231,44 @@ public class CheckSuite<C extends Checkable>
         return name;
     }
 
+    //---------------//
+    // getStatistics //
+    //---------------//
+    /**
+     * Report the evaluation statistics of the checks, in declaration
+     * order, meant for the tuning of the suite.
+     * Each line gives the check name, how many times it was run, how many
+     * times it was RED, and its mean cost in nanoseconds (when measured).
+     * These statistics are approximate: counters are updated with no
+     * synchronization, so concurrent uses of the suite may lose updates.
+     *
+     * @return a readable table of statistics
+     */
+    public String getStatistics ()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(
+                "Name                    Runs       Reds    Cost(ns)%n"));
+        sb.append(String.format(
+                "----                    ----       ----    --------%n"));
+
+        Evaluator<C> ev = evaluator;
+
+        for (int i = 0; i < checks.size(); i++) {
+            long runs = (ev != null) ? ev.runs[i] : 0;
+            long reds = (ev != null) ? ev.reds[i] : 0;
+            long samples = (ev != null) ? ev.samples[i] : 0;
+            sb.append(String.format(
+                    "%-19s  %7d    %7d    %8d%n",
+                    checks.get(i).getName(),
+                    runs,
+                    reds,
+                    (samples > 0) ? (ev.nanos[i] / samples) : 0));
+        }
+
+        return sb.toString();
+    }
+
     //--------------//
     // getThreshold //
     //--------------//
@@ -238,52 +321,25 @@ public class CheckSuite<C extends Checkable>
      */
     public double pass (C object)
     {
-        boolean debug = logger.isDebugEnabled() || object.isVip();
-        double grade = 0.0d;
-        CheckResult result = new CheckResult();
-        StringBuilder sb = null;
-
-        if (debug) {
-            sb = new StringBuilder(512);
-            sb.append(name).append(" ").append(object).append(" ");
+        if (logger.isDebugEnabled() || object.isVip()) {
+            return passInOrder(object);
         }
 
-        int index = 0;
-
-        for (Check<C> check : checks) {
-            check.pass(object, result, true);
-
-            if (debug) {
-                sb.append(
-                        String.format("%15s:%5.2f", check.getName(),
-                        result.value));
-            }
-
-            if (result.flag == Check.RED) {
-                // The check totally failed, we give up immediately!
-                if (debug) {
-                    logger.info(sb.toString());
-                }
+        Evaluator<C> ev = evaluator;
 
-                return result.flag;
-            } else {
-                // Aggregate results
-                double weight = weights.get(index);
-                grade += (result.flag * weight);
+        if (ev == null) {
+            if (checks.size() > MAX_CHECKS) {
+                return passInOrder(object);
             }
 
-            index++;
-        }
-
-        // Final grade
-        grade /= totalWeight;
-
-        if (debug) {
-            sb.append(String.format(" => %5.2f ", grade));
-            logger.info(sb.toString());
+            evaluator = ev = new Evaluator<>(
+                    checks,
+                    weights,
+                    totalWeight,
+                    adaptive && constants.adaptiveOrdering.isSet());
         }
 
-        return grade;
+        return ev.pass(object);
     }
 
     //----------------//
@@ -323,6 +379,22 @@ public class CheckSuite<C extends Checkable>
         return grade / totalWeight;
     }
 
+    //-------------//
+    // setAdaptive //
+    //-------------//
+    /**
+     * Allow or forbid the evaluation of checks in an adaptive order.
+     * Order must be kept when a check relies on side-effects of the checks
+     * declared before it.
+     *
+     * @param adaptive false to always evaluate checks in declaration order
+     */
+    public void setAdaptive (boolean adaptive)
+    {
+        this.adaptive = adaptive;
+        evaluator = null;
+    }
+
     //---------//
     // setName //
     //---------//
@@ -360,4 +432,304 @@ public class CheckSuite<C extends Checkable>
     protected void dumpSpecific (StringBuilder sb)
     {
     }
+
+    //-------------//
+    // passInOrder //
+    //-------------//
+    /**
+     * Pass the checks in declaration order, with a trace if needed.
+     *
+     * @param object the object to be checked
+     * @return the computed grade.
+     */
+    private double passInOrder (C object)
+    {
+        boolean debug = logger.isDebugEnabled() || object.isVip();
+        double grade = 0.0d;
+        CheckResult result = new CheckResult();
+        StringBuilder sb = null;
+
+        if (debug) {
+            sb = new StringBuilder(512);
+            sb.append(name).append(" ").append(object).append(" ");
+        }
+
+        int index = 0;
+
+        for (Check<C> check : checks) {
+            check.pass(object, result, true);
+
+            if (debug) {
+                sb.append(
+                        String.format("%15s:%5.2f", check.getName(),
+                        result.value));
+            }
+
+            if (result.flag == Check.RED) {
+                // The check totally failed, we give up immediately!
+                if (debug) {
+                    logger.info(sb.toString());
+                }
+
+                return result.flag;
+            } else {
+                // Aggregate results
+                double weight = weights.get(index);
+                grade += (result.flag * weight);
+            }
+
+            index++;
+        }
+
+        // Final grade
+        grade /= totalWeight;
+
+        if (debug) {
+            sb.append(String.format(" => %5.2f ", grade));
+            logger.info(sb.toString());
+        }
+
+        return grade;
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Boolean adaptiveOrdering = new Constant.Boolean(
+                true,
+                "Should checks be run cheapest and most selective first?");
+
+    }
+
+    //-----------//
+    // Evaluator //
+    //-----------//
+    /**
+     * Compiled form of a suite, with its evaluation statistics.
+     *
+     * <p>Per-check statistics are plain counters, deliberately updated with
+     * no synchronization: atomic updates would cost more than most checks in
+     * a parallel pass, while these counters are only hints for check ordering
+     * and tuning. We thus accept approximate statistics, with updates lost
+     * (or even torn, on a 32-bit JVM) under concurrent passes; this may only
+     * result in a less efficient order, never in a different grade or
+     * failure. The pass counter, which drives timing samples and reordering,
+     * is atomic, so that a single pass reorders at each period. The current
+     * order is published as a whole array, so it is always a complete
+     * permutation.</p>
+     *
+     * @param <C> the subtype of checked objects
+     */
+    private static class Evaluator<C extends Checkable>
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** Checks, in declaration order */
+        final Check<C>[] checks;
+
+        /** Weights, in declaration order */
+        final double[] weights;
+
+        /** Total checks weight */
+        final double totalWeight;
+
+        /** Is order adaptive? */
+        final boolean adaptive;
+
+        /** Per check, number of runs */
+        final long[] runs;
+
+        /** Per check, number of RED results */
+        final long[] reds;
+
+        /** Per check, number of timed runs */
+        final long[] samples;
+
+        /** Per check, cumulated time of timed runs */
+        final long[] nanos;
+
+        /** Current evaluation order, as indices in declaration order */
+        volatile int[] order;
+
+        /** Number of passes so far */
+        final AtomicInteger passes = new AtomicInteger(0);
+
+        //~ Constructors -------------------------------------------------------
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Evaluator (List<Check<C>> checks,
+                   List<Double> weights,
+                   double totalWeight,
+                   boolean adaptive)
+        {
+            final int n = checks.size();
+            this.checks = checks.toArray(new Check[n]);
+            this.weights = new double[n];
+
+            for (int i = 0; i < n; i++) {
+                this.weights[i] = weights.get(i);
+            }
+
+            this.totalWeight = totalWeight;
+            this.adaptive = adaptive;
+
+            runs = new long[n];
+            reds = new long[n];
+            samples = new long[n];
+            nanos = new long[n];
+
+            order = new int[n];
+
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+        }
+
+        //~ Methods ------------------------------------------------------------
+        //------//
+        // pass //
+        //------//
+        /**
+         * Pass the checks in current order, stopping at the first RED.
+         *
+         * @param object the object to be checked
+         * @return the computed grade, RED or the same grade as in declaration
+         *         order
+         */
+        double pass (C object)
+        {
+            final int count = passes.incrementAndGet();
+            final boolean timed = adaptive
+                                  && ((count & (SAMPLING_PERIOD - 1)) == 0);
+            final CheckResult result = new CheckResult();
+            long ran = 0; // Bit i set when check i has been run
+            long greens = 0; // Bit i set for a GREEN result of check i
+
+            for (int i : order) {
+                final long start = timed ? System.nanoTime() : 0;
+                checks[i].pass(object, result, false);
+
+                if (timed) {
+                    nanos[i] += (System.nanoTime() - start);
+                    samples[i]++;
+                }
+
+                runs[i]++;
+                ran |= (1L << i);
+
+                if (result.flag == Check.RED) {
+                    reds[i]++;
+
+                    // Record failure as in declaration order
+                    int first = firstRed(object, i, ran, result);
+                    object.setResult(checks[first].getRedResult());
+                    reorderIfNeeded(count);
+
+                    return Check.RED;
+                }
+
+                if (result.flag == Check.GREEN) {
+                    greens |= (1L << i);
+                }
+            }
+
+            reorderIfNeeded(count);
+
+            // Sum in declaration order, to get the very same grade
+            double grade = 0.0d;
+
+            for (int i = 0; i < weights.length; i++) {
+                if ((greens & (1L << i)) != 0) {
+                    grade += weights[i];
+                }
+            }
+
+            return grade / totalWeight;
+        }
+
+        //----------//
+        // firstRed //
+        //----------//
+        /**
+         * Determine the first RED check in declaration order, by running
+         * the checks declared before the RED one and not run yet.
+         *
+         * @param object the object being checked
+         * @param red    index of the RED check met
+         * @param ran    bit set of the checks already run
+         * @param result output for check results
+         * @return index of the first RED check in declaration order
+         */
+        private int firstRed (C object,
+                              int red,
+                              long ran,
+                              CheckResult result)
+        {
+            for (int i = 0; i < red; i++) {
+                if ((ran & (1L << i)) == 0) {
+                    checks[i].pass(object, result, false);
+                    runs[i]++;
+
+                    if (result.flag == Check.RED) {
+                        reds[i]++;
+
+                        return i;
+                    }
+                }
+            }
+
+            return red;
+        }
+
+        //-----------------//
+        // reorderIfNeeded //
+        //-----------------//
+        /**
+         * Periodically sort the checks by increasing ratio of mean cost
+         * over RED rate, which minimizes the expected cost of a pass.
+         */
+        private void reorderIfNeeded (int count)
+        {
+            if (!adaptive || ((count % ORDERING_PERIOD) != 0)) {
+                return;
+            }
+
+            final int n = checks.length;
+            final double[] keys = new double[n];
+            Integer[] indices = new Integer[n];
+
+            for (int i = 0; i < n; i++) {
+                double cost = (samples[i] > 0)
+                              ? ((double) nanos[i] / samples[i]) : 0;
+                double redRate = (reds[i] + 1.0) / (runs[i] + 2.0);
+                keys[i] = cost / redRate;
+                indices[i] = i;
+            }
+
+            Arrays.sort(
+                    indices,
+                    new Comparator<Integer>()
+            {
+                @Override
+                public int compare (Integer i1,
+                                    Integer i2)
+                {
+                    return Double.compare(keys[i1], keys[i2]);
+                }
+            });
+
+            int[] newOrder = new int[n];
+
+            for (int i = 0; i < n; i++) {
+                newOrder[i] = indices[i];
+            }
+
+            order = newOrder;
+        }
+    }
 }
@@ -30,6 +30,7 @@ import org.audiveris.omr.util.DoubleValue;
 
 import net.jcip.annotations.ThreadSafe;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -60,10 +61,16 @@ public abstract class Constant
     /** Usual logger utility */
     private static final Logger logger = LoggerFactory.getLogger(Constant.class);
 
+    /** Generator of constant indices */
+    private static final AtomicInteger indices = new AtomicInteger(0);
+
     //~ Instance fields --------------------------------------------------------
     //
     // Data assigned at construction time
     //-----------------------------------
+    /** Index of the constant, to retrieve its value in a snapshot. */
+    private final int index = indices.getAndIncrement();
+
     /** Unit (if relevant) used by the quantity measured. */
     private final java.lang.String quantityUnit;
 
@@ -413,17 +420,48 @@ public abstract class Constant
             if (old == null) {
                 if (tuple.compareAndSet(null, temp)) {
                     initialString = str;
+                    ConstantManager.getInstance().valueChanged();
 
                     return;
                 }
             } else {
                 tuple.set(temp);
+                ConstantManager.getInstance().valueChanged();
 
                 return;
             }
         }
     }
 
+    //----------//
+    // getIndex //
+    //----------//
+    /**
+     * Report the index of this constant, unique in the application.
+     *
+     * @return the constant index
+     */
+    int getIndex ()
+    {
+        return index;
+    }
+
+    //------------------//
+    // getSnapshotValue //
+    //------------------//
+    /**
+     * Report the current value, if any, with no attempt to initialize
+     * the constant.
+     *
+     * @return the current value, or null if not yet assigned
+     */
+    Object getSnapshotValue ()
+    {
+        Tuple current = tuple.get();
+
+        return (current != null) ? current.cachedValue : null;
+    }
+
     //----------------//
     // getValueOrigin //
     //----------------//
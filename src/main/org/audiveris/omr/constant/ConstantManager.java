@@ -44,6 +44,7 @@ import java.util.Properties;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class {@code ConstantManager} manages the persistency of the whole
@@ -159,6 +160,12 @@ public class ConstantManager
     private final UserHolder userHolder = new UserHolder(
             new File(WellKnowns.CONFIG_FOLDER, USER_FILE_NAME));
 
+    /** Version of constant values, incremented on every value change */
+    private final AtomicInteger version = new AtomicInteger(0);
+
+    /** Latest snapshot of constant values, if any */
+    private volatile ConstantSnapshot snapshot;
+
     //~ Constructors -----------------------------------------------------------
     //-----------------//
     // ConstantManager //
@@ -197,6 +204,31 @@ public class ConstantManager
         return INSTANCE;
     }
 
+    //-------------//
+    // getSnapshot //
+    //-------------//
+    /**
+     * Report a snapshot of the current values of all registered
+     * constants.
+     * The same snapshot is returned as long as no constant value changes.
+     *
+     * @return the current snapshot
+     */
+    public ConstantSnapshot getSnapshot ()
+    {
+        ConstantSnapshot current = snapshot;
+        final int currentVersion = version.get();
+
+        if ((current == null) || (current.getVersion() != currentVersion)) {
+            // Version is read before values, so that a value changed
+            // meanwhile will trigger another snapshot
+            current = new ConstantSnapshot(currentVersion, constants.values());
+            snapshot = current;
+        }
+
+        return current;
+    }
+
     //-------------//
     // addConstant //
     //-------------//
@@ -292,6 +324,18 @@ public class ConstantManager
         return userHolder.getProperty(qName);
     }
 
+    //--------------//
+    // valueChanged //
+    //--------------//
+    /**
+     * Notify that a constant value has changed, which outdates the
+     * current snapshot.
+     */
+    void valueChanged ()
+    {
+        version.incrementAndGet();
+    }
+
     //~ Inner Classes ----------------------------------------------------------
     //----------------//
     // AbstractHolder //
@@ -0,0 +1,185 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                      C o n s t a n t S n a p s h o t                       //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.constant;
+
+import org.audiveris.omr.util.DoubleValue;
+
+import net.jcip.annotations.Immutable;
+
+import java.util.Collection;
+
+/**
+ * Class {@code ConstantSnapshot} is an immutable copy of the values of
+ * all registered constants, at a given version of the whole set of constants.
+ *
+ * <p>It is published by {@link ConstantManager#getSnapshot}, a new snapshot
+ * being built only when some constant value has changed since the previous
+ * one. A processing step captures a snapshot when it starts, so that all the
+ * parameters derived within this step, even by parallel tasks, are based on
+ * the same constant values, whatever the changes made meanwhile.</p>
+ *
+ * <p>Values are stored by constant index, and numeric values (double, int,
+ * boolean) are stored as primitives, so that a read is just an array access,
+ * with no volatile field, no unboxing and no cast.
+ * A constant not yet registered when the snapshot was built is read from its
+ * current value.</p>
+ *
+ * @author Hervé Bitteur
+ */
+@Immutable
+public class ConstantSnapshot
+{
+    //~ Instance fields --------------------------------------------------------
+
+    /** Version of constant values */
+    private final int version;
+
+    /** Is the constant captured, per constant index */
+    private final boolean[] captured;
+
+    /** Numeric values, per constant index */
+    private final double[] numbers;
+
+    //~ Constructors -----------------------------------------------------------
+    //------------------//
+    // ConstantSnapshot //
+    //------------------//
+    /**
+     * Capture the current values of the provided constants.
+     *
+     * @param version   the version of constant values
+     * @param constants the registered constants
+     */
+    ConstantSnapshot (int version,
+                      Collection<Constant> constants)
+    {
+        this.version = version;
+
+        int size = 0;
+
+        for (Constant constant : constants) {
+            size = Math.max(size, constant.getIndex() + 1);
+        }
+
+        captured = new boolean[size];
+        numbers = new double[size];
+
+        for (Constant constant : constants) {
+            final int index = constant.getIndex();
+
+            if (index >= size) {
+                continue; // Registered meanwhile
+            }
+
+            final Object value = constant.getSnapshotValue();
+
+            if (value instanceof DoubleValue) {
+                numbers[index] = ((DoubleValue) value).doubleValue();
+            } else if (value instanceof java.lang.Integer) {
+                numbers[index] = (java.lang.Integer) value;
+            } else if (value instanceof java.lang.Boolean) {
+                numbers[index] = ((java.lang.Boolean) value) ? 1 : 0;
+            } else {
+                continue; // Not a numeric value
+            }
+
+            captured[index] = true;
+        }
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //------------//
+    // getVersion //
+    //------------//
+    /**
+     * Report the version of constant values in this snapshot.
+     *
+     * @return the version
+     */
+    public int getVersion ()
+    {
+        return version;
+    }
+
+    //----------//
+    // getValue //
+    //----------//
+    /**
+     * Report the value of a double constant, such as a ratio or a
+     * scale fraction.
+     *
+     * @param constant the constant
+     * @return the captured value
+     */
+    public double getValue (Constant.Double constant)
+    {
+        final int index = constant.getIndex();
+
+        if ((index < captured.length) && captured[index]) {
+            return numbers[index];
+        }
+
+        return constant.getValue();
+    }
+
+    //----------//
+    // getValue //
+    //----------//
+    /**
+     * Report the value of an integer constant.
+     *
+     * @param constant the constant
+     * @return the captured value
+     */
+    public int getValue (Constant.Integer constant)
+    {
+        final int index = constant.getIndex();
+
+        if ((index < captured.length) && captured[index]) {
+            return (int) numbers[index];
+        }
+
+        return constant.getValue();
+    }
+
+    //-------//
+    // isSet //
+    //-------//
+    /**
+     * Report the value of a boolean constant.
+     *
+     * @param constant the constant
+     * @return the captured value
+     */
+    public boolean isSet (Constant.Boolean constant)
+    {
+        final int index = constant.getIndex();
+
+        if ((index < captured.length) && captured[index]) {
+            return numbers[index] != 0;
+        }
+
+        return constant.isSet();
+    }
+}
@@ -36,7 +36,7 @@ import org.audiveris.omr.lag.Roi;
 import org.audiveris.omr.lag.Section;
 import org.audiveris.omr.lag.Sections;
 
-import org.audiveris.omr.math.Histogram;
+import org.audiveris.omr.math.IntHistogram;
 
 import org.audiveris.omr.run.Orientation;
 
@@ -54,6 +54,7 @@ import org.audiveris.omr.selection.UserEvent;
 import org.audiveris.omr.sheet.Sheet;
 import org.audiveris.omr.sheet.SystemInfo;
 
+import org.audiveris.omr.util.IdStore;
 import org.audiveris.omr.util.VipUtil;
 
 import org.bushe.swing.event.EventSubscriber;
@@ -120,9 +121,10 @@ public class BasicNest
 
     /**
      * Collection of all glyphs ever inserted in this Nest, indexed by
-     * glyph id. No non-virtual glyph is ever removed from this map.
+     * glyph id. No non-virtual glyph is ever removed from this store, which
+     * also allocates the ids that uniquely identify glyphs.
      */
-    private final ConcurrentHashMap<Integer, Glyph> allGlyphs = new ConcurrentHashMap<>();
+    private final IdStore<Glyph> allGlyphs = new IdStore<>();
 
     /**
      * Current map of section -> glyphs.
@@ -144,12 +146,12 @@ public class BasicNest
     /** Collection of virtual glyphs. (with no underlying sections) */
     private Set<Glyph> virtualGlyphs = new HashSet<>();
 
-    /** Global id to uniquely identify a glyph. */
-    private final AtomicInteger globalGlyphId = new AtomicInteger(0);
-
     /** Location service (read & write). */
     private SelectionService locationService;
 
+    /** Count of section or shape assignments. */
+    private final AtomicInteger modCount = new AtomicInteger(0);
+
     /** Hosted glyph service. (Glyph, GlyphId and GlyphSet) */
     protected final SelectionService glyphService;
 
@@ -243,7 +245,7 @@ public class BasicNest
     @Override
     public Collection<Glyph> getAllGlyphs ()
     {
-        return Collections.unmodifiableCollection(allGlyphs.values());
+        return allGlyphs.values(); // Read-only view
     }
 
     //----------//
@@ -268,20 +270,28 @@ public class BasicNest
     // getHistogram //
     //--------------//
     @Override
-    public Histogram<Integer> getHistogram (Orientation orientation,
-                                            Collection<Glyph> glyphs)
+    public IntHistogram getHistogram (Orientation orientation,
+                                      Collection<Glyph> glyphs)
     {
-        Histogram<Integer> histo = new Histogram<>();
-
-        if (!glyphs.isEmpty()) {
-            Rectangle box = Glyphs.getBounds(glyphs);
-            Roi roi = new BasicRoi(box);
-            histo = roi.getSectionHistogram(
-                    orientation,
-                    Glyphs.sectionsOf(glyphs));
+        if (glyphs.isEmpty()) {
+            return new IntHistogram(0, 0);
         }
 
-        return histo;
+        Rectangle box = Glyphs.getBounds(glyphs);
+        Roi roi = new BasicRoi(box);
+
+        return roi.getSectionHistogram(
+                orientation,
+                Glyphs.sectionsOf(glyphs));
+    }
+
+    //-------------//
+    // getModCount //
+    //-------------//
+    @Override
+    public int getModCount ()
+    {
+        return modCount.get();
     }
 
     //---------//
@@ -407,6 +417,7 @@ public class BasicNest
 
         // Invalidate the collection of active glyphs
         activeGlyphs = null;
+        modCount.incrementAndGet();
     }
 
     //---------//
@@ -549,6 +560,15 @@ public class BasicNest
         }
     }
 
+    //--------------//
+    // shapeChanged //
+    //--------------//
+    @Override
+    public void shapeChanged (Glyph glyph)
+    {
+        modCount.incrementAndGet();
+    }
+
     //----------//
     // toString //
     //----------//
@@ -618,7 +638,7 @@ public class BasicNest
     //------------//
     private int generateId ()
     {
-        return globalGlyphId.incrementAndGet();
+        return allGlyphs.nextId();
     }
 
     //-------------//
@@ -39,6 +39,7 @@ import org.audiveris.omr.ui.symbol.Symbols;
 
 import org.audiveris.omr.util.BlackList;
 import org.audiveris.omr.util.FileUtil;
+import org.audiveris.omr.util.JaxbContexts;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,10 +59,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
 
 /**
  * Class {@code GlyphRepository} handles the store of known glyphs,
@@ -131,9 +129,6 @@ public class GlyphRepository
         }
     };
 
-    /** Un/marshalling context for use with JAXB */
-    private static volatile JAXBContext jaxbContext;
-
     /** For comparing shape names */
     public static final Comparator<String> shapeComparator = new Comparator<String>()
     {
@@ -749,20 +744,6 @@ public class GlyphRepository
         }
     }
 
-    //----------------//
-    // getJaxbContext //
-    //----------------//
-    private JAXBContext getJaxbContext ()
-            throws JAXBException
-    {
-        // Lazy creation
-        if (jaxbContext == null) {
-            jaxbContext = JAXBContext.newInstance(GlyphValue.class);
-        }
-
-        return jaxbContext;
-    }
-
     //--------------------//
     // getRecordableShape //
     //--------------------//
@@ -843,9 +824,7 @@ public class GlyphRepository
                               OutputStream os)
             throws JAXBException, Exception
     {
-        Marshaller m = getJaxbContext().createMarshaller();
-        m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-        m.marshal(new GlyphValue(glyph), os);
+        JaxbContexts.marshal(GlyphValue.class, new GlyphValue(glyph), os, true);
     }
 
     //---------------//
@@ -854,8 +833,9 @@ public class GlyphRepository
     private Glyph jaxbUnmarshal (InputStream is)
             throws JAXBException
     {
-        Unmarshaller um = getJaxbContext().createUnmarshaller();
-        GlyphValue value = (GlyphValue) um.unmarshal(is);
+        GlyphValue value = (GlyphValue) JaxbContexts.unmarshal(
+                GlyphValue.class,
+                is);
 
         return new BasicGlyph(value);
     }
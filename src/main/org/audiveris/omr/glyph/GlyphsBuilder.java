@@ -49,6 +49,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Class {@code GlyphsBuilder} is, at a system level, in charge of
@@ -155,6 +156,10 @@ public class GlyphsBuilder
      * Browse through the provided sections not assigned to known
      * glyphs, and build new glyphs out of connected sections.
      *
+     * <p>Sections visited are recorded locally rather than flagged, so that
+     * retrievals on different systems can run concurrently, even if they
+     * reach the same (opposite) sections.</p>
+     *
      * @param sections the sections to browse
      * @param nest     the nest to host glyphs
      * @param scale    the sheet scale
@@ -164,23 +169,15 @@ public class GlyphsBuilder
                                               Scale scale)
     {
         List<Glyph> created = new ArrayList<>();
-
-        // Reset section processed flag
-        for (Section section : sections) {
-            if (!section.isKnown()) {
-                section.setProcessed(false);
-            } else {
-                section.setProcessed(true);
-            }
-        }
+        Set<Section> visited = new HashSet<>();
 
         // Browse the various unrecognized sections
         for (Section section : sections) {
-            // Not already visited ?
-            if (!section.isProcessed()) {
+            // Not known and not already visited ?
+            if (!section.isKnown() && !visited.contains(section)) {
                 // Let's build a new glyph around this starting section
                 Glyph glyph = new BasicGlyph(scale.getInterline());
-                considerConnection(glyph, section);
+                considerConnection(glyph, section, visited);
 
                 // Insert this newly built glyph into nest (no system invloved)
                 glyph = nest.addGlyph(glyph);
@@ -460,13 +457,14 @@ public class GlyphsBuilder
      *
      * @param glyph   the provided glyph
      * @param section the section to consider
+     * @param visited the sections already visited
      */
     private static void considerConnection (Glyph glyph,
-                                            Section section)
+                                            Section section,
+                                            Set<Section> visited)
     {
         // Check whether this section is suitable to expand the glyph
-        if (!section.isProcessed()) {
-            section.setProcessed(true);
+        if (!section.isKnown() && visited.add(section)) {
 
             glyph.addSection(section, Glyph.Linking.NO_LINK_BACK);
 
@@ -474,17 +472,17 @@ public class GlyphsBuilder
 
             // Incoming ones
             for (Section source : section.getSources()) {
-                considerConnection(glyph, source);
+                considerConnection(glyph, source, visited);
             }
 
             // Outgoing ones
             for (Section target : section.getTargets()) {
-                considerConnection(glyph, target);
+                considerConnection(glyph, target, visited);
             }
 
             // Sections from other orientation
             for (Section other : section.getOppositeSections()) {
-                considerConnection(glyph, other);
+                considerConnection(glyph, other, visited);
             }
         }
     }
@@ -27,7 +27,7 @@ import org.audiveris.omr.glyph.facets.Glyph;
 
 import org.audiveris.omr.lag.Section;
 
-import org.audiveris.omr.math.Histogram;
+import org.audiveris.omr.math.IntHistogram;
 
 import org.audiveris.omr.run.Orientation;
 
@@ -136,8 +136,17 @@ public interface Nest
      * @param glyphs      the provided collection of glyphs
      * @return the histogram of projected pixels
      */
-    Histogram<Integer> getHistogram (Orientation orientation,
-                                     Collection<Glyph> glyphs);
+    IntHistogram getHistogram (Orientation orientation,
+                               Collection<Glyph> glyphs);
+
+    /**
+     * Report the count of modifications that impact the display of
+     * sections, that is the assignment of a section to a glyph or the
+     * assignment of a shape to a glyph.
+     *
+     * @return the current modification count
+     */
+    int getModCount ();
 
     /**
      * Report a name for this nest instance
@@ -244,4 +253,11 @@ public interface Nest
      * @param locationService the location service
      */
     void setServices (SelectionService locationService);
+
+    /**
+     * Notify that the shape of the provided glyph has changed.
+     *
+     * @param glyph the glyph just assigned a new shape
+     */
+    void shapeChanged (Glyph glyph);
 }
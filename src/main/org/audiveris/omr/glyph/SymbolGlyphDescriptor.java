@@ -23,6 +23,7 @@
 // </editor-fold>
 package org.audiveris.omr.glyph;
 
+import org.audiveris.omr.util.JaxbContexts;
 import org.audiveris.omr.util.PointFacade;
 
 import org.slf4j.Logger;
@@ -31,9 +32,7 @@ import org.slf4j.LoggerFactory;
 import java.awt.Point;
 import java.io.InputStream;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
@@ -68,9 +67,6 @@ public class SymbolGlyphDescriptor
     private static final Logger logger = LoggerFactory.getLogger(
             SymbolGlyphDescriptor.class);
 
-    /** Un/marshalling context for use with JAXB */
-    private static JAXBContext jaxbContext;
-
     //~ Instance fields --------------------------------------------------------
     /** Image related interline value */
     @XmlAttribute
@@ -235,30 +231,13 @@ public class SymbolGlyphDescriptor
         return sb.toString();
     }
 
-    //----------------//
-    // getJaxbContext //
-    //----------------//
-    private static JAXBContext getJaxbContext ()
-            throws JAXBException
-    {
-        // Lazy creation
-        if (jaxbContext == null) {
-            jaxbContext = JAXBContext.newInstance(SymbolGlyphDescriptor.class);
-        }
-
-        return jaxbContext;
-    }
-
     //---------------//
     // jaxbUnmarshal //
     //---------------//
     private static Object jaxbUnmarshal (InputStream is)
             throws JAXBException
     {
-        Unmarshaller um = getJaxbContext()
-                .createUnmarshaller();
-
-        return um.unmarshal(is);
+        return JaxbContexts.unmarshal(SymbolGlyphDescriptor.class, is);
     }
 
     //----------------//
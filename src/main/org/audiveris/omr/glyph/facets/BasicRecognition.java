@@ -306,6 +306,12 @@ class BasicRecognition
         // Remember the new shape
         evaluation = new Evaluation(shape, grade);
 
+        // Notify the nest, since section colors depend on glyph shape
+        if ((oldShape != shape) && (glyph.getNest() != null)) {
+            glyph.getNest()
+                    .shapeChanged(glyph);
+        }
+
         if (glyph.isVip()) {
             logger.info("{} assigned {}", glyph.idString(), evaluation);
         }
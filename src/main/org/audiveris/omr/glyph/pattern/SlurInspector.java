@@ -41,8 +41,10 @@ import org.audiveris.omr.lag.Sections;
 
 import org.audiveris.omr.math.Barycenter;
 import org.audiveris.omr.math.Circle;
+import org.audiveris.omr.math.CircleFitter;
 import org.audiveris.omr.math.PointsCollector;
 import static org.audiveris.omr.run.Orientation.*;
+import org.audiveris.omr.run.Run;
 
 import org.audiveris.omr.sheet.Scale;
 import org.audiveris.omr.sheet.SystemInfo;
@@ -645,6 +647,40 @@ public class SlurInspector
         return bestSlur;
     }
 
+    //----------//
+    // cumulate //
+    //----------//
+    /**
+     * Include (or exclude) the pixels of a section into (or from) the
+     * provided circle fitter.
+     *
+     * @param fitter  the fitter to update
+     * @param section the section whose pixels are processed
+     * @param include true for inclusion, false for exclusion
+     */
+    private void cumulate (CircleFitter fitter,
+                           Section section,
+                           boolean include)
+    {
+        final boolean vertical = section.isVertical();
+        int pos = section.getFirstPos();
+
+        for (Run run : section.getRuns()) {
+            for (int coord = run.getStart(); coord <= run.getStop(); coord++) {
+                final int x = vertical ? pos : coord;
+                final int y = vertical ? coord : pos;
+
+                if (include) {
+                    fitter.includePoint(x, y);
+                } else {
+                    fitter.excludePoint(x, y);
+                }
+            }
+
+            pos++;
+        }
+    }
+
     //--------------------//
     // extendSlurSections //
     //--------------------//
@@ -654,6 +690,9 @@ public class SlurInspector
      * Starting from the slur seed, we incrementally aggregate compatible
      * sections, sorted according to their distance to slur ending point.
      * The process is stopped at the first failed attempt.
+     * <p>Each candidate is first checked against an incremental fit of the
+     * current slur sections, so that a full circle computation on all slur
+     * points is needed only when this fit does not accept the candidate.
      *
      * @param root the slur glyph to extend
      * @return the extended slur glyph if any, or null. A non-null glyph
@@ -688,6 +727,13 @@ public class SlurInspector
         // Initial conditions
         adapter.setSide(side);
 
+        // Incremental fit on current slur sections
+        final CircleFitter fitter = new CircleFitter();
+
+        for (Section section : root.getMembers()) {
+            cumulate(fitter, section, true);
+        }
+
         // Loop on extensions
         boolean growing = true;
 
@@ -736,10 +782,25 @@ public class SlurInspector
                     config.addAll(root.getMembers());
 
                     boolean sectionOk = false;
-                    double distance = computeCircle(config).getDistance();
+                    cumulate(fitter, section, true);
+
+                    double maxDistance = adapter.extendedDistance();
+                    double distance = Double.MAX_VALUE;
+
+                    try {
+                        distance = fitter.getDistance();
+                    } catch (IllegalStateException ex) {
+                        logger.debug("No circle fit {}", ex.getMessage());
+                    }
+
+                    if (!(distance <= maxDistance)) {
+                        // Fit not precise enough, use the actual circle
+                        distance = computeCircle(config).getDistance();
+                    }
+
                     logger.debug("dist={}", distance);
 
-                    if (distance <= adapter.extendedDistance()) {
+                    if (distance <= maxDistance) {
                         Glyph compound = system.buildTransientGlyph(config);
 
                         if (adapter.isCompoundValid(compound)) {
@@ -768,6 +829,8 @@ public class SlurInspector
                     }
 
                     if (!sectionOk) {
+                        cumulate(fitter, section, false);
+
                         if (root.isVip() || logger.isDebugEnabled()) {
                             logger.info("Slur #{} excluding section#{}",
                                     root.getId(), section);
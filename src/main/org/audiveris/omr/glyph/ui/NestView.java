@@ -45,6 +45,7 @@ import org.audiveris.omr.text.TextWord;
 import org.audiveris.omr.ui.Colors;
 import org.audiveris.omr.ui.util.UIUtil;
 import org.audiveris.omr.ui.view.RubberPanel;
+import org.audiveris.omr.ui.view.TileCache;
 
 import org.audiveris.omr.util.WeakPropertyChangeListener;
 
@@ -63,6 +64,7 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -97,6 +99,9 @@ public class NestView
     /** Additional items rendering */
     protected final List<ItemRenderer> itemRenderers = new ArrayList<>();
 
+    /** Cached tiles of rendered sections, if any */
+    private final TileCache sectionTiles;
+
     //~ Constructors -----------------------------------------------------------
     //----------//
     // NestView //
@@ -116,6 +121,12 @@ public class NestView
         this.controller = controller;
         this.lags = lags;
 
+        if (constants.useSectionTiles.isSet()) {
+            sectionTiles = new TileCache(this);
+        } else {
+            sectionTiles = null;
+        }
+
         setName(nest.getName() + "-View");
 
         setBackground(Color.white);
@@ -157,7 +168,7 @@ public class NestView
     public void propertyChange (PropertyChangeEvent evt)
     {
         // Whatever the property change, we simply repaint the view
-        repaint();
+        refresh();
     }
 
     //---------//
@@ -166,6 +177,10 @@ public class NestView
     @Override
     public void refresh ()
     {
+        if (sectionTiles != null) {
+            sectionTiles.invalidate();
+        }
+
         repaint();
     }
 
@@ -181,26 +196,57 @@ public class NestView
     @Override
     public void render (Graphics2D g)
     {
-        // Should we draw the section borders?
-        final boolean drawBorders = ViewParameters.getInstance().isSectionMode();
+        // Render all sections, using the colors they have been assigned
+        renderSections(g);
 
         // Stroke for borders
         final Stroke oldStroke = UIUtil.setAbsoluteStroke(g, 1f);
 
+        // Paint additional items, such as recognized items, etc...
+        renderItems(g);
+
+        // Restore stroke
+        g.setStroke(oldStroke);
+    }
+
+    //-----------------//
+    // getSectionStamp //
+    //-----------------//
+    /**
+     * Report a value which changes whenever the collection of displayed
+     * sections or their colors change, to detect that cached section tiles
+     * are outdated.
+     * Section colors depend on glyph assignment and glyph shape, which
+     * are reflected by the nest modification count.
+     *
+     * @return the current modification counts of the nest and the lags
+     */
+    protected Object getSectionStamp ()
+    {
+        List<Integer> stamp = new ArrayList<>();
+        stamp.add(nest.getModCount());
+
         if (lags != null) {
             for (Lag lag : lags) {
-                // Render all sections, using the colors they have been assigned
-                for (Section section : lag.getVertices()) {
-                    section.render(g, drawBorders);
-                }
+                stamp.add(lag.getModCount());
             }
         }
 
-        // Paint additional items, such as recognized items, etc...
-        renderItems(g);
+        return stamp;
+    }
 
-        // Restore stroke
-        g.setStroke(oldStroke);
+    //--------------------//
+    // isSectionDisplayed //
+    //--------------------//
+    /**
+     * Report whether the provided section is to be rendered.
+     *
+     * @param section the section at hand
+     * @return true by default
+     */
+    protected boolean isSectionDisplayed (Section section)
+    {
+        return true;
     }
 
     //-----------------//
@@ -223,6 +269,34 @@ public class NestView
         }
     }
 
+    //----------------//
+    // renderSections //
+    //----------------//
+    /**
+     * Render the displayed sections that intersect the clip, either
+     * directly or via cached tiles.
+     *
+     * @param g the graphics context
+     */
+    protected void renderSections (Graphics2D g)
+    {
+        if (sectionTiles != null) {
+            sectionTiles.render(
+                    g,
+                    getSectionStamp(),
+                    new TileCache.Painter()
+            {
+                @Override
+                public void paint (Graphics2D tg)
+                {
+                    paintSections(tg);
+                }
+            });
+        } else {
+            paintSections(g);
+        }
+    }
+
     //-------------//
     // renderItems //
     //-------------//
@@ -319,6 +393,43 @@ public class NestView
         }
     }
 
+    //---------------//
+    // paintSections //
+    //---------------//
+    private void paintSections (Graphics2D g)
+    {
+        if (lags == null) {
+            return;
+        }
+
+        // Should we draw the section borders?
+        final boolean drawBorders = ViewParameters.getInstance().isSectionMode();
+
+        // Stroke for borders
+        final Stroke oldStroke = UIUtil.setAbsoluteStroke(g, 1f);
+
+        // Look up only the sections within clip, with a margin for borders
+        final Rectangle clip = g.getClipBounds();
+
+        if (clip != null) {
+            clip.grow(1, 1);
+        }
+
+        for (Lag lag : lags) {
+            Collection<Section> sections = (clip != null)
+                    ? lag.lookupIntersectedSections(clip)
+                    : lag.getSections();
+
+            for (Section section : sections) {
+                if (isSectionDisplayed(section)) {
+                    section.render(g, drawBorders);
+                }
+            }
+        }
+
+        g.setStroke(oldStroke);
+    }
+
     //-------------------------//
     // renderGlyphTranslations //
     //-------------------------//
@@ -475,5 +586,9 @@ public class NestView
                 true,
                 "Should we show sentence baseline (vs inter-word gaps)?");
 
+        Constant.Boolean useSectionTiles = new Constant.Boolean(
+                false,
+                "Should we cache the rendering of sections as image tiles?");
+
     }
 }
@@ -67,7 +67,6 @@ import org.audiveris.omr.step.Step;
 import org.audiveris.omr.ui.BoardsPane;
 import org.audiveris.omr.ui.Colors;
 import org.audiveris.omr.ui.PixelCount;
-import org.audiveris.omr.ui.util.UIUtil;
 import org.audiveris.omr.ui.view.ScrollView;
 
 import org.slf4j.Logger;
@@ -76,7 +75,6 @@ import org.slf4j.LoggerFactory;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.Stroke;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.beans.PropertyChangeEvent;
@@ -160,7 +158,7 @@ public class SymbolsEditor
             @Override
             public void actionPerformed (ActionEvent e)
             {
-                view.repaint();
+                view.refresh();
             }
         },
                 false);
@@ -474,34 +472,23 @@ public class SymbolsEditor
             PaintingParameters painting = PaintingParameters.getInstance();
 
             if (painting.isInputPainting()) {
-                // Should we draw the section borders?
-                final boolean drawBorders = ViewParameters.getInstance()
-                        .isSectionMode();
-
-                // Stroke for borders
-                final Stroke oldStroke = UIUtil.setAbsoluteStroke(g, 1f);
-
-                if (lags != null) {
-                    for (Lag lag : lags) {
-                        // Render all sections, using assigned colors
-                        for (Section section : lag.getVertices()) {
-                            Glyph glyph = section.getGlyph();
-
-                            if (focus.isDisplayed(glyph)) {
-                                section.render(g, drawBorders);
-                            }
-                        }
-                    }
-                }
-
-                // Restore stroke
-                g.setStroke(oldStroke);
+                // Render the sections within clip, using assigned colors
+                renderSections(g);
             }
 
             // Paint additional items, such as recognized items, etc...
             renderItems(g);
         }
 
+        //--------------------//
+        // isSectionDisplayed //
+        //--------------------//
+        @Override
+        protected boolean isSectionDisplayed (Section section)
+        {
+            return focus.isDisplayed(section.getGlyph());
+        }
+
         //---------//
         // publish //
         //---------//
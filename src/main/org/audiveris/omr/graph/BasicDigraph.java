@@ -23,14 +23,14 @@
 // </editor-fold>
 package org.audiveris.omr.graph;
 
+import org.audiveris.omr.util.IdStore;
+
 import net.jcip.annotations.ThreadSafe;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -54,11 +54,14 @@ public class BasicDigraph<D extends Digraph<D, V>, V extends Vertex>
     /** Related Vertex (sub)class, to create vertices of the proper type */
     private final Class<? extends V> vertexClass;
 
-    /** All current Vertices of the graph, handled by a map: Id -> Vertex */
-    private final ConcurrentHashMap<Integer, V> vertices = new ConcurrentHashMap<>();
+    /**
+     * All current Vertices of the graph, indexed by vertex id.
+     * The store also allocates the ids, which uniquely identify vertices.
+     */
+    private final IdStore<V> vertices = new IdStore<>();
 
-    /** Global id to uniquely identify a vertex */
-    private final AtomicInteger globalVertexId = new AtomicInteger(0);
+    /** Count of modifications on the collection of vertices */
+    private final AtomicInteger modCount = new AtomicInteger(0);
 
     //~ Constructors -----------------------------------------------------------
     //--------------//
@@ -93,8 +96,9 @@ public class BasicDigraph<D extends Digraph<D, V>, V extends Vertex>
         }
 
         vertex.setGraph(this); // Unchecked
-        vertex.setId(globalVertexId.incrementAndGet()); // Atomic increment
+        vertex.setId(vertices.nextId()); // Atomic increment
         vertices.put(vertex.getId(), vertex); // Atomic insertion
+        modCount.incrementAndGet();
     }
 
     //--------------//
@@ -145,7 +149,16 @@ public class BasicDigraph<D extends Digraph<D, V>, V extends Vertex>
     @Override
     public int getLastVertexId ()
     {
-        return globalVertexId.get();
+        return vertices.getLastId();
+    }
+
+    //-------------//
+    // getModCount //
+    //-------------//
+    @Override
+    public int getModCount ()
+    {
+        return modCount.get();
     }
 
     //---------//
@@ -181,7 +194,7 @@ public class BasicDigraph<D extends Digraph<D, V>, V extends Vertex>
     @Override
     public Collection<V> getVertices ()
     {
-        return Collections.unmodifiableCollection(vertices.values());
+        return vertices.values(); // Read-only view
     }
 
     //--------------//
@@ -201,6 +214,8 @@ public class BasicDigraph<D extends Digraph<D, V>, V extends Vertex>
             throw new RuntimeException(
                     "Trying to remove an unknown vertex: " + vertex);
         }
+
+        modCount.incrementAndGet();
     }
 
     //---------------//
@@ -210,6 +225,7 @@ public class BasicDigraph<D extends Digraph<D, V>, V extends Vertex>
     public void restoreVertex (V vertex)
     {
         vertices.put(vertex.getId(), vertex); // Atomic insertion
+        modCount.incrementAndGet();
     }
 
     //----------//
@@ -84,6 +84,16 @@ public interface Digraph<D extends Digraph<D, V>, V extends Vertex>
      */
     int getLastVertexId ();
 
+    /**
+     * Report the number of modifications (vertex additions, removals and
+     * restorations) performed so far on this graph.
+     * This allows a client to detect that some data derived from the
+     * collection of vertices is outdated.
+     *
+     * @return the current modification count
+     */
+    int getModCount ();
+
     /**
      * Report the name assigned to this graph instance
      *
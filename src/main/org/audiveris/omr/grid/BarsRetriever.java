@@ -621,7 +621,8 @@ public class BarsRetriever
         FilamentsFactory factory = new FilamentsFactory(sheet.getScale(),
                 sheet.getNest(),
                 VERTICAL,
-                Filament.class);
+                Filament.class,
+                sheet.getContext().getConstants());
 
         // Factory parameters adjustment
         factory.setMaxSectionThickness(constants.maxSectionThickness);
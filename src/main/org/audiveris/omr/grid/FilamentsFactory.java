@@ -27,6 +27,7 @@ import org.audiveris.omr.Main;
 
 import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.constant.ConstantSnapshot;
 
 import org.audiveris.omr.glyph.Glyphs;
 import org.audiveris.omr.glyph.Nest;
@@ -99,6 +100,9 @@ public class FilamentsFactory
 
     private final Object[] scaleArgs;
 
+    /** Constant values for this factory */
+    private final ConstantSnapshot constantValues;
+
     /** Scale-dependent constants for horizontal stuff */
     private final Parameters params;
 
@@ -112,21 +116,24 @@ public class FilamentsFactory
     /**
      * Create a factory of filaments.
      *
-     * @param scale         the related scale
-     * @param nest          the nest to host created filaments
-     * @param orientation   the target orientation
-     * @param filamentClass precise Filament class to be use for creation
+     * @param scale          the related scale
+     * @param nest           the nest to host created filaments
+     * @param orientation    the target orientation
+     * @param filamentClass  precise Filament class to be use for creation
+     * @param constantValues the constant values of current step
      * @throws Exception
      */
     public FilamentsFactory (Scale scale,
                              Nest nest,
                              Orientation orientation,
-                             Class<? extends Glyph> filamentClass)
+                             Class<? extends Glyph> filamentClass,
+                             ConstantSnapshot constantValues)
             throws Exception
     {
         this.scale = scale;
         this.nest = nest;
         this.orientation = orientation;
+        this.constantValues = constantValues;
 
         scaleArgs = new Object[]{scale};
         filamentConstructor = filamentClass.getConstructor(
@@ -762,9 +769,9 @@ public class FilamentsFactory
         double mean = stick.getWeight() / (double) stick.getLength(orientation);
 
         if (mean < 2) {
-            return 2 * constants.maxConsistentRatio.getValue() * mean;
+            return 2 * params.maxConsistentRatio * mean;
         } else {
-            return constants.maxConsistentRatio.getValue() * mean;
+            return params.maxConsistentRatio * mean;
         }
     }
 
@@ -985,6 +992,9 @@ public class FilamentsFactory
         /** Maximum slope for real gaps */
         public double maxGapSlope;
 
+        /** Maximum thickness ratio for consistent merge */
+        public double maxConsistentRatio;
+
         //~ Methods ------------------------------------------------------------
         public void dump ()
         {
@@ -1006,8 +1016,11 @@ public class FilamentsFactory
             setMaxInvolvingLength(constants.maxInvolvingLength);
             setMaxPosGapForSlope(constants.maxPosGapForSlope);
             setMaxOverlapDeltaPos(constants.maxOverlapDeltaPos);
-            setMaxGapSlope(constants.maxGapSlope.getValue());
-            setMinSectionAspect(constants.minSectionAspect.getValue());
+            setMaxGapSlope(constantValues.getValue(constants.maxGapSlope));
+            setMinSectionAspect(
+                    constantValues.getValue(constants.minSectionAspect));
+            maxConsistentRatio = constantValues.getValue(
+                    constants.maxConsistentRatio);
 
             probeWidth = scale.toPixels(BasicAlignment.getProbeWidth());
 
@@ -212,19 +212,13 @@ public class LagWeaver
 
         for (Section section : sheet.getVerticalLag().getSections()) {
             if (!section.isKnown()) {
-                section.setProcessed(false);
                 allSections.add(section);
-            } else {
-                section.setProcessed(true);
             }
         }
 
         for (Section section : sheet.getHorizontalLag().getSections()) {
             if (!section.isKnown()) {
-                section.setProcessed(false);
                 allSections.add(section);
-            } else {
-                section.setProcessed(true);
             }
         }
 
@@ -177,7 +177,8 @@ public class LinesRetriever
                     scale,
                     sheet.getNest(),
                     Orientation.HORIZONTAL,
-                    LineFilament.class);
+                    LineFilament.class,
+                    sheet.getContext().getConstants());
         } catch (Exception ex) {
             logger.warn("Cannot create lines filament factory", ex);
         }
@@ -208,7 +209,7 @@ public class LinesRetriever
         // Build table of long horizontal runs
         RunsTable wholeHoriTable = new RunsTableFactory(
                 HORIZONTAL,
-                shortVertTable.getBuffer(),
+                shortVertTable.getBits(),
                 0).createTable("whole-hori");
 
         // To record the purged horizontal runs
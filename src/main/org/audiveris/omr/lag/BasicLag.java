@@ -102,6 +102,12 @@ public class BasicLag
     /** Scene service */
     private SelectionService glyphService;
 
+    /** Spatial index on sections, if any */
+    private volatile SectionIndex index;
+
+    /** Modification count seen by the last lookup */
+    private volatile int lookupModCount = -1;
+
     //~ Constructors -----------------------------------------------------------
     //----------//
     // BasicLag //
@@ -263,7 +269,13 @@ public class BasicLag
     @Override
     public Set<Section> lookupIntersectedSections (Rectangle rect)
     {
-        return Sections.lookupIntersectedSections(rect, getSections());
+        SectionIndex idx = getIndex();
+
+        if (idx != null) {
+            return idx.lookupIntersectedSections(rect);
+        } else {
+            return Sections.lookupIntersectedSections(rect, getSections());
+        }
     }
 
     //----------------//
@@ -272,7 +284,13 @@ public class BasicLag
     @Override
     public Set<Section> lookupSections (Rectangle rect)
     {
-        return Sections.lookupSections(rect, getSections());
+        SectionIndex idx = getIndex();
+
+        if (idx != null) {
+            return idx.lookupSections(rect);
+        } else {
+            return Sections.lookupSections(rect, getSections());
+        }
     }
 
     //---------//
@@ -452,6 +470,38 @@ public class BasicLag
         return sb.toString();
     }
 
+    //----------//
+    // getIndex //
+    //----------//
+    /**
+     * Report an up-to-date spatial index on lag sections.
+     * While the lag is being modified between lookups (typically when the lag
+     * is being built), no index is built and null is returned, so that the
+     * caller falls back to a plain browsing of all sections.
+     *
+     * @return the index, or null
+     */
+    private SectionIndex getIndex ()
+    {
+        final int modCount = getModCount();
+        SectionIndex idx = index;
+
+        if ((idx != null) && (idx.modCount == modCount)) {
+            return idx;
+        }
+
+        if (lookupModCount != modCount) {
+            lookupModCount = modCount;
+
+            return null;
+        }
+
+        idx = new SectionIndex(getSections(), modCount);
+        index = idx;
+
+        return idx;
+    }
+
     //-------------//
     // handleEvent //
     //-------------//
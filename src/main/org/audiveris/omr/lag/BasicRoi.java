@@ -26,7 +26,7 @@ package org.audiveris.omr.lag;
 import org.audiveris.omr.glyph.Glyphs;
 import org.audiveris.omr.glyph.facets.Glyph;
 
-import org.audiveris.omr.math.Histogram;
+import org.audiveris.omr.math.IntHistogram;
 
 import org.audiveris.omr.run.Orientation;
 import org.audiveris.omr.run.Run;
@@ -79,8 +79,8 @@ public class BasicRoi
     // getGlyphHistogram //
     //-------------------//
     @Override
-    public Histogram<Integer> getGlyphHistogram (Orientation projection,
-                                                 Collection<Glyph> glyphs)
+    public IntHistogram getGlyphHistogram (Orientation projection,
+                                           Collection<Glyph> glyphs)
     {
         return getSectionHistogram(
                 projection,
@@ -91,12 +91,12 @@ public class BasicRoi
     // getRunHistogram //
     //-----------------//
     @Override
-    public Histogram<Integer> getRunHistogram (Orientation projection,
-                                               RunsTable table)
+    public IntHistogram getRunHistogram (Orientation projection,
+                                         RunsTable table)
     {
         final Orientation tableOrient = table.getOrientation();
         final boolean alongTheRuns = projection == tableOrient;
-        final Histogram<Integer> histo = new Histogram<>();
+        final IntHistogram histo = createHistogram(projection);
         final Rectangle tableContour = new Rectangle(
                 table.getDimension());
         final Rectangle inter = new Rectangle(
@@ -136,8 +136,8 @@ public class BasicRoi
     // getSectionHistogram //
     //---------------------//
     @Override
-    public Histogram<Integer> getSectionHistogram (Orientation projection,
-                                                   Collection<Section> sections)
+    public IntHistogram getSectionHistogram (Orientation projection,
+                                             Collection<Section> sections)
     {
         // Split the sections into 2 populations along & across wrt projection
         List<Section> along = new ArrayList<>();
@@ -151,7 +151,7 @@ public class BasicRoi
             }
         }
 
-        final Histogram<Integer> histo = new Histogram<>();
+        final IntHistogram histo = createHistogram(projection);
         populate(histo, projection, along, true);
         populate(histo, projection.opposite(), across, false);
 
@@ -167,6 +167,32 @@ public class BasicRoi
         return "Roi " + getAbsoluteContour();
     }
 
+    //-----------------//
+    // createHistogram //
+    //-----------------//
+    /**
+     * Create an empty histogram on the range of the projection keys, which
+     * are abscissae for a vertical projection and ordinates otherwise.
+     *
+     * @param projection the orientation of the projection
+     * @return the histogram, ready to be populated
+     */
+    private IntHistogram createHistogram (Orientation projection)
+    {
+        final int min;
+        final int length;
+
+        if (projection.isVertical()) {
+            min = absContour.x;
+            length = absContour.width;
+        } else {
+            min = absContour.y;
+            length = absContour.height;
+        }
+
+        return new IntHistogram(min, (min + Math.max(1, length)) - 1);
+    }
+
     //----------//
     // populate //
     //----------//
@@ -178,7 +204,7 @@ public class BasicRoi
      * @param sections           the collections of (parallel) sections
      * @param alongTheRuns       true if sections are parallel to projection
      */
-    private void populate (Histogram<Integer> histo,
+    private void populate (IntHistogram histo,
                            Orientation sectionOrientation,
                            List<Section> sections,
                            boolean alongTheRuns)
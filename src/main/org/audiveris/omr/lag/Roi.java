@@ -25,7 +25,7 @@ package org.audiveris.omr.lag;
 
 import org.audiveris.omr.glyph.facets.Glyph;
 
-import org.audiveris.omr.math.Histogram;
+import org.audiveris.omr.math.IntHistogram;
 
 import org.audiveris.omr.run.Orientation;
 import org.audiveris.omr.run.RunsTable;
@@ -61,8 +61,8 @@ public interface Roi
      *                   orientations)
      * @return the computed histogram
      */
-    Histogram<Integer> getGlyphHistogram (Orientation projection,
-                                          Collection<Glyph> glyphs);
+    IntHistogram getGlyphHistogram (Orientation projection,
+                                    Collection<Glyph> glyphs);
 
     /**
      * Report the histogram obtained in the provided projection orientation
@@ -72,8 +72,8 @@ public interface Roi
      * @param table      the runs table
      * @return the computed histogram
      */
-    Histogram<Integer> getRunHistogram (Orientation projection,
-                                        RunsTable table);
+    IntHistogram getRunHistogram (Orientation projection,
+                                  RunsTable table);
 
     /**
      * Report the histogram obtained in the provided projection orientation
@@ -84,6 +84,6 @@ public interface Roi
      *                   orientations)
      * @return the computed histogram
      */
-    Histogram<Integer> getSectionHistogram (Orientation projection,
-                                            Collection<Section> sections);
+    IntHistogram getSectionHistogram (Orientation projection,
+                                      Collection<Section> sections);
 }
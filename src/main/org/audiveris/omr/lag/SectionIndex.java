@@ -0,0 +1,251 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                          S e c t i o n I n d e x                           //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.lag;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class {@code SectionIndex} is an immutable spatial index on a
+ * snapshot of lag sections, based on a regular grid of square cells.
+ *
+ * <p>Each cell refers to the sections whose bounds intersect the cell, so
+ * that a lookup only checks the sections of the cells intersected by the
+ * lookup rectangle.
+ * Sections are reported in the order of the snapshot, as a plain browsing of
+ * the snapshot would do.</p>
+ *
+ * <p>The index does not follow later modifications of the lag, it is up to
+ * the caller to build a new index when needed (see
+ * {@link org.audiveris.omr.graph.Digraph#getModCount}).</p>
+ *
+ * @author Hervé Bitteur
+ */
+class SectionIndex
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Side of a grid cell, in pixels */
+    private static final int CELL_SIZE = 64;
+
+    //~ Instance fields --------------------------------------------------------
+    /** Lag modification count when the snapshot was taken */
+    final int modCount;
+
+    /** Snapshot of sections */
+    private final Section[] sections;
+
+    /** Abscissa of grid origin */
+    private final int xMin;
+
+    /** Ordinate of grid origin */
+    private final int yMin;
+
+    /** Number of cell columns */
+    private final int cols;
+
+    /** Number of cell rows */
+    private final int rows;
+
+    /** Per cell, the indices of intersecting sections */
+    private final int[][] cells;
+
+    //~ Constructors -----------------------------------------------------------
+    //--------------//
+    // SectionIndex //
+    //--------------//
+    /**
+     * Build an index on the provided sections.
+     *
+     * @param all      the sections to index
+     * @param modCount lag modification count, taken before the sections
+     */
+    SectionIndex (Collection<Section> all,
+                  int modCount)
+    {
+        this.modCount = modCount;
+
+        List<Section> list = new ArrayList<>(all);
+        sections = list.toArray(new Section[list.size()]);
+
+        // Grid extent
+        Rectangle[] boxes = new Rectangle[sections.length];
+        Rectangle extent = null;
+
+        for (int i = 0; i < sections.length; i++) {
+            boxes[i] = sections[i].getBounds();
+
+            if (extent == null) {
+                extent = new Rectangle(boxes[i]);
+            } else {
+                extent.add(boxes[i]);
+            }
+        }
+
+        if (extent == null) {
+            extent = new Rectangle(0, 0, 1, 1);
+        }
+
+        xMin = extent.x;
+        yMin = extent.y;
+        cols = 1 + ((extent.width - 1) / CELL_SIZE);
+        rows = 1 + ((extent.height - 1) / CELL_SIZE);
+
+        // Count sections per cell
+        int[] counts = new int[cols * rows];
+
+        for (Rectangle box : boxes) {
+            for (int row = rowOf(box.y); row <= rowOf(
+                    (box.y + box.height) - 1); row++) {
+                for (int col = colOf(box.x); col <= colOf(
+                        (box.x + box.width) - 1); col++) {
+                    counts[(row * cols) + col]++;
+                }
+            }
+        }
+
+        // Fill cells
+        cells = new int[cols * rows][];
+
+        for (int c = 0; c < cells.length; c++) {
+            cells[c] = new int[counts[c]];
+            counts[c] = 0;
+        }
+
+        for (int i = 0; i < boxes.length; i++) {
+            Rectangle box = boxes[i];
+
+            for (int row = rowOf(box.y); row <= rowOf(
+                    (box.y + box.height) - 1); row++) {
+                for (int col = colOf(box.x); col <= colOf(
+                        (box.x + box.width) - 1); col++) {
+                    int c = (row * cols) + col;
+                    cells[c][counts[c]++] = i;
+                }
+            }
+        }
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //---------------------------//
+    // lookupIntersectedSections //
+    //---------------------------//
+    /**
+     * Look for the sections that intersect the provided rectangle.
+     *
+     * @param rect provided rectangle
+     * @return the set of intersecting sections
+     */
+    Set<Section> lookupIntersectedSections (Rectangle rect)
+    {
+        Set<Section> found = new LinkedHashSet<>();
+        BitSet candidates = getCandidates(rect);
+
+        for (int i = candidates.nextSetBit(0); i >= 0;
+                i = candidates.nextSetBit(i + 1)) {
+            if (sections[i].intersects(rect)) {
+                found.add(sections[i]);
+            }
+        }
+
+        return found;
+    }
+
+    //----------------//
+    // lookupSections //
+    //----------------//
+    /**
+     * Look for the sections contained by the provided rectangle.
+     *
+     * @param rect provided rectangle
+     * @return the set of contained sections
+     */
+    Set<Section> lookupSections (Rectangle rect)
+    {
+        Set<Section> found = new LinkedHashSet<>();
+        BitSet candidates = getCandidates(rect);
+
+        for (int i = candidates.nextSetBit(0); i >= 0;
+                i = candidates.nextSetBit(i + 1)) {
+            if (rect.contains(sections[i].getBounds())) {
+                found.add(sections[i]);
+            }
+        }
+
+        return found;
+    }
+
+    //-------//
+    // colOf //
+    //-------//
+    private int colOf (int x)
+    {
+        return Math.max(0, Math.min(cols - 1, (x - xMin) / CELL_SIZE));
+    }
+
+    //---------------//
+    // getCandidates //
+    //---------------//
+    /**
+     * Report the indices of sections referred to by the cells that
+     * intersect the provided rectangle.
+     */
+    private BitSet getCandidates (Rectangle rect)
+    {
+        BitSet candidates = new BitSet(sections.length);
+
+        if ((rect.width <= 0) || (rect.height <= 0)
+            || (rect.x >= (xMin + (cols * CELL_SIZE)))
+            || (rect.y >= (yMin + (rows * CELL_SIZE)))
+            || ((rect.x + rect.width) <= xMin)
+            || ((rect.y + rect.height) <= yMin)) {
+            return candidates;
+        }
+
+        for (int row = rowOf(rect.y); row <= rowOf(
+                (rect.y + rect.height) - 1); row++) {
+            for (int col = colOf(rect.x); col <= colOf(
+                    (rect.x + rect.width) - 1); col++) {
+                for (int i : cells[(row * cols) + col]) {
+                    candidates.set(i);
+                }
+            }
+        }
+
+        return candidates;
+    }
+
+    //-------//
+    // rowOf //
+    //-------//
+    private int rowOf (int y)
+    {
+        return Math.max(0, Math.min(rows - 1, (y - yMin) / CELL_SIZE));
+    }
+}
@@ -0,0 +1,338 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                          C i r c l e F i t t e r                           //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.math;
+
+import java.awt.geom.Point2D;
+
+/**
+ * Class {@code CircleFitter} is an incremental algebraic circle fitter.
+ *
+ * <p>Like {@link BasicLine}, it only keeps the running moment sums of its
+ * defining points, so that points can be included or excluded at constant
+ * cost, and the best circle is computed from these sums alone.
+ * The fit minimizes the algebraic distance
+ * sum((x<sup>2</sup> + y<sup>2</sup> + D*x + E*y + F)<sup>2</sup>), which
+ * is the same criterion as the full fit of {@link Circle}.</p>
+ *
+ * <p>Coordinates are taken relative to the first included point, to keep
+ * the sums well conditioned.</p>
+ *
+ * @author Hervé Bitteur
+ */
+public class CircleFitter
+{
+    //~ Instance fields --------------------------------------------------------
+
+    /** Flag to indicate that circle needs to be recomputed */
+    private boolean dirty;
+
+    /** Reference abscissa */
+    private double x0;
+
+    /** Reference ordinate */
+    private double y0;
+
+    /** Number of points */
+    private int n;
+
+    /** Sigma (x) */
+    private double sx;
+
+    /** Sigma (y) */
+    private double sy;
+
+    /** Sigma (x**2) */
+    private double sxx;
+
+    /** Sigma (x*y) */
+    private double sxy;
+
+    /** Sigma (y**2) */
+    private double syy;
+
+    /** Sigma (z), with z = x**2 + y**2 */
+    private double sz;
+
+    /** Sigma (x*z) */
+    private double sxz;
+
+    /** Sigma (y*z) */
+    private double syz;
+
+    /** Sigma (z**2) */
+    private double szz;
+
+    /** Center abscissa, relative to reference point */
+    private double cx;
+
+    /** Center ordinate, relative to reference point */
+    private double cy;
+
+    /** Radius */
+    private double radius;
+
+    /** Mean quadratic distance */
+    private double distance;
+
+    //~ Constructors -----------------------------------------------------------
+    //--------------//
+    // CircleFitter //
+    //--------------//
+    /**
+     * Creates a fitter, with no defining point.
+     */
+    public CircleFitter ()
+    {
+        reset();
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //--------------//
+    // excludePoint //
+    //--------------//
+    /**
+     * Remove a defining point, previously included.
+     *
+     * @param x point abscissa
+     * @param y point ordinate
+     */
+    public void excludePoint (double x,
+                              double y)
+    {
+        cumulate(x, y, -1);
+    }
+
+    //-----------//
+    // getCenter //
+    //-----------//
+    /**
+     * Report the center of the best circle.
+     *
+     * @return the circle center
+     */
+    public Point2D.Double getCenter ()
+    {
+        checkCircle();
+
+        return new Point2D.Double(x0 + cx, y0 + cy);
+    }
+
+    //-------------//
+    // getDistance //
+    //-------------//
+    /**
+     * Report the mean quadratic distance of the defining points to the
+     * best circle, as {@link Circle#getDistance} does.
+     * Each point distance is derived from its algebraic distance a, which is
+     * close to 2*radius*d for a point at (small) distance d from the circle,
+     * so this value is a first-order approximation of the exact one.
+     *
+     * @return the mean quadratic distance
+     */
+    public double getDistance ()
+    {
+        checkCircle();
+
+        return distance;
+    }
+
+    //-------------------//
+    // getNumberOfPoints //
+    //-------------------//
+    /**
+     * Report the number of defining points.
+     *
+     * @return the number of defining points
+     */
+    public int getNumberOfPoints ()
+    {
+        return n;
+    }
+
+    //-----------//
+    // getRadius //
+    //-----------//
+    /**
+     * Report the radius of the best circle.
+     *
+     * @return the circle radius
+     */
+    public double getRadius ()
+    {
+        checkCircle();
+
+        return radius;
+    }
+
+    //--------------//
+    // includePoint //
+    //--------------//
+    /**
+     * Add a defining point.
+     *
+     * @param x point abscissa
+     * @param y point ordinate
+     */
+    public void includePoint (double x,
+                              double y)
+    {
+        if (n == 0) {
+            x0 = x;
+            y0 = y;
+        }
+
+        cumulate(x, y, 1);
+    }
+
+    //-------//
+    // reset //
+    //-------//
+    /**
+     * Remove all defining points.
+     */
+    public final void reset ()
+    {
+        n = 0;
+        x0 = y0 = 0;
+        sx = sy = sxx = sxy = syy = 0;
+        sz = sxz = syz = szz = 0;
+        dirty = true;
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append(getClass().getSimpleName());
+        sb.append(" n:")
+                .append(n);
+
+        if (n >= 3) {
+            Point2D center = getCenter();
+            sb.append(" center:")
+                    .append((float) center.getX())
+                    .append(",")
+                    .append((float) center.getY())
+                    .append(" radius:")
+                    .append((float) getRadius())
+                    .append(" dist:")
+                    .append((float) getDistance());
+        }
+
+        sb.append("}");
+
+        return sb.toString();
+    }
+
+    //-------------//
+    // checkCircle //
+    //-------------//
+    private void checkCircle ()
+    {
+        if (n < 3) {
+            throw new IllegalStateException("Less than 3 defining points");
+        }
+
+        if (dirty) {
+            compute();
+        }
+    }
+
+    //---------//
+    // compute //
+    //---------//
+    private void compute ()
+    {
+        // Normal equations of the algebraic fit, for D, E & F:
+        // | sxx sxy sx | |D|   |-sxz|
+        // | sxy syy sy |.|E| = |-syz|
+        // | sx  sy  n  | |F|   |-sz |
+        final double det = det(sxx, sxy, sx, sxy, syy, sy, sx, sy, n);
+
+        if (det == 0) {
+            throw new IllegalStateException("Aligned defining points");
+        }
+
+        final double D = det(-sxz, sxy, sx, -syz, syy, sy, -sz, sy, n) / det;
+        final double E = det(sxx, -sxz, sx, sxy, -syz, sy, sx, -sz, n) / det;
+        final double F = det(sxx, sxy, -sxz, sxy, syy, -syz, sx, sy, -sz)
+                         / det;
+
+        cx = -D / 2;
+        cy = -E / 2;
+        radius = Math.sqrt(((cx * cx) + (cy * cy)) - F);
+
+        // Residual algebraic sum, simplified thanks to normal equations
+        final double residual = Math.max(
+                0,
+                szz + (D * sxz) + (E * syz) + (F * sz));
+        distance = Math.sqrt(residual) / (2 * radius) / n;
+
+        dirty = false;
+    }
+
+    //----------//
+    // cumulate //
+    //----------//
+    private void cumulate (double x,
+                           double y,
+                           int sign)
+    {
+        final double dx = x - x0;
+        final double dy = y - y0;
+        final double z = (dx * dx) + (dy * dy);
+
+        n += sign;
+        sx += (sign * dx);
+        sy += (sign * dy);
+        sxx += (sign * dx * dx);
+        sxy += (sign * dx * dy);
+        syy += (sign * dy * dy);
+        sz += (sign * z);
+        sxz += (sign * dx * z);
+        syz += (sign * dy * z);
+        szz += (sign * z * z);
+        dirty = true;
+    }
+
+    //-----//
+    // det //
+    //-----//
+    private static double det (double a,
+                               double b,
+                               double c,
+                               double d,
+                               double e,
+                               double f,
+                               double g,
+                               double h,
+                               double i)
+    {
+        return (a * ((e * i) - (f * h))) - (b * ((d * i) - (f * g)))
+               + (c * ((d * h) - (e * g)));
+    }
+}
@@ -81,6 +81,31 @@ public class GCD
         }
     }
 
+    //-----//
+    // gcd //
+    //-----//
+    /**
+     * Gcd computation for 2 long values, whatever their sign
+     *
+     * @param m one long value
+     * @param n another long value
+     * @return the (positive or zero) gcd of the two values
+     */
+    public static long gcd (long m,
+                            long n)
+    {
+        m = Math.abs(m);
+        n = Math.abs(n);
+
+        while (n != 0) {
+            long r = m % n;
+            m = n;
+            n = r;
+        }
+
+        return m;
+    }
+
     //-----//
     // gcd //
     //-----//
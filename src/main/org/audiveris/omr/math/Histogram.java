@@ -630,9 +630,9 @@ public class Histogram<K extends Number>
     {
         //~ Constructors -------------------------------------------------------
 
-        private DoublePeak (double first,
-                            double best,
-                            double second)
+        DoublePeak (double first,
+                    double best,
+                    double second)
         {
             super(first, best, second);
         }
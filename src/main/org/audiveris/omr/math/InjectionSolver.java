@@ -31,14 +31,25 @@ import java.util.Arrays;
  * (called range, or codomain).
  *
  * <p>It finds a mapping that minimizes the global mapping distance, given
- * the individual distance for each domain/range elements pair. This
- * implementation uses brute force, and thus should be used with small
- * sizes only.
+ * the individual distance for each domain/range elements pair.
+ *
+ * <p>Small problems are solved by brute force over all injections, larger
+ * ones (beyond {@link #MAX_BRUTE_FORCE_INJECTIONS} possible injections) by
+ * the Hungarian algorithm, whose cost is polynomial: O(n<sup>2</sup>.m)
+ * for n domain elements and m range elements.
  *
  * @author Hervé Bitteur
  */
 public class InjectionSolver
 {
+    //~ Static fields/initializers ---------------------------------------------
+
+    /**
+     * Maximum number of injections for which brute force is used.
+     * Beyond this count, the Hungarian algorithm is used instead.
+     */
+    public static final int MAX_BRUTE_FORCE_INJECTIONS = 5040;
+
     //~ Instance fields --------------------------------------------------------
 
     private final int domainSize;
@@ -94,8 +105,125 @@ public class InjectionSolver
      */
     public int[] solve ()
     {
-        Arrays.fill(free, true);
-        inspect(0, 0);
+        if ((domainSize > 0)
+            && (domainSize <= rangeSize)
+            && (injectionCount() > MAX_BRUTE_FORCE_INJECTIONS)) {
+            return solveHungarian();
+        } else {
+            return solveBruteForce();
+        }
+    }
+
+    //-----------------//
+    // solveBruteForce //
+    //-----------------//
+    /**
+     * Solve the problem by inspecting all possible injections.
+     *
+     * @return the best mapping found
+     */
+    int[] solveBruteForce ()
+    {
+        if (domainSize > 0) {
+            Arrays.fill(free, true);
+            inspect(0, 0);
+        }
+
+        return bestConfig;
+    }
+
+    //----------------//
+    // solveHungarian //
+    //----------------//
+    /**
+     * Solve the problem with the Hungarian algorithm (Kuhn-Munkres),
+     * using potentials on domain and range elements.
+     * Domain size must not exceed range size.
+     *
+     * @return the best mapping found
+     */
+    int[] solveHungarian ()
+    {
+        final int n = domainSize;
+        final int m = rangeSize;
+
+        // Cache individual distances, they are read many times
+        final int[][] cost = new int[n][m];
+
+        for (int id = 0; id < n; id++) {
+            for (int ir = 0; ir < m; ir++) {
+                cost[id][ir] = distance.getDistance(id, ir);
+            }
+        }
+
+        // Indices are 1-based, 0 being used as a sentinel
+        final long[] u = new long[n + 1]; // Potential on domain
+        final long[] v = new long[m + 1]; // Potential on range
+        final int[] match = new int[m + 1]; // Domain element matched to range
+        final int[] way = new int[m + 1]; // Previous range in augmenting path
+        final long[] minv = new long[m + 1];
+        final boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            match[0] = i;
+
+            int j0 = 0;
+            Arrays.fill(minv, Long.MAX_VALUE);
+            Arrays.fill(used, false);
+
+            do {
+                used[j0] = true;
+
+                final int i0 = match[j0];
+                long delta = Long.MAX_VALUE;
+                int j1 = 0;
+
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        long cur = cost[i0 - 1][j - 1] - u[i0] - v[j];
+
+                        if (cur < minv[j]) {
+                            minv[j] = cur;
+                            way[j] = j0;
+                        }
+
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[match[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+
+                j0 = j1;
+            } while (match[j0] != 0);
+
+            // Augment along the path found
+            do {
+                int j1 = way[j0];
+                match[j0] = match[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int total = 0;
+
+        for (int j = 1; j <= m; j++) {
+            if (match[j] != 0) {
+                bestConfig[match[j] - 1] = j - 1;
+                total += cost[match[j] - 1][j - 1];
+            }
+        }
+
+        bestCost = total;
 
         return bestConfig;
     }
@@ -120,6 +248,31 @@ public class InjectionSolver
         System.out.println(sb.toString());
     }
 
+    //----------------//
+    // injectionCount //
+    //----------------//
+    /**
+     * Report the number of possible injections, that is
+     * rangeSize! / (rangeSize - domainSize)!, capped just above the
+     * brute force limit.
+     *
+     * @return the (capped) number of injections
+     */
+    private long injectionCount ()
+    {
+        long count = 1;
+
+        for (int i = 0; i < domainSize; i++) {
+            count *= (rangeSize - i);
+
+            if (count > MAX_BRUTE_FORCE_INJECTIONS) {
+                break;
+            }
+        }
+
+        return count;
+    }
+
     //---------//
     // inspect //
     //---------//
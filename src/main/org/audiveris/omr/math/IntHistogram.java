@@ -0,0 +1,610 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                          I n t H i s t o g r a m                           //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.math;
+
+import org.audiveris.omr.math.Histogram.DoublePeak;
+import org.audiveris.omr.math.Histogram.MaxEntry;
+import org.audiveris.omr.math.Histogram.Peak;
+import org.audiveris.omr.math.Histogram.PeakEntry;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Class {@code IntHistogram} is an histogram on integer buckets taken
+ * in a range known at construction time, with counts stored in a plain
+ * int array.
+ *
+ * <p>It provides the same peak, maximum and quorum features as
+ * {@link Histogram}, without boxing keys and counts into a map.
+ * Only the buckets which have been "touched" (via {@link #increaseCount},
+ * even with a zero delta) are considered, just like the keys of a
+ * {@link Histogram}, so both implementations report the same peaks on the
+ * same data.</p>
+ *
+ * <p>The histogram can also be updated incrementally: a negative delta
+ * removes a previous contribution, the maximum count is maintained along
+ * the updates, and {@link #clear} keeps the underlying storage for reuse.
+ * </p>
+ *
+ * @author Hervé Bitteur
+ */
+public class IntHistogram
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** To sort peaks by decreasing value */
+    private static final Comparator<PeakEntry<?>> reversePeakComparator = new Comparator<PeakEntry<?>>()
+    {
+        @Override
+        public int compare (PeakEntry<?> e1,
+                            PeakEntry<?> e2)
+        {
+            // Put largest value first!
+            return Double.compare(e2.getValue(), e1.getValue());
+        }
+    };
+
+    /** To sort maxima by decreasing value */
+    private static final Comparator<MaxEntry<?>> reverseMaxComparator = new Comparator<MaxEntry<?>>()
+    {
+        @Override
+        public int compare (MaxEntry<?> e1,
+                            MaxEntry<?> e2)
+        {
+            // Put largest value first!
+            return Double.compare(e2.getValue(), e1.getValue());
+        }
+    };
+
+    //~ Instance fields --------------------------------------------------------
+    /** First bucket of the range */
+    private final int first;
+
+    /** Last bucket of the range */
+    private final int last;
+
+    /** Count per bucket, index 0 being the first bucket */
+    private final int[] counts;
+
+    /** Indices of touched buckets */
+    private final BitSet touched;
+
+    /** Total count */
+    private int totalCount;
+
+    /** Index of highest count, if known */
+    private int maxIndex = -1;
+
+    /** True when maxIndex must be recomputed */
+    private boolean maxDirty;
+
+    //~ Constructors -----------------------------------------------------------
+    //--------------//
+    // IntHistogram //
+    //--------------//
+    /**
+     * Creates a new IntHistogram object, on the provided range of
+     * buckets.
+     *
+     * @param first the first bucket of the range
+     * @param last  the last bucket of the range
+     */
+    public IntHistogram (int first,
+                         int last)
+    {
+        if (last < first) {
+            throw new IllegalArgumentException(
+                    "Illegal histogram range " + first + "-" + last);
+        }
+
+        this.first = first;
+        this.last = last;
+        counts = new int[last - first + 1];
+        touched = new BitSet(counts.length);
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //-------//
+    // clear //
+    //-------//
+    /**
+     * Reset all counts, while keeping the range and storage.
+     */
+    public void clear ()
+    {
+        Arrays.fill(counts, 0);
+        touched.clear();
+        totalCount = 0;
+        maxIndex = -1;
+        maxDirty = false;
+    }
+
+    //------------//
+    // dataString //
+    //------------//
+    public String dataString ()
+    {
+        StringBuilder sb = new StringBuilder("[");
+
+        for (int i = touched.nextSetBit(0); i >= 0;
+                i = touched.nextSetBit(i + 1)) {
+            if (sb.length() > 1) {
+                sb.append(" ");
+            }
+
+            sb.append(first + i)
+                    .append(":")
+                    .append(counts[i]);
+        }
+
+        sb.append("]");
+
+        return sb.toString();
+    }
+
+    //-------------//
+    // firstBucket //
+    //-------------//
+    /**
+     * Report the first touched bucket.
+     *
+     * @return the first touched bucket
+     * @throws NoSuchElementException if the histogram is empty
+     */
+    public int firstBucket ()
+    {
+        int i = touched.nextSetBit(0);
+
+        if (i < 0) {
+            throw new NoSuchElementException();
+        }
+
+        return first + i;
+    }
+
+    //----------//
+    // getCount //
+    //----------//
+    /**
+     * Report the count of specified bucket
+     *
+     * @param bucket the bucket of interest
+     * @return the bucket count (zero for any empty bucket)
+     */
+    public int getCount (int bucket)
+    {
+        if ((bucket < first) || (bucket > last)) {
+            return 0;
+        }
+
+        return counts[bucket - first];
+    }
+
+    //----------------//
+    // getDoublePeaks //
+    //----------------//
+    /**
+     * Report the sequence of bucket peaks whose count is equal to or
+     * greater than the specified minCount value, with interpolated
+     * bounds, sorted by decreasing count.
+     *
+     * @param minCount the desired minimum count value
+     * @return the (perhaps empty but not null) sequence of peaks of buckets
+     */
+    public List<PeakEntry<Double>> getDoublePeaks (int minCount)
+    {
+        final List<PeakEntry<Double>> peaks = new ArrayList<>();
+        int start = -1;
+        int stop = -1;
+        int best = -1;
+        boolean isAbove = false;
+
+        for (int i = touched.nextSetBit(0); i >= 0;
+                i = touched.nextSetBit(i + 1)) {
+            if (counts[i] >= minCount) {
+                if (!isAbove || (counts[best] < counts[i])) {
+                    best = i;
+                }
+
+                if (isAbove) { // Above -> Above
+                    stop = i;
+                } else { // Below -> Above
+                    stop = start = i;
+                    isAbove = true;
+                }
+            } else if (isAbove) { // Above -> Below
+                peaks.add(
+                        new PeakEntry<Double>(
+                        createDoublePeak(start, best, stop, minCount),
+                        (double) counts[best] / totalCount));
+                isAbove = false;
+            }
+        }
+
+        // Last range
+        if (isAbove) {
+            peaks.add(
+                    new PeakEntry<Double>(
+                    createDoublePeak(start, best, stop, minCount),
+                    (double) counts[best] / totalCount));
+        }
+
+        // Sort by decreasing count values
+        Collections.sort(peaks, reversePeakComparator);
+
+        return peaks;
+    }
+
+    //----------------//
+    // getLocalMaxima //
+    //----------------//
+    /**
+     * Report the local maximum points, sorted by decreasing count
+     *
+     * @return the (count-based) sorted sequence of local maxima
+     */
+    public List<MaxEntry<Integer>> getLocalMaxima ()
+    {
+        final List<MaxEntry<Integer>> maxima = new ArrayList<>();
+        int prev = -1;
+        boolean growing = false;
+
+        for (int i = touched.nextSetBit(0); i >= 0;
+                i = touched.nextSetBit(i + 1)) {
+            if (prev >= 0) {
+                if (counts[i] >= counts[prev]) {
+                    growing = true;
+                } else {
+                    if (growing) {
+                        // End of a local max
+                        maxima.add(
+                                new MaxEntry<>(
+                                first + prev,
+                                counts[prev] / (double) totalCount));
+                    }
+
+                    growing = false;
+                }
+            }
+
+            prev = i;
+        }
+
+        // Sort by decreasing count values
+        Collections.sort(maxima, reverseMaxComparator);
+
+        return maxima;
+    }
+
+    //--------------//
+    // getMaxBucket //
+    //--------------//
+    /**
+     * Report the bucket with highest count (the first one in case of
+     * equality)
+     *
+     * @return the most popular bucket
+     * @throws NoSuchElementException if the histogram is empty
+     */
+    public int getMaxBucket ()
+    {
+        int index = getMaxIndex();
+
+        if (index < 0) {
+            throw new NoSuchElementException();
+        }
+
+        return first + index;
+    }
+
+    //-------------//
+    // getMaxCount //
+    //-------------//
+    /**
+     * Report the highest count among all buckets
+     *
+     * @return the largest count value (Integer.MIN_VALUE if empty)
+     */
+    public int getMaxCount ()
+    {
+        int index = getMaxIndex();
+
+        return (index < 0) ? Integer.MIN_VALUE : counts[index];
+    }
+
+    //----------//
+    // getPeaks //
+    //----------//
+    /**
+     * Report the sequence of bucket peaks whose count is equal to or greater
+     * than the specified minCount value
+     *
+     * @param minCount the desired minimum count value
+     * @param absolute if true, absolute counts values are reported in peaks,
+     *                 otherwise relative counts to total histogram are used
+     * @param sorted   if true, the reported sequence is sorted by decreasing
+     *                 count value, otherwise it is reported as naturally
+     *                 found along buckets.
+     * @return the (perhaps empty but not null) sequence of peaks of buckets
+     */
+    public List<PeakEntry<Integer>> getPeaks (int minCount,
+                                              boolean absolute,
+                                              boolean sorted)
+    {
+        final List<PeakEntry<Integer>> peaks = new ArrayList<>();
+        int start = -1;
+        int stop = -1;
+        int best = -1;
+        boolean isAbove = false;
+
+        for (int i = touched.nextSetBit(0); i >= 0;
+                i = touched.nextSetBit(i + 1)) {
+            if (counts[i] >= minCount) {
+                if (!isAbove || (counts[best] < counts[i])) {
+                    best = i;
+                }
+
+                if (isAbove) { // Above -> Above
+                    stop = i;
+                } else { // Below -> Above
+                    stop = start = i;
+                    isAbove = true;
+                }
+            } else if (isAbove) { // Above -> Below
+                peaks.add(createPeak(start, best, stop, absolute));
+                isAbove = false;
+            }
+        }
+
+        // Last range
+        if (isAbove) {
+            peaks.add(createPeak(start, best, stop, absolute));
+        }
+
+        // Sort by decreasing count values?
+        if (sorted) {
+            Collections.sort(peaks, reversePeakComparator);
+        }
+
+        return peaks;
+    }
+
+    //----------------//
+    // getQuorumValue //
+    //----------------//
+    /**
+     * Based on the current population, report the quorum value
+     * corresponding to the provided quorum ratio
+     *
+     * @param quorumRatio quorum specified as a percentage of total count
+     * @return the quorum value
+     */
+    public int getQuorumValue (double quorumRatio)
+    {
+        return (int) Math.rint(quorumRatio * totalCount);
+    }
+
+    //---------------//
+    // getTotalCount //
+    //---------------//
+    /**
+     * Report the total counts of all buckets
+     *
+     * @return the sum of all counts
+     */
+    public int getTotalCount ()
+    {
+        return totalCount;
+    }
+
+    //---------------//
+    // increaseCount //
+    //---------------//
+    /**
+     * Add a delta to the count of a bucket.
+     *
+     * @param bucket the bucket, which must lie within the histogram range
+     * @param delta  the count increment, which may be negative to remove a
+     *               previous contribution
+     */
+    public void increaseCount (int bucket,
+                               int delta)
+    {
+        if ((bucket < first) || (bucket > last)) {
+            throw new IllegalArgumentException(
+                    "Bucket " + bucket + " out of histogram range " + first
+                    + "-" + last);
+        }
+
+        final int i = bucket - first;
+        final int count = counts[i] += delta;
+        touched.set(i);
+        totalCount += delta;
+
+        // Keep track of maximum
+        if (!maxDirty) {
+            if (maxIndex < 0) {
+                maxIndex = i;
+            } else if (delta >= 0) {
+                if ((count > counts[maxIndex])
+                    || ((count == counts[maxIndex]) && (i < maxIndex))) {
+                    maxIndex = i;
+                }
+            } else if (i == maxIndex) {
+                maxDirty = true;
+            }
+        }
+    }
+
+    //------------//
+    // lastBucket //
+    //------------//
+    /**
+     * Report the last touched bucket.
+     *
+     * @return the last touched bucket
+     * @throws NoSuchElementException if the histogram is empty
+     */
+    public int lastBucket ()
+    {
+        int i = touched.length() - 1;
+
+        if (i < 0) {
+            throw new NoSuchElementException();
+        }
+
+        return first + i;
+    }
+
+    //-------//
+    // print //
+    //-------//
+    public void print (PrintStream stream)
+    {
+        stream.println(dataString());
+    }
+
+    //------//
+    // size //
+    //------//
+    /**
+     * Report the number of touched buckets
+     *
+     * @return the number of touched buckets
+     */
+    public int size ()
+    {
+        return touched.cardinality();
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append(getClass().getSimpleName());
+
+        if (!touched.isEmpty()) {
+            sb.append(" ")
+                    .append(firstBucket())
+                    .append("-")
+                    .append(lastBucket());
+        }
+
+        sb.append(" size:")
+                .append(size());
+
+        sb.append(" ")
+                .append(dataString());
+
+        sb.append("}");
+
+        return sb.toString();
+    }
+
+    //------------------//
+    // createDoublePeak //
+    //------------------//
+    private DoublePeak createDoublePeak (int start,
+                                         int best,
+                                         int stop,
+                                         int count)
+    {
+        // Use interpolation for more accurate data on start & stop
+        double preciseFirst = first + start;
+        int prev = touched.previousSetBit(start - 1);
+
+        if (prev >= 0) {
+            preciseFirst = preciseKey(prev, start, count);
+        }
+
+        double preciseSecond = first + stop;
+        int next = touched.nextSetBit(stop + 1);
+
+        if (next >= 0) {
+            preciseSecond = preciseKey(stop, next, count);
+        }
+
+        return new DoublePeak(preciseFirst, first + best, preciseSecond);
+    }
+
+    //------------//
+    // createPeak //
+    //------------//
+    private PeakEntry<Integer> createPeak (int start,
+                                           int best,
+                                           int stop,
+                                           boolean absolute)
+    {
+        return new PeakEntry<>(
+                new Peak<>(first + start, first + best, first + stop),
+                absolute ? counts[best] : ((double) counts[best] / totalCount));
+    }
+
+    //-------------//
+    // getMaxIndex //
+    //-------------//
+    private int getMaxIndex ()
+    {
+        if (maxDirty) {
+            maxIndex = -1;
+
+            for (int i = touched.nextSetBit(0); i >= 0;
+                    i = touched.nextSetBit(i + 1)) {
+                if ((maxIndex < 0) || (counts[i] > counts[maxIndex])) {
+                    maxIndex = i;
+                }
+            }
+
+            maxDirty = false;
+        }
+
+        return maxIndex;
+    }
+
+    //------------//
+    // preciseKey //
+    //------------//
+    private double preciseKey (int prev,
+                               int next,
+                               int count)
+    {
+        // Use interpolation for accurate data between prev & next indices
+        double prevCount = counts[prev];
+        double nextCount = counts[next];
+
+        return first
+               + (((prev * (nextCount - count)) + (next * (count - prevCount))) / (nextCount
+                                                                                  - prevCount));
+    }
+}
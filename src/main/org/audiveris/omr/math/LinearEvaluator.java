@@ -23,6 +23,8 @@
 // </editor-fold>
 package org.audiveris.omr.math;
 
+import org.audiveris.omr.util.JaxbContexts;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,10 +36,7 @@ import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
@@ -78,9 +77,6 @@ public class LinearEvaluator
     private static final Logger logger = LoggerFactory.getLogger(
             LinearEvaluator.class);
 
-    /** Un/marshalling context for use with JAXB */
-    private static volatile JAXBContext jaxbContext;
-
     /** To avoid infinity */
     public static final double INFINITE_DISTANCE = 50e50;
 
@@ -344,9 +340,7 @@ public class LinearEvaluator
     public void marshal (OutputStream os)
             throws JAXBException
     {
-        Marshaller m = getJaxbContext().createMarshaller();
-        m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-        m.marshal(this, os);
+        JaxbContexts.marshal(LinearEvaluator.class, this, os, true);
         logger.debug("LinearEvaluator marshalled");
     }
 
@@ -439,27 +433,14 @@ public class LinearEvaluator
     public static LinearEvaluator unmarshal (InputStream in)
             throws JAXBException
     {
-        Unmarshaller um = getJaxbContext().createUnmarshaller();
-        LinearEvaluator evaluator = (LinearEvaluator) um.unmarshal(in);
+        LinearEvaluator evaluator = (LinearEvaluator) JaxbContexts.unmarshal(
+                LinearEvaluator.class,
+                in);
         logger.debug("LinearEvaluator unmarshalled");
 
         return evaluator;
     }
 
-    //----------------//
-    // getJaxbContext //
-    //----------------//
-    private static JAXBContext getJaxbContext ()
-            throws JAXBException
-    {
-        // Lazy creation
-        if (jaxbContext == null) {
-            jaxbContext = JAXBContext.newInstance(LinearEvaluator.class);
-        }
-
-        return jaxbContext;
-    }
-
     //----------------//
     // checkArguments //
     //----------------//
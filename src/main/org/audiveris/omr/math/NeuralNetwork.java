@@ -23,16 +23,15 @@
 // </editor-fold>
 package org.audiveris.omr.math;
 
+import org.audiveris.omr.util.JaxbContexts;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
 import java.io.OutputStream;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
@@ -64,9 +63,6 @@ public class NeuralNetwork
     private static final Logger logger = LoggerFactory.getLogger(
             NeuralNetwork.class);
 
-    /** Un/marshalling context for use with JAXB */
-    private static volatile JAXBContext jaxbContext;
-
     //~ Instance fields --------------------------------------------------------
     //
     /** Size of input layer. */
@@ -260,9 +256,9 @@ public class NeuralNetwork
     public static NeuralNetwork unmarshal (InputStream in)
             throws JAXBException
     {
-        Unmarshaller um = getJaxbContext()
-                .createUnmarshaller();
-        NeuralNetwork nn = (NeuralNetwork) um.unmarshal(in);
+        NeuralNetwork nn = (NeuralNetwork) JaxbContexts.unmarshal(
+                NeuralNetwork.class,
+                in);
         logger.debug("Network unmarshalled");
 
         return nn;
@@ -392,10 +388,7 @@ public class NeuralNetwork
     public void marshal (OutputStream os)
             throws JAXBException
     {
-        Marshaller m = getJaxbContext()
-                .createMarshaller();
-        m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-        m.marshal(this, os);
+        JaxbContexts.marshal(NeuralNetwork.class, this, os, true);
         logger.debug("Network marshalled");
     }
 
@@ -846,20 +839,6 @@ public class NeuralNetwork
         }
     }
 
-    //----------------//
-    // getJaxbContext //
-    //----------------//
-    private static JAXBContext getJaxbContext ()
-            throws JAXBException
-    {
-        // Lazy creation
-        if (jaxbContext == null) {
-            jaxbContext = JAXBContext.newInstance(NeuralNetwork.class);
-        }
-
-        return jaxbContext;
-    }
-
     //---------//
     // sigmoid //
     //---------//
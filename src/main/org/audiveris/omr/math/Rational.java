@@ -23,8 +23,6 @@
 // </editor-fold>
 package org.audiveris.omr.math;
 
-import java.math.BigInteger;
-
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
@@ -39,6 +37,12 @@ import javax.xml.bind.annotation.XmlRootElement;
  * <li>The denominator value is always kept positive : den >= 1</li>
  * </ol></p>
  *
+ * <p>Arithmetic is performed on primitive long intermediate values, so that
+ * no overflow can occur before the result is reduced. Results with small
+ * numerator and denominator, which are the common case for musical
+ * durations, are taken from a cache of shared instances rather than being
+ * allocated. Use {@link #valueOf(int, int)} to benefit from this cache.</p>
+ *
  * <p>It is (un)marshallable through JAXB.</p>
  *
  * @author Hervé Bitteur
@@ -50,14 +54,30 @@ public class Rational
 {
     //~ Static fields/initializers ---------------------------------------------
 
+    /** Maximum denominator value for cached instances */
+    private static final int CACHE_MAX_DEN = 64;
+
+    /** Maximum absolute numerator value for cached instances */
+    private static final int CACHE_MAX_NUM = 256;
+
+    /** Number of cache slots for a given denominator */
+    private static final int CACHE_ROW = (2 * CACHE_MAX_NUM) + 1;
+
+    /**
+     * Cache of shared instances, indexed by denominator then numerator.
+     * Slots are lazily populated. Since instances are immutable with final
+     * fields, a racy population is harmless.
+     */
+    private static final Rational[] cache = new Rational[CACHE_MAX_DEN * CACHE_ROW];
+
     /** The zero rational instance */
-    public static final Rational ZERO = new Rational(0, 1);
+    public static final Rational ZERO = valueOf(0, 1);
 
     /** The one rational instance */
-    public static final Rational ONE = new Rational(1, 1);
+    public static final Rational ONE = valueOf(1, 1);
 
     /** Max rational value */
-    public static final Rational MAX_VALUE = new Rational(Integer.MAX_VALUE, 1);
+    public static final Rational MAX_VALUE = valueOf(Integer.MAX_VALUE, 1);
 
     //~ Instance fields --------------------------------------------------------
     /** Final denominator value */
@@ -102,6 +122,24 @@ public class Rational
         this.den = den;
     }
 
+    //----------//
+    // Rational //
+    //----------//
+    /**
+     * Create a final Rational instance from already reduced values
+     *
+     * @param num     numerator value
+     * @param den     denominator value, positive
+     * @param reduced just a marker for values already in reduced form
+     */
+    private Rational (int num,
+                      int den,
+                      boolean reduced)
+    {
+        this.num = num;
+        this.den = den;
+    }
+
     //----------//
     // Rational //
     //----------//
@@ -122,7 +160,11 @@ public class Rational
      */
     public Rational abs ()
     {
-        return new Rational(Math.abs(num), den);
+        if (num >= 0) {
+            return this;
+        }
+
+        return cached(-num, den);
     }
 
     //-----------//
@@ -137,25 +179,15 @@ public class Rational
     @Override
     public int compareTo (Rational that)
     {
-        int a = this.num * that.den;
-        int b = this.den * that.num;
-
-        // Detect overflow, using the fact that den's are always >= 1
-        if ((Integer.signum(b) != Integer.signum(that.num))
-            || (Integer.signum(a) != Integer.signum(this.num))) {
-            BigInteger bigThisNum = BigInteger.valueOf(this.num);
-            BigInteger bigThisDen = BigInteger.valueOf(this.den);
-            BigInteger bigThatNum = BigInteger.valueOf(that.num);
-            BigInteger bigThatDen = BigInteger.valueOf(that.den);
-            BigInteger A = bigThisNum.multiply(bigThatDen);
-            BigInteger B = bigThisDen.multiply(bigThatNum);
-
-            return A.compareTo(B);
-        } else {
-            return Integer.signum(a - b);
+        if (this.den == that.den) {
+            return (this.num < that.num) ? (-1) : ((this.num == that.num) ? 0 : 1);
         }
 
-        ///return Integer.signum((this.num * that.den) - (this.den * that.num));
+        // Products of two int values cannot overflow a long
+        long a = (long) this.num * that.den;
+        long b = (long) this.den * that.num;
+
+        return (a < b) ? (-1) : ((a == b) ? 0 : 1);
     }
 
     //---------//
@@ -169,7 +201,7 @@ public class Rational
      */
     public Rational divides (Rational that)
     {
-        return times(that.inverse());
+        return valueOf((long) this.num * that.den, (long) this.den * that.num);
     }
 
     //---------//
@@ -183,7 +215,7 @@ public class Rational
      */
     public Rational divides (int that)
     {
-        return new Rational(num, den * that);
+        return valueOf(num, (long) den * that);
     }
 
     //--------//
@@ -201,7 +233,10 @@ public class Rational
         if (!(obj instanceof Rational)) {
             return false;
         } else {
-            return compareTo((Rational) obj) == 0;
+            // Both instances are in reduced form
+            Rational that = (Rational) obj;
+
+            return (this.num == that.num) && (this.den == that.den);
         }
     }
 
@@ -214,7 +249,7 @@ public class Rational
         if (a.num == 0) {
             return b;
         } else {
-            return new Rational(1, GCD.lcm(a.den, b.den));
+            return valueOf(1, GCD.lcm(a.den, b.den));
         }
     }
 
@@ -256,7 +291,11 @@ public class Rational
      */
     public Rational inverse ()
     {
-        return new Rational(den, num);
+        if (num == 0) {
+            throw new IllegalArgumentException("Denominator is zero");
+        }
+
+        return (num > 0) ? cached(den, num) : cached(-den, -num);
     }
 
     //-------//
@@ -270,7 +309,17 @@ public class Rational
      */
     public Rational minus (Rational that)
     {
-        return plus(that.opposite());
+        if (that.num == 0) {
+            return this;
+        }
+
+        if (this.den == that.den) {
+            return valueOf((long) this.num - that.num, this.den);
+        }
+
+        return valueOf(
+                ((long) this.num * that.den) - ((long) this.den * that.num),
+                (long) this.den * that.den);
     }
 
     //-------//
@@ -284,7 +333,7 @@ public class Rational
      */
     public Rational minus (int that)
     {
-        return plus(-that);
+        return valueOf(num - ((long) that * den), den);
     }
 
     //----------//
@@ -297,7 +346,7 @@ public class Rational
      */
     public Rational opposite ()
     {
-        return new Rational(-num, den);
+        return cached(-num, den);
     }
 
     //------//
@@ -311,17 +360,21 @@ public class Rational
      */
     public Rational plus (Rational that)
     {
-        if (this.equals(ZERO)) {
+        if (this.num == 0) {
             return that;
         }
 
-        if (that.equals(ZERO)) {
+        if (that.num == 0) {
             return this;
         }
 
-        return new Rational(
-                (this.num * that.den) + (this.den * that.num),
-                this.den * that.den);
+        if (this.den == that.den) {
+            return valueOf((long) this.num + that.num, this.den);
+        }
+
+        return valueOf(
+                ((long) this.num * that.den) + ((long) this.den * that.num),
+                (long) this.den * that.den);
     }
 
     //------//
@@ -335,7 +388,7 @@ public class Rational
      */
     public Rational plus (int that)
     {
-        return plus(new Rational(that, 1));
+        return valueOf(num + ((long) that * den), den);
     }
 
     //-------//
@@ -349,7 +402,7 @@ public class Rational
      */
     public Rational times (Rational that)
     {
-        return new Rational(this.num * that.num, this.den * that.den);
+        return valueOf((long) this.num * that.num, (long) this.den * that.den);
     }
 
     //-------//
@@ -363,7 +416,7 @@ public class Rational
      */
     public Rational times (int that)
     {
-        return new Rational(num * that, den);
+        return valueOf((long) num * that, den);
     }
 
     //----------//
@@ -387,4 +440,102 @@ public class Rational
             return num + "/" + den;
         }
     }
+
+    //---------//
+    // valueOf //
+    //---------//
+    /**
+     * Report the Rational instance for the provided values, taken from the
+     * cache of shared instances whenever possible.
+     *
+     * @param num numerator value
+     * @param den denominator value
+     * @return the reduced rational instance
+     * @throws IllegalArgumentException if the provided denominator is zero
+     */
+    public static Rational valueOf (int num,
+                                    int den)
+    {
+        return valueOf((long) num, (long) den);
+    }
+
+    //---------//
+    // valueOf //
+    //---------//
+    /**
+     * Report the Rational instance for the provided long values, which
+     * must fit in int values once reduced.
+     *
+     * @param num numerator value
+     * @param den denominator value
+     * @return the reduced rational instance
+     * @throws IllegalArgumentException if the provided denominator is zero
+     * @throws ArithmeticException      if reduced values overflow int range
+     */
+    private static Rational valueOf (long num,
+                                     long den)
+    {
+        if (den == 0) {
+            throw new IllegalArgumentException("Denominator is zero");
+        }
+
+        if (num == 0) {
+            return cached(0, 1);
+        }
+
+        // Reduction
+        if ((den != 1) && (num != 1) && (num != -1)) {
+            long gcd = GCD.gcd(num, den);
+
+            if (gcd != 1) {
+                num /= gcd;
+                den /= gcd;
+            }
+        }
+
+        // Positive denominator
+        if (den < 0) {
+            den = -den;
+            num = -num;
+        }
+
+        if ((num > Integer.MAX_VALUE)
+            || (num < -Integer.MAX_VALUE)
+            || (den > Integer.MAX_VALUE)) {
+            throw new ArithmeticException(
+                    "Rational overflow " + num + "/" + den);
+        }
+
+        return cached((int) num, (int) den);
+    }
+
+    //--------//
+    // cached //
+    //--------//
+    /**
+     * Report the shared instance for the provided reduced values, or a
+     * new instance if these values are out of the cache range.
+     *
+     * @param num reduced numerator
+     * @param den reduced denominator, positive
+     * @return the related instance
+     */
+    private static Rational cached (int num,
+                                    int den)
+    {
+        if ((den <= CACHE_MAX_DEN)
+            && (num >= -CACHE_MAX_NUM)
+            && (num <= CACHE_MAX_NUM)) {
+            final int index = ((den - 1) * CACHE_ROW) + num + CACHE_MAX_NUM;
+            Rational rational = cache[index];
+
+            if (rational == null) {
+                cache[index] = rational = new Rational(num, den, true);
+            }
+
+            return rational;
+        }
+
+        return new Rational(num, den, true);
+    }
 }
@@ -178,7 +178,7 @@ public class RunsRetriever
     /**
      * Retrieve runs row by row.
      * This method handles the pixels run either in a parallel or a serial way,
-     * according to the possibilities of the high OMR executor.
+     * according to the possibilities of the OMR fork/join pool.
      */
     private void rowBasedRetrieval (int pMin,
                                     int pMax,
@@ -192,7 +192,7 @@ public class RunsRetriever
                 processPosition(p, cMin, cMax);
             }
         } else {
-            // Parallel (TODO: should use Java 7 fork/join someday...)
+            // Parallel, via fork/join
             try {
                 // Browse one dimension
                 List<Callable<Void>> tasks = new ArrayList<>(
@@ -215,8 +215,7 @@ public class RunsRetriever
                 }
 
                 // Launch the tasks and wait for their completion
-                OmrExecutors.getHighExecutor()
-                        .invokeAll(tasks);
+                OmrExecutors.invokeAll(tasks);
             } catch (InterruptedException ex) {
                 logger.warn("ParallelRuns got interrupted");
                 throw new ProcessingCancellationException(ex);
@@ -39,9 +39,13 @@ import org.slf4j.LoggerFactory;
 import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class {@code RunsTable} handles a rectangular assembly of oriented
@@ -82,6 +86,9 @@ public class RunsTable
     /** Hosted event service for UI events related to this table (Runs) */
     private final SelectionService runService;
 
+    /** Count of modifications performed through this table methods */
+    private final AtomicInteger modCount = new AtomicInteger(0);
+
     //~ Constructors -----------------------------------------------------------
     //-----------//
     // RunsTable //
@@ -169,7 +176,7 @@ public class RunsTable
         sb.append(String.format("%s%n", this));
 
         // Prepare output buffer
-        PixelsBuffer buffer = getBuffer();
+        BitsBuffer buffer = getBits();
 
         // Print the buffer
         sb.append('+');
@@ -184,7 +191,7 @@ public class RunsTable
             sb.append('|');
 
             for (int col = 0; col < buffer.getWidth(); col++) {
-                sb.append((buffer.getPixel(col, row) == BACKGROUND) ? '-' : 'X');
+                sb.append(buffer.isFore(col, row) ? 'X' : '-');
             }
 
             sb.append(String.format("|%n"));
@@ -210,7 +217,7 @@ public class RunsTable
      * <br><b>Beware</b>, this implementation is not efficient enough
      * for bulk operations.
      * For such needs, a much more efficient way is to first
-     * retrieve a full buffer, via {@link #getBuffer()} method, then use this
+     * retrieve a full buffer, via {@link #getBits()} method, then use this
      * temporary buffer as the {@link PixelSource} instead of this table.
      *
      * @param x absolute abscissa
@@ -261,6 +268,48 @@ public class RunsTable
         return null;
     }
 
+    //---------//
+    // getBits //
+    //---------//
+    /**
+     * Fill a binary buffer with the runs, one bit per pixel.
+     * Runs gray levels are not kept, just like in {@link #getBuffer()}
+     * which also writes 0 for every foreground pixel.
+     *
+     * @return the filled buffer
+     */
+    public BitsBuffer getBits ()
+    {
+        BitsBuffer bits = new BitsBuffer(dimension);
+
+        switch (orientation) {
+        case HORIZONTAL:
+
+            for (int row = 0; row < getSize(); row++) {
+                for (Run run : getSequence(row)) {
+                    bits.setRange(row, run.getStart(), run.getStop());
+                }
+            }
+
+            break;
+
+        case VERTICAL:
+
+            for (int row = 0; row < getSize(); row++) {
+                for (Run run : getSequence(row)) {
+                    for (int col = run.getStart(); col <= run.getStop();
+                            col++) {
+                        bits.set(row, col);
+                    }
+                }
+            }
+
+            break;
+        }
+
+        return bits;
+    }
+
     //-----------//
     // getBuffer //
     //-----------//
@@ -358,6 +407,21 @@ public class RunsTable
         return dimension.height;
     }
 
+    //-------------//
+    // getModCount //
+    //-------------//
+    /**
+     * Report the count of modifications performed on this table, through
+     * {@link #include}, {@link #purge} and {@link #removeRun}.
+     * Direct modifications of a sequence are not counted.
+     *
+     * @return the current modification count
+     */
+    public int getModCount ()
+    {
+        return modCount.get();
+    }
+
     //---------//
     // getName //
     //---------//
@@ -468,6 +532,8 @@ public class RunsTable
                 thisSeq.add(iRun, thatRun);
             }
         }
+
+        modCount.incrementAndGet();
     }
 
     //-------------//
@@ -628,9 +694,52 @@ public class RunsTable
             }
         }
 
+        modCount.incrementAndGet();
+
+        if (removed != null) {
+            removed.modCount.incrementAndGet();
+        }
+
         return this;
     }
 
+    //------//
+    // read //
+    //------//
+    /**
+     * Read a table of runs, as written by {@link #write}.
+     * Runs are read with no section assigned.
+     *
+     * @param in the input stream
+     * @return the table read
+     * @throws IOException if reading fails
+     */
+    public static RunsTable read (DataInputStream in)
+            throws IOException
+    {
+        final String name = in.readUTF();
+        final Orientation orientation = Orientation.valueOf(in.readUTF());
+        final int width = in.readInt();
+        final int height = in.readInt();
+        final RunsTable table = new RunsTable(
+                name,
+                orientation,
+                new Dimension(width, height));
+
+        for (List<Run> seq : table.runs) {
+            final int count = in.readInt();
+
+            for (int i = 0; i < count; i++) {
+                final int start = in.readInt();
+                final int length = in.readInt();
+                final int level = in.readUnsignedByte();
+                seq.add(new Run(start, length, level));
+            }
+        }
+
+        return table;
+    }
+
     //-----------//
     // removeRun //
     //-----------//
@@ -649,6 +758,8 @@ public class RunsTable
             throw new RuntimeException(
                     this + " Cannot find " + run + " at pos " + pos);
         }
+
+        modCount.incrementAndGet();
     }
 
     //--------------------//
@@ -701,6 +812,36 @@ public class RunsTable
         return sb.toString();
     }
 
+    //-------//
+    // write //
+    //-------//
+    /**
+     * Write the content of this table in a compact binary form, which can
+     * be read back by {@link #read}.
+     * Only run geometry and level are written, not run sections.
+     *
+     * @param out the output stream
+     * @throws IOException if writing fails
+     */
+    public void write (DataOutputStream out)
+            throws IOException
+    {
+        out.writeUTF(name);
+        out.writeUTF(orientation.name());
+        out.writeInt(dimension.width);
+        out.writeInt(dimension.height);
+
+        for (List<Run> seq : runs) {
+            out.writeInt(seq.size());
+
+            for (Run run : seq) {
+                out.writeInt(run.getStart());
+                out.writeInt(run.getLength());
+                out.writeByte(run.getLevel());
+            }
+        }
+    }
+
     //-------------//
     // handleEvent //
     //-------------//
@@ -31,6 +31,7 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Dimension;
 import java.awt.Rectangle;
+import java.util.List;
 
 /**
  * Class {@code RunsTableFactory} retrieves the runs structure out of
@@ -108,16 +109,52 @@ public class RunsTableFactory
                 orientation,
                 new Dimension(source.getWidth(), source.getHeight()));
 
-        RunsRetriever retriever = new RunsRetriever(
-                orientation,
-                new MyAdapter());
+        if ((source instanceof BitsBuffer) && !swapNeeded) {
+            // Binary rows can be browsed word by word
+            retrieveRuns((BitsBuffer) source);
+            logger.debug("{} Retrieved runs: {}", table, table.getRunCount());
+        } else {
+            RunsRetriever retriever = new RunsRetriever(
+                    orientation,
+                    new MyAdapter());
 
-        retriever.retrieveRuns(
-                new Rectangle(0, 0, source.getWidth(), source.getHeight()));
+            retriever.retrieveRuns(
+                    new Rectangle(0, 0, source.getWidth(), source.getHeight()));
+        }
 
         return table;
     }
 
+    //--------------//
+    // retrieveRuns //
+    //--------------//
+    /**
+     * Retrieve the horizontal runs of a binary buffer, by jumping from
+     * one run boundary to the next.
+     *
+     * @param bits the binary source
+     */
+    private void retrieveRuns (BitsBuffer bits)
+    {
+        final int width = bits.getWidth();
+
+        for (int y = 0; y < bits.getHeight(); y++) {
+            List<Run> seq = table.getSequence(y);
+
+            for (int start = bits.nextSetBit(y, 0); start >= 0;) {
+                final int stop = bits.nextClearBit(y, start);
+                final int length = stop - start;
+
+                // We consider only runs that are longer than minLength
+                if (length >= minLength) {
+                    seq.add(new Run(start, length, 0));
+                }
+
+                start = (stop < width) ? bits.nextSetBit(y, stop) : -1;
+            }
+        }
+    }
+
     //~ Inner Classes ----------------------------------------------------------
     //
     // -----------//
@@ -23,6 +23,9 @@
 // </editor-fold>
 package org.audiveris.omr.run;
 
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+
 import org.audiveris.omr.selection.LocationEvent;
 import org.audiveris.omr.selection.MouseMovement;
 import org.audiveris.omr.selection.RunEvent;
@@ -31,6 +34,7 @@ import org.audiveris.omr.selection.SelectionService;
 import org.audiveris.omr.selection.UserEvent;
 
 import org.audiveris.omr.ui.view.RubberPanel;
+import org.audiveris.omr.ui.view.TileCache;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +56,9 @@ public class RunsTableView
 {
     //~ Static fields/initializers ---------------------------------------------
 
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
     /** Usual logger utility */
     private static final Logger logger = LoggerFactory.getLogger(
             RunsTableView.class);
@@ -60,6 +67,9 @@ public class RunsTableView
     /** The underlying table of runs */
     private final RunsTable table;
 
+    /** Cached tiles of rendered runs, if any */
+    private final TileCache runTiles;
+
     //~ Constructors -----------------------------------------------------------
     //---------------//
     // RunsTableView //
@@ -75,6 +85,12 @@ public class RunsTableView
         this.table = table;
         setName(table.getName());
 
+        if (constants.useRunTiles.isSet()) {
+            runTiles = new TileCache(this);
+        } else {
+            runTiles = null;
+        }
+
         // Location service
         setLocationService(locationService);
 
@@ -126,8 +142,22 @@ public class RunsTableView
     @Override
     public void render (Graphics2D g)
     {
-        // Render all sections, using the colors they have been assigned
-        renderRuns(g);
+        // Render the runs within clip, using the colors they have been assigned
+        if (runTiles != null) {
+            runTiles.render(
+                    g,
+                    table.getModCount(),
+                    new TileCache.Painter()
+            {
+                @Override
+                public void paint (Graphics2D tg)
+                {
+                    renderRuns(tg);
+                }
+            });
+        } else {
+            renderRuns(g);
+        }
 
         // Paint additional items, such as recognized items, etc...
         renderItems(g);
@@ -149,21 +179,44 @@ public class RunsTableView
     //------------//
     // renderRuns //
     //------------//
+    /**
+     * Render only the runs that intersect the clip.
+     * Runs in a sequence are sorted by starting coordinate, so each sequence
+     * is browsed only until the clip end.
+     *
+     * @param g the graphics context
+     */
     protected void renderRuns (Graphics2D g)
     {
         Rectangle clip = g.getClipBounds();
+        Color color = null;
 
         switch (table.getOrientation()) {
         case HORIZONTAL: {
             int minRow = Math.max(clip.y, 0);
             int maxRow = Math.min((clip.y + clip.height), table.getHeight())
                          - 1;
+            int minCoord = clip.x;
+            int maxCoord = (clip.x + clip.width) - 1;
 
             for (int row = minRow; row <= maxRow; row++) {
                 List<Run> seq = table.getSequence(row);
 
                 for (Run run : seq) {
-                    g.setColor(runColor(run));
+                    if (run.getStart() > maxCoord) {
+                        break;
+                    }
+
+                    if (run.getStop() < minCoord) {
+                        continue;
+                    }
+
+                    Color runColor = runColor(run);
+
+                    if (runColor != color) {
+                        g.setColor(color = runColor);
+                    }
+
                     g.fillRect(run.getStart(), row, run.getLength(), 1);
                 }
             }
@@ -174,12 +227,27 @@ public class RunsTableView
         case VERTICAL: {
             int minRow = Math.max(clip.x, 0);
             int maxRow = Math.min((clip.x + clip.width), table.getWidth()) - 1;
+            int minCoord = clip.y;
+            int maxCoord = (clip.y + clip.height) - 1;
 
             for (int row = minRow; row <= maxRow; row++) {
                 List<Run> seq = table.getSequence(row);
 
                 for (Run run : seq) {
-                    g.setColor(runColor(run));
+                    if (run.getStart() > maxCoord) {
+                        break;
+                    }
+
+                    if (run.getStop() < minCoord) {
+                        continue;
+                    }
+
+                    Color runColor = runColor(run);
+
+                    if (runColor != color) {
+                        g.setColor(color = runColor);
+                    }
+
                     g.fillRect(row, run.getStart(), 1, run.getLength());
                 }
             }
@@ -234,4 +302,19 @@ public class RunsTableView
         table.getRunService()
                 .publish(new RunEvent(this, hint, movement, run));
     }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Boolean useRunTiles = new Constant.Boolean(
+                false,
+                "Should we cache the rendering of runs as image tiles?");
+
+    }
 }
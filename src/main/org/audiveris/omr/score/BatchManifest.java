@@ -0,0 +1,822 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                         B a t c h M a n i f e s t                          //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.score;
+
+import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.step.Step;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Class {@code BatchManifest} records the progress of a batch, so that
+ * a restarted batch can skip the input files already processed.
+ *
+ * <p>For each input file, the manifest records the input signature (size
+ * and date) with the selection of pages to process, the steps completed on
+ * each page and at score level, and at the end the desired steps and the
+ * output files (export, print) with their SHA-1 hash, as well as the ids of
+ * the pages actually provided by the input file.
+ * An input is considered as processed if the input file is unchanged, if
+ * its recorded page selection includes the desired pages, if its recorded
+ * steps cover the desired ones on each of these pages (on each page of the
+ * input file when all pages are desired) and if its output files are still
+ * present and unchanged.</p>
+ *
+ * <p>The manifest is a journal, to which each record is appended as a
+ * single line, so that an update is never partially visible, whatever the
+ * number of inputs. It is compacted when opened, the new content replacing
+ * the old one atomically. Step records are just flushed, while completion
+ * records are forced to disk.</p>
+ *
+ * <p>Sheet data is not persisted, hence a partially processed input is
+ * processed again from its first step.</p>
+ *
+ * @author Hervé Bitteur
+ */
+public class BatchManifest
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            BatchManifest.class);
+
+    /** Separator of record fields */
+    private static final String SEPARATOR = "\t";
+
+    /** Record of input signature, which starts a new entry */
+    private static final String START = "start";
+
+    /** Record of a step completed on a page */
+    private static final String PAGE = "page";
+
+    /** Record of the ids of the pages provided by the input file */
+    private static final String PAGES = "pages";
+
+    /** Record of a step completed at score level */
+    private static final String SCORE = "score";
+
+    /** Record of an output file */
+    private static final String OUTPUT = "output";
+
+    /** Record of input completion */
+    private static final String DONE = "done";
+
+    /** Page selection of a whole input file */
+    private static final String ALL_PAGES = "all";
+
+    //~ Instance fields --------------------------------------------------------
+    /** The journal file */
+    private final File file;
+
+    /** Current entries, per input path */
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /** Output on journal */
+    private FileOutputStream out;
+
+    //~ Constructors -----------------------------------------------------------
+    //---------------//
+    // BatchManifest //
+    //---------------//
+    /**
+     * Open (or create) a batch manifest.
+     *
+     * @param file the manifest file
+     * @throws IOException if the manifest cannot be read or written
+     */
+    public BatchManifest (File file)
+            throws IOException
+    {
+        this.file = file;
+
+        if (file.exists()) {
+            replay();
+        }
+
+        compact();
+        out = new FileOutputStream(file, true);
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //-------//
+    // close //
+    //-------//
+    /**
+     * Close the manifest journal.
+     */
+    public synchronized void close ()
+    {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ex) {
+                logger.warn("Error closing manifest {}", file, ex);
+            }
+
+            out = null;
+        }
+    }
+
+    //----------//
+    // complete //
+    //----------//
+    /**
+     * Record the completion of a score, provided that all the desired
+     * steps have been recorded, together with its output files.
+     *
+     * @param score        the processed score
+     * @param desiredSteps the steps desired on the score
+     * @return true if the score is complete
+     */
+    public boolean complete (Score score,
+                             Collection<Step> desiredSteps)
+    {
+        return complete(
+                score.getImageFile(),
+                desiredSteps,
+                score.getInputPageIds(),
+                score.getExportFile(),
+                score.getPrintFile());
+    }
+
+    //----------//
+    // complete //
+    //----------//
+    /**
+     * Record the completion of an input, provided that all the desired
+     * steps have been recorded, together with its output files.
+     *
+     * @param input        the input file
+     * @param desiredSteps the steps desired on the input
+     * @param inputPages   the ids of the pages provided by the input file,
+     *                     perhaps null
+     * @param outputs      the output files, perhaps null
+     * @return true if the input is complete
+     */
+    synchronized boolean complete (File input,
+                                   Collection<Step> desiredSteps,
+                                   SortedSet<Integer> inputPages,
+                                   File... outputs)
+    {
+        final String key = keyOf(input);
+        final Entry entry = entries.get(key);
+
+        if (entry == null) {
+            return false;
+        }
+
+        if ((inputPages != null) && !inputPages.isEmpty()) {
+            entry.inputPages = selectionOf(inputPages);
+            append(key, PAGES, entry.inputPages, false);
+        }
+
+        if (!entry.covers(desiredSteps, entry.getPages())) {
+            return false;
+        }
+
+        for (File output : outputs) {
+            if ((output != null) && output.isFile()) {
+                String value = output.getPath() + SEPARATOR + hashOf(output);
+                entry.outputs.add(value);
+                append(key, OUTPUT, value, false);
+            }
+        }
+
+        entry.done = namesOf(desiredSteps);
+        append(key, DONE, entry.done, true);
+
+        return true;
+    }
+
+    //------------//
+    // isComplete //
+    //------------//
+    /**
+     * Check whether the provided input has already been processed for
+     * the desired steps on the desired pages, and its outputs are still
+     * there.
+     *
+     * @param input        the input file
+     * @param desiredSteps the steps desired on the input
+     * @param desiredPages the pages desired (1-based), null or empty for all
+     * @return true if nothing is left to do
+     */
+    public synchronized boolean isComplete (File input,
+                                            Collection<Step> desiredSteps,
+                                            SortedSet<Integer> desiredPages)
+    {
+        final Entry entry = entries.get(keyOf(input));
+
+        if ((entry == null) || (entry.done == null)
+            || !entry.signature.equals(signatureOf(input))
+            || !entry.covers(desiredSteps, desiredPages)) {
+            return false;
+        }
+
+        for (String value : entry.outputs) {
+            String[] tokens = value.split(SEPARATOR);
+            File output = new File(tokens[0]);
+
+            if (!output.isFile() || !tokens[1].equals(hashOf(output))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    //-----------------//
+    // recordScoreStep //
+    //-----------------//
+    /**
+     * Record that a step has been completed at score level.
+     *
+     * @param score the processed score
+     * @param step  the completed step
+     */
+    public void recordScoreStep (Score score,
+                                 Step step)
+    {
+        recordScoreStep(score.getImageFile(), step);
+    }
+
+    //-----------------//
+    // recordScoreStep //
+    //-----------------//
+    /**
+     * Record that a step has been completed at score level.
+     *
+     * @param input the input file
+     * @param step  the completed step
+     */
+    synchronized void recordScoreStep (File input,
+                                       Step step)
+    {
+        final String key = keyOf(input);
+        final Entry entry = entries.get(key);
+
+        if (entry != null) {
+            entry.scoreSteps.add(step.getName());
+            append(key, SCORE, step.getName(), false);
+        }
+    }
+
+    //-----------------//
+    // recordSheetStep //
+    //-----------------//
+    /**
+     * Record that a step has been completed on a sheet.
+     *
+     * @param sheet the processed sheet
+     * @param step  the completed step
+     */
+    public void recordSheetStep (Sheet sheet,
+                                 Step step)
+    {
+        recordSheetStep(
+                sheet.getScore().getImageFile(),
+                sheet.getPage().getIndex(),
+                step);
+    }
+
+    //-----------------//
+    // recordSheetStep //
+    //-----------------//
+    /**
+     * Record that a step has been completed on a page.
+     *
+     * @param input the input file
+     * @param index the page index (1-based) in input file
+     * @param step  the completed step
+     */
+    synchronized void recordSheetStep (File input,
+                                       int index,
+                                       Step step)
+    {
+        final String key = keyOf(input);
+        final Entry entry = entries.get(key);
+
+        if (entry != null) {
+            entry.getPageSteps(index).add(step.getName());
+            append(key, PAGE, index + SEPARATOR + step.getName(), false);
+        }
+    }
+
+    //-------//
+    // start //
+    //-------//
+    /**
+     * Start a new entry for the processing of a score, discarding any
+     * previous record.
+     *
+     * @param score the score about to be processed
+     * @param pages the pages (1-based) to process, null or empty for all
+     */
+    public void start (Score score,
+                       SortedSet<Integer> pages)
+    {
+        start(score.getImageFile(), pages);
+    }
+
+    //-------//
+    // start //
+    //-------//
+    /**
+     * Start a new entry for the processing of an input file, discarding
+     * any previous record.
+     *
+     * @param input the input file about to be processed
+     * @param pages the pages (1-based) to process, null or empty for all
+     */
+    synchronized void start (File input,
+                             SortedSet<Integer> pages)
+    {
+        final String key = keyOf(input);
+        final Entry old = entries.get(key);
+
+        if ((old != null) && (old.done == null)) {
+            logger.info("{} was interrupted, processing it again", input);
+        }
+
+        final Entry entry = new Entry(signatureOf(input), selectionOf(pages));
+        entries.put(key, entry);
+        append(
+                key,
+                START,
+                entry.signature + SEPARATOR + entry.selection,
+                false);
+    }
+
+    //--------//
+    // append //
+    //--------//
+    private void append (String key,
+                         String type,
+                         String value,
+                         boolean force)
+    {
+        if (out == null) {
+            return;
+        }
+
+        try {
+            out.write(
+                    lineOf(key, type, value)
+                    .getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            if (force) {
+                out.getChannel()
+                        .force(false);
+            }
+        } catch (IOException ex) {
+            logger.warn("Error writing manifest {}", file, ex);
+        }
+    }
+
+    //---------//
+    // compact //
+    //---------//
+    /**
+     * Rewrite the journal with just the current entries.
+     */
+    private void compact ()
+            throws IOException
+    {
+        final File temp = new File(file.getPath() + ".tmp");
+        final File folder = file.getAbsoluteFile()
+                .getParentFile();
+
+        if ((folder != null) && folder.mkdirs()) {
+            logger.info("Creating folder {}", folder);
+        }
+
+        try (OutputStream os = new FileOutputStream(temp)) {
+            StringBuilder sb = new StringBuilder();
+
+            for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+                final String key = mapEntry.getKey();
+                final Entry entry = mapEntry.getValue();
+                sb.append(
+                        lineOf(
+                        key,
+                        START,
+                        entry.signature + SEPARATOR + entry.selection));
+
+                if (entry.inputPages != null) {
+                    sb.append(lineOf(key, PAGES, entry.inputPages));
+                }
+
+                for (Map.Entry<Integer, Set<String>> page : entry.pageSteps.
+                        entrySet()) {
+                    for (String step : page.getValue()) {
+                        sb.append(
+                                lineOf(
+                                key,
+                                PAGE,
+                                page.getKey() + SEPARATOR + step));
+                    }
+                }
+
+                for (String step : entry.scoreSteps) {
+                    sb.append(lineOf(key, SCORE, step));
+                }
+
+                for (String output : entry.outputs) {
+                    sb.append(lineOf(key, OUTPUT, output));
+                }
+
+                if (entry.done != null) {
+                    sb.append(lineOf(key, DONE, entry.done));
+                }
+            }
+
+            os.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        Files.move(
+                temp.toPath(),
+                file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    //--------//
+    // hashOf //
+    //--------//
+    private static String hashOf (File file)
+    {
+        try (InputStream is = new FileInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] buffer = new byte[8192];
+            int count;
+
+            while ((count = is.read(buffer)) > 0) {
+                digest.update(buffer, 0, count);
+            }
+
+            StringBuilder sb = new StringBuilder();
+
+            for (byte b : digest.digest()) {
+                sb.append(String.format("%02x", b));
+            }
+
+            return sb.toString();
+        } catch (Exception ex) {
+            logger.warn("Cannot hash {} {}", file, ex.toString());
+
+            return "";
+        }
+    }
+
+    //-------//
+    // idsOf //
+    //-------//
+    /**
+     * Parse a list of page ids, as written by {@link #selectionOf}.
+     *
+     * @param list the ids list, perhaps null
+     * @return the page ids, or null
+     */
+    private static SortedSet<Integer> idsOf (String list)
+    {
+        if (list == null) {
+            return null;
+        }
+
+        SortedSet<Integer> ids = new TreeSet<>();
+
+        for (String token : list.split(",")) {
+            ids.add(Integer.parseInt(token));
+        }
+
+        return ids;
+    }
+
+    //-------//
+    // keyOf //
+    //-------//
+    private static String keyOf (File input)
+    {
+        try {
+            return input.getCanonicalPath();
+        } catch (IOException ex) {
+            return input.getAbsolutePath();
+        }
+    }
+
+    //--------//
+    // lineOf //
+    //--------//
+    private static String lineOf (String key,
+                                  String type,
+                                  String value)
+    {
+        return key + SEPARATOR + type + SEPARATOR + value + "\n";
+    }
+
+    //---------//
+    // namesOf //
+    //---------//
+    private static String namesOf (Collection<Step> steps)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for (Step step : steps) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+
+            sb.append(step.getName());
+        }
+
+        return sb.toString();
+    }
+
+    //--------//
+    // replay //
+    //--------//
+    /**
+     * Rebuild the entries out of the journal lines.
+     * An incomplete last line, if any, is ignored.
+     */
+    private void replay ()
+            throws IOException
+    {
+        try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(
+                        new FileInputStream(file),
+                        StandardCharsets.UTF_8))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                String[] tokens = line.split(SEPARATOR, 3);
+
+                if (tokens.length < 3) {
+                    continue;
+                }
+
+                final String key = tokens[0];
+                final String type = tokens[1];
+                final String value = tokens[2];
+
+                if (type.equals(START)) {
+                    String[] startTokens = value.split(SEPARATOR);
+
+                    if (startTokens.length == 2) {
+                        entries.put(
+                                key,
+                                new Entry(startTokens[0], startTokens[1]));
+                    } else {
+                        entries.remove(key); // Invalid record
+                    }
+
+                    continue;
+                }
+
+                final Entry entry = entries.get(key);
+
+                if (entry == null) {
+                    continue;
+                }
+
+                switch (type) {
+                case PAGE: {
+                    String[] pageTokens = value.split(SEPARATOR);
+
+                    if (pageTokens.length == 2) {
+                        entry.getPageSteps(Integer.parseInt(pageTokens[0]))
+                                .add(pageTokens[1]);
+                    }
+
+                    break;
+                }
+
+                case PAGES:
+                    entry.inputPages = value;
+
+                    break;
+
+                case SCORE:
+                    entry.scoreSteps.add(value);
+
+                    break;
+
+                case OUTPUT:
+
+                    if (value.split(SEPARATOR).length == 2) {
+                        entry.outputs.add(value);
+                    }
+
+                    break;
+
+                case DONE:
+                    entry.done = value;
+
+                    break;
+
+                default:
+                }
+            }
+        }
+    }
+
+    //-------------//
+    // selectionOf //
+    //-------------//
+    private static String selectionOf (SortedSet<Integer> pages)
+    {
+        if ((pages == null) || pages.isEmpty()) {
+            return ALL_PAGES;
+        }
+
+        StringBuilder sb = new StringBuilder();
+
+        for (int page : pages) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+
+            sb.append(page);
+        }
+
+        return sb.toString();
+    }
+
+    //-------------//
+    // signatureOf //
+    //-------------//
+    private static String signatureOf (File input)
+    {
+        return input.length() + "/" + input.lastModified();
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //-------//
+    // Entry //
+    //-------//
+    /**
+     * The records of one input file.
+     */
+    private static class Entry
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** Signature of input file */
+        final String signature;
+
+        /** Selection of pages, ALL_PAGES or a list */
+        final String selection;
+
+        /** Ids of the pages provided by the input file, if recorded */
+        String inputPages;
+
+        /** Names of steps completed, per page index */
+        final Map<Integer, Set<String>> pageSteps = new TreeMap<>();
+
+        /** Names of steps completed at score level */
+        final Set<String> scoreSteps = new LinkedHashSet<>();
+
+        /** Output files, with their hash */
+        final List<String> outputs = new ArrayList<>();
+
+        /** Names of desired steps, once input is completely processed */
+        String done;
+
+        //~ Constructors -------------------------------------------------------
+        public Entry (String signature,
+                      String selection)
+        {
+            this.signature = signature;
+            this.selection = selection;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        /**
+         * Check whether the recorded steps cover the desired ones, on
+         * the desired pages.
+         * The recorded page selection must include the desired pages, and a
+         * sheet step must have been completed on every desired page (on
+         * every page of the input file if all pages are desired).
+         */
+        boolean covers (Collection<Step> desiredSteps,
+                        SortedSet<Integer> desiredPages)
+        {
+            if (!selects(desiredPages)) {
+                return false;
+            }
+
+            final SortedSet<Integer> pages = ((desiredPages == null)
+                                              || desiredPages.isEmpty())
+                    ? idsOf(inputPages) : desiredPages;
+
+            for (Step step : desiredSteps) {
+                if (step.isScoreLevel()) {
+                    if (!scoreSteps.contains(step.getName())) {
+                        return false;
+                    }
+                } else {
+                    if (pages == null) {
+                        return false; // Pages of input file not known
+                    }
+
+                    for (int page : pages) {
+                        Set<String> steps = pageSteps.get(page);
+
+                        if ((steps == null)
+                            || !steps.contains(step.getName())) {
+                            return false;
+                        }
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Report the recorded page selection.
+         *
+         * @return the selected pages, or null for all pages
+         */
+        SortedSet<Integer> getPages ()
+        {
+            if (selection.equals(ALL_PAGES)) {
+                return null;
+            }
+
+            return idsOf(selection);
+        }
+
+        Set<String> getPageSteps (int index)
+        {
+            Set<String> steps = pageSteps.get(index);
+
+            if (steps == null) {
+                pageSteps.put(index, steps = new LinkedHashSet<String>());
+            }
+
+            return steps;
+        }
+
+        /**
+         * Check whether the recorded page selection includes the desired
+         * pages.
+         */
+        boolean selects (SortedSet<Integer> desiredPages)
+        {
+            if (selection.equals(ALL_PAGES)) {
+                return true;
+            }
+
+            return (desiredPages != null) && !desiredPages.isEmpty()
+                   && getPages().containsAll(desiredPages);
+        }
+    }
+}
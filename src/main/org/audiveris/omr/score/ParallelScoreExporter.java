@@ -0,0 +1,291 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                 P a r a l l e l S c o r e E x p o r t e r                  //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.score;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.score.ScoreXmlReduction.Status;
+import org.audiveris.omr.score.entity.Page;
+import org.audiveris.omr.util.OmrExecutors;
+import org.audiveris.omr.util.TreeNode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Class {@code ParallelScoreExporter} exports a multi-page score to
+ * MusicXML, by generating the page fragments in parallel and reducing them
+ * on the fly into the global score.
+ *
+ * <p>Each page is exported by its own {@link ScoreExporter} (set in page
+ * mode), as a standalone MusicXML fragment, on the low-priority executor.
+ * The fragments are consumed in page order by a {@link ScoreXmlReduction},
+ * which unmarshals each of them as soon as it is available, so that the
+ * fragment string can be released.
+ * To bound memory, no more than a few page tasks are pending at any time
+ * (see constant {@code maxPendingFragments}).</p>
+ *
+ * <p>The final merge of part-lists still requires all the pages, it is thus
+ * performed once the last fragment has been consumed.</p>
+ *
+ * @author Hervé Bitteur
+ */
+public class ParallelScoreExporter
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            ParallelScoreExporter.class);
+
+    //~ Instance fields --------------------------------------------------------
+    /** The related score */
+    private final Score score;
+
+    /** The reduction in charge of merging page fragments */
+    private final ScoreXmlReduction reduction = new ScoreXmlReduction();
+
+    //~ Constructors -----------------------------------------------------------
+    //-----------------------//
+    // ParallelScoreExporter //
+    //-----------------------//
+    /**
+     * Create a new ParallelScoreExporter object, on a related score.
+     *
+     * @param score the score to export (cannot be null)
+     */
+    public ParallelScoreExporter (Score score)
+    {
+        if (score == null) {
+            throw new IllegalArgumentException("Trying to export a null score");
+        }
+
+        this.score = score;
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //--------//
+    // export //
+    //--------//
+    /**
+     * Export the score to a file.
+     *
+     * @param xmlFile         the xml file to write (cannot be null)
+     * @param injectSignature should we inject our signature?
+     * @throws Exception
+     */
+    public void export (File xmlFile,
+                        boolean injectSignature)
+            throws Exception
+    {
+        try (OutputStream os = new FileOutputStream(xmlFile)) {
+            export(os, injectSignature);
+        }
+    }
+
+    //--------//
+    // export //
+    //--------//
+    /**
+     * Export the score to an output stream.
+     *
+     * @param os              the output stream where XML data is written
+     *                        (cannot be null)
+     * @param injectSignature should we inject our signature?
+     * @throws Exception
+     */
+    public void export (OutputStream os,
+                        boolean injectSignature)
+            throws Exception
+    {
+        if (os == null) {
+            throw new IllegalArgumentException(
+                    "Trying to export a score to a null output stream");
+        }
+
+        // Durations are simplified on the whole score, before any page task
+        score.setDurationDivisor(null);
+        score.getDurationDivisor();
+
+        final ExecutorService executor = OmrExecutors.getCachedLowExecutor();
+        final int maxPending = Math.max(
+                1,
+                constants.maxPendingFragments.getValue());
+        final Iterator<TreeNode> pageIt = score.getPages().iterator();
+        final Deque<PageTask> pending = new ArrayDeque<>();
+
+        try {
+            while (pageIt.hasNext() || !pending.isEmpty()) {
+                // Keep the pipeline filled
+                while (pageIt.hasNext() && (pending.size() < maxPending)) {
+                    Page page = (Page) pageIt.next();
+                    pending.add(
+                            new PageTask(
+                            page.getIndex(),
+                            executor.submit(new PageExport(score, page))));
+                }
+
+                // Consume the oldest task
+                PageTask task = pending.poll();
+                reduction.addFragment(task.index, getFragment(task));
+            }
+        } finally {
+            // In case of failure or interruption
+            for (PageTask task : pending) {
+                task.future.cancel(true);
+            }
+        }
+
+        reduction.reduce(os, injectSignature);
+    }
+
+    //-------------//
+    // getStatuses //
+    //-------------//
+    /**
+     * Report the final status of each page fragment.
+     *
+     * @return the map (page index -> fragment status)
+     */
+    public Map<Integer, Status> getStatuses ()
+    {
+        return reduction.getStatuses();
+    }
+
+    //-------------//
+    // getFragment //
+    //-------------//
+    /**
+     * Wait for the fragment of a page.
+     *
+     * @param task the page task
+     * @return the page fragment, or null if the page could not be exported
+     * @throws InterruptedException
+     */
+    private String getFragment (PageTask task)
+            throws InterruptedException
+    {
+        try {
+            return task.future.get();
+        } catch (ExecutionException ex) {
+            logger.warn("Could not export page #" + task.index, ex.getCause());
+
+            return null;
+        }
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Integer maxPendingFragments = new Constant.Integer(
+                "pages",
+                8,
+                "Maximum number of page fragments being exported in parallel");
+
+    }
+
+    //------------//
+    // PageExport //
+    //------------//
+    /**
+     * Export of a single page into a MusicXML fragment.
+     */
+    private static class PageExport
+            implements Callable<String>
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        private final Score score;
+
+        private final Page page;
+
+        //~ Constructors -------------------------------------------------------
+        public PageExport (Score score,
+                           Page page)
+        {
+            this.score = score;
+            this.page = page;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        public String call ()
+                throws Exception
+        {
+            ScoreExporter exporter = new ScoreExporter(score);
+            exporter.setPage(page);
+            exporter.setStreaming(false);
+
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            exporter.export(os, false);
+
+            return os.toString("UTF-8");
+        }
+    }
+
+    //----------//
+    // PageTask //
+    //----------//
+    /**
+     * A pending page export.
+     */
+    private static class PageTask
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        final int index;
+
+        final Future<String> future;
+
+        //~ Constructors -------------------------------------------------------
+        public PageTask (int index,
+                         Future<String> future)
+        {
+            this.index = index;
+            this.future = future;
+        }
+    }
+}
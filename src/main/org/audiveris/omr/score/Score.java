@@ -50,6 +50,7 @@ import org.audiveris.omr.script.Script;
 import org.audiveris.omr.script.ScriptActions;
 
 import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.sheet.picture.PagePrefetcher;
 import org.audiveris.omr.sheet.picture.PictureLoader;
 import org.audiveris.omr.sheet.ui.SheetActions;
 import org.audiveris.omr.sheet.ui.SheetsController;
@@ -64,9 +65,8 @@ import java.awt.image.RenderedImage;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.TreeSet;
 
 import javax.swing.JFrame;
 
@@ -100,6 +100,15 @@ public class Score
     /** True if the score contains several pages */
     private boolean multiPage;
 
+    /** True while pages are being created */
+    private boolean creatingPages;
+
+    /** True if a page was removed while pages were being created */
+    private boolean removedWhileCreating;
+
+    /** Ids of the pages provided by the input file, once pages are created */
+    private SortedSet<Integer> inputPageIds;
+
     /** The recording of key processing data */
     private ScoreBench bench;
 
@@ -224,43 +233,86 @@ public class Score
     /**
      * Create as many pages (and related sheets) as there are images
      * in the input image file.
+     * The next images are decoded in the background, while the sheet of
+     * current image is being created.
      *
      * @param pages set of page ids (1-based) explicitly included.
      *              if set is empty or null all pages are loaded
      */
     public void createPages (SortedSet<Integer> pages)
     {
-        SortedMap<Integer, RenderedImage> images = PictureLoader.loadImages(
-                imageFile,
-                pages);
+        createPages(pages, null);
+    }
+
+    //-------------//
+    // createPages //
+    //-------------//
+    /**
+     * Create as many pages (and related sheets) as there are images
+     * in the input image file, and hand each page to the provided
+     * listener as soon as it is created.
+     * The next images are decoded in the background, while the current page
+     * is being created and handed to the listener, so that the processing
+     * of the first pages overlaps the decoding of the next ones.
+     *
+     * <p>While pages are being created, a page removal neither updates the
+     * multi-page status nor closes the score when no page is left: this is
+     * done once all pages are created.</p>
+     *
+     * @param pages    set of page ids (1-based) explicitly included.
+     *                 if set is empty or null all pages are loaded
+     * @param listener the listener to notify of each created page, or null
+     */
+    public void createPages (SortedSet<Integer> pages,
+                             PageListener listener)
+    {
+        PagePrefetcher images = PictureLoader.openImages(imageFile, pages);
 
         if (images != null) {
             Page firstPage = null;
+            inputPageIds = new TreeSet<>(images.getIds());
             setMultiPage(images.size() > 1); // Several images in the file
+            startPagesCreation();
+
+            try {
+                while (images.hasNext()) {
+                    int index = images.nextId();
+                    RenderedImage image = images.next();
+
+                    if (image == null) {
+                        continue; // Could not be decoded
+                    }
 
-            for (Entry<Integer, RenderedImage> entry : images.entrySet()) {
-                int index = entry.getKey();
-                RenderedImage image = entry.getValue();
-                Page page = null;
+                    Page page = null;
 
-                try {
-                    page = new Page(this, index, image);
+                    try {
+                        page = new Page(this, index, image);
 
-                    if (firstPage == null) {
-                        firstPage = page;
+                        if (firstPage == null) {
+                            firstPage = page;
 
-                        // Let the UI focus on first page
-                        if (Main.getGui() != null) {
-                            SheetsController.getInstance().showAssembly(firstPage.
-                                    getSheet());
+                            // Let the UI focus on first page
+                            if (Main.getGui() != null) {
+                                SheetsController.getInstance().showAssembly(
+                                        firstPage.getSheet());
+                            }
+                        }
+                    } catch (StepException ex) {
+                        // Remove page from score, if already included
+                        if ((page != null) && removeChild(page)) {
+                            logger.info("Page #{} removed", index);
                         }
+
+                        continue;
                     }
-                } catch (StepException ex) {
-                    // Remove page from score, if already included
-                    if ((page != null) && getPages().remove(page)) {
-                        logger.info("Page #{} removed", index);
+
+                    if (listener != null) {
+                        listener.pageCreated(page);
                     }
                 }
+            } finally {
+                images.close();
+                endPagesCreation();
             }
 
             // Remember (even across runs) the parent directory
@@ -406,6 +458,21 @@ public class Score
         return imageFile.getPath();
     }
 
+    //-----------------//
+    // getInputPageIds //
+    //-----------------//
+    /**
+     * Report the ids of the pages provided by the input file for the
+     * processing at hand (all its pages, unless a selection was specified),
+     * whether they could be processed or not.
+     *
+     * @return the page ids (1-based), or null if pages have not been created
+     */
+    public SortedSet<Integer> getInputPageIds ()
+    {
+        return inputPageIds;
+    }
+
     //--------------------//
     // getMeasureIdOffset //
     //--------------------//
@@ -763,11 +830,25 @@ public class Score
     //--------//
     /**
      * Remove a page
+     *
+     * @param page the page to remove
+     * @return true if no page is left, and no page is being created
      */
-    public void remove (Page page)
+    public boolean remove (Page page)
     {
-        getPages().remove(page);
-        setMultiPage(getPages().size() > 1);
+        synchronized (this) {
+            getPages().remove(page);
+
+            if (creatingPages) {
+                removedWhileCreating = true;
+
+                return false;
+            }
+
+            setMultiPage(getPages().size() > 1);
+
+            return getPages().isEmpty();
+        }
     }
 
     //--------------------//
@@ -922,6 +1003,39 @@ public class Score
         }
     }
 
+    //------------------//
+    // endPagesCreation //
+    //------------------//
+    /**
+     * Apply the page removals performed while pages were being created.
+     */
+    private void endPagesCreation ()
+    {
+        final boolean removed;
+
+        synchronized (this) {
+            creatingPages = false;
+            removed = removedWhileCreating;
+            removedWhileCreating = false;
+        }
+
+        if (removed) {
+            if (getPages().isEmpty()) {
+                close();
+            } else {
+                setMultiPage(getPages().size() > 1);
+            }
+        }
+    }
+
+    //-------------//
+    // removeChild //
+    //-------------//
+    private synchronized boolean removeChild (Page page)
+    {
+        return getPages().remove(page);
+    }
+
     //--------------//
     // setMultiPage //
     //--------------//
@@ -933,6 +1047,34 @@ public class Score
         this.multiPage = multiPage;
     }
 
+    //--------------------//
+    // startPagesCreation //
+    //--------------------//
+    private synchronized void startPagesCreation ()
+    {
+        creatingPages = true;
+        removedWhileCreating = false;
+    }
+
+    //~ Inner Interfaces -------------------------------------------------------
+    //--------------//
+    // PageListener //
+    //--------------//
+    /**
+     * Notified of each page created by {@link #createPages}.
+     */
+    public static interface PageListener
+    {
+        //~ Methods ------------------------------------------------------------
+
+        /**
+         * Called as soon as a page (and its sheet) is created.
+         *
+         * @param page the created page
+         */
+        void pageCreated (Page page);
+    }
+
     //~ Inner Classes ----------------------------------------------------------
     //-----------//
     // Constants //
@@ -23,6 +23,7 @@
 // </editor-fold>
 package org.audiveris.omr.score;
 
+import org.audiveris.omr.Main;
 import org.audiveris.omr.WellKnowns;
 
 import org.audiveris.omr.sheet.Bench;
@@ -167,6 +168,13 @@ public class ScoreBench
                 "step." + step.getName().toLowerCase() + ".duration",
                 "" + duration);
         flushBench();
+
+        // Record batch progress
+        BatchManifest manifest = Main.getManifest();
+
+        if (manifest != null) {
+            manifest.recordScoreStep(score, step);
+        }
     }
 
     //-------//
@@ -186,11 +186,23 @@ import java.util.concurrent.Future;
 
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
 
 /**
  * Class {@code ScoreExporter} visits the score hierarchy to export
  * the score to a MusicXML file, stream or DOM.
  *
+ * <p>By default, the whole proxymusic tree is built before being marshalled.
+ * When the streaming mode is set (see {@link #setStreaming}), measures are
+ * rather written to the output stream as soon as they are built, via a
+ * {@link ScoreXmlStreamer}, so that memory needs no longer depend on score
+ * size.</p>
+ *
+ * <p>The export can also be restricted to a single page (see
+ * {@link #setPage}), to produce a standalone page fragment, using the page
+ * part-list and page-based measure numbers, as expected by
+ * {@link ScoreXmlReduction}.</p>
+ *
  * @author Hervé Bitteur
  */
 public class ScoreExporter
@@ -254,9 +266,21 @@ public class ScoreExporter
     /** Potential range of selected measures */
     private MeasureRange measureRange;
 
+    /** Potential single page to export, as a standalone page fragment */
+    private Page singlePage;
+
     /** Factory for proxymusic entities */
     private final org.audiveris.proxymusic.ObjectFactory factory = new org.audiveris.proxymusic.ObjectFactory();
 
+    /** Should measures be streamed rather than kept in scorePartwise */
+    private boolean streaming = constants.streamingExport.isSet();
+
+    /** Are we browsing only for the document header (no measure) */
+    private boolean headerOnly;
+
+    /** Streamer where measures are written, during streamed export */
+    private ScoreXmlStreamer streamer;
+
     //~ Constructors -----------------------------------------------------------
     //---------------//
     // ScoreExporter //
@@ -296,7 +320,9 @@ public class ScoreExporter
                         boolean injectSignature)
             throws Exception
     {
-        export(new FileOutputStream(xmlFile), injectSignature);
+        try (OutputStream os = new FileOutputStream(xmlFile)) {
+            export(os, injectSignature);
+        }
     }
 
     //--------//
@@ -320,6 +346,12 @@ public class ScoreExporter
                     "Trying to export a score to a null output stream");
         }
 
+        if (streaming) {
+            stream(os, injectSignature);
+
+            return;
+        }
+
         // Let visited nodes fill the scorePartWise proxy
         try {
             score.accept(this);
@@ -382,6 +414,38 @@ public class ScoreExporter
         this.measureRange = measureRange;
     }
 
+    //---------//
+    // setPage //
+    //---------//
+    /**
+     * Restrict the export to the provided page, as if it were a
+     * standalone score. This is meant for the production of page
+     * fragments, to be later merged by {@link ScoreXmlReduction}.
+     * <p>The score duration divisor is used as it is, so it must be valid
+     * before a page is exported.</p>
+     *
+     * @param page the single page to export
+     */
+    public void setPage (Page page)
+    {
+        this.singlePage = page;
+    }
+
+    //--------------//
+    // setStreaming //
+    //--------------//
+    /**
+     * Set whether export to an output stream should write measures on
+     * the fly, rather than building the whole proxymusic tree first.
+     * This has no effect on export to a DOM node.
+     *
+     * @param streaming true for streamed export
+     */
+    public void setStreaming (boolean streaming)
+    {
+        this.streaming = streaming;
+    }
+
     //- All Visiting Methods ---------------------------------------------------
     //------------------//
     // visit Arpeggiate //
@@ -890,6 +954,9 @@ public class ScoreExporter
     @Override
     public boolean visit (Measure measure)
     {
+        // Measure to be streamed, once fully built
+        org.audiveris.proxymusic.ScorePartwise.Part.Measure streamed = null;
+
         try {
             logger.debug("Visiting {}", measure);
 
@@ -907,7 +974,10 @@ public class ScoreExporter
 
             // Allocate Measure
             current.pmMeasure = factory.createScorePartwisePartMeasure();
-            current.pmMeasure.setNumber(measure.getScoreId());
+            current.pmMeasure.setNumber(
+                    (singlePage != null)
+                    ? Integer.toString(measure.getIdValue())
+                    : measure.getScoreId());
 
             if (measure.getWidth() != null) {
                 current.pmMeasure.setWidth(toTenths(measure.getWidth()));
@@ -1067,11 +1137,24 @@ public class ScoreExporter
             clefIters.push(null, null);
 
             // Everything is now OK
-            current.pmPart.getMeasure().add(current.pmMeasure);
+            if (streamer != null) {
+                streamed = current.pmMeasure;
+            } else {
+                current.pmPart.getMeasure().add(current.pmMeasure);
+            }
         } catch (Exception ex) {
             logger.warn("Error visiting " + measure + " in " + current.page, ex);
         }
 
+        // Unlike measure content, the output stream cannot be fixed
+        if (streamed != null) {
+            try {
+                streamer.writeMeasure(streamed);
+            } catch (JAXBException | XMLStreamException ex) {
+                throw new StreamingException(ex);
+            }
+        }
+
         // Safer...
         current.endMeasure();
         tupletNumbers.clear();
@@ -1348,10 +1431,14 @@ public class ScoreExporter
     @Override
     public boolean visit (Page page)
     {
+        if ((singlePage != null) && (page != singlePage)) {
+            return false;
+        }
+
         try {
             logger.debug("Visiting {}", page);
 
-            isFirst.page = (page == score.getFirstPage());
+            isFirst.page = (page == getFirstPage());
             isFirst.system = true;
             isFirst.measure = true;
             current.page = page;
@@ -1435,8 +1522,10 @@ public class ScoreExporter
         try {
             logger.debug("Visiting {}", score);
 
-            // Reset durations for the score
-            score.setDurationDivisor(null);
+            // Reset durations for the score (unless a single page is exported)
+            if (singlePage == null) {
+                score.setDurationDivisor(null);
+            }
 
             // No version inserted
             // Let the marshalling class handle it
@@ -1464,7 +1553,7 @@ public class ScoreExporter
             Defaults defaults = new Defaults();
 
             // [Defaults]/Scaling (using first page)
-            Page firstPage = score.getFirstPage();
+            Page firstPage = getFirstPage();
 
             if (current.scale == null) {
                 current.scale = firstPage.getScale();
@@ -1509,14 +1598,14 @@ public class ScoreExporter
             scorePartwise.setDefaults(defaults);
 
             // PartList & sequence of parts
-            if (score.getPartList() != null) {
+            if (getPartList() != null) {
                 PartList partList = factory.createPartList();
                 scorePartwise.setPartList(partList);
 
                 // Here we browse the score hierarchy once for each score scorePart
                 isFirst.scorePart = true;
 
-                for (ScorePart p : score.getPartList()) {
+                for (ScorePart p : getPartList()) {
                     partList.getPartGroupOrScorePart().add(getScorePart(p));
                     isFirst.scorePart = false;
                 }
@@ -1552,7 +1641,7 @@ public class ScoreExporter
 
             if (systemPart != null) {
                 systemPart.accept(this);
-            } else {
+            } else if (!headerOnly) {
                 // Need to build an artificial system scorePart
                 // Or simply delegating to the series of artificial measures
                 SystemPart dummyPart = system.getFirstRealPart().
@@ -1565,6 +1654,8 @@ public class ScoreExporter
             if (!isFirst.measure) {
                 isFirst.system = false;
             }
+        } catch (StreamingException ex) {
+            throw ex;
         } catch (Exception ex) {
             logger.warn("Error visiting " + system, ex);
         }
@@ -1764,15 +1855,21 @@ public class ScoreExporter
         try {
             logger.debug("Visiting {}", systemPart);
 
-            // Delegate to texts
-            for (TreeNode node : systemPart.getTexts()) {
-                ((Text) node).accept(this);
+            // Delegate to texts (unless already done by header browsing)
+            if (streamer == null) {
+                for (TreeNode node : systemPart.getTexts()) {
+                    ((Text) node).accept(this);
+                }
             }
 
             // Delegate to measures
-            for (TreeNode node : systemPart.getMeasures()) {
-                ((Measure) node).accept(this);
+            if (!headerOnly) {
+                for (TreeNode node : systemPart.getMeasures()) {
+                    ((Measure) node).accept(this);
+                }
             }
+        } catch (StreamingException ex) {
+            throw ex;
         } catch (Exception ex) {
             logger.warn("Error visiting " + systemPart, ex);
         }
@@ -2339,6 +2436,33 @@ public class ScoreExporter
         return scorePartwise;
     }
 
+    //--------------//
+    // getFirstPage //
+    //--------------//
+    /**
+     * Report the first page to export.
+     *
+     * @return the single page if any, otherwise the score first page
+     */
+    private Page getFirstPage ()
+    {
+        return (singlePage != null) ? singlePage : score.getFirstPage();
+    }
+
+    //-------------//
+    // getPartList //
+    //-------------//
+    /**
+     * Report the list of parts to export.
+     *
+     * @return the single page part-list if any, otherwise the score one
+     */
+    private List<ScorePart> getPartList ()
+    {
+        return (singlePage != null) ? singlePage.getPartList()
+                : score.getPartList();
+    }
+
     //--------------//
     // getScorePart //
     //--------------//
@@ -2386,10 +2510,29 @@ public class ScoreExporter
         midiInstrument.setMidiProgram(midiProgram);
         midiInstrument.setVolume(new BigDecimal(score.getVolume()));
 
-        // ScorePart in scorePartwise
-        current.pmPart = factory.createScorePartwisePart();
-        scorePartwise.getPart().add(current.pmPart);
-        current.pmPart.setId(pmScorePart);
+        // ScorePart in scorePartwise (unless parts are streamed)
+        if (!headerOnly) {
+            current.pmPart = factory.createScorePartwisePart();
+            scorePartwise.getPart().add(current.pmPart);
+            current.pmPart.setId(pmScorePart);
+        }
+
+        browsePart(scorePart);
+
+        return pmScorePart;
+    }
+
+    //------------//
+    // browsePart //
+    //------------//
+    /**
+     * Browse the whole score hierarchy for the provided score part.
+     *
+     * @param scorePart the score part to populate
+     */
+    private void browsePart (ScorePart scorePart)
+    {
+        current.scorePart = scorePart;
 
         // Delegate to children the filling of measures
         logger.debug("Populating {}", current.scorePart);
@@ -2398,8 +2541,6 @@ public class ScoreExporter
 
         // Browse the whole score hierarchy for this score scorePart
         score.acceptChildren(this);
-
-        return pmScorePart;
     }
 
     //---------//
@@ -2517,6 +2658,59 @@ public class ScoreExporter
         }
     }
 
+    //--------//
+    // stream //
+    //--------//
+    /**
+     * Export the score to an output stream, measure after measure.
+     * A first browsing, which skips measures, populates the document
+     * header. Then each part is browsed again, and its measures are written
+     * as soon as they are built.
+     * The document is closed only if all measures could be written, otherwise
+     * the streamer error is thrown.
+     *
+     * @param os              the output stream where XML data is written
+     * @param injectSignature should we inject our signature?
+     * @throws Exception
+     */
+    private void stream (OutputStream os,
+                         boolean injectSignature)
+            throws Exception
+    {
+        // Populate header only
+        headerOnly = true;
+
+        try {
+            score.accept(this);
+        } finally {
+            headerOnly = false;
+        }
+
+        streamer = new ScoreXmlStreamer(os);
+
+        try {
+            streamer.writeHeader(scorePartwise, injectSignature);
+
+            if (getPartList() != null) {
+                isFirst.scorePart = true;
+
+                for (ScorePart p : getPartList()) {
+                    streamer.startPart(p.getPid());
+                    browsePart(p);
+                    streamer.endPart();
+                    isFirst.scorePart = false;
+                }
+            }
+
+            streamer.close();
+        } catch (StreamingException ex) {
+            throw (Exception) ex.getCause();
+        } finally {
+            streamer.release();
+            streamer = null;
+        }
+    }
+
     //- Utility Methods --------------------------------------------------------
     //-----------//
     // isDesired //
@@ -2997,5 +3191,30 @@ public class ScoreExporter
                 false,
                 "Should we avoid brackets for all tuplets");
 
+        Constant.Boolean streamingExport = new Constant.Boolean(
+                false,
+                "Should we write measures on the fly when exporting to a stream?");
+
+    }
+
+    //--------------------//
+    // StreamingException //
+    //--------------------//
+    /**
+     * Unchecked wrapper for a streamer error, meant to go through the
+     * score visit up to {@link #stream}.
+     */
+    private static class StreamingException
+            extends RuntimeException
+    {
+        //~ Static fields/initializers -----------------------------------------
+
+        private static final long serialVersionUID = 1L;
+
+        //~ Constructors -------------------------------------------------------
+        public StreamingException (Exception cause)
+        {
+            super(cause);
+        }
     }
 }
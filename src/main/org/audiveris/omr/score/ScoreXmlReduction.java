@@ -51,12 +51,15 @@ import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -90,6 +93,11 @@ import javax.xml.bind.JAXBException;
  * </code>
  * </p>
  *
+ * <p>Fragments can also be provided one after the other, as soon as they
+ * are available, through {@link #addFragment}. Each fragment is then
+ * immediately unmarshalled, so that its raw XML string can be released.
+ * See {@link ParallelScoreExporter} for such an in-process use.</p>
+ *
  * <p><b>Features not yet implemented:</b> <ul>
  * <li>Connection of slurs between pages</li>
  * <li>In part-list, handling of part-group beside score-part</li>
@@ -118,9 +126,6 @@ public class ScoreXmlReduction
     private static final Logger logger = LoggerFactory.getLogger(
             ScoreXmlReduction.class);
 
-    /** Just for debug */
-    private static StopWatch watch;
-
     //~ Enumerations -----------------------------------------------------------
     /** End status of processing for a single XML fragment */
     public static enum Status
@@ -139,12 +144,18 @@ public class ScoreXmlReduction
     }
 
     //~ Instance fields --------------------------------------------------------
-    /** Map of XML fragments, one entry per page */
+    /** Map of XML fragments, one entry per page, if provided at once */
     private final Map<Integer, String> fragments;
 
     /** Map of fragments final statuses, one status per page */
     private final Map<Integer, Status> statuses;
 
+    /** Unmarshalled page partwise instances, indexed by page number */
+    private final SortedMap<Integer, ScorePartwise> partwises = new TreeMap<>();
+
+    /** Just for debug */
+    private final StopWatch watch = new StopWatch("ScoreXmlReduction");
+
     /** Factory for proxymusic entities */
     private final org.audiveris.proxymusic.ObjectFactory factory = new org.audiveris.proxymusic.ObjectFactory();
 
@@ -175,7 +186,41 @@ public class ScoreXmlReduction
         statuses = new TreeMap<>();
     }
 
+    /**
+     * Creates a new ScoreXmlReduction object, whose fragments will be
+     * provided one by one via {@link #addFragment}.
+     */
+    public ScoreXmlReduction ()
+    {
+        this(null);
+    }
+
     //~ Methods ----------------------------------------------------------------
+    //-------------//
+    // addFragment //
+    //-------------//
+    /**
+     * Provide the XML fragment of a page.
+     * The fragment is immediately unmarshalled, and will be merged with the
+     * other ones by {@link #reduce}.
+     * This method is not thread-safe, it is meant to be called by a single
+     * consumer thread.
+     *
+     * @param pageNumber the page number in the containing score
+     * @param fragment   the MusicXML fragment produced from the page, or null
+     *                   if the page could not be processed
+     */
+    public void addFragment (int pageNumber,
+                             String fragment)
+    {
+        if (fragment == null) {
+            statuses.put(pageNumber, Status.FRAGMENT_FAILED);
+        } else {
+            statuses.put(pageNumber, Status.OK);
+            unmarshallPage(pageNumber, fragment);
+        }
+    }
+
     //-------------//
     // getStatuses //
     //-------------//
@@ -208,7 +253,7 @@ public class ScoreXmlReduction
         //                            "u:/soft/audi-bugs/multipage-bis/haffner", "p",
         //                            "^Smartscore-10.2.1.xml"
         //                        };
-        watch = new StopWatch("Global measurement");
+        StopWatch watch = new StopWatch("Global measurement");
 
         // Checking parameters
         if (args.length != 3) {
@@ -233,6 +278,8 @@ public class ScoreXmlReduction
         }
 
         // Reading files without any checking
+        watch.start("Reading input files");
+
         SortedMap<Integer, String> fragments = readFiles(files);
 
         // Reduction
@@ -250,11 +297,12 @@ public class ScoreXmlReduction
 
         File file = new File(dir, prefix + "global.xml");
         FileOutputStream fos = new FileOutputStream(file);
-        fos.write(output.getBytes());
+        fos.write(output.getBytes(StandardCharsets.UTF_8));
         fos.close();
         logger.info("Output written to {}", file);
 
         watch.print();
+        reduction.watch.print();
 
         // Final statuses
         System.out.println("\nProcessing results:");
@@ -283,29 +331,65 @@ public class ScoreXmlReduction
      */
     public String reduce ()
             throws Marshalling.MarshallingException, JAXBException
+    {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        reduce(os);
+
+        return new String(os.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    //--------//
+    // reduce //
+    //--------//
+    /**
+     * Same as {@link #reduce()}, but the global XML output is written to the
+     * provided output stream.
+     * Nothing is written if no fragment could be unmarshalled.
+     *
+     * @param os the output stream to write to
+     */
+    public void reduce (OutputStream os)
+            throws Marshalling.MarshallingException, JAXBException
+    {
+        reduce(os, true);
+    }
+
+    //--------//
+    // reduce //
+    //--------//
+    /**
+     * Same as {@link #reduce(OutputStream)}, with control on signature.
+     *
+     * @param os              the output stream to write to
+     * @param injectSignature should we inject our signature?
+     */
+    public void reduce (OutputStream os,
+                        boolean injectSignature)
+            throws Marshalling.MarshallingException, JAXBException
     {
         // Preloading of JAXBContext
         watch.start("Preloading JAXB Context");
         Marshalling.getContext(ScorePartwise.class);
 
-        // Initialize statuses
-        for (Integer page : fragments.keySet()) {
-            statuses.put(page, Status.OK);
-        }
-
         // Unmarshall pages (MusicXML fragments -> ScorePartwise instances)
-        SortedMap<Integer, ScorePartwise> partwises = unmarshallPages(
-                fragments);
+        if (fragments != null) {
+            // Initialize statuses
+            for (Integer page : fragments.keySet()) {
+                statuses.put(page, Status.OK);
+            }
+
+            unmarshallPages(fragments);
+        }
 
         if (partwises.isEmpty()) {
-            return "";
+            return;
         }
 
         // Consolidate (set of {page ScorePartwise} -> 1! global ScorePartwise)
         ScorePartwise globalPartwise = merge(partwises);
 
         // Build output (global ScorePartwise -> MusicXML)
-        return buildOutput(globalPartwise);
+        buildOutput(globalPartwise, os, injectSignature);
     }
 
     //-----------//
@@ -320,8 +404,6 @@ public class ScoreXmlReduction
     private static SortedMap<Integer, String> readFiles (
             SortedMap<Integer, File> files)
     {
-        watch.start("Reading input files");
-
         SortedMap<Integer, String> fragments = new TreeMap<>();
 
         for (Map.Entry<Integer, File> entry : files.entrySet()) {
@@ -329,7 +411,10 @@ public class ScoreXmlReduction
             File file = entry.getValue();
 
             try {
-                input = new BufferedReader(new FileReader(file));
+                input = new BufferedReader(
+                        new InputStreamReader(
+                        new FileInputStream(file),
+                        StandardCharsets.UTF_8));
             } catch (FileNotFoundException ex) {
                 System.err.println(ex + " " + file);
 
@@ -608,23 +693,21 @@ public class ScoreXmlReduction
     // buildOutput //
     //-------------//
     /**
-     * Marshall the global partwise into a String
+     * Marshall the global partwise into an output stream
      *
-     * @param globalPartwise the global partwise we have built
-     * @return the marshalled string
-     * @throws JAXBException
-     *                       throws
-     *                       IOException
+     * @param globalPartwise  the global partwise we have built
+     * @param os              the output stream to write to
+     * @param injectSignature should we inject our signature?
+     * @throws Marshalling.MarshallingException
      */
-    private String buildOutput (ScorePartwise globalPartwise)
+    private void buildOutput (ScorePartwise globalPartwise,
+                              OutputStream os,
+                              boolean injectSignature)
             throws Marshalling.MarshallingException
     {
         watch.start("Marshalling output");
 
-        ByteArrayOutputStream os = new ByteArrayOutputStream();
-        Marshalling.marshal(globalPartwise, os, true, 2);
-
-        return os.toString();
+        Marshalling.marshal(globalPartwise, os, injectSignature, 2);
     }
 
     //-------------------//
@@ -868,13 +951,8 @@ public class ScoreXmlReduction
      *
      * @param pageFragments the sequence of input fragments (one string per
      *                      page)
-     * @return the related sequence of partwise instances (one instance per
-     *         page)
-     * @throws JAXBException
      */
-    private SortedMap<Integer, ScorePartwise> unmarshallPages (
-            Map<Integer, String> pageFragments)
-            throws JAXBException
+    private void unmarshallPages (Map<Integer, String> pageFragments)
     {
         ///watch.start("Unmarshalling pages");
 
@@ -888,40 +966,50 @@ public class ScoreXmlReduction
                        + pageNumbers.last() + "]...";
 
         /* Load pages content */
-        SortedMap<Integer, ScorePartwise> pages = new TreeMap<>();
-
         for (int pageNumber : pageNumbers) {
-            watch.start("Unmarshalling page #" + pageNumber);
-
             ///logger.info("Unmarshalling fragment " + pageNumber + range);
-            String rawFragment = pageFragments.get(pageNumber);
-
-            // Filter out invalid XML characters if any
-            WrappedBoolean stripped = new WrappedBoolean(false);
-            String fragment = XmlUtil.stripNonValidXMLCharacters(
-                    rawFragment,
-                    stripped);
-
-            if (stripped.isSet()) {
-                logger.warn("Illegal XML characters found in fragment #{}",
-                        pageNumber);
-                statuses.put(pageNumber, Status.CHARACTERS_SKIPPED);
-            }
-
-            ByteArrayInputStream is = new ByteArrayInputStream(
-                    fragment.getBytes());
+            unmarshallPage(pageNumber, pageFragments.get(pageNumber));
+        }
+    }
 
-            try {
-                ScorePartwise partwise = (ScorePartwise) Marshalling.unmarshal(is);
-                pages.put(pageNumber, partwise);
-            } catch (Exception ex) {
-                logger.warn("Could not unmarshall fragment #{} {}",
-                        pageNumber, ex);
-                statuses.put(pageNumber, Status.FRAGMENT_FAILED);
-            }
+    //----------------//
+    // unmarshallPage //
+    //----------------//
+    /**
+     * Retrieve the partwise instance of a page, by unmarshalling MusicXML
+     * data from the page string fragment
+     *
+     * @param pageNumber  the page number
+     * @param rawFragment the page input fragment
+     */
+    private void unmarshallPage (int pageNumber,
+                                 String rawFragment)
+    {
+        watch.start("Unmarshalling page #" + pageNumber);
+
+        // Filter out invalid XML characters if any
+        WrappedBoolean stripped = new WrappedBoolean(false);
+        String fragment = XmlUtil.stripNonValidXMLCharacters(
+                rawFragment,
+                stripped);
+
+        if (stripped.isSet()) {
+            logger.warn("Illegal XML characters found in fragment #{}",
+                    pageNumber);
+            statuses.put(pageNumber, Status.CHARACTERS_SKIPPED);
         }
 
-        return pages;
+        ByteArrayInputStream is = new ByteArrayInputStream(
+                fragment.getBytes(StandardCharsets.UTF_8));
+
+        try {
+            ScorePartwise partwise = (ScorePartwise) Marshalling.unmarshal(is);
+            partwises.put(pageNumber, partwise);
+        } catch (Exception ex) {
+            logger.warn("Could not unmarshall fragment #{} {}",
+                    pageNumber, ex);
+            statuses.put(pageNumber, Status.FRAGMENT_FAILED);
+        }
     }
 
     //~ Inner Classes ----------------------------------------------------------
@@ -0,0 +1,427 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                      S c o r e X m l S t r e a m e r                       //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.score;
+
+import org.audiveris.proxymusic.ScorePartwise;
+import org.audiveris.proxymusic.ScorePartwise.Part.Measure;
+import org.audiveris.proxymusic.util.Marshalling;
+import org.audiveris.proxymusic.util.StreamWriterDelegate;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Class {@code ScoreXmlStreamer} writes a partwise MusicXML document
+ * incrementally, measure after measure, so that the whole proxymusic tree
+ * never needs to be kept in memory.
+ *
+ * <p>The document header (everything before the parts, from work to
+ * part-list) is small: it is marshalled through proxymusic as usual, so that
+ * version, encoding date and signature are handled exactly as for a
+ * non-streamed export, but its closing tag is withheld. Then each part is
+ * written as a sequence of measure fragments, marshalled by JAXB on a StAX
+ * writer as soon as they are provided.</p>
+ *
+ * <p>Typical calling sequence is:
+ * <code>
+ * <pre>
+ * ScoreXmlStreamer streamer = new ScoreXmlStreamer(os);
+ * streamer.writeHeader(header, injectSignature);
+ * for each part:
+ *     streamer.startPart(id);
+ *     for each measure:
+ *         streamer.writeMeasure(measure);
+ *     streamer.endPart();
+ * streamer.close(); // Or streamer.release() on failure
+ * </pre>
+ * </code>
+ * </p>
+ *
+ * @author Hervé Bitteur
+ */
+public class ScoreXmlStreamer
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Name of the root element */
+    private static final String ROOT_NAME = "score-partwise";
+
+    /** Qualified name for measure elements */
+    private static final QName MEASURE_NAME = new QName("measure");
+
+    /** Number of spaces per indentation level, as used by proxymusic */
+    private static final int INDENT = 2;
+
+    /** Separating comment before each part, as written by proxymusic */
+    private static final String PART_SEPARATOR = "= = = = = = = = = = = = = = = = = = = = = = = = = = = = =";
+
+    /** Separating comment before each measure, as written by proxymusic */
+    private static final String MEASURE_SEPARATOR = "=======================================================";
+
+    /** XLink namespace, whose attributes are declared by MusicXML DTD */
+    private static final String XLINK_NAMESPACE_URI = "http://www.w3.org/1999/xlink";
+
+    //~ Instance fields --------------------------------------------------------
+    /** The output stream to write to */
+    private final OutputStream os;
+
+    /** Writer on top of output stream, once header is written */
+    private Writer writer;
+
+    /** StAX writer for parts and measures */
+    private XMLStreamWriter xsw;
+
+    /** JAXB marshaller for measure fragments */
+    private Marshaller marshaller;
+
+    //~ Constructors -----------------------------------------------------------
+    //------------------//
+    // ScoreXmlStreamer //
+    //------------------//
+    /**
+     * Create a streamer on the provided output stream.
+     *
+     * @param os the output stream where XML data is written
+     */
+    public ScoreXmlStreamer (OutputStream os)
+    {
+        this.os = os;
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //-------//
+    // close //
+    //-------//
+    /**
+     * Close the document.
+     * The underlying output stream is flushed but not closed.
+     *
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    public void close ()
+            throws IOException, XMLStreamException
+    {
+        if (xsw != null) {
+            xsw.flush();
+            writer.write("\n</" + ROOT_NAME + ">");
+            writer.flush();
+            xsw = null;
+        }
+    }
+
+    //---------//
+    // endPart //
+    //---------//
+    /**
+     * Close the current part element.
+     *
+     * @throws XMLStreamException
+     */
+    public void endPart ()
+            throws XMLStreamException
+    {
+        xsw.writeEndElement();
+    }
+
+    //---------//
+    // release //
+    //---------//
+    /**
+     * Release the writers, without closing the document.
+     * This is meant for cleanup after a failure, and is a no-op after a
+     * successful {@link #close}.
+     */
+    public void release ()
+    {
+        if (xsw != null) {
+            try {
+                xsw.close(); // Does not close the underlying output stream
+            } catch (XMLStreamException ignored) {
+            }
+
+            xsw = null;
+        }
+
+        writer = null;
+        marshaller = null;
+    }
+
+    //-----------//
+    // startPart //
+    //-----------//
+    /**
+     * Open a new part element.
+     *
+     * @param id the part id, as referenced in part-list
+     * @throws XMLStreamException
+     */
+    public void startPart (String id)
+            throws XMLStreamException
+    {
+        xsw.writeComment(PART_SEPARATOR);
+        xsw.writeStartElement("part");
+        xsw.writeAttribute("id", id);
+    }
+
+    //-------------//
+    // writeHeader //
+    //-------------//
+    /**
+     * Write the document header.
+     *
+     * @param header          the score proxy, with no part yet
+     * @param injectSignature should we inject our signature?
+     * @throws Exception
+     */
+    public void writeHeader (ScorePartwise header,
+                             boolean injectSignature)
+            throws Exception
+    {
+        if (!header.getPart().isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Header should contain no part");
+        }
+
+        // Marshal the header, but withhold the closing tag
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Marshalling.marshal(header, baos, injectSignature, INDENT);
+
+        String str = baos.toString("UTF-8");
+        int end = str.lastIndexOf("</" + ROOT_NAME + ">");
+
+        if (end == -1) {
+            throw new IllegalStateException("No " + ROOT_NAME + " element");
+        }
+
+        writer = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
+        writer.write(str.substring(0, end).replaceFirst("\\s+$", ""));
+
+        xsw = new IndentingWriter(
+                XMLOutputFactory.newFactory().createXMLStreamWriter(writer));
+
+        marshaller = Marshalling.getContext(ScorePartwise.class).
+                createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+    }
+
+    //--------------//
+    // writeMeasure //
+    //--------------//
+    /**
+     * Write a measure within the current part.
+     * Once written, the measure is no longer needed.
+     *
+     * @param measure the measure to write
+     * @throws JAXBException
+     * @throws XMLStreamException
+     */
+    public void writeMeasure (Measure measure)
+            throws JAXBException, XMLStreamException
+    {
+        xsw.writeComment(MEASURE_SEPARATOR);
+        marshaller.marshal(
+                new JAXBElement<>(MEASURE_NAME, Measure.class, measure),
+                xsw);
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //-----------------//
+    // IndentingWriter //
+    //-----------------//
+    /**
+     * Stream writer which indents elements the way proxymusic does,
+     * starting one level below the root element.
+     * An element which contains only text stays on a single line.
+     * <p>Since MusicXML DTD declares the xlink attributes, namespace
+     * declarations are not written and xlink attributes simply use the
+     * "xlink" prefix.</p>
+     */
+    private static class IndentingWriter
+            extends StreamWriterDelegate
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** Current depth */
+        private int depth = 1;
+
+        /** Does the current element contain child elements? */
+        private boolean hasChildren;
+
+        //~ Constructors -------------------------------------------------------
+        public IndentingWriter (XMLStreamWriter writer)
+        {
+            super(writer);
+        }
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        public void writeAttribute (String namespaceURI,
+                                    String localName,
+                                    String value)
+                throws XMLStreamException
+        {
+            writeAttribute(null, namespaceURI, localName, value);
+        }
+
+        @Override
+        public void writeAttribute (String prefix,
+                                    String namespaceURI,
+                                    String localName,
+                                    String value)
+                throws XMLStreamException
+        {
+            if (XLINK_NAMESPACE_URI.equals(namespaceURI)) {
+                super.writeAttribute("xlink:" + localName, value);
+            } else {
+                super.writeAttribute(localName, value);
+            }
+        }
+
+        @Override
+        public void writeComment (String data)
+                throws XMLStreamException
+        {
+            indent();
+            super.writeComment(data);
+        }
+
+        @Override
+        public void writeDefaultNamespace (String namespaceURI)
+        {
+            // Void
+        }
+
+        @Override
+        public void writeEmptyElement (String localName)
+                throws XMLStreamException
+        {
+            indent();
+            super.writeEmptyElement(localName);
+            hasChildren = true;
+        }
+
+        @Override
+        public void writeEmptyElement (String namespaceURI,
+                                       String localName)
+                throws XMLStreamException
+        {
+            indent();
+            super.writeEmptyElement(namespaceURI, localName);
+            hasChildren = true;
+        }
+
+        @Override
+        public void writeEmptyElement (String prefix,
+                                       String localName,
+                                       String namespaceURI)
+                throws XMLStreamException
+        {
+            indent();
+            super.writeEmptyElement(prefix, localName, namespaceURI);
+            hasChildren = true;
+        }
+
+        @Override
+        public void writeNamespace (String prefix,
+                                    String namespaceURI)
+        {
+            // Void
+        }
+
+        @Override
+        public void writeEndElement ()
+                throws XMLStreamException
+        {
+            depth--;
+
+            if (hasChildren) {
+                indent();
+            }
+
+            super.writeEndElement();
+            hasChildren = true;
+        }
+
+        @Override
+        public void writeStartElement (String localName)
+                throws XMLStreamException
+        {
+            indent();
+            super.writeStartElement(localName);
+            open();
+        }
+
+        @Override
+        public void writeStartElement (String namespaceURI,
+                                       String localName)
+                throws XMLStreamException
+        {
+            indent();
+            super.writeStartElement(namespaceURI, localName);
+            open();
+        }
+
+        @Override
+        public void writeStartElement (String prefix,
+                                       String localName,
+                                       String namespaceURI)
+                throws XMLStreamException
+        {
+            indent();
+            super.writeStartElement(prefix, localName, namespaceURI);
+            open();
+        }
+
+        private void indent ()
+                throws XMLStreamException
+        {
+            StringBuilder sb = new StringBuilder("\n");
+
+            for (int i = depth * INDENT; i > 0; i--) {
+                sb.append(' ');
+            }
+
+            super.writeCharacters(sb.toString());
+        }
+
+        private void open ()
+        {
+            depth++;
+            hasChildren = false;
+        }
+    }
+}
@@ -194,14 +194,13 @@ public class ScoresManager
 
         // Actually export the score material
         try {
-            ScoreExporter exporter = new ScoreExporter(score);
+            boolean signed = (injectSignature != null) ? injectSignature
+                    : constants.defaultInjectSignature.getValue();
 
-            if (injectSignature != null) {
-                exporter.export(file, injectSignature);
+            if (score.isMultiPage() && constants.parallelPageExport.isSet()) {
+                new ParallelScoreExporter(score).export(file, signed);
             } else {
-                exporter.export(
-                        file,
-                        constants.defaultInjectSignature.getValue());
+                new ScoreExporter(score).export(file, signed);
             }
 
             logger.info("Score exported to {}", file);
@@ -647,6 +646,10 @@ public class ScoresManager
                 true,
                 "Should we inject our signature in the exported scores?");
 
+        Constant.Boolean parallelPageExport = new Constant.Boolean(
+                false,
+                "Should multi-page scores be exported page by page in parallel?");
+
         Constant.String imagesHistory = new Constant.String(
                 "",
                 "History of loaded images");
@@ -1009,9 +1009,9 @@ public class Chord
 
                 // Apply augmentation (applies to rests as well)
                 if (dotsNumber == 1) {
-                    rawDuration = rawDuration.times(new Rational(3, 2));
+                    rawDuration = rawDuration.times(Rational.valueOf(3, 2));
                 } else if (dotsNumber == 2) {
-                    rawDuration = rawDuration.times(new Rational(7, 4));
+                    rawDuration = rawDuration.times(Rational.valueOf(7, 4));
                 }
             }
         }
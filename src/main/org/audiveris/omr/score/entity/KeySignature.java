@@ -32,8 +32,8 @@ import static org.audiveris.omr.glyph.Shape.*;
 import org.audiveris.omr.glyph.ShapeSet;
 import org.audiveris.omr.glyph.facets.Glyph;
 
-import org.audiveris.omr.math.Histogram;
 import org.audiveris.omr.math.Histogram.PeakEntry;
+import org.audiveris.omr.math.IntHistogram;
 
 import org.audiveris.omr.run.Orientation;
 
@@ -507,7 +507,7 @@ public class KeySignature
     {
         if (refList == null) {
             List<Integer> refs = new ArrayList<>();
-            Histogram<Integer> histo = getPage().getSheet().getNest().
+            IntHistogram histo = getPage().getSheet().getNest().
                     getHistogram(
                     Orientation.VERTICAL,
                     getGlyphs());
@@ -898,7 +898,7 @@ public class Measure
                     denominator = 4;
                 }
 
-                expectedDuration = new Rational(numerator, denominator);
+                expectedDuration = Rational.valueOf(numerator, denominator);
             }
 
             return expectedDuration;
@@ -78,7 +78,7 @@ public class Note
     private static final Logger logger = LoggerFactory.getLogger(Note.class);
 
     /** The quarter duration value */
-    public static final Rational QUARTER_DURATION = new Rational(1, 4);
+    public static final Rational QUARTER_DURATION = Rational.valueOf(1, 4);
 
     //~ Enumerations -----------------------------------------------------------
     /** Names of the various note steps */
@@ -788,11 +788,11 @@ public class Note
     {
         switch (baseShapeOf(shape)) {
         case LONG_REST: // 4 measures
-            return new Rational(4, 1);
+            return Rational.valueOf(4, 1);
 
         case BREVE_REST: // 2 measures
         case BREVE:
-            return new Rational(2, 1);
+            return Rational.valueOf(2, 1);
 
         case WHOLE_REST: // 1 measure
         case WHOLE_NOTE:
@@ -800,26 +800,26 @@ public class Note
 
         case HALF_REST:
         case NOTEHEAD_VOID:
-            return new Rational(1, 2);
+            return Rational.valueOf(1, 2);
 
         case QUARTER_REST:
         case NOTEHEAD_BLACK:
             return QUARTER_DURATION;
 
         case EIGHTH_REST:
-            return new Rational(1, 8);
+            return Rational.valueOf(1, 8);
 
         case ONE_16TH_REST:
-            return new Rational(1, 16);
+            return Rational.valueOf(1, 16);
 
         case ONE_32ND_REST:
-            return new Rational(1, 32);
+            return Rational.valueOf(1, 32);
 
         case ONE_64TH_REST:
-            return new Rational(1, 64);
+            return Rational.valueOf(1, 64);
 
         case ONE_128TH_REST:
-            return new Rational(1, 128);
+            return Rational.valueOf(1, 128);
 
         default:
             // Error
@@ -98,7 +98,7 @@ public class TimeRational
     //----------//
     public Rational getValue ()
     {
-        return new Rational(num, den);
+        return Rational.valueOf(num, den);
     }
 
     //----------//
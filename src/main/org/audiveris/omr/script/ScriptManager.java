@@ -29,6 +29,8 @@ import org.audiveris.omr.score.Score;
 
 import org.audiveris.omr.step.ProcessingCancellationException;
 
+import org.audiveris.omr.util.JaxbContexts;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,10 +40,7 @@ import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
 
 /**
  * Class {@code ScriptManager} is in charge of handling the storing
@@ -59,9 +58,6 @@ public class ScriptManager
     /** File extension for script files. */
     public static final String SCRIPT_EXTENSION = ".script.xml";
 
-    /** Un/marshalling context for use with JAXB. */
-    private static volatile JAXBContext jaxbContext;
-
     //~ Constructors -----------------------------------------------------------
     //---------------//
     // ScriptManager //
@@ -99,9 +95,7 @@ public class ScriptManager
     public Script load (InputStream input)
     {
         try {
-            Unmarshaller um = getJaxbContext().createUnmarshaller();
-
-            return (Script) um.unmarshal(input);
+            return (Script) JaxbContexts.unmarshal(Script.class, input);
         } catch (JAXBException ex) {
             logger.warn("Cannot unmarshal script", ex);
 
@@ -168,32 +162,12 @@ public class ScriptManager
     {
         logger.debug("Storing {}", script);
 
-        Marshaller m = getJaxbContext().createMarshaller();
-        m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-        m.marshal(script, output);
+        JaxbContexts.marshal(Script.class, script, output, true);
 
         // Flag the script with this event
         script.setModified(false);
     }
 
-    //----------------//
-    // getJaxbContext //
-    //----------------//
-    private JAXBContext getJaxbContext ()
-            throws JAXBException
-    {
-        // Lazy creation
-        if (jaxbContext == null) {
-            synchronized (this) {
-                if (jaxbContext == null) {
-                    jaxbContext = JAXBContext.newInstance(Script.class);
-                }
-            }
-        }
-
-        return jaxbContext;
-    }
-
     //~ Inner Interfaces -------------------------------------------------------
     //--------//
     // Holder //
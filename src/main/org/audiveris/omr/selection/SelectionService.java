@@ -32,12 +32,28 @@ import org.bushe.swing.event.ThreadSafeEventService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 /**
  * Class {@code SelectionService} is an OMR customized version of an
  * EventService as provided by the EventBus framework.
  *
+ * <p>Events published on the event dispatch thread while the user is
+ * dragging the mouse come in bursts, each of them triggering a cascade of
+ * lookups and derived publications. Such events are coalesced: only the
+ * latest event of each class is kept, and actually published when the
+ * coalescing delay has elapsed, or as soon as another event is published.
+ * Events published in reaction to an event being dispatched are always
+ * published at once, so that a cascade is never delayed.</p>
+ *
  * @author Hervé Bitteur
  */
 public class SelectionService
@@ -52,6 +68,9 @@ public class SelectionService
     private static final Logger logger = LoggerFactory.getLogger(
             SelectionService.class);
 
+    /** Depth of event dispatching on the event dispatch thread */
+    private static int dispatchDepth = 0;
+
     //~ Instance fields --------------------------------------------------------
     /** Name of this service */
     private final String name;
@@ -59,6 +78,12 @@ public class SelectionService
     /** Allowed events */
     private final Class[] allowedEvents;
 
+    /** Coalesced events not yet published, per event class (EDT only) */
+    private final Map<Class<?>, UserEvent> pendings = new LinkedHashMap<>();
+
+    /** Timer to publish the coalesced events (EDT only) */
+    private Timer flushTimer;
+
     //~ Constructors -----------------------------------------------------------
     //------------------//
     // SelectionService //
@@ -109,6 +134,51 @@ public class SelectionService
         }
     }
 
+    //-------//
+    // flush //
+    //-------//
+    /**
+     * Publish at once the coalesced events, if any.
+     * This must be called on the event dispatch thread.
+     */
+    public void flush ()
+    {
+        if (pendings.isEmpty()) {
+            return;
+        }
+
+        List<UserEvent> events = new ArrayList<>(pendings.values());
+        pendings.clear();
+
+        for (UserEvent event : events) {
+            dispatch(event);
+        }
+    }
+
+    //--------------//
+    // getLastEvent //
+    //--------------//
+    /**
+     * Overridden to report a coalesced event not yet published, if any.
+     *
+     * @param eventClass the event class we are interested in
+     * @return the last event of this class, perhaps not yet published
+     */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Object getLastEvent (Class eventClass)
+    {
+        if (SwingUtilities.isEventDispatchThread()) {
+            UserEvent pending = pendings.get(eventClass);
+
+            if (pending != null) {
+                return pending;
+            }
+        }
+
+        return super.getLastEvent(eventClass);
+    }
+
     //---------//
     // getName //
     //---------//
@@ -141,8 +211,8 @@ public class SelectionService
     // publish //
     //---------//
     /**
-     * This method is overridden just to be able to potentially check
-     * and trace every publication.
+     * This method is overridden to be able to potentially check
+     * and trace every publication, and to coalesce bursts of events.
      *
      * @param event the published event
      */
@@ -154,7 +224,17 @@ public class SelectionService
         // Check whether the event may be published on this service
         if (!constants.checkPublishedEvents.isSet()
             || contains(allowedEvents, event.getClass())) {
-            super.publish(event);
+            if (!SwingUtilities.isEventDispatchThread()) {
+                super.publish(event);
+            } else if (isCoalescable(event)) {
+                // Keep only the latest event of this class
+                pendings.put(event.getClass(), (UserEvent) event);
+                startFlushTimer();
+            } else {
+                // Preserve publication order
+                flush();
+                dispatch(event);
+            }
         } else {
             logger.error("Unexpected event {} published on {}", event, name);
         }
@@ -231,6 +311,62 @@ public class SelectionService
         return res;
     }
 
+    //----------//
+    // dispatch //
+    //----------//
+    /**
+     * Actually publish the event, on the event dispatch thread.
+     */
+    private void dispatch (Object event)
+    {
+        dispatchDepth++;
+
+        try {
+            super.publish(event);
+        } finally {
+            dispatchDepth--;
+        }
+    }
+
+    //---------------//
+    // isCoalescable //
+    //---------------//
+    /**
+     * Check whether the event, published on the event dispatch thread,
+     * can be coalesced with the following ones.
+     */
+    private boolean isCoalescable (Object event)
+    {
+        return constants.coalesceDraggingEvents.isSet()
+               && (dispatchDepth == 0)
+               && (event instanceof UserEvent)
+               && (((UserEvent) event).movement == MouseMovement.DRAGGING);
+    }
+
+    //-----------------//
+    // startFlushTimer //
+    //-----------------//
+    private void startFlushTimer ()
+    {
+        if (flushTimer == null) {
+            flushTimer = new Timer(
+                    constants.coalescingDelay.getValue(),
+                    new ActionListener()
+            {
+                @Override
+                public void actionPerformed (ActionEvent e)
+                {
+                    flush();
+                }
+            });
+            flushTimer.setRepeats(false);
+        }
+
+        if (!flushTimer.isRunning()) {
+            flushTimer.start();
+        }
+    }
+
     //----------//
     // contains //
     //----------//
@@ -259,5 +395,14 @@ public class SelectionService
                 true,
                 "(debug) Should we check published events?");
 
+        Constant.Boolean coalesceDraggingEvents = new Constant.Boolean(
+                true,
+                "Should we coalesce the events published while dragging?");
+
+        Constant.Integer coalescingDelay = new Constant.Integer(
+                "ms",
+                20,
+                "Maximum delay before publishing coalesced events");
+
     }
 }
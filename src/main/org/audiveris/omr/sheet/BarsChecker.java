@@ -403,6 +403,8 @@ public class BarsChecker
 
             // Be very careful with check order, because of side-effects
             // topArea, bottomArea, isPartDefining, isThick are already set
+            // So, checks cannot be reordered
+            setAdaptive(false);
             //
             add(1, new VerticalCheck());
             add(1, new LeftCheck());
@@ -674,7 +674,8 @@ public class HorizontalsBuilder
                 scale,
                 sheet.getNest(),
                 HORIZONTAL,
-                Filament.class);
+                Filament.class,
+                sheet.getContext().getConstants());
         // Adjust factory parameters
         factory.setMaxCoordGap(constants.maxCoordGap);
         factory.setMaxExpansionSpace(constants.maxExpansionSpace);
@@ -0,0 +1,126 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                     P r o c e s s i n g C o n t e x t                      //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet;
+
+import org.audiveris.omr.constant.ConstantManager;
+import org.audiveris.omr.constant.ConstantSnapshot;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class {@code ProcessingContext} gathers the processing state which
+ * is specific to a sheet, but which is not part of the sheet data, such as
+ * the generators of debugging ids, or the snapshot of constant values used
+ * by the current step.
+ *
+ * <p>Since such state is owned by the sheet rather than by a static field
+ * of some builder class, several sheets can be processed concurrently in
+ * the same JVM with no cross-talk. All methods are thread-safe, since the
+ * systems of a sheet may be processed in parallel.</p>
+ *
+ * @author Hervé Bitteur
+ */
+public class ProcessingContext
+{
+    //~ Instance fields --------------------------------------------------------
+
+    /** Id generators, per family */
+    private final ConcurrentMap<String, AtomicInteger> generators = new ConcurrentHashMap<>();
+
+    /** Constant values for the current step */
+    private volatile ConstantSnapshot constants;
+
+    //~ Methods ----------------------------------------------------------------
+    //------------------//
+    // captureConstants //
+    //------------------//
+    /**
+     * Capture the current constant values, typically at the start of
+     * a step, for all the processing of this step.
+     */
+    public void captureConstants ()
+    {
+        constants = ConstantManager.getInstance().getSnapshot();
+    }
+
+    //--------------//
+    // getConstants //
+    //--------------//
+    /**
+     * Report the constant values captured for the current step, or the
+     * current values if none has been captured yet.
+     *
+     * @return the snapshot of constant values
+     */
+    public ConstantSnapshot getConstants ()
+    {
+        ConstantSnapshot snapshot = constants;
+
+        if (snapshot == null) {
+            captureConstants();
+            snapshot = constants;
+        }
+
+        return snapshot;
+    }
+
+    //--------//
+    // nextId //
+    //--------//
+    /**
+     * Generate a new id within the provided family of ids.
+     * Ids of a family start at 1 for each sheet.
+     *
+     * @param family the family of ids, typically a class simple name
+     * @return the new id
+     */
+    public int nextId (String family)
+    {
+        AtomicInteger generator = generators.get(family);
+
+        if (generator == null) {
+            AtomicInteger newGenerator = new AtomicInteger(0);
+            generator = generators.putIfAbsent(family, newGenerator);
+
+            if (generator == null) {
+                generator = newGenerator;
+            }
+        }
+
+        return generator.incrementAndGet();
+    }
+
+    //-------//
+    // reset //
+    //-------//
+    /**
+     * Reset all id generators.
+     */
+    public void reset ()
+    {
+        generators.clear();
+    }
+}
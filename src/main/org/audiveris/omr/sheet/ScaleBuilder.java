@@ -32,6 +32,7 @@ import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.math.Histogram;
 import org.audiveris.omr.math.Histogram.MaxEntry;
 import org.audiveris.omr.math.Histogram.PeakEntry;
+import org.audiveris.omr.math.IntHistogram;
 
 import org.audiveris.omr.run.FilterDescriptor;
 import org.audiveris.omr.run.Orientation;
@@ -118,10 +119,10 @@ public class ScaleBuilder
     private HistoKeeper histoKeeper;
 
     /** Histogram on foreground runs. */
-    private Histogram<Integer> foreHisto;
+    private IntHistogram foreHisto;
 
     /** Histogram on background runs. */
-    private Histogram<Integer> backHisto;
+    private IntHistogram backHisto;
 
     /** Absolute population percentage for validating an extremum. */
     private final double quorumRatio = constants.quorumRatio.getValue();
@@ -386,7 +387,7 @@ public class ScaleBuilder
     //---------//
     // getPeak //
     //---------//
-    private PeakEntry<Double> getPeak (Histogram<?> histo,
+    private PeakEntry<Double> getPeak (IntHistogram histo,
                                        double spreadRatio,
                                        int index)
     {
@@ -601,9 +602,9 @@ public class ScaleBuilder
         //-----------------//
         // createHistogram //
         //-----------------//
-        private Histogram<Integer> createHistogram (int... vals)
+        private IntHistogram createHistogram (int... vals)
         {
-            Histogram<Integer> histo = new Histogram<>();
+            IntHistogram histo = new IntHistogram(0, vals.length - 1);
 
             for (int i = 0; i < vals.length; i++) {
                 histo.increaseCount(i, vals[i]);
@@ -724,7 +725,7 @@ public class ScaleBuilder
 
         private final int[] values;
 
-        private final Histogram<Integer> histo;
+        private final IntHistogram histo;
 
         private final double spreadRatio;
 
@@ -739,7 +740,7 @@ public class ScaleBuilder
         //~ Constructors -------------------------------------------------------
         public Plotter (String name,
                         int[] values,
-                        Histogram<Integer> histo,
+                        IntHistogram histo,
                         double spreadRatio,
                         PeakEntry<Double> peak,
                         PeakEntry<Double> secondPeak, // if any
@@ -143,6 +143,12 @@ public class Sheet
     /** The related picture */
     private Picture picture;
 
+    /** Memory accounting of sheet structures */
+    private final SheetMemory memory = new SheetMemory(this);
+
+    /** Processing state specific to this sheet */
+    private final ProcessingContext context = new ProcessingContext();
+
     /** All steps already done on this sheet */
     private Set<Step> doneSteps = new HashSet<>();
 
@@ -441,6 +447,19 @@ public class Sheet
         return boundaryEditor;
     }
 
+    //------------//
+    // getContext //
+    //------------//
+    /**
+     * Report the processing state specific to this sheet.
+     *
+     * @return the sheet processing context
+     */
+    public ProcessingContext getContext ()
+    {
+        return context;
+    }
+
     //----------------//
     // getCurrentStep //
     //----------------//
@@ -590,6 +609,19 @@ public class Sheet
         return lastLongHSectionId;
     }
 
+    //-----------//
+    // getMemory //
+    //-----------//
+    /**
+     * Report the memory accounting of this sheet structures.
+     *
+     * @return the sheet memory handler
+     */
+    public SheetMemory getMemory ()
+    {
+        return memory;
+    }
+
     //---------//
     // getNest //
     //---------//
@@ -1084,7 +1116,7 @@ public class Sheet
         logger.debug("remove sheet {} closing:{}", this, closing);
 
         // Close the related page
-        getScore().remove(page);
+        final boolean lastPage = getScore().remove(page);
 
         // Close related UI assembly if any
         if (assembly != null) {
@@ -1093,10 +1125,11 @@ public class Sheet
         }
 
         picture.close();
+        memory.discardSpilled();
 
         // If no sheet is left, force score closing
         if (!closing) {
-            if (!score.getPages().isEmpty()) {
+            if (!lastPage) {
                 logger.info("{}Removed page #{}",
                         page.getScore().getLogPrefix(), page.getIndex());
             } else {
@@ -1437,11 +1470,13 @@ public class Sheet
             picture = null;
             doneSteps = new HashSet<>();
             currentStep = null;
+            context.reset();
 
         case Steps.SCALE:
             scaleBuilder = null;
             scale = null;
             wholeVerticalTable = null;
+            memory.discardSpilled();
 
         case Steps.GRID:
             if (nest != null) {
@@ -1504,11 +1539,29 @@ public class Sheet
     // getWholeVerticalTable //
     //-----------------------//
     /**
-     * Get access to the whole table of vertical runs.
+     * Get access to the whole table of vertical runs, reloading it if it
+     * has been spilled.
      *
      * @return the wholeVerticalTable
      */
-    public RunsTable getWholeVerticalTable ()
+    public synchronized RunsTable getWholeVerticalTable ()
+    {
+        if (wholeVerticalTable == null) {
+            wholeVerticalTable = memory.reloadTable();
+        }
+
+        return wholeVerticalTable;
+    }
+
+    //------------------------//
+    // peekWholeVerticalTable //
+    //------------------------//
+    /**
+     * Report the whole table of vertical runs, only if it is in memory.
+     *
+     * @return the wholeVerticalTable, or null if not available or spilled
+     */
+    public synchronized RunsTable peekWholeVerticalTable ()
     {
         return wholeVerticalTable;
     }
@@ -1521,7 +1574,8 @@ public class Sheet
      *
      * @param wholeVerticalTable the wholeVerticalTable to set
      */
-    public void setWholeVerticalTable (RunsTable wholeVerticalTable)
+    public synchronized void setWholeVerticalTable (
+            RunsTable wholeVerticalTable)
     {
         this.wholeVerticalTable = wholeVerticalTable;
     }
@@ -23,6 +23,9 @@
 // </editor-fold>
 package org.audiveris.omr.sheet;
 
+import org.audiveris.omr.Main;
+
+import org.audiveris.omr.score.BatchManifest;
 import org.audiveris.omr.score.Score;
 
 import org.audiveris.omr.step.Step;
@@ -31,6 +34,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class {@code SheetBench} records all important information related
@@ -69,6 +74,18 @@ public class SheetBench
     /** Starting date */
     private final Date date = new Date(startTime);
 
+    /** Number of OCR cache hits */
+    private final AtomicInteger ocrHits = new AtomicInteger();
+
+    /** Number of OCR cache misses */
+    private final AtomicInteger ocrMisses = new AtomicInteger();
+
+    /** OCR cache hits already recorded */
+    private int recordedOcrHits;
+
+    /** OCR cache misses already recorded */
+    private int recordedOcrMisses;
+
     //~ Constructors -----------------------------------------------------------
     //------------//
     // SheetBench //
@@ -93,6 +110,24 @@ public class SheetBench
     }
 
     //~ Methods ----------------------------------------------------------------
+    //----------------//
+    // countOcrLookup //
+    //----------------//
+    /**
+     * Count a lookup in the OCR cache.
+     * Counts are recorded with the step during which lookups occurred.
+     *
+     * @param hit true for a cache hit, false for a miss
+     */
+    public void countOcrLookup (boolean hit)
+    {
+        if (hit) {
+            ocrHits.incrementAndGet();
+        } else {
+            ocrMisses.incrementAndGet();
+        }
+    }
+
     //----------//
     // getSheet //
     //----------//
@@ -193,10 +228,36 @@ public class SheetBench
     public void recordStep (Step step,
                             long duration)
     {
-        addProp(
-                "step." + step.getName().toLowerCase() + ".duration",
-                "" + duration);
+        final String prefix = "step." + step.getName().toLowerCase();
+        addProp(prefix + ".duration", "" + duration);
+
+        // OCR cache lookups during this step, if any
+        int hits = ocrHits.get();
+        int misses = ocrMisses.get();
+        int stepHits = hits - recordedOcrHits;
+        int stepMisses = misses - recordedOcrMisses;
+
+        if ((stepHits + stepMisses) > 0) {
+            addProp(prefix + ".ocr.hits", "" + stepHits);
+            addProp(prefix + ".ocr.misses", "" + stepMisses);
+            addProp(
+                    prefix + ".ocr.hitRate",
+                    String.format(
+                    Locale.ROOT,
+                    "%.2f",
+                    (double) stepHits / (stepHits + stepMisses)));
+            recordedOcrHits = hits;
+            recordedOcrMisses = misses;
+        }
+
         flushBench();
+
+        // Record batch progress
+        BatchManifest manifest = Main.getManifest();
+
+        if (manifest != null) {
+            manifest.recordSheetStep(sheet, step);
+        }
     }
 
     //-------------------//
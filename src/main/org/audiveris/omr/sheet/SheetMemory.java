@@ -0,0 +1,379 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                           S h e e t M e m o r y                            //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+// </editor-fold>
+package org.audiveris.omr.sheet;
+
+import org.audiveris.omr.Main;
+import org.audiveris.omr.WellKnowns;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+
+import org.audiveris.omr.glyph.Nest;
+import org.audiveris.omr.glyph.facets.Glyph;
+
+import org.audiveris.omr.lag.Lag;
+import org.audiveris.omr.lag.Section;
+
+import org.audiveris.omr.run.Run;
+import org.audiveris.omr.run.RunsTable;
+
+import org.audiveris.omr.sheet.picture.Picture;
+
+import org.audiveris.omr.step.Steps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Class {@code SheetMemory} handles the memory accounting of the main
+ * structures of a sheet, and the spilling of those no longer needed.
+ *
+ * <p>The retained size of each structure is an estimate, based on its
+ * content (image data, runs, sections, glyphs) and on typical object sizes.
+ * </p>
+ *
+ * <p>In batch mode, once the GRID step is done, the sheet picture and the
+ * whole table of vertical runs are needed by no remaining step.
+ * They are then spilled to compact temporary files (PNG for the picture,
+ * gzipped runs for the table) and transparently reloaded if ever needed
+ * again.
+ * The lags and the nest remain in memory, since score entities refer to
+ * their sections and glyphs.</p>
+ *
+ * @author Hervé Bitteur
+ */
+public class SheetMemory
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            SheetMemory.class);
+
+    /** Estimated size of a run, including its reference in a list */
+    private static final int RUN_SIZE = 36;
+
+    /** Estimated size of a sequence of runs (empty list) */
+    private static final int SEQUENCE_SIZE = 40;
+
+    /** Estimated size of a section, without its runs */
+    private static final int SECTION_SIZE = 256;
+
+    /** Estimated size of a glyph, without its sections */
+    private static final int GLYPH_SIZE = 512;
+
+    /** Estimated size of a reference */
+    private static final int REF_SIZE = 4;
+
+    //~ Instance fields --------------------------------------------------------
+    /** The related sheet */
+    private final Sheet sheet;
+
+    /** File where the whole vertical table has been spilled, if any */
+    private File tableFile;
+
+    //~ Constructors -----------------------------------------------------------
+    //-------------//
+    // SheetMemory //
+    //-------------//
+    /**
+     * Creates a new SheetMemory object.
+     *
+     * @param sheet the related sheet
+     */
+    public SheetMemory (Sheet sheet)
+    {
+        this.sheet = sheet;
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //----------------//
+    // discardSpilled //
+    //----------------//
+    /**
+     * Forget about any spilled structure.
+     */
+    public synchronized void discardSpilled ()
+    {
+        if (tableFile != null) {
+            if (!tableFile.delete()) {
+                logger.debug("Could not delete {}", tableFile);
+            }
+
+            tableFile = null;
+        }
+    }
+
+    //-----------//
+    // getReport //
+    //-----------//
+    /**
+     * Report the estimated memory size of each main sheet structure.
+     *
+     * @return the size in bytes, per structure name
+     */
+    public Map<String, Long> getReport ()
+    {
+        Map<String, Long> report = new LinkedHashMap<>();
+        Picture picture = sheet.getPicture();
+        report.put("picture", (picture != null) ? picture.getMemorySize() : 0);
+        report.put("wholeVerticalTable", sizeOf(sheet.peekWholeVerticalTable()));
+        report.put("hLag", sizeOf(sheet.getHorizontalLag()));
+        report.put("vLag", sizeOf(sheet.getVerticalLag()));
+        report.put("nest", sizeOf(sheet.getNest()));
+
+        return report;
+    }
+
+    //--------------//
+    // getTotalSize //
+    //--------------//
+    /**
+     * Report the estimated memory size of all main sheet structures.
+     *
+     * @return the total size in bytes
+     */
+    public long getTotalSize ()
+    {
+        long total = 0;
+
+        for (long size : getReport()
+                .values()) {
+            total += size;
+        }
+
+        return total;
+    }
+
+    //-----------------//
+    // releaseUnneeded //
+    //-----------------//
+    /**
+     * Spill the structures no longer needed by the remaining steps.
+     * This is done only in batch mode, since the user interface may
+     * reprocess any step at any time.
+     */
+    public void releaseUnneeded ()
+    {
+        if ((Main.getGui() != null) || !constants.spillStructures.isSet()) {
+            return;
+        }
+
+        if (!sheet.isDone(Steps.valueOf(Steps.GRID))) {
+            return;
+        }
+
+        long before = getTotalSize();
+
+        try {
+            RunsTable table = sheet.peekWholeVerticalTable();
+
+            if (table != null) {
+                spillTable(table);
+                sheet.setWholeVerticalTable(null);
+            }
+
+            Picture picture = sheet.getPicture();
+
+            if ((picture != null) && (picture.getMemorySize() > 0)) {
+                picture.spill(WellKnowns.TEMP_FOLDER);
+            }
+        } catch (IOException ex) {
+            logger.warn(sheet.getLogPrefix() + "Error spilling structures", ex);
+        }
+
+        long after = getTotalSize();
+
+        if (after < before) {
+            logger.debug(
+                    "{}Spilled {} KB, retained {} KB {}",
+                    sheet.getLogPrefix(),
+                    (before - after) / 1024,
+                    after / 1024,
+                    getReport());
+        }
+    }
+
+    //-------------//
+    // reloadTable //
+    //-------------//
+    /**
+     * Reload the whole vertical table, if it has been spilled.
+     *
+     * @return the reloaded table, or null if not spilled
+     */
+    public synchronized RunsTable reloadTable ()
+    {
+        if (tableFile == null) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new GZIPInputStream(
+                new BufferedInputStream(new FileInputStream(tableFile))))) {
+            RunsTable table = RunsTable.read(in);
+            logger.debug("{}Reloaded {}", sheet.getLogPrefix(), table);
+
+            return table;
+        } catch (IOException ex) {
+            throw new IllegalStateException(
+                    "Cannot reload runs table from " + tableFile,
+                    ex);
+        } finally {
+            discardSpilled();
+        }
+    }
+
+    //--------//
+    // sizeOf //
+    //--------//
+    /**
+     * Estimate the memory size of a table of runs.
+     *
+     * @param table the table, perhaps null
+     * @return the estimated size in bytes
+     */
+    public static long sizeOf (RunsTable table)
+    {
+        if (table == null) {
+            return 0;
+        }
+
+        long size = 0;
+
+        for (int i = 0; i < table.getSize(); i++) {
+            List<Run> seq = table.getSequence(i);
+            size += (SEQUENCE_SIZE + ((long) RUN_SIZE * seq.size()));
+        }
+
+        return size;
+    }
+
+    //--------//
+    // sizeOf //
+    //--------//
+    /**
+     * Estimate the memory size of a lag.
+     *
+     * @param lag the lag, perhaps null
+     * @return the estimated size in bytes
+     */
+    public static long sizeOf (Lag lag)
+    {
+        if (lag == null) {
+            return 0;
+        }
+
+        long size = 0;
+
+        for (Section section : lag.getSections()) {
+            size += (SECTION_SIZE + ((long) RUN_SIZE * section.getRunCount()));
+        }
+
+        return size;
+    }
+
+    //--------//
+    // sizeOf //
+    //--------//
+    /**
+     * Estimate the memory size of a nest, not counting the sections of
+     * its glyphs, already accounted for in lags.
+     *
+     * @param nest the nest, perhaps null
+     * @return the estimated size in bytes
+     */
+    public static long sizeOf (Nest nest)
+    {
+        if (nest == null) {
+            return 0;
+        }
+
+        long size = 0;
+
+        for (Glyph glyph : nest.getAllGlyphs()) {
+            size += (GLYPH_SIZE + ((long) REF_SIZE * glyph.getMembers()
+                    .size()));
+        }
+
+        return size;
+    }
+
+    //------------//
+    // spillTable //
+    //------------//
+    private synchronized void spillTable (RunsTable table)
+            throws IOException
+    {
+        WellKnowns.TEMP_FOLDER.mkdirs();
+
+        File file = File.createTempFile("runs-", ".gz", WellKnowns.TEMP_FOLDER);
+        file.deleteOnExit();
+
+        try (DataOutputStream out = new DataOutputStream(
+                new GZIPOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file))))) {
+            table.write(out);
+        } catch (IOException ex) {
+            file.delete();
+            throw ex;
+        }
+
+        discardSpilled();
+        tableFile = file;
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Boolean spillStructures = new Constant.Boolean(
+                true,
+                "Should we spill sheet structures no longer needed, in batch?");
+
+    }
+}
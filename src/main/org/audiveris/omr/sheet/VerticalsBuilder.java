@@ -180,7 +180,8 @@ public class VerticalsBuilder
                 new SectionsSource(
                 system.getVerticalSections(),
                 new MySectionPredicate()),
-                false);
+                false,
+                sheet.getContext());
         verticalsBuilder.setMaxThickness(constants.maxStemThickness);
 
         return retrieveVerticals(verticalsBuilder.retrieveSticks(), false);
@@ -211,7 +212,8 @@ public class VerticalsBuilder
                     scale,
                     sheet.getNest(),
                     new SectionsSource(sections, new MySectionPredicate()),
-                    false);
+                    false,
+                    sheet.getContext());
             verticalsArea.setMaxThickness(constants.maxStemThickness);
 
             // Retrieve stems
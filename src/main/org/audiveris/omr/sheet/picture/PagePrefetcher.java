@@ -0,0 +1,525 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                        P a g e P r e f e t c h e r                         //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet.picture;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+
+import org.audiveris.omr.step.ProcessingCancellationException;
+
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Class {@code PagePrefetcher} provides the images of an input file
+ * page after page, decoding the next pages ahead of the consumer.
+ *
+ * <p>For a file readable by ImageIO, each page is decoded by a separate task,
+ * with its own ImageReader, so that several pages can be decoded in parallel.
+ * At most {@code prefetchedPages} pages are decoded ahead of the page being
+ * consumed, and these decoded images are only softly referenced: if memory
+ * gets short while the consumer falls behind, they can be reclaimed, and are
+ * then decoded again when the consumer asks for them.</p>
+ *
+ * <p>The consumer iterates through {@link #hasNext}, {@link #nextId} and
+ * {@link #next}, and must {@link #close} the prefetcher, which cancels the
+ * decodings still pending and deletes the temporary file if any.
+ * An interruption of the consumer while waiting for a page results in a
+ * {@link ProcessingCancellationException}.</p>
+ *
+ * <p>The consumer, {@link org.audiveris.omr.score.Score#createPages},
+ * hands each created page to a listener, which lets the batch processing
+ * start the steps of each sheet as soon as its page is created, hence the
+ * processing of the first sheets overlaps the decoding of the next
+ * images.</p>
+ *
+ * @author Hervé Bitteur
+ */
+public class PagePrefetcher
+        implements Closeable
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            PagePrefetcher.class);
+
+    //~ Instance fields --------------------------------------------------------
+    /** The input file */
+    private final File file;
+
+    /** Ids of pages to provide, counted from 1 */
+    private final List<Integer> ids;
+
+    /** Offset between page id and image index in file */
+    private final int offset;
+
+    /** Temporary file to delete on close, if any */
+    private final File tempFile;
+
+    /** Images already available, for a file not readable by ImageIO */
+    private final Map<Integer, RenderedImage> loaded;
+
+    /** Pending decodings, in page order */
+    private final Deque<Decoding> window = new ArrayDeque<>();
+
+    /** Maximum number of pages decoded ahead */
+    private final int ahead;
+
+    /** Position in ids of next page to provide */
+    private int position;
+
+    /** Position in ids of next page to decode */
+    private int scheduled;
+
+    //~ Constructors -----------------------------------------------------------
+    //----------------//
+    // PagePrefetcher //
+    //----------------//
+    /**
+     * Create a prefetcher on images already loaded.
+     *
+     * @param images the map (id -> image)
+     */
+    PagePrefetcher (SortedMap<Integer, RenderedImage> images)
+    {
+        this.file = null;
+        this.ids = new ArrayList<>(images.keySet());
+        this.offset = 0;
+        this.tempFile = null;
+        this.loaded = new TreeMap<>(images);
+        this.ahead = 0;
+    }
+
+    //----------------//
+    // PagePrefetcher //
+    //----------------//
+    /**
+     * Create a prefetcher on a file readable by ImageIO.
+     *
+     * @param file     the input file
+     * @param ids      the ids of desired pages
+     * @param offset   the offset between page id and image index in file
+     * @param tempFile temporary file to delete on close, or null
+     */
+    PagePrefetcher (File file,
+                    List<Integer> ids,
+                    int offset,
+                    File tempFile)
+    {
+        this.file = file;
+        this.ids = ids;
+        this.offset = offset;
+        this.tempFile = tempFile;
+        this.loaded = null;
+        this.ahead = Math.max(0, constants.prefetchedPages.getValue());
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //------//
+    // open //
+    //------//
+    /**
+     * Open a prefetcher on a file, if ImageIO can read it.
+     *
+     * @param file     the input file
+     * @param pages    if not null or empty, specifies (counted from 1) which
+     *                 precise pages are desired. Otherwise all pages are
+     *                 provided.
+     * @param offset   the offset between page id and image index in file
+     * @param tempFile temporary file to delete on close, or null
+     * @return the prefetcher, or null if ImageIO cannot read the file
+     */
+    static PagePrefetcher open (File file,
+                                SortedSet<Integer> pages,
+                                int offset,
+                                File tempFile)
+    {
+        final int imageCount = countImages(file);
+
+        if (imageCount <= 0) {
+            return null;
+        }
+
+        if (imageCount > 1) {
+            logger.info("{} contains {} images", file.getName(), imageCount);
+        }
+
+        List<Integer> ids = new ArrayList<>();
+
+        for (int i = 1; i <= imageCount; i++) {
+            int id = i + offset;
+
+            if ((pages == null) || pages.isEmpty() || pages.contains(id)) {
+                ids.add(id);
+            }
+        }
+
+        return new PagePrefetcher(file, ids, offset, tempFile);
+    }
+
+    //-------//
+    // close //
+    //-------//
+    /**
+     * Cancel pending decodings and release resources.
+     */
+    @Override
+    public void close ()
+    {
+        for (Decoding decoding : window) {
+            decoding.cancel();
+        }
+
+        window.clear();
+
+        if (loaded != null) {
+            loaded.clear();
+        }
+
+        if (tempFile != null) {
+            try {
+                Files.deleteIfExists(tempFile.toPath());
+            } catch (IOException ex) {
+                logger.warn("Error deleting file " + tempFile, ex);
+            }
+        }
+    }
+
+    //--------//
+    // getIds //
+    //--------//
+    /**
+     * Report the ids of all the pages provided, whether already consumed
+     * or not.
+     *
+     * @return the page ids, counted from 1
+     */
+    public List<Integer> getIds ()
+    {
+        return Collections.unmodifiableList(ids);
+    }
+
+    //---------//
+    // hasNext //
+    //---------//
+    /**
+     * Tell whether there is a page left.
+     *
+     * @return true if so
+     */
+    public boolean hasNext ()
+    {
+        return position < ids.size();
+    }
+
+    //------//
+    // next //
+    //------//
+    /**
+     * Report the image of the next page, waiting for its decoding if
+     * needed.
+     *
+     * @return the page image, or null if it could not be decoded
+     * @throws ProcessingCancellationException if interrupted
+     */
+    public RenderedImage next ()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final int id = ids.get(position++);
+
+        if (loaded != null) {
+            return loaded.remove(id); // No longer referenced here
+        }
+
+        // Make sure this page and the next ones are being decoded
+        while ((scheduled < ids.size())
+               && (scheduled < (position + ahead))) {
+            Decoding decoding = new Decoding(ids.get(scheduled++) - offset);
+            decoding.future = OmrExecutors.getCachedLowExecutor()
+                    .submit(decoding);
+            window.addLast(decoding);
+        }
+
+        final Decoding decoding = window.removeFirst();
+
+        try {
+            OmrExecutors.managedBlock(
+                    new OmrExecutors.Blocking()
+            {
+                @Override
+                public void block ()
+                        throws InterruptedException
+                {
+                    try {
+                        decoding.future.get();
+                    } catch (ExecutionException | CancellationException ex) {
+                        // Decoding errors are handled by decoding itself
+                    }
+                }
+            });
+        } catch (InterruptedException ex) {
+            close();
+            throw new ProcessingCancellationException(ex);
+        }
+
+        BufferedImage img = decoding.getImage();
+
+        if ((img == null) && !decoding.failed) {
+            logger.debug("Decoding again page #{}", id);
+            img = decoding.decode(); // Image had been reclaimed
+        }
+
+        if (img != null) {
+            logger.info("Loaded image #{} ({} x {})",
+                    id, img.getWidth(), img.getHeight());
+        }
+
+        return img;
+    }
+
+    //--------//
+    // nextId //
+    //--------//
+    /**
+     * Report the id of the next page.
+     *
+     * @return the page id, counted from 1
+     */
+    public int nextId ()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return ids.get(position);
+    }
+
+    //------//
+    // size //
+    //------//
+    /**
+     * Report the number of pages provided.
+     *
+     * @return the count of pages
+     */
+    public int size ()
+    {
+        return ids.size();
+    }
+
+    //-------------//
+    // countImages //
+    //-------------//
+    /**
+     * Report the number of images in the file, if ImageIO can read it.
+     *
+     * @return the count of images, or -1 if not readable
+     */
+    private static int countImages (File file)
+    {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file)) {
+            if (stream == null) {
+                logger.debug("No ImageIO input stream provider");
+
+                return -1;
+            }
+
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+
+            if (!readers.hasNext()) {
+                logger.debug("No ImageIO reader");
+
+                return -1;
+            }
+
+            ImageReader reader = readers.next();
+
+            try {
+                reader.setInput(stream, false);
+
+                return reader.getNumImages(true);
+            } finally {
+                reader.dispose();
+            }
+        } catch (Exception ex) {
+            logger.warn("ImageIO failed", ex);
+
+            return -1;
+        }
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Integer prefetchedPages = new Constant.Integer(
+                "Pages",
+                2,
+                "Number of pages decoded ahead of the page being processed");
+
+    }
+
+    //----------//
+    // Decoding //
+    //----------//
+    /**
+     * Task decoding one image, with its own reader.
+     */
+    private class Decoding
+            implements Runnable
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** Image index in file, counted from 0 */
+        final int index;
+
+        /** Related future */
+        Future<?> future;
+
+        /** Reader in use, if any */
+        volatile ImageReader reader;
+
+        /** Decoded image, softly referenced */
+        volatile SoftReference<BufferedImage> image;
+
+        /** Has decoding failed? */
+        volatile boolean failed;
+
+        //~ Constructors -------------------------------------------------------
+        public Decoding (int imageNumber)
+        {
+            this.index = imageNumber - 1;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        public void run ()
+        {
+            decode();
+        }
+
+        /**
+         * Cancel the decoding, aborting the read in progress if any.
+         */
+        void cancel ()
+        {
+            future.cancel(true);
+
+            ImageReader current = reader;
+
+            if (current != null) {
+                current.abort();
+            }
+
+            image = null;
+        }
+
+        /**
+         * Decode the image, and keep a soft reference on it.
+         *
+         * @return the decoded image, or null if failed
+         */
+        BufferedImage decode ()
+        {
+            try (ImageInputStream stream = ImageIO.createImageInputStream(file)) {
+                ImageReader imageReader = ImageIO.getImageReaders(stream)
+                        .next();
+
+                try {
+                    reader = imageReader;
+                    imageReader.setInput(stream, false);
+
+                    BufferedImage img = imageReader.read(index);
+                    image = new SoftReference<>(img);
+
+                    return img;
+                } finally {
+                    reader = null;
+                    imageReader.dispose();
+                }
+            } catch (Exception ex) {
+                if (!Thread.currentThread().isInterrupted()) {
+                    logger.warn("Cannot decode image #" + (index + 1)
+                                + " of " + file, ex);
+                }
+
+                failed = true;
+
+                return null;
+            }
+        }
+
+        /**
+         * Report the decoded image, if still available.
+         *
+         * @return the image or null
+         */
+        BufferedImage getImage ()
+        {
+            SoftReference<BufferedImage> ref = image;
+
+            return (ref != null) ? ref.get() : null;
+        }
+    }
+}
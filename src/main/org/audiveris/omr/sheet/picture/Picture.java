@@ -46,12 +46,16 @@ import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
 import java.awt.image.Raster;
 import java.awt.image.RenderedImage;
 import java.awt.image.SampleModel;
 import java.awt.image.WritableRaster;
 import java.awt.image.renderable.ParameterBlock;
+import java.io.File;
+import java.io.IOException;
 
+import javax.imageio.ImageIO;
 import javax.media.jai.JAI;
 import javax.media.jai.PlanarImage;
 
@@ -66,6 +70,9 @@ import javax.media.jai.PlanarImage;
  * <li> To <b>read</b> a pixel knowing its location in the current image </li>
  * </ul> </p>
  *
+ * <p>To save memory, the image can be <b>spilled</b> to a temporary file,
+ * and it is then transparently reloaded when next needed.</p>
+ *
  * <p>TODO: Rather than the custom grayfactor trick, consider using the standard
  * normalized form of ColorModel.
  * <p>TODO: When an alpha channel is involved, perform the alpha multiplication
@@ -93,15 +100,18 @@ public class Picture
     /** Dimension of current image. */
     private Dimension dimension;
 
-    /** Current image. */
-    private PlanarImage image;
+    /** Current image, null when spilled. */
+    private volatile PlanarImage image;
+
+    /** File where image has been spilled, if any. */
+    private File spillFile;
 
     /** Service object where gray level of pixel is to be written to
      * when so asked for by the onEvent() method. */
     private final SelectionService levelService;
 
-    /** The image (read-only) raster. */
-    private Raster raster;
+    /** The image (read-only) raster, null when spilled. */
+    private volatile Raster raster;
 
     /** The factor to apply to raw pixel value to get gray level on 0..255 */
     private int grayFactor = 1;
@@ -158,7 +168,13 @@ public class Picture
     public final int getPixel (int x,
                                int y)
     {
-        int[] pixel = raster.getPixel(x, y, (int[]) null); // Allocates pixel!
+        Raster r = raster;
+
+        if (r == null) {
+            r = reload().raster;
+        }
+
+        int[] pixel = r.getPixel(x, y, (int[]) null); // Allocates pixel!
 
         if (grayFactor == 1) {
             // Speed up the normal case
@@ -175,11 +191,13 @@ public class Picture
     /**
      * Release the resources linked to the picture image.
      */
-    public void close ()
+    public synchronized void close ()
     {
         if (image != null) {
             image.dispose();
         }
+
+        deleteSpillFile();
     }
 
     //---------------//
@@ -284,7 +302,13 @@ public class Picture
      */
     public RenderedImage getImage ()
     {
-        return image;
+        PlanarImage img = image;
+
+        if (img == null) {
+            img = reload().image;
+        }
+
+        return img;
     }
 
     //-----------------------//
@@ -295,6 +319,28 @@ public class Picture
         return implicitForeground;
     }
 
+    //---------------//
+    // getMemorySize //
+    //---------------//
+    /**
+     * Report the size in bytes of the image data held in memory.
+     *
+     * @return the memory size (0 when spilled)
+     */
+    public long getMemorySize ()
+    {
+        Raster r = raster;
+
+        if (r == null) {
+            return 0;
+        }
+
+        DataBuffer buffer = r.getDataBuffer();
+
+        return ((long) buffer.getSize() * buffer.getNumBanks()
+                * DataBuffer.getDataTypeSize(buffer.getDataType())) / 8;
+    }
+
     //---------//
     // getName //
     //---------//
@@ -377,7 +423,42 @@ public class Picture
     public void render (Graphics g)
     {
         Graphics2D g2 = (Graphics2D) g;
-        g2.drawRenderedImage(image, identity);
+        g2.drawRenderedImage(getImage(), identity);
+    }
+
+    //-------//
+    // spill //
+    //-------//
+    /**
+     * Write the image to a temporary file in the provided folder, and
+     * release it from memory.
+     * The image will be reloaded from this file when next needed.
+     *
+     * @param folder the folder for the temporary file
+     * @throws IOException if the image could not be written
+     */
+    public synchronized void spill (File folder)
+            throws IOException
+    {
+        if (image == null) {
+            return; // Already spilled
+        }
+
+        folder.mkdirs();
+
+        File file = File.createTempFile("picture-", ".png", folder);
+        file.deleteOnExit();
+
+        if (!ImageIO.write(image, "png", file)) {
+            file.delete();
+            throw new IOException("No PNG writer for picture image");
+        }
+
+        spillFile = file;
+        image.dispose();
+        image = null;
+        raster = null;
+        logger.debug("Picture spilled to {}", file);
     }
 
     //----------//
@@ -510,6 +591,20 @@ public class Picture
         }
     }
 
+    //-----------------//
+    // deleteSpillFile //
+    //-----------------//
+    private void deleteSpillFile ()
+    {
+        if (spillFile != null) {
+            if (!spillFile.delete()) {
+                logger.debug("Could not delete {}", spillFile);
+            }
+
+            spillFile = null;
+        }
+    }
+
     //-------------//
     // printBounds //
     //-------------//
@@ -523,6 +618,35 @@ public class Picture
                 image.getMaxY());
     }
 
+    //--------//
+    // reload //
+    //--------//
+    /**
+     * Reload the image previously spilled, if not yet done.
+     *
+     * @return this picture, for convenience
+     */
+    private synchronized Picture reload ()
+    {
+        if (image == null) {
+            if (spillFile == null) {
+                throw new IllegalStateException("Picture closed");
+            }
+
+            try {
+                setImage(ImageIO.read(spillFile));
+                logger.debug("Picture reloaded from {}", spillFile);
+                deleteSpillFile();
+            } catch (IOException | ImageFormatException ex) {
+                throw new IllegalStateException(
+                        "Cannot reload picture from " + spillFile,
+                        ex);
+            }
+        }
+
+        return this;
+    }
+
     //----------//
     // setImage //
     //----------//
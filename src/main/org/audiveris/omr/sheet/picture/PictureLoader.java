@@ -28,7 +28,10 @@ import org.audiveris.omr.constant.ConstantSet;
 
 import org.audiveris.omr.sheet.picture.jai.JaiLoader;
 
+import org.audiveris.omr.step.ProcessingCancellationException;
+
 import org.audiveris.omr.util.FileUtil;
+import org.audiveris.omr.util.OmrExecutors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -130,6 +133,170 @@ public class PictureLoader
         return images;
     }
 
+    //------------//
+    // openImages //
+    //------------//
+    /**
+     * Open a sequence of images from a file, to be provided page after
+     * page, while the next pages are decoded in the background.
+     *
+     * The same loaders as for {@link #loadImages} are used, only the files
+     * readable by ImageIO (perhaps after conversion from PDF) benefit from
+     * background decoding.
+     *
+     * @param imgFile the image file to load
+     * @param pages   if not null or empty, specifies (counted from 1) which
+     *                pages are desired. Otherwise all pages are loaded.
+     * @return the prefetcher on images, to be closed by the caller, or null
+     *         if unable to load the file
+     * @throws IllegalArgumentException if file does not exist
+     */
+    public static PagePrefetcher openImages (File imgFile,
+                                             SortedSet<Integer> pages)
+    {
+        if (!imgFile.exists()) {
+            throw new IllegalArgumentException(imgFile + " does not exist");
+        }
+
+        logger.info("Loading {} ...", imgFile);
+
+        logger.debug("Trying ImageIO");
+
+        PagePrefetcher prefetcher = PagePrefetcher.open(imgFile, pages, 0, null);
+
+        if (prefetcher == null) {
+            String extension = FileUtil.getExtension(imgFile);
+
+            if (extension.equalsIgnoreCase(".pdf")) {
+                Path temp = convertPDF(imgFile, pages);
+
+                if (temp != null) {
+                    prefetcher = PagePrefetcher.open(
+                            temp.toFile(),
+                            pages,
+                            getOffset(pages),
+                            temp.toFile());
+
+                    if (prefetcher == null) {
+                        deleteTemp(temp);
+                    }
+                }
+            } else {
+                logger.debug("Using JAI");
+
+                SortedMap<Integer, RenderedImage> images = JaiLoader.loadJAI(
+                        imgFile);
+
+                if (images != null) {
+                    prefetcher = new PagePrefetcher(images);
+                }
+            }
+        }
+
+        if (prefetcher == null) {
+            logger.warn("Unable to load any image from {}", imgFile);
+        }
+
+        return prefetcher;
+    }
+
+    //------------//
+    // convertPDF //
+    //------------//
+    /**
+     * Convert a PDF file to a temporary TIFF file.
+     * We spawn a Ghostscript subprocess, which is destroyed if the current
+     * thread gets interrupted.
+     *
+     * @param imgFile the input PDF file
+     * @param pages   if not null or empty, specifies (counted from 1) which
+     *                precise images are desired. Otherwise all pages are
+     *                converted.
+     * @return the temporary TIFF file, or null if failed
+     * @throws ProcessingCancellationException if interrupted
+     */
+    private static Path convertPDF (File imgFile,
+                                    SortedSet<Integer> pages)
+    {
+        // Create a temporary tiff file from the PDF input
+        Path temp = null;
+        try {
+            temp = Files.createTempFile("pic-", ".tif");
+        } catch (IOException ex) {
+            logger.warn("Cannot create temporary file " + temp, ex);
+            return null;
+        }
+
+        // Arguments for Ghostscript
+        List<String> gsArgs = new ArrayList<>();
+        gsArgs.add(Ghostscript.getPath());
+        gsArgs.add("-dQUIET");
+        gsArgs.add("-dNOPAUSE");
+        gsArgs.add("-dBATCH");
+        gsArgs.add("-dSAFER");
+        gsArgs.add("-sDEVICE=" + constants.pdfDevice.getValue());
+        gsArgs.add("-r" + constants.pdfResolution.getValue());
+        gsArgs.add("-sOutputFile=" + temp);
+        if (pages != null && !pages.isEmpty()) {
+            gsArgs.add("-dFirstPage=" + pages.first());
+            gsArgs.add("-dLastPage=" + pages.last());
+        }
+        gsArgs.add(imgFile.toString());
+        logger.debug("gsArgs:{}", gsArgs);
+
+        Process process = null;
+
+        try {
+            // Spawn Ghostscript process and wait for its completion
+            process = new ProcessBuilder(gsArgs).start();
+
+            final Process gs = process;
+            OmrExecutors.managedBlock(
+                    new OmrExecutors.Blocking()
+            {
+                @Override
+                public void block ()
+                        throws InterruptedException
+                {
+                    gs.waitFor();
+                }
+            });
+
+            return temp;
+        } catch (IOException ex) {
+            logger.warn("Error running Ghostscript " + gsArgs, ex);
+            deleteTemp(temp);
+            return null;
+        } catch (InterruptedException ex) {
+            process.destroy();
+            deleteTemp(temp);
+            throw new ProcessingCancellationException(ex);
+        }
+    }
+
+    //------------//
+    // deleteTemp //
+    //------------//
+    private static void deleteTemp (Path temp)
+    {
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException ex) {
+            logger.warn("Error deleting file " + temp, ex);
+        }
+    }
+
+    //-----------//
+    // getOffset //
+    //-----------//
+    /**
+     * Report the offset on page ids, for a file converted from PDF.
+     */
+    private static int getOffset (SortedSet<Integer> pages)
+    {
+        return ((pages != null) && !pages.isEmpty()) ? (pages.first() - 1) : 0;
+    }
+
     //-------------//
     // loadImageIO //
     //-------------//
@@ -220,8 +387,8 @@ public class PictureLoader
     //---------//
     /**
      * Load a sequence of images out of a PDF file.
-     * We spawn a Ghostscript subprocess to convert PDF to TIFF and then
-     * load the temporary TIFF file via loadImageIO().
+     * We convert PDF to TIFF and then load the temporary TIFF file via
+     * loadImageIO().
      *
      * @param imgFile the input PDF file
      * @param pages   if not null or empty, specifies (counted from 1) which
@@ -234,51 +401,17 @@ public class PictureLoader
     {
         logger.debug("loadPDF {} pages:{}", imgFile, pages);
 
-        // Create a temporary tiff file from the PDF input
-        Path temp = null;
-        try {
-            temp = Files.createTempFile("pic-", ".tif");
-        } catch (IOException ex) {
-            logger.warn("Cannot create temporary file " + temp, ex);
-            return null;
-        }
+        Path temp = convertPDF(imgFile, pages);
 
-        // Arguments for Ghostscript
-        List<String> gsArgs = new ArrayList<>();
-        gsArgs.add(Ghostscript.getPath());
-        gsArgs.add("-dQUIET");
-        gsArgs.add("-dNOPAUSE");
-        gsArgs.add("-dBATCH");
-        gsArgs.add("-dSAFER");
-        gsArgs.add("-sDEVICE=" + constants.pdfDevice.getValue());
-        gsArgs.add("-r" + constants.pdfResolution.getValue());
-        gsArgs.add("-sOutputFile=" + temp);
-        if (pages != null && !pages.isEmpty()) {
-            gsArgs.add("-dFirstPage=" + pages.first());
-            gsArgs.add("-dLastPage=" + pages.last());
+        if (temp == null) {
+            return null;
         }
-        gsArgs.add(imgFile.toString());
-        logger.debug("gsArgs:{}", gsArgs);
 
+        // Now load the temporary tiff file
         try {
-            // Spawn Ghostscript process and wait for its completion
-            new ProcessBuilder(gsArgs).start().waitFor();
-
-            // Now load the temporary tiff file
-            if (pages != null && !pages.isEmpty()) {
-                return loadImageIO(temp.toFile(), pages, pages.first() - 1);
-            } else {
-                return loadImageIO(temp.toFile(), null, 0);
-            }
-        } catch (IOException | InterruptedException ex) {
-            logger.warn("Error running Ghostscript " + gsArgs, ex);
-            return null;
+            return loadImageIO(temp.toFile(), pages, getOffset(pages));
         } finally {
-            try {
-                Files.delete(temp);
-            } catch (IOException ex) {
-                logger.warn("Error deleting file " + temp, ex);
-            }
+            deleteTemp(temp);
         }
     }
 
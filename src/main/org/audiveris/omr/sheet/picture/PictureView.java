@@ -23,6 +23,9 @@
 // </editor-fold>
 package org.audiveris.omr.sheet.picture;
 
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+
 import org.audiveris.omr.score.ui.PagePhysicalPainter;
 import org.audiveris.omr.score.ui.PaintingParameters;
 
@@ -31,6 +34,7 @@ import org.audiveris.omr.sheet.Sheet;
 import org.audiveris.omr.ui.Colors;
 import org.audiveris.omr.ui.view.RubberPanel;
 import org.audiveris.omr.ui.view.ScrollView;
+import org.audiveris.omr.ui.view.TileCache;
 
 import org.audiveris.omr.util.WeakPropertyChangeListener;
 
@@ -55,6 +59,9 @@ public class PictureView
 {
     //~ Static fields/initializers ---------------------------------------------
 
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
     /** Usual logger utility */
     private static final Logger logger = LoggerFactory.getLogger(
             PictureView.class);
@@ -103,14 +110,34 @@ public class PictureView
     }
 
     //~ Inner Classes ----------------------------------------------------------
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Boolean usePictureTiles = new Constant.Boolean(
+                false,
+                "Should we cache the rendering of picture as image tiles?"
+                + " (costly in memory, the picture being a mere image)");
+
+    }
+
     //--------//
     // MyView //
     //--------//
     private class MyView
             extends RubberPanel
     {
-        //~ Methods ------------------------------------------------------------
+        //~ Instance fields ----------------------------------------------------
+
+        /** Cached tiles of picture image, if any */
+        private final TileCache pictureTiles = constants.usePictureTiles.isSet()
+                ? new TileCache(this) : null;
 
+        //~ Methods ------------------------------------------------------------
         //--------//
         // render //
         //--------//
@@ -121,8 +148,24 @@ public class PictureView
 
             // Render the picture image
             if (painting.isInputPainting()) {
-                sheet.getPicture()
-                        .render(g);
+                final Picture picture = sheet.getPicture();
+
+                if (pictureTiles != null) {
+                    // The picture never changes, it is its own stamp
+                    pictureTiles.render(
+                            g,
+                            picture,
+                            new TileCache.Painter()
+                    {
+                        @Override
+                        public void paint (Graphics2D tg)
+                        {
+                            picture.render(tg);
+                        }
+                    });
+                } else {
+                    picture.render(g);
+                }
             } else {
                 // Use a white background
                 Color oldColor = g.getColor();
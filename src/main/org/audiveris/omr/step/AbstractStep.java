@@ -124,6 +124,9 @@ public abstract class AbstractStep
             started(sheet);
             Stepping.notifyStep(sheet, this); // Start
 
+            // Same constant values for the whole step
+            sheet.getContext().captureConstants();
+
             clearErrors(sheet);
 
             doit(systems, sheet);
@@ -219,7 +219,7 @@ public abstract class AbstractSystemStep
             }
 
             // Launch all system tasks in parallel and wait for their completion
-            OmrExecutors.getLowExecutor().invokeAll(tasks);
+            OmrExecutors.invokeAll(tasks);
         } catch (InterruptedException ex) {
             logger.warn("doitPerSystem got interrupted");
             throw new ProcessingCancellationException(ex);
@@ -122,6 +122,9 @@ public class Stepping
 
         // Record this in sheet->score bench
         sheet.getBench().recordStep(step, duration);
+
+        // Release what is no longer needed by next steps
+        sheet.getMemory().releaseUnneeded();
     }
 
     //------------------------//
@@ -256,12 +259,12 @@ public class Stepping
         try {
             // Determine starting step and stopping step
             final Step loadStep = Steps.valueOf(Steps.LOAD);
+            final boolean creation = score.getPages().isEmpty();
             final Step start;
             final Step stop;
 
-            if (score.getPages().isEmpty()) {
-                // Create score pages if not yet done
-                score.createPages(pages);
+            if (creation) {
+                // Score pages are not yet created
                 start = first;
                 stop = orderedSteps.isEmpty() ? first : orderedSteps.last();
             } else {
@@ -290,8 +293,13 @@ public class Stepping
                 orderedSteps.remove(loadStep);
             }
 
-            // Schedule the steps on each sheet
-            scheduleScoreStepSet(orderedSteps, score);
+            if (creation) {
+                // Create score pages, while processing the first sheets
+                pipelineScoreStepSet(orderedSteps, pages, score);
+            } else {
+                // Schedule the steps on each sheet
+                scheduleScoreStepSet(orderedSteps, score);
+            }
 
             // Record the step tasks to script
             for (Step step : desiredSteps) {
@@ -490,8 +498,8 @@ public class Stepping
                 }
 
                 try {
-                    List<Future<Void>> futures = OmrExecutors.
-                            getCachedLowExecutor().invokeAll(tasks);
+                    List<Future<Void>> futures = OmrExecutors.invokeAll(
+                            tasks);
                 } catch (InterruptedException ex) {
                     logger.warn("Error in parallel doScoreStepSet", ex);
                 }
@@ -584,6 +592,61 @@ public class Stepping
         }
     }
 
+    //----------------------//
+    // pipelineScoreStepSet //
+    //----------------------//
+    /**
+     * Create the score pages, and perform the sheet-level steps on the
+     * sheet of each page of a multi-page score as soon as the page is
+     * created, so that the processing of the first sheets overlaps the
+     * decoding of the next images.
+     * The score-level steps are performed once all sheets are processed.
+     * A single-page score is processed as usual, once its page is created.
+     *
+     * @param orderedSet the sequence of steps
+     * @param pages      specific set of pages, if any
+     * @param score      the score to create and process
+     */
+    private static void pipelineScoreStepSet (SortedSet<Step> orderedSet,
+                                              SortedSet<Integer> pages,
+                                              Score score)
+    {
+        // Steps to be performed on each sheet, including SCALE
+        SortedSet<Step> sheetSet = new TreeSet<>(comparator);
+
+        for (Step step : orderedSet) {
+            if (!step.isScoreLevel()) {
+                sheetSet.add(step);
+            }
+        }
+
+        SheetPipeline pipeline = new SheetPipeline(sheetSet, score);
+        notifyStart();
+
+        try {
+            score.createPages(pages, pipeline);
+            pipeline.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread()
+                    .interrupt();
+            throw new ProcessingCancellationException(ex);
+        } catch (RuntimeException ex) {
+            pipeline.cancel();
+            throw ex;
+        } finally {
+            notifyStop();
+        }
+
+        if (!pipeline.isUsed()) {
+            scheduleScoreStepSet(orderedSet, score);
+        } else if (!score.getPages().isEmpty()) {
+            // Only the score-level steps remain
+            SortedSet<Step> scoreSet = new TreeSet<>(orderedSet);
+            scoreSet.removeAll(sheetSet);
+            scheduleScoreStepSet(scoreSet, score);
+        }
+    }
+
     //----------------------//
     // scheduleScoreStepSet //
     //----------------------//
@@ -665,4 +728,91 @@ public class Stepping
         long stopTime = System.currentTimeMillis();
         logger.debug("End of step set in {} ms.", (stopTime - startTime));
     }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //---------------//
+    // SheetPipeline //
+    //---------------//
+    /**
+     * Performs the sheet-level steps on each sheet of a multi-page score,
+     * as soon as its page is created: in the fork/join pool if parallelism
+     * is allowed, otherwise directly in the creating thread.
+     */
+    private static class SheetPipeline
+            implements Score.PageListener
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** Sheet-level steps */
+        private final SortedSet<Step> stepSet;
+
+        /** The score being created */
+        private final Score score;
+
+        /** Group of sheet tasks, if parallel */
+        private final OmrExecutors.TaskGroup<Void> group;
+
+        /** Has any sheet been processed? */
+        private boolean used;
+
+        //~ Constructors -------------------------------------------------------
+        public SheetPipeline (SortedSet<Step> stepSet,
+                              Score score)
+        {
+            this.stepSet = stepSet;
+            this.score = score;
+            group = OmrExecutors.defaultParallelism.getTarget()
+                    ? new OmrExecutors.TaskGroup<Void>() : null;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        public void pageCreated (final Page page)
+        {
+            if (stepSet.isEmpty() || !score.isMultiPage()) {
+                return; // Processed as usual, once created
+            }
+
+            if (!used) {
+                used = true;
+                logger.info("{}pipelining {}", score.getLogPrefix(), stepSet);
+            }
+
+            if (group != null) {
+                group.fork(
+                        new Callable<Void>()
+                {
+                    @Override
+                    public Void call ()
+                    {
+                        doSheetStepSet(stepSet, page.getSheet(), null);
+
+                        return null;
+                    }
+                });
+            } else {
+                doSheetStepSet(stepSet, page.getSheet(), null);
+            }
+        }
+
+        void cancel ()
+        {
+            if (group != null) {
+                group.cancel();
+            }
+        }
+
+        boolean isUsed ()
+        {
+            return used;
+        }
+
+        void join ()
+                throws InterruptedException
+        {
+            if (group != null) {
+                group.join();
+            }
+        }
+    }
 }
@@ -42,6 +42,7 @@ import org.audiveris.omr.lag.Sections;
 
 import org.audiveris.omr.run.Orientation;
 
+import org.audiveris.omr.sheet.ProcessingContext;
 import org.audiveris.omr.sheet.Scale;
 import static org.audiveris.omr.stick.SectionRole.*;
 
@@ -85,9 +86,6 @@ public class SticksBuilder
     /** Usual logger utility */
     private static final Logger logger = LoggerFactory.getLogger(SticksBuilder.class);
 
-    /** Unique identifier for debugging */
-    private static int globalId = 0;
-
     /** A too small stick */
     private static final FailureResult TOO_SMALL = new FailureResult(
             "SticksBuilder-TooSmall");
@@ -163,8 +161,8 @@ public class SticksBuilder
     /** Used to flag sections already visited wrt a given stick */
     private Map<Section, Glyph> visited;
 
-    /** Instance data for the area */
-    private int id = ++globalId;
+    /** Identifier for debugging, unique within the sheet */
+    private final int id;
 
     //~ Constructors -----------------------------------------------------------
     /**
@@ -175,13 +173,17 @@ public class SticksBuilder
      * @param nest          the nest which hosts the glyphs
      * @param source        An adaptor to get access to participating sections
      * @param longAlignment specific flag to indicate long filament retrieval
+     * @param context       the processing context of the sheet at hand
      */
     public SticksBuilder (Orientation orientation,
                           Scale scale,
                           Nest nest,
                           SectionsSource source,
-                          boolean longAlignment)
+                          boolean longAlignment,
+                          ProcessingContext context)
     {
+        id = context.nextId(SticksBuilder.class.getSimpleName());
+
         // Cache computing parameters
         this.orientation = orientation;
         this.scale = scale;
@@ -394,17 +396,6 @@ public class SticksBuilder
         return (relation != null) && (relation.role == DISCARDED);
     }
 
-    //-------//
-    // reset //
-    //-------//
-    /**
-     * Used to reset the ids of stick areas (for debugging mainly)
-     */
-    public static void reset ()
-    {
-        globalId = 0;
-    }
-
     //----------------//
     // retrieveSticks //
     //----------------//
@@ -0,0 +1,806 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                            C a c h i n g O C R                             //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.text;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+
+import org.audiveris.omr.score.Score;
+
+import org.audiveris.omr.sheet.Scale;
+import org.audiveris.omr.sheet.SystemInfo;
+
+import org.audiveris.omr.util.JaxbContexts;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Class {@code CachingOCR} is an OCR service which caches the results of
+ * another OCR service, so that an identical image region is not
+ * recognized twice.
+ *
+ * <p>A result is keyed by a digest of the region pixels, the language
+ * specification and the layout mode, and is recorded relative to the region
+ * location, so that it can be reused for identical content found at another
+ * location (such as a header repeated on every page).
+ * Each hit provides brand new TextLine instances, since callers modify the
+ * lines they get.</p>
+ *
+ * <p>Results are kept in memory, in a bounded LRU map. If so desired, they
+ * are also persisted in a "radix.ocr" folder next to the score image file,
+ * so that reprocessing the score in another session can skip OCR as
+ * well.</p>
+ *
+ * <p>Cache hits and misses are counted per sheet, in the sheet bench.</p>
+ *
+ * @author Hervé Bitteur
+ */
+public class CachingOCR
+        implements OCR
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            CachingOCR.class);
+
+    /** Extension for the folder of persisted results. */
+    private static final String FOLDER_EXTENSION = ".ocr";
+
+    /** Extension for a persisted result. */
+    private static final String FILE_EXTENSION = ".xml";
+
+    //~ Instance fields --------------------------------------------------------
+    /** The actual OCR service. */
+    private final OCR ocr;
+
+    /** In-memory results, least recently used first. */
+    private final Map<String, OcrResult> memory = new LinkedHashMap<String, OcrResult>(
+            16,
+            0.75f,
+            true)
+    {
+        @Override
+        protected boolean removeEldestEntry (Map.Entry<String, OcrResult> eldest)
+        {
+            return size() > constants.maxMemoryEntries.getValue();
+        }
+    };
+
+    //~ Constructors -----------------------------------------------------------
+    //------------//
+    // CachingOCR //
+    //------------//
+    /**
+     * Creates a new CachingOCR object.
+     *
+     * @param ocr the actual OCR service
+     */
+    public CachingOCR (OCR ocr)
+    {
+        this.ocr = ocr;
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //--------------//
+    // getLanguages //
+    //--------------//
+    @Override
+    public Set<String> getLanguages ()
+    {
+        return ocr.getLanguages();
+    }
+
+    //-------------//
+    // isAvailable //
+    //-------------//
+    @Override
+    public boolean isAvailable ()
+    {
+        return ocr.isAvailable();
+    }
+
+    //-----------//
+    // recognize //
+    //-----------//
+    @Override
+    public List<TextLine> recognize (BufferedImage image,
+                                     Point topLeft,
+                                     String languageCode,
+                                     LayoutMode layoutMode,
+                                     SystemInfo system,
+                                     String label)
+    {
+        if (!constants.useCache.isSet() || !isAvailable()) {
+            return ocr.recognize(
+                    image,
+                    topLeft,
+                    languageCode,
+                    layoutMode,
+                    system,
+                    label);
+        }
+
+        Rectangle region = new Rectangle(
+                topLeft.x,
+                topLeft.y,
+                image.getWidth(),
+                image.getHeight());
+        String key = keyOf(
+                image,
+                topLeft,
+                region,
+                languageCode,
+                layoutMode,
+                system);
+        OcrResult result = lookup(key, system);
+
+        if (result != null) {
+            return result.toLines(system, topLeft);
+        }
+
+        List<TextLine> lines = ocr.recognize(
+                image,
+                topLeft,
+                languageCode,
+                layoutMode,
+                system,
+                label);
+        store(key, lines, topLeft, system);
+
+        return lines;
+    }
+
+    //-----------//
+    // recognize //
+    //-----------//
+    @Override
+    public List<List<TextLine>> recognize (BufferedImage image,
+                                           Point topLeft,
+                                           List<Rectangle> regions,
+                                           String languageCode,
+                                           LayoutMode layoutMode,
+                                           SystemInfo system,
+                                           String label)
+    {
+        if (!constants.useCache.isSet() || !isAvailable()) {
+            return ocr.recognize(
+                    image,
+                    topLeft,
+                    regions,
+                    languageCode,
+                    layoutMode,
+                    system,
+                    label);
+        }
+
+        final List<List<TextLine>> results = new ArrayList<>(regions.size());
+        final List<String> keys = new ArrayList<>(regions.size());
+        final List<Integer> missIndices = new ArrayList<>();
+        final List<Rectangle> missRegions = new ArrayList<>();
+
+        for (int i = 0; i < regions.size(); i++) {
+            Rectangle region = regions.get(i);
+            String key = keyOf(
+                    image,
+                    topLeft,
+                    region,
+                    languageCode,
+                    layoutMode,
+                    system);
+            OcrResult result = lookup(key, system);
+            keys.add(key);
+
+            if (result != null) {
+                results.add(result.toLines(system, region.getLocation()));
+            } else {
+                results.add(null);
+                missIndices.add(i);
+                missRegions.add(region);
+            }
+        }
+
+        if (!missRegions.isEmpty()) {
+            List<List<TextLine>> missResults = ocr.recognize(
+                    image,
+                    topLeft,
+                    missRegions,
+                    languageCode,
+                    layoutMode,
+                    system,
+                    label);
+
+            if (missResults == null) {
+                if (missRegions.size() == regions.size()) {
+                    return null;
+                }
+            } else {
+                for (int m = 0; m < missIndices.size(); m++) {
+                    int i = missIndices.get(m);
+                    List<TextLine> lines = missResults.get(m);
+                    results.set(i, lines);
+                    store(keys.get(i), lines, regions.get(i).getLocation(),
+                            system);
+                }
+            }
+        }
+
+        return results;
+    }
+
+    //----------//
+    // shutdown //
+    //----------//
+    @Override
+    public void shutdown ()
+    {
+        ocr.shutdown();
+    }
+
+    //--------------//
+    // getDiskEntry //
+    //--------------//
+    /**
+     * Report the file to persist a result, if disk tier is enabled.
+     *
+     * @param key    the result key
+     * @param system the containing system
+     * @return the related file, or null
+     */
+    private File getDiskEntry (String key,
+                               SystemInfo system)
+    {
+        if (!constants.persistCache.isSet() || (system == null)) {
+            return null;
+        }
+
+        Score score = system.getSheet().getScore();
+        File imageFile = score.getImageFile();
+
+        if ((imageFile == null) || (imageFile.getParentFile() == null)) {
+            return null;
+        }
+
+        File folder = new File(
+                imageFile.getParentFile(),
+                score.getRadix() + FOLDER_EXTENSION);
+
+        return new File(folder, key + FILE_EXTENSION);
+    }
+
+    //-------------//
+    // interlineOf //
+    //-------------//
+    /**
+     * Report the interline used for the OCR of a system.
+     *
+     * @param system the containing system, if any
+     * @return the system interline, or 0 if unknown
+     */
+    private static int interlineOf (SystemInfo system)
+    {
+        if (system == null) {
+            return 0;
+        }
+
+        Scale scale = system.getSheet().getScale();
+
+        return (scale != null) ? scale.getInterline() : 0;
+    }
+
+    //-------//
+    // keyOf //
+    //-------//
+    /**
+     * Compute the key of an image region.
+     * Besides the region pixels, the key includes the system interline,
+     * since the recognized lines depend on it.
+     *
+     * @param image        the image
+     * @param topLeft      absolute location of image
+     * @param region       absolute region within image
+     * @param languageCode the language specification
+     * @param layoutMode   the layout mode
+     * @param system       the containing system, if any
+     * @return the region key
+     */
+    private String keyOf (BufferedImage image,
+                          Point topLeft,
+                          Rectangle region,
+                          String languageCode,
+                          LayoutMode layoutMode,
+                          SystemInfo system)
+    {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(
+                    (languageCode + "|" + layoutMode + "|" + region.width + "x"
+                     + region.height + "|" + interlineOf(system)).getBytes(
+                    StandardCharsets.UTF_8));
+
+            Rectangle rel = new Rectangle(region);
+            rel.translate(-topLeft.x, -topLeft.y);
+            rel = rel.intersection(
+                    new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+
+            Raster raster = image.getRaster();
+            int[] samples = new int[Math.max(0, rel.width)];
+            byte[] bytes = new byte[samples.length];
+
+            for (int y = rel.y; y < (rel.y + rel.height); y++) {
+                raster.getSamples(rel.x, y, rel.width, 1, 0, samples);
+
+                for (int i = 0; i < samples.length; i++) {
+                    bytes[i] = (byte) samples[i];
+                }
+
+                digest.update(bytes);
+            }
+
+            StringBuilder sb = new StringBuilder();
+
+            for (byte b : digest.digest()) {
+                sb.append(String.format("%02x", b));
+            }
+
+            return sb.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    //--------//
+    // lookup //
+    //--------//
+    /**
+     * Look up the cache tiers for a result.
+     *
+     * @param key    the result key
+     * @param system the containing system
+     * @return the cached result, or null
+     */
+    private OcrResult lookup (String key,
+                              SystemInfo system)
+    {
+        OcrResult result;
+
+        synchronized (memory) {
+            result = memory.get(key);
+        }
+
+        if (result == null) {
+            File file = getDiskEntry(key, system);
+
+            if ((file != null) && file.exists()) {
+                try (InputStream is = new FileInputStream(file)) {
+                    result = (OcrResult) JaxbContexts.unmarshal(
+                            OcrResult.class,
+                            is);
+
+                    synchronized (memory) {
+                        memory.put(key, result);
+                    }
+                } catch (Exception ex) {
+                    logger.warn("Could not read OCR result " + file, ex);
+                }
+            }
+        }
+
+        if (system != null) {
+            system.getSheet().getBench().countOcrLookup(result != null);
+        }
+
+        return result;
+    }
+
+    //-------//
+    // store //
+    //-------//
+    /**
+     * Record a result in the cache tiers.
+     *
+     * @param key      the result key
+     * @param lines    the lines recognized, with absolute coordinates
+     * @param location absolute location of the region
+     * @param system   the containing system
+     */
+    private void store (String key,
+                        List<TextLine> lines,
+                        Point location,
+                        SystemInfo system)
+    {
+        if (lines == null) {
+            return; // OCR failure is not cached
+        }
+
+        OcrResult result = new OcrResult(lines, location);
+
+        synchronized (memory) {
+            memory.put(key, result);
+        }
+
+        File file = getDiskEntry(key, system);
+
+        if (file != null) {
+            file.getParentFile().mkdirs();
+
+            try (OutputStream os = new FileOutputStream(file)) {
+                JaxbContexts.marshal(OcrResult.class, result, os, false);
+            } catch (Exception ex) {
+                logger.warn("Could not write OCR result " + file, ex);
+            }
+        }
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //--------//
+    // OcrBox //
+    //--------//
+    /**
+     * Snapshot of a TextChar, or base for a word.
+     */
+    @XmlAccessorType(XmlAccessType.NONE)
+    static class OcrBox
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        @XmlAttribute
+        int x;
+
+        @XmlAttribute
+        int y;
+
+        @XmlAttribute
+        int w;
+
+        @XmlAttribute
+        int h;
+
+        @XmlAttribute
+        String value;
+
+        //~ Constructors -------------------------------------------------------
+        OcrBox ()
+        {
+        }
+
+        OcrBox (TextItem item,
+                String value,
+                Point origin)
+        {
+            Rectangle bounds = item.getBounds();
+            x = bounds.x - origin.x;
+            y = bounds.y - origin.y;
+            w = bounds.width;
+            h = bounds.height;
+            this.value = value;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        Rectangle getBounds (Point origin)
+        {
+            return new Rectangle(x + origin.x, y + origin.y, w, h);
+        }
+    }
+
+    //-----------//
+    // OcrResult //
+    //-----------//
+    /**
+     * Snapshot of the lines recognized in a region, with coordinates
+     * relative to the region.
+     */
+    @XmlAccessorType(XmlAccessType.NONE)
+    @XmlRootElement(name = "ocr-result")
+    static class OcrResult
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        @XmlElement(name = "line")
+        List<OcrLine> lines = new ArrayList<>();
+
+        //~ Constructors -------------------------------------------------------
+        OcrResult ()
+        {
+        }
+
+        OcrResult (List<TextLine> textLines,
+                   Point origin)
+        {
+            for (TextLine textLine : textLines) {
+                OcrLine line = new OcrLine();
+
+                for (TextWord word : textLine.getWords()) {
+                    line.words.add(new OcrWord(word, origin));
+                }
+
+                lines.add(line);
+            }
+        }
+
+        //~ Methods ------------------------------------------------------------
+        /**
+         * Build brand new TextLine instances from this snapshot.
+         *
+         * @param system the containing system
+         * @param origin absolute location of the region
+         * @return the lines, with absolute coordinates
+         */
+        List<TextLine> toLines (SystemInfo system,
+                                Point origin)
+        {
+            List<TextLine> textLines = new ArrayList<>();
+
+            for (OcrLine line : lines) {
+                TextLine textLine = new TextLine(system);
+
+                for (OcrWord word : line.words) {
+                    textLine.appendWord(word.toWord(textLine, origin));
+                }
+
+                textLines.add(textLine);
+            }
+
+            return textLines;
+        }
+    }
+
+    //---------//
+    // OcrLine //
+    //---------//
+    @XmlAccessorType(XmlAccessType.NONE)
+    static class OcrLine
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        @XmlElement(name = "word")
+        List<OcrWord> words = new ArrayList<>();
+    }
+
+    //---------//
+    // OcrWord //
+    //---------//
+    @XmlAccessorType(XmlAccessType.NONE)
+    static class OcrWord
+            extends OcrBox
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        @XmlAttribute
+        Integer confidence;
+
+        @XmlElement
+        OcrBaseline baseline;
+
+        @XmlElement
+        OcrFont font;
+
+        @XmlElement(name = "char")
+        List<OcrBox> chars = new ArrayList<>();
+
+        //~ Constructors -------------------------------------------------------
+        OcrWord ()
+        {
+        }
+
+        OcrWord (TextWord word,
+                 Point origin)
+        {
+            super(word, word.getInternalValue(), origin);
+            confidence = word.getConfidence();
+
+            if (word.getBaseline() != null) {
+                baseline = new OcrBaseline(word.getBaseline(), origin);
+            }
+
+            if (word.getFontInfo() != null) {
+                font = new OcrFont(word.getFontInfo());
+            }
+
+            for (TextChar ch : word.getChars()) {
+                chars.add(new OcrBox(ch, ch.getValue(), origin));
+            }
+        }
+
+        //~ Methods ------------------------------------------------------------
+        TextWord toWord (TextLine textLine,
+                         Point origin)
+        {
+            TextWord word = new TextWord(
+                    getBounds(origin),
+                    value,
+                    (baseline != null) ? baseline.toLine(origin) : null,
+                    confidence,
+                    (font != null) ? font.toFontInfo() : null,
+                    textLine);
+
+            for (OcrBox ch : chars) {
+                word.addChar(new TextChar(ch.getBounds(origin), ch.value));
+            }
+
+            return word;
+        }
+    }
+
+    //-------------//
+    // OcrBaseline //
+    //-------------//
+    @XmlAccessorType(XmlAccessType.NONE)
+    static class OcrBaseline
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        @XmlAttribute
+        double x1;
+
+        @XmlAttribute
+        double y1;
+
+        @XmlAttribute
+        double x2;
+
+        @XmlAttribute
+        double y2;
+
+        //~ Constructors -------------------------------------------------------
+        OcrBaseline ()
+        {
+        }
+
+        OcrBaseline (Line2D line,
+                     Point origin)
+        {
+            x1 = line.getX1() - origin.x;
+            y1 = line.getY1() - origin.y;
+            x2 = line.getX2() - origin.x;
+            y2 = line.getY2() - origin.y;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        Line2D toLine (Point origin)
+        {
+            return new Line2D.Double(
+                    x1 + origin.x,
+                    y1 + origin.y,
+                    x2 + origin.x,
+                    y2 + origin.y);
+        }
+    }
+
+    //---------//
+    // OcrFont //
+    //---------//
+    @XmlAccessorType(XmlAccessType.NONE)
+    static class OcrFont
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        @XmlAttribute
+        boolean bold;
+
+        @XmlAttribute
+        boolean italic;
+
+        @XmlAttribute
+        boolean underlined;
+
+        @XmlAttribute
+        boolean monospace;
+
+        @XmlAttribute
+        boolean serif;
+
+        @XmlAttribute
+        boolean smallcaps;
+
+        @XmlAttribute
+        int size;
+
+        @XmlAttribute
+        String name;
+
+        //~ Constructors -------------------------------------------------------
+        OcrFont ()
+        {
+        }
+
+        OcrFont (FontInfo info)
+        {
+            bold = info.isBold;
+            italic = info.isItalic;
+            underlined = info.isUnderlined;
+            monospace = info.isMonospace;
+            serif = info.isSerif;
+            smallcaps = info.isSmallcaps;
+            size = info.pointsize;
+            name = info.fontName;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        FontInfo toFontInfo ()
+        {
+            return new FontInfo(
+                    bold,
+                    italic,
+                    underlined,
+                    monospace,
+                    serif,
+                    smallcaps,
+                    size,
+                    name);
+        }
+    }
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Boolean useCache = new Constant.Boolean(
+                true,
+                "Should we cache OCR results?");
+
+        Constant.Integer maxMemoryEntries = new Constant.Integer(
+                "entries",
+                5000,
+                "Maximum number of OCR results kept in memory");
+
+        Constant.Boolean persistCache = new Constant.Boolean(
+                false,
+                "Should we persist OCR results next to the score image?");
+
+    }
+}
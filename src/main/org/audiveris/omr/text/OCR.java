@@ -26,6 +26,7 @@ package org.audiveris.omr.text;
 import org.audiveris.omr.sheet.SystemInfo;
 
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.util.List;
 import java.util.Set;
@@ -89,6 +90,40 @@ public interface OCR
                               SystemInfo system,
                               String label);
 
+    /**
+     * Launch the recognition of several regions of the provided image,
+     * whose language is specified.
+     * The image is set only once, then each region is recognized separately,
+     * as if it were provided as a distinct image.
+     *
+     * @param image        the provided image
+     * @param topLeft      absolute coordinates of the image top left corner
+     * @param regions      the regions to recognize, in absolute coordinates
+     * @param languageCode language specification or null
+     * @param layoutMode   how each region layout should be analyzed
+     * @param system       the containing system
+     * @param label        an optional label related to the image, null
+     *                     otherwise. This is meant for keeping track of the
+     *                     temporary image files.
+     * @return a list parallel to regions, with for each region a list of
+     *         TextLine instances (or null), or null if the OCR failed.
+     *         The coordinates of any returned TextLine are absolute
+     *         coordinates.
+     */
+    List<List<TextLine>> recognize (BufferedImage image,
+                                    Point topLeft,
+                                    List<Rectangle> regions,
+                                    String languageCode,
+                                    LayoutMode layoutMode,
+                                    SystemInfo system,
+                                    String label);
+
+    /**
+     * Release the resources held by the OCR engine, typically at
+     * application shutdown.
+     */
+    void shutdown ();
+
     //~ Inner Classes ----------------------------------------------------------
     /**
      * Exception used to signal that no OCR is actually available.
@@ -52,6 +52,7 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -81,7 +82,7 @@ public class TextBuilder
     private static final Logger logger = LoggerFactory.getLogger(TextBuilder.class);
 
     /** The related OCR. */
-    private static final OCR ocr = TesseractOCR.getInstance();
+    private static final OCR ocr = new CachingOCR(TesseractOCR.getInstance());
 
     /** Abnormal characters. */
     private static final char[] ABNORMAL_CHARS = new char[]{'\\'};
@@ -555,6 +556,74 @@ public class TextBuilder
                 label);
     }
 
+    //------------------//
+    // retrieveOcrLines //
+    //------------------//
+    /**
+     * Launch the OCR on each of the provided glyphs, to retrieve the
+     * TextLine instance(s) each glyph represents.
+     * A single image is built for all the glyphs, and each glyph is
+     * recognized within its own bounds.
+     * NOTA: pixels of another glyph of the collection, if any within the
+     * bounds of a glyph, are seen by the OCR.
+     *
+     * @param glyphs   the glyphs to OCR
+     * @param language the probable language
+     * @return a list parallel to glyphs, with for each glyph a list (perhaps
+     *         null or empty) of TextLine instances with absolute coordinates.
+     */
+    public List<List<TextLine>> retrieveOcrLines (List<Glyph> glyphs,
+                                                  String language)
+    {
+        if (glyphs.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Determine the global bounding box
+        final List<Rectangle> regions = new ArrayList<>(glyphs.size());
+        Rectangle bounds = null;
+
+        for (Glyph glyph : glyphs) {
+            Rectangle box = glyph.getBounds();
+            regions.add(box);
+
+            if (bounds == null) {
+                bounds = new Rectangle(box);
+            } else {
+                bounds.add(box);
+            }
+        }
+
+        // Generate an image with these glyphs
+        final BufferedImage image = new BufferedImage(
+                bounds.width,
+                bounds.height,
+                BufferedImage.TYPE_BYTE_GRAY);
+
+        for (Glyph glyph : glyphs) {
+            for (Section section : glyph.getMembers()) {
+                section.fillImage(image, bounds);
+            }
+        }
+
+        final List<List<TextLine>> results = getOcr()
+                .recognize(image,
+                bounds.getLocation(),
+                regions,
+                language,
+                OCR.LayoutMode.SINGLE_BLOCK,
+                system,
+                "s" + system.getId() + "-batch");
+
+        if (results == null) {
+            List<TextLine> none = null;
+
+            return new ArrayList<>(Collections.nCopies(glyphs.size(), none));
+        }
+
+        return results;
+    }
+
     //------------------//
     // retrieveSections //
     //------------------//
@@ -1092,15 +1161,26 @@ public class TextBuilder
         }
         textParam.setActual(language);
 
-        for (TextLine oldLine : new ArrayList<>(system.getSentences())) {
-            // Launch OCR on the whole line image
+        final List<TextLine> oldLines = new ArrayList<>(system.getSentences());
+        final List<Glyph> compounds = new ArrayList<>(oldLines.size());
+
+        for (TextLine oldLine : oldLines) {
+            // OCR will be launched on the whole line image
             List<Glyph> glyphs = oldLine.getWordGlyphs();
             Glyph compound = glyphs.size() == 1
                     ? glyphs.get(0)
                     : system.
                     registerGlyph(system.buildTransientCompound(glyphs));
+            compounds.add(compound);
+        }
+
+        // Launch OCR on all lines at once
+        final List<List<TextLine>> results = retrieveOcrLines(compounds,
+                language);
 
-            List<TextLine> lines = retrieveOcrLine(compound, language);
+        for (int i = 0; i < oldLines.size(); i++) {
+            TextLine oldLine = oldLines.get(i);
+            List<TextLine> lines = results.get(i);
             if (lines == null || lines.size() != 1) {
                 logger.debug("{} No valid replacement for {}",
                         system.idString(), oldLine);
@@ -122,11 +122,25 @@ public class TextPattern
      * structure.
      * Strategy: create a TextLine for each of these orphan glyphs then
      * look for potential merge with other TextLine instances.
+     * The OCR is launched at once on all orphans which need it.
      */
     private void checkOrphanGlyphs ()
     {
         String language = system.getSheet().getPage().getTextParam().getTarget();
 
+        // Orphans to be OCR'ed, and related results
+        List<Glyph> ocrOrphans = new ArrayList<>();
+
+        for (Glyph glyph : system.getGlyphs()) {
+            if (isOrphan(glyph) && glyph.getManualValue() == null) {
+                ocrOrphans.add(glyph);
+            }
+        }
+
+        List<List<TextLine>> ocrResults = textBuilder.retrieveOcrLines(
+                ocrOrphans,
+                language);
+
         for (Glyph glyph : system.getGlyphs()) {
             if (!isOrphan(glyph)) {
                 continue;
@@ -145,8 +159,10 @@ public class TextPattern
             } else {
                 // Use OCR on this glyph
                 logger.debug("Orphan text {}", glyph.idString());
-                List<TextLine> lines = textBuilder.retrieveOcrLine(glyph,
-                        language);
+                int index = ocrOrphans.indexOf(glyph);
+                List<TextLine> lines = (index != -1)
+                        ? ocrResults.get(index)
+                        : textBuilder.retrieveOcrLine(glyph, language);
                 if (lines != null && !lines.isEmpty()) {
                     lines = textBuilder.recomposeLines(lines);
                     if (!lines.isEmpty()) {
@@ -0,0 +1,380 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                      T e s s e r a c t E n g i n e s                       //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.text.tesseract;
+
+import org.audiveris.omr.WellKnowns;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.bytedeco.javacpp.tesseract.TessBaseAPI;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Class {@code TesseractEngines} is a bounded pool of initialized
+ * Tesseract engines.
+ *
+ * <p>Initializing an engine (which loads the traineddata files of the
+ * language specification) costs much more than most recognitions, so
+ * engines are kept once initialized, and reused by subsequent orders on the
+ * same language specification.
+ * The page segmentation mode, which is cheap to change, is set by each
+ * order.</p>
+ *
+ * <p>An idle engine is preferably given back to the thread which last used
+ * it, so that the threads of the TEXTS step each keep "their" engine.
+ * The total number of engines is bounded (when the bound is reached, the
+ * oldest idle engine is ended, or the caller waits for an engine to be
+ * released), and engines left idle too long are ended when any engine is
+ * borrowed or released.
+ * All engines are ended by {@link #endAll}, at application shutdown.</p>
+ *
+ * @author Hervé Bitteur
+ */
+class TesseractEngines
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            TesseractEngines.class);
+
+    //~ Instance fields --------------------------------------------------------
+    /** Idle engines, least recently used first. */
+    private final LinkedList<Engine> idles = new LinkedList<>();
+
+    /** Number of engines, idle or not, including those being initialized. */
+    private int count;
+
+    /** Set once all engines are ended, released engines are no longer kept. */
+    private boolean closed;
+
+    //~ Methods ----------------------------------------------------------------
+    //--------//
+    // borrow //
+    //--------//
+    /**
+     * Get an engine initialized for the provided language specification.
+     * The engine must be given back via {@link #release} or
+     * {@link #discard}.
+     *
+     * @param lang the language specification
+     * @return the engine, or null if it could not be initialized
+     * @throws InterruptedException if interrupted while waiting for an engine
+     */
+    public Engine borrow (String lang)
+            throws InterruptedException
+    {
+        final Thread thread = Thread.currentThread();
+        final List<Engine> toEnd = new ArrayList<>();
+        Engine engine = null;
+
+        try {
+            synchronized (this) {
+                while (true) {
+                    removeExpired(toEnd);
+
+                    engine = getIdle(lang, thread);
+
+                    if (engine != null) {
+                        break;
+                    }
+
+                    if (count < getMaxEngines()) {
+                        count++;
+
+                        break;
+                    }
+
+                    if (!idles.isEmpty()) {
+                        // Recycle the oldest idle engine
+                        toEnd.add(idles.removeFirst());
+                        count--;
+                    } else {
+                        OmrExecutors.managedBlock(
+                                new OmrExecutors.Blocking()
+                        {
+                            @Override
+                            public void block ()
+                                    throws InterruptedException
+                            {
+                                TesseractEngines.this.wait();
+                            }
+                        });
+                    }
+                }
+            }
+        } finally {
+            end(toEnd);
+        }
+
+        if (engine == null) {
+            // Initialize a new engine, outside of any lock
+            engine = create(lang);
+        }
+
+        if (engine != null) {
+            engine.thread = thread;
+        }
+
+        return engine;
+    }
+
+    //---------//
+    // discard //
+    //---------//
+    /**
+     * Give back an engine which should no longer be used, because its
+     * processing failed.
+     *
+     * @param engine the engine to discard
+     */
+    public void discard (Engine engine)
+    {
+        synchronized (this) {
+            count--;
+            notifyAll();
+        }
+
+        engine.api.End();
+    }
+
+    //--------//
+    // endAll //
+    //--------//
+    /**
+     * End all idle engines, as well as the engines in use as soon as they
+     * are released, typically at application shutdown.
+     */
+    public void endAll ()
+    {
+        final List<Engine> toEnd;
+
+        synchronized (this) {
+            closed = true;
+            toEnd = new ArrayList<>(idles);
+            idles.clear();
+            count -= toEnd.size();
+            notifyAll();
+        }
+
+        end(toEnd);
+    }
+
+    //---------//
+    // release //
+    //---------//
+    /**
+     * Give back an engine, so that it can be reused.
+     *
+     * @param engine the engine, no longer used by the caller
+     */
+    public void release (Engine engine)
+    {
+        // Free recognition results, but keep language data
+        engine.api.Clear();
+        engine.lastUse = System.currentTimeMillis();
+
+        final List<Engine> toEnd = new ArrayList<>();
+
+        synchronized (this) {
+            removeExpired(toEnd);
+
+            if (closed) {
+                toEnd.add(engine);
+                count--;
+            } else {
+                idles.addLast(engine);
+            }
+
+            notifyAll();
+        }
+
+        end(toEnd);
+    }
+
+    //--------//
+    // create //
+    //--------//
+    private Engine create (String lang)
+    {
+        Engine engine = null;
+
+        try {
+            TessBaseAPI api = new TessBaseAPI();
+
+            if (api.Init(WellKnowns.OCR_FOLDER.toString(), lang) == 0) {
+                logger.debug("New Tesseract engine for {}", lang);
+                engine = new Engine(lang, api);
+            } else {
+                logger.warn("Could not initialize Tesseract with lang {}",
+                        lang);
+                api.End();
+            }
+
+            return engine;
+        } finally {
+            if (engine == null) {
+                synchronized (this) {
+                    count--;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    //-----//
+    // end //
+    //-----//
+    private void end (List<Engine> engines)
+    {
+        for (Engine engine : engines) {
+            logger.debug("Ending Tesseract engine for {}", engine.lang);
+            engine.api.End();
+        }
+    }
+
+    //---------//
+    // getIdle //
+    //---------//
+    /**
+     * Pick an idle engine for the provided language, preferably one last
+     * used by the provided thread.
+     */
+    private Engine getIdle (String lang,
+                            Thread thread)
+    {
+        Engine found = null;
+
+        for (Engine engine : idles) {
+            if (engine.lang.equals(lang)) {
+                found = engine;
+
+                if (engine.thread == thread) {
+                    break;
+                }
+            }
+        }
+
+        if (found != null) {
+            idles.remove(found);
+        }
+
+        return found;
+    }
+
+    //---------------//
+    // getMaxEngines //
+    //---------------//
+    private int getMaxEngines ()
+    {
+        return Math.max(1, constants.maxEngines.getValue());
+    }
+
+    //---------------//
+    // removeExpired //
+    //---------------//
+    /**
+     * Move the engines idle for too long to the provided list.
+     */
+    private void removeExpired (List<Engine> expired)
+    {
+        final long limit = System.currentTimeMillis()
+                           - (1000L * constants.idleTimeOut.getValue());
+
+        for (Iterator<Engine> it = idles.iterator(); it.hasNext();) {
+            Engine engine = it.next();
+
+            if (engine.lastUse < limit) {
+                it.remove();
+                count--;
+                expired.add(engine);
+            }
+        }
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //--------//
+    // Engine //
+    //--------//
+    /**
+     * An initialized Tesseract API, with its language specification.
+     */
+    static class Engine
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** Language specification. */
+        final String lang;
+
+        /** The initialized API. */
+        final TessBaseAPI api;
+
+        /** Last thread which used this engine. */
+        Thread thread;
+
+        /** Time of last release. */
+        long lastUse;
+
+        //~ Constructors -------------------------------------------------------
+        Engine (String lang,
+                TessBaseAPI api)
+        {
+            this.lang = lang;
+            this.api = api;
+        }
+    }
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Integer maxEngines = new Constant.Integer(
+                "engines",
+                8,
+                "Maximum number of Tesseract engines kept initialized");
+
+        Constant.Integer idleTimeOut = new Constant.Integer(
+                "Seconds",
+                60,
+                "Idle time after which a Tesseract engine is ended");
+
+    }
+}
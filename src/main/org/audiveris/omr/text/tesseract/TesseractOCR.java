@@ -40,17 +40,18 @@ import org.audiveris.omr.text.TextLine;
 import org.audiveris.omr.util.ClassUtil;
 
 import org.bytedeco.javacpp.tesseract;
-import org.bytedeco.javacpp.tesseract.TessBaseAPI;
 import org.bytedeco.javacpp.tesseract.StringGenericVector;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -90,6 +91,9 @@ public class TesseractOCR
     /** To assign a serial number to each image processing order. */
     private final AtomicInteger serial = new AtomicInteger(0);
 
+    /** Pool of initialized Tesseract engines. */
+    private final TesseractEngines engines = new TesseractEngines();
+
     //~ Constructors -----------------------------------------------------------
     //
     //--------------//
@@ -131,14 +135,18 @@ public class TesseractOCR
             TreeSet<String> set = new TreeSet<>();
             
             try {
-                TessBaseAPI api = new TessBaseAPI();
+                TesseractEngines.Engine engine = engines.borrow("eng");
                 
-                if (api.Init(WellKnowns.OCR_FOLDER.toString(), "eng") == 0) {
-                    StringGenericVector languages = new StringGenericVector();
-                    api.GetAvailableLanguagesAsVector(languages);
-                    
-                    while(!languages.empty())
-                        set.add(languages.pop_back().string().getString());
+                if (engine != null) {
+                    try {
+                        StringGenericVector languages = new StringGenericVector();
+                        engine.api.GetAvailableLanguagesAsVector(languages);
+
+                        while(!languages.empty())
+                            set.add(languages.pop_back().string().getString());
+                    } finally {
+                        engines.release(engine);
+                    }
                 } else {
                     logger.warn("Error in loading Tesseract languages");
                 }
@@ -179,31 +187,15 @@ public class TesseractOCR
 
         try {
             // Allocate a processing order
-            TesseractOrder order;
-
-            // DEBUG
-            String name = "";
-            if (true) {
-                StackTraceElement elem = ClassUtil.getCallingFrame(
-                        BasicGlyph.class,
-                        BasicContent.class,
-                        TesseractOCR.class);
-
-                if (elem != null) {
-                    name += ("-" + elem.getMethodName());
-                }
-            }
-
-            order = new TesseractOrder(system,
-                    label + name,
-                    serial.incrementAndGet(),
-                    constants.keepImages.isSet(),
+            TesseractOrder order = createOrder(
+                    bufferedImage,
                     languageCode,
-                    getMode(layoutMode),
-                    bufferedImage);
+                    layoutMode,
+                    system,
+                    label);
 
             // Process the order
-            List<TextLine> lines = order.process();
+            List<TextLine> lines = order.process(engines);
 
             if (lines != null) {
                 // Translate relative coordinates to absolute ones
@@ -223,6 +215,110 @@ public class TesseractOCR
         }
     }
 
+    //-----------//
+    // recognize //
+    //-----------//
+    @Override
+    public List<List<TextLine>> recognize (BufferedImage bufferedImage,
+                                           Point topLeft,
+                                           List<Rectangle> regions,
+                                           String languageCode,
+                                           LayoutMode layoutMode,
+                                           SystemInfo system,
+                                           String label)
+    {
+        // Make sure we have an OCR engine available
+        if (!isAvailable()) {
+            return null;
+        }
+
+        try {
+            // Allocate a processing order
+            TesseractOrder order = createOrder(
+                    bufferedImage,
+                    languageCode,
+                    layoutMode,
+                    system,
+                    label);
+
+            // Regions relative to image
+            List<Rectangle> relRegions = new ArrayList<>(regions.size());
+
+            for (Rectangle region : regions) {
+                Rectangle rel = new Rectangle(region);
+                rel.translate(-topLeft.x, -topLeft.y);
+                relRegions.add(rel);
+            }
+
+            // Process the order
+            List<List<TextLine>> results = order.process(engines, relRegions);
+
+            if (results != null) {
+                // Translate relative coordinates to absolute ones
+                for (List<TextLine> lines : results) {
+                    if (lines != null) {
+                        for (TextLine ol : lines) {
+                            ol.translate(topLeft.x, topLeft.y);
+                        }
+                    }
+                }
+            }
+
+            return results;
+
+        } catch (IOException ex) {
+            logger.warn("Could not create OCR order", ex);
+            return null;
+        } catch (UnsatisfiedLinkError ex) {
+            logger.warn("OCR link error", ex);
+            throw new UnavailableOcrException();
+        }
+    }
+
+    //----------//
+    // shutdown //
+    //----------//
+    @Override
+    public void shutdown ()
+    {
+        engines.endAll();
+    }
+
+    //-------------//
+    // createOrder //
+    //-------------//
+    /**
+     * Allocate a processing order on the provided image.
+     */
+    private TesseractOrder createOrder (BufferedImage bufferedImage,
+                                        String languageCode,
+                                        LayoutMode layoutMode,
+                                        SystemInfo system,
+                                        String label)
+            throws IOException
+    {
+        // DEBUG
+        String name = "";
+        if (true) {
+            StackTraceElement elem = ClassUtil.getCallingFrame(
+                    BasicGlyph.class,
+                    BasicContent.class,
+                    TesseractOCR.class);
+
+            if (elem != null) {
+                name += ("-" + elem.getMethodName());
+            }
+        }
+
+        return new TesseractOrder(system,
+                label + name,
+                serial.incrementAndGet(),
+                constants.keepImages.isSet(),
+                languageCode,
+                getMode(layoutMode),
+                bufferedImage);
+    }
+
     //---------//
     // getMode //
     //---------//
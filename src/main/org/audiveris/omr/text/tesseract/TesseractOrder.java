@@ -33,27 +33,26 @@ import org.audiveris.omr.text.TextLine;
 import org.audiveris.omr.text.TextWord;
 
 import org.bytedeco.javacpp.*;
-import static org.bytedeco.javacpp.lept.*;
 import static org.bytedeco.javacpp.tesseract.*;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.awt.Graphics2D;
 import java.awt.geom.Line2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
 import java.awt.Rectangle;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import javax.imageio.ImageIO;
-import javax.imageio.ImageWriter;
 import javax.imageio.spi.IIORegistry;
-import javax.imageio.stream.ImageOutputStream;
 
 /**
  * Class {@code TesseractOrder} carries a processing order submitted
@@ -74,7 +73,7 @@ public class TesseractOrder
     /** To avoid repetitive warnings if OCR binding failed */
     private static boolean userWarned;
 
-    /** Needed (for OpenJDK) to register TIFF support. */
+    /** Needed (for OpenJDK) to register TIFF support, for image copies. */
     static {
         IIORegistry registry = IIORegistry.getDefaultInstance();
         registry.registerServiceProvider(new com.github.jaiimageio.impl.plugins.tiff.TIFFImageWriterSpi());
@@ -101,11 +100,20 @@ public class TesseractOrder
     /** Desired handling of layout. */
     private final int segMode;
 
-    /** The dedicated API. */
+    /** The API of the borrowed engine. */
     private TessBaseAPI api;
 
-    /** The image being processed. */
-    private PIX image;
+    /** The gray pixels being processed, one byte per pixel. */
+    private byte[] pixels;
+
+    /** Image width. */
+    private final int width;
+
+    /** Image height. */
+    private final int height;
+
+    /** Number of bytes per image line in pixels array. */
+    private final int stride;
 
     //~ Constructors -----------------------------------------------------------
     //
@@ -124,8 +132,7 @@ public class TesseractOrder
      * @param bufferedImage The image to process
      *
      * @throws UnsatisfiedLinkError When bridge to C++ could not be loaded
-     * @throws IOException          When temporary Tiff buffer failed
-     * @throws RuntimeException     When PIX image failed
+     * @throws IOException          When disk copy of the image failed
      */
     public TesseractOrder (SystemInfo system,
                            String label,
@@ -143,14 +150,42 @@ public class TesseractOrder
         this.lang = lang;
         this.segMode = segMode;
 
-        // Build a PIX from the image provided
-        ByteBuffer buf = toTiffBuffer(bufferedImage);
-        buf.position(0);
-        image = pixReadMemTiff(buf, buf.capacity(), 0);
+        // Get raw gray pixels from the image provided
+        BufferedImage grayImage = toGray(bufferedImage);
+        Raster raster = grayImage.getRaster();
+        ComponentSampleModel model = (ComponentSampleModel) raster.
+                getSampleModel();
+        DataBufferByte buffer = (DataBufferByte) raster.getDataBuffer();
+        int offset = buffer.getOffset()
+                     + model.getOffset(
+                -raster.getSampleModelTranslateX(),
+                -raster.getSampleModelTranslateY());
+
+        width = grayImage.getWidth();
+        height = grayImage.getHeight();
+
+        if (offset == 0) {
+            // Use the raster data as it is
+            pixels = buffer.getData();
+            stride = model.getScanlineStride();
+        } else {
+            // Copy the image lines into a compact array
+            pixels = new byte[width * height];
+            stride = width;
+
+            for (int y = 0; y < height; y++) {
+                System.arraycopy(
+                        buffer.getData(),
+                        offset + (y * model.getScanlineStride()),
+                        pixels,
+                        y * width,
+                        width);
+            }
+        }
 
-        if (image == null) {
-            logger.warn("Invalid image {}", label);
-            throw new RuntimeException("Invalid image");
+        // Should we keep a local copy of this image on disk?
+        if (keepImage) {
+            writeImage(grayImage);
         }
     }
 
@@ -160,39 +195,82 @@ public class TesseractOrder
     // process //
     //---------//
     /**
-     * Actually allocate a Tesseract API and recognize the image.
+     * Actually borrow a Tesseract engine and recognize the image.
      *
+     * @param engines the pool of Tesseract engines
      * @return the sequence of lines found
      */
-    public List<TextLine> process ()
+    public List<TextLine> process (TesseractEngines engines)
     {
-        try {
-            api = new TessBaseAPI();
+        List<List<TextLine>> results = process(engines, null);
 
-            // Init API with proper language
-            if (api.Init(WellKnowns.OCR_FOLDER.toString(), lang) != 0) {
-                logger.warn("Could not initialize Tesseract with lang {}", lang);
+        return (results != null) ? results.get(0) : null;
+    }
 
+    //---------//
+    // process //
+    //---------//
+    /**
+     * Actually borrow a Tesseract engine and recognize separately each of
+     * the provided regions of the image.
+     * The image is set only once, for all the regions.
+     *
+     * @param engines the pool of Tesseract engines
+     * @param regions the regions to recognize, in image coordinates, or null
+     *                for the whole image
+     * @return the sequences of lines found, one sequence (perhaps null) per
+     *         region, or null if no recognition could be performed at all.
+     *         Lines coordinates are relative to the image.
+     */
+    public List<List<TextLine>> process (TesseractEngines engines,
+                                         List<Rectangle> regions)
+    {
+        TesseractEngines.Engine engine = null;
+        boolean success = false;
+
+        try {
+            // Get an engine initialized with proper language
+            engine = engines.borrow(lang);
+
+            if (engine == null) {
                 return finish(null);
             }
 
-            // Set API image
-            api.SetImage(image);
+            api = engine.api;
+            success = true;
+
+            // Set API image (Tesseract makes its own copy of the pixels)
+            api.SetImage(pixels, width, height, 1, stride);
 
-            // Perform layout analysis according to segmentation mode
             api.SetPageSegMode(segMode);
-            api.AnalyseLayout();
 
-            // Perform image recognition
-            if (api.Recognize(null) != 0) {
-                logger.warn("Error in Tesseract recognize");
+            if (regions == null) {
+                List<TextLine> lines = recognize();
 
-                return finish(null);
+                return finish((lines != null) ? Collections.singletonList(lines) : null);
+            }
+
+            List<List<TextLine>> results = new ArrayList<>(regions.size());
+
+            for (Rectangle region : regions) {
+                // Restrict recognition to the region, image is kept as is
+                api.SetRectangle(
+                        region.x,
+                        region.y,
+                        region.width,
+                        region.height);
+                results.add(recognize());
             }
 
-            // Extract lines
-            return finish(getLines());
+            return finish(results);
+        } catch (InterruptedException ex) {
+            logger.warn("Interrupted while waiting for a Tesseract engine");
+            Thread.currentThread().interrupt();
+
+            return finish(null);
         } catch (UnsatisfiedLinkError ex) {
+            success = false;
+
             if (!userWarned) {
                 logger.warn("Could not link Tesseract engine", ex);
                 logger.warn(
@@ -202,6 +280,18 @@ public class TesseractOrder
             }
 
             throw new RuntimeException(ex);
+        } catch (RuntimeException ex) {
+            success = false;
+
+            throw ex;
+        } finally {
+            if (engine != null) {
+                if (success) {
+                    engines.release(engine);
+                } else {
+                    engines.discard(engine);
+                }
+            }
         }
     }
 
@@ -210,22 +300,17 @@ public class TesseractOrder
     //--------//
     /**
      * A convenient way to cleanup Tesseract resources while ending
-     * the current processing
+     * the current processing.
+     * The engine itself is given back to the pool by the caller.
      *
-     * @param lines the lines found, if any
-     * @return the lines found, if nay
+     * @param results the lines found, if any
+     * @return the lines found, if any
      */
-    private List<TextLine> finish (List<TextLine> lines)
+    private <T> T finish (T results)
     {
-        if (image != null) {
-            pixDestroy(image);
-        }
-
-        if (api != null) {
-            api.End();
-        }
+        pixels = null;
 
-        return lines;
+        return results;
     }
 
     //---------//
@@ -405,48 +490,76 @@ public class TesseractOrder
         }
     }
 
-    //--------------//
-    // toTiffBuffer //
-    //--------------//
+    //-----------//
+    // recognize //
+    //-----------//
     /**
-     * Convert the given image into a TIFF-formatted ByteBuffer for
-     * passing it directly to Tesseract.
-     * A copy of the tiff buffer can be saved on disk, if so desired.
+     * Recognize the current image, or its current rectangle.
      *
-     * @param image the input image
-     * @return a buffer in TIFF format
+     * @return the lines found, or null if recognition failed
      */
-    private ByteBuffer toTiffBuffer (BufferedImage image)
-            throws IOException
+    private List<TextLine> recognize ()
     {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        // Perform layout analysis according to segmentation mode
+        api.AnalyseLayout();
 
-        try (final ImageOutputStream ios = ImageIO.createImageOutputStream(baos)) {
-            ImageWriter writer = ImageIO.getImageWritersByFormatName("tiff").
-                    next();
-            writer.setOutput(ios);
-            writer.write(image);
+        // Perform image recognition
+        if (api.Recognize(null) != 0) {
+            logger.warn("Error in Tesseract recognize");
+
+            return null;
         }
 
-        ByteBuffer buf = ByteBuffer.allocate(baos.size());
-        byte[] bytes = baos.toByteArray();
-        buf.put(bytes);
+        // Extract lines
+        return getLines();
+    }
 
-        // Should we keep a local copy of this buffer on disk?
-        if (keepImage) {
-            String name = String.format("%03d-", serial) + ((label != null) ? label : "");
-            File file = new File(WellKnowns.TEMP_FOLDER, name + ".tif");
+    //--------//
+    // toGray //
+    //--------//
+    /**
+     * Make sure the given image is a gray image, with one byte per pixel.
+     *
+     * @param image the input image
+     * @return the image itself if already gray, otherwise a gray copy
+     */
+    private static BufferedImage toGray (BufferedImage image)
+    {
+        if ((image.getType() == BufferedImage.TYPE_BYTE_GRAY)
+            && image.getRaster().getSampleModel() instanceof ComponentSampleModel) {
+            return image;
+        }
 
-            // Make sure the TEMP directory exists
-            if (!WellKnowns.TEMP_FOLDER.exists()) {
-                WellKnowns.TEMP_FOLDER.mkdir();
-            }
-            try (final FileOutputStream fos = new FileOutputStream(
-                    file.getAbsolutePath())) {
-                fos.write(bytes);
-            }
+        BufferedImage gray = new BufferedImage(
+                image.getWidth(),
+                image.getHeight(),
+                BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = gray.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+
+        return gray;
+    }
+
+    //------------//
+    // writeImage //
+    //------------//
+    /**
+     * Save a TIFF copy of the given image on disk, for debugging.
+     *
+     * @param image the image sent to Tesseract
+     */
+    private void writeImage (BufferedImage image)
+            throws IOException
+    {
+        String name = String.format("%03d-", serial) + ((label != null) ? label : "");
+        File file = new File(WellKnowns.TEMP_FOLDER, name + ".tif");
+
+        // Make sure the TEMP directory exists
+        if (!WellKnowns.TEMP_FOLDER.exists()) {
+            WellKnowns.TEMP_FOLDER.mkdir();
         }
 
-        return buf;
+        ImageIO.write(image, "tiff", file);
     }
 }
@@ -51,6 +51,8 @@ import org.audiveris.omr.sheet.ui.SheetsController;
 import org.audiveris.omr.step.StepMenu;
 import org.audiveris.omr.step.Stepping;
 
+import org.audiveris.omr.text.TextBuilder;
+
 import org.audiveris.omr.ui.dnd.GhostGlassPane;
 import org.audiveris.omr.ui.symbol.MusicFont;
 import org.audiveris.omr.ui.util.ModelessOptionPane;
@@ -614,6 +616,10 @@ public class MainGui
                 // Store latest constant values on disk
                 ConstantManager.getInstance()
                         .storeResource();
+
+                // Release OCR engines
+                TextBuilder.getOcr()
+                        .shutdown();
             }
         });
 
@@ -0,0 +1,487 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                             T i l e C a c h e                              //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.ui.view;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Class {@code TileCache} caches the rendering of a view layer as
+ * square image tiles, per zoom level.
+ *
+ * <p>The layer is painted by a {@link Painter}, in model coordinates.
+ * Tiles are defined in zoomed coordinates, so that a tile is blitted pixel
+ * for pixel, and only the tiles that intersect the clip are rendered.
+ * Tiles of several zoom levels are kept, up to a maximum number of tiles,
+ * the least recently used ones being discarded first.</p>
+ *
+ * <p>The cached tiles are discarded when the layer content changes, which
+ * is detected by a change in the "stamp" provided by the caller, or
+ * signalled via {@link #invalidate}.</p>
+ *
+ * <p>By default, missing tiles are rasterized on a background executor,
+ * so that the event dispatch thread only blits the tiles already available.
+ * When a tile gets ready, the displaying component is asked to repaint the
+ * tile area. Hence the painter must be able to run outside of the event
+ * dispatch thread, in parallel with other painters.</p>
+ *
+ * <p>Apart from painting, all methods are meant to be called on the event
+ * dispatch thread.</p>
+ *
+ * @author Hervé Bitteur
+ */
+public class TileCache
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            TileCache.class);
+
+    //~ Instance fields --------------------------------------------------------
+    /** The displaying component */
+    private final Component component;
+
+    /** Side of a tile, in zoomed pixels */
+    private final int tileSize;
+
+    /** Should tiles be rasterized in background? */
+    private final boolean background;
+
+    /** Cached tiles, least recently used first */
+    private final Map<Key, BufferedImage> tiles;
+
+    /** Tiles being rasterized in background */
+    private final Set<Key> pending = new HashSet<>();
+
+    /** Stamp of cached content */
+    private Object stamp;
+
+    /** Generation of cached content, to discard outdated tiles */
+    private volatile int generation;
+
+    //~ Constructors -----------------------------------------------------------
+    //-----------//
+    // TileCache //
+    //-----------//
+    /**
+     * Creates a new TileCache object, with default parameters.
+     *
+     * @param component the component which displays the layer
+     */
+    public TileCache (Component component)
+    {
+        this(
+                component,
+                constants.tileSize.getValue(),
+                constants.maxTiles.getValue(),
+                constants.backgroundRendering.isSet());
+    }
+
+    //-----------//
+    // TileCache //
+    //-----------//
+    /**
+     * Creates a new TileCache object.
+     *
+     * @param component  the component which displays the layer
+     * @param tileSize   side of a tile, in zoomed pixels
+     * @param maxTiles   maximum number of tiles kept
+     * @param background true for tiles to be rasterized in background
+     */
+    public TileCache (Component component,
+                      int tileSize,
+                      final int maxTiles,
+                      boolean background)
+    {
+        this.component = component;
+        this.tileSize = tileSize;
+        this.background = background;
+
+        tiles = new LinkedHashMap<Key, BufferedImage>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry (
+                    Map.Entry<Key, BufferedImage> eldest)
+            {
+                return size() > maxTiles;
+            }
+        };
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //------------//
+    // invalidate //
+    //------------//
+    /**
+     * Discard all cached tiles.
+     */
+    public void invalidate ()
+    {
+        tiles.clear();
+        pending.clear();
+        generation++;
+    }
+
+    //--------//
+    // render //
+    //--------//
+    /**
+     * Render the layer in the provided graphics, whose transform is
+     * expected to be a zoom scaling (plus perhaps a translation), using the
+     * cached tiles when possible.
+     * In background mode, a missing tile is left blank until it gets ready.
+     *
+     * @param g       the (scaled) graphics
+     * @param stamp   a value which changes whenever the layer content changes
+     * @param painter the painter of the layer, used to render missing tiles
+     */
+    public void render (Graphics2D g,
+                        Object stamp,
+                        Painter painter)
+    {
+        final AffineTransform at = g.getTransform();
+        final double ratio = at.getScaleX();
+        final Rectangle clip = g.getClipBounds();
+
+        if ((clip == null) || (at.getShearX() != 0) || (at.getShearY() != 0)
+            || (at.getScaleY() != ratio) || (ratio <= 0)) {
+            painter.paint(g); // Not a plain zoom, no caching
+
+            return;
+        }
+
+        if (!Objects.equals(stamp, this.stamp)) {
+            invalidate();
+            this.stamp = stamp;
+        }
+
+        // Zoomed area to render
+        final int xMin = (int) Math.floor(clip.x * ratio);
+        final int yMin = (int) Math.floor(clip.y * ratio);
+        final int xMax = (int) Math.ceil((clip.x + clip.width) * ratio) - 1;
+        final int yMax = (int) Math.ceil((clip.y + clip.height) * ratio) - 1;
+
+        // Blit in zoomed coordinates
+        final Graphics2D zg = (Graphics2D) g.create();
+        zg.scale(1 / ratio, 1 / ratio);
+
+        try {
+            for (int row = floorDiv(yMin, tileSize);
+                    row <= floorDiv(yMax, tileSize); row++) {
+                for (int col = floorDiv(xMin, tileSize);
+                        col <= floorDiv(xMax, tileSize); col++) {
+                    Key key = new Key(ratio, col, row);
+                    BufferedImage tile = tiles.get(key);
+
+                    if (tile == null) {
+                        if (background) {
+                            if (pending.add(key)) {
+                                submit(g.getRenderingHints(), key, painter);
+                            }
+
+                            continue;
+                        }
+
+                        tile = renderTile(g.getRenderingHints(), key, painter);
+                        tiles.put(key, tile);
+                    }
+
+                    zg.drawImage(tile, col * tileSize, row * tileSize, null);
+                }
+            }
+        } finally {
+            zg.dispose();
+        }
+    }
+
+    //----------//
+    // floorDiv //
+    //----------//
+    private static int floorDiv (int a,
+                                 int b)
+    {
+        int q = a / b;
+
+        if (((a % b) != 0) && ((a < 0) != (b < 0))) {
+            q--;
+        }
+
+        return q;
+    }
+
+    //------------//
+    // renderTile //
+    //------------//
+    private BufferedImage renderTile (RenderingHints hints,
+                                      Key key,
+                                      Painter painter)
+    {
+        final BufferedImage tile = new BufferedImage(
+                tileSize,
+                tileSize,
+                BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D tg = tile.createGraphics();
+
+        try {
+            tg.setRenderingHints(hints);
+            tg.translate(-key.col * tileSize, -key.row * tileSize);
+            tg.scale(key.ratio, key.ratio);
+            tg.clip(
+                    new Rectangle2D.Double(
+                    (key.col * tileSize) / key.ratio,
+                    (key.row * tileSize) / key.ratio,
+                    tileSize / key.ratio,
+                    tileSize / key.ratio));
+            painter.paint(tg);
+        } finally {
+            tg.dispose();
+        }
+
+        return tile;
+    }
+
+    //--------//
+    // submit //
+    //--------//
+    /**
+     * Rasterize a tile in background, and hand it over to the event
+     * dispatch thread.
+     */
+    private void submit (final RenderingHints hints,
+                         final Key key,
+                         final Painter painter)
+    {
+        final int gen = generation;
+
+        OmrExecutors.getHighExecutor()
+                .execute(
+                new Runnable()
+        {
+            @Override
+            public void run ()
+            {
+                BufferedImage tile = null;
+
+                if (gen == generation) { // Not yet outdated
+                    try {
+                        tile = renderTile(hints, key, painter);
+                    } catch (ConcurrentModificationException ex) {
+                        // Layer being modified, tile will be retried
+                    } catch (Throwable ex) {
+                        logger.warn("Error rendering tile", ex);
+                        SwingUtilities.invokeLater(
+                                new Runnable()
+                        {
+                            @Override
+                            public void run ()
+                            {
+                                tileFailed(gen, key);
+                            }
+                        });
+
+                        return;
+                    }
+                }
+
+                final BufferedImage image = tile;
+                SwingUtilities.invokeLater(
+                        new Runnable()
+                {
+                    @Override
+                    public void run ()
+                    {
+                        tileReady(gen, key, image);
+                    }
+                });
+            }
+        });
+    }
+
+    //------------//
+    // tileFailed //
+    //------------//
+    /**
+     * Called on the event dispatch thread, when a background tile could
+     * not be rendered.
+     * The tile is no longer pending, but no repaint is requested, so that
+     * a new attempt is made only on the next natural repaint.
+     */
+    private void tileFailed (int gen,
+                             Key key)
+    {
+        if (gen == generation) {
+            pending.remove(key);
+        }
+    }
+
+    //-----------//
+    // tileReady //
+    //-----------//
+    /**
+     * Called on the event dispatch thread, when a background tile is done.
+     */
+    private void tileReady (int gen,
+                            Key key,
+                            BufferedImage tile)
+    {
+        if (gen != generation) {
+            return; // Outdated tile
+        }
+
+        pending.remove(key);
+
+        if (tile != null) {
+            tiles.put(key, tile);
+        }
+
+        // Tile area, in component coordinates (which are zoomed coordinates)
+        component.repaint(
+                key.col * tileSize,
+                key.row * tileSize,
+                tileSize,
+                tileSize);
+    }
+
+    //~ Inner Interfaces -------------------------------------------------------
+    //---------//
+    // Painter //
+    //---------//
+    /**
+     * Interface for the painting of a layer.
+     */
+    public static interface Painter
+    {
+        //~ Methods ------------------------------------------------------------
+
+        /**
+         * Paint the layer items that intersect the graphics clip.
+         * This may be called outside of the event dispatch thread.
+         *
+         * @param g the graphics, in model coordinates
+         */
+        void paint (Graphics2D g);
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Boolean backgroundRendering = new Constant.Boolean(
+                true,
+                "Should cached tiles be rendered in background?");
+
+        Constant.Integer tileSize = new Constant.Integer(
+                "Pixels",
+                256,
+                "Side of a cached tile, in zoomed pixels");
+
+        Constant.Integer maxTiles = new Constant.Integer(
+                "Tiles",
+                200,
+                "Maximum number of cached tiles per layer");
+
+    }
+
+    //-----//
+    // Key //
+    //-----//
+    /**
+     * Identification of a tile, by zoom ratio and tile position.
+     */
+    private static class Key
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        final double ratio;
+
+        final int col;
+
+        final int row;
+
+        //~ Constructors -------------------------------------------------------
+        public Key (double ratio,
+                    int col,
+                    int row)
+        {
+            this.ratio = ratio;
+            this.col = col;
+            this.row = row;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        public boolean equals (Object obj)
+        {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key that = (Key) obj;
+
+            return (ratio == that.ratio) && (col == that.col)
+                   && (row == that.row);
+        }
+
+        @Override
+        public int hashCode ()
+        {
+            int hash = 7;
+            hash = (41 * hash) + Double.valueOf(ratio).hashCode();
+            hash = (41 * hash) + col;
+            hash = (41 * hash) + row;
+
+            return hash;
+        }
+    }
+}
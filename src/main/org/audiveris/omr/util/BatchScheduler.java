@@ -0,0 +1,493 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                        B a t c h S c h e d u l e r                         //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+// </editor-fold>
+package org.audiveris.omr.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Class {@code BatchScheduler} runs a collection of jobs, such as the
+ * processing of input files in batch mode, with admission control.
+ *
+ * <ul>
+ * <li>Jobs are started by decreasing weight (typically the input file size),
+ * so that the longest jobs start first.</li>
+ * <li>At most a given number of jobs run concurrently, and a new job is
+ * admitted only if the available heap is sufficient (unless no job is
+ * running).</li>
+ * <li>Each job has its own time-out (unless not positive), after which it
+ * is cancelled (its thread is interrupted), the other jobs going on.</li>
+ * </ul>
+ *
+ * <p>Since a job may not react promptly to interruption, a cancelled job is
+ * considered as a "zombie" until its thread actually exits: it keeps
+ * counting against the maximum concurrency, even across runs. However, to
+ * always allow progress, a new job is admitted if no live job is running.
+ * </p>
+ *
+ * <p>A job whose task will never run, because it was cancelled before its
+ * start, is notified via {@link Job#cancelled}, so that it can record its
+ * end.</p>
+ *
+ * <p>Jobs may be provided all at once, or by a {@link Feed} polled while
+ * other jobs are running, for a long-lived scheduling loop.</p>
+ *
+ * <p>A scheduler is meant to be driven by a single thread.</p>
+ *
+ * @author Hervé Bitteur
+ */
+public class BatchScheduler
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            BatchScheduler.class);
+
+    /** Maximum wait for a job completion before checking again, in ms */
+    private static final long POLL_PERIOD = 1000;
+
+    //~ Instance fields --------------------------------------------------------
+    /** The executor for jobs */
+    private final ExecutorService executor;
+
+    /** Maximum number of jobs running concurrently */
+    private final int maxConcurrency;
+
+    /** Minimum available heap to admit a new job, in bytes */
+    private final long minAvailable;
+
+    /** Time-out for each job, in seconds */
+    private final int timeOut;
+
+    /** Executions whose thread has exited, posted by the threads themselves */
+    private final BlockingQueue<Execution> exits = new LinkedBlockingQueue<>();
+
+    /** Cancelled executions whose thread has not exited yet */
+    private final Set<Execution> zombies = new LinkedHashSet<>();
+
+    //~ Constructors -----------------------------------------------------------
+    //----------------//
+    // BatchScheduler //
+    //----------------//
+    /**
+     * Creates a new BatchScheduler object.
+     *
+     * @param executor       the executor to run jobs, which must not bound
+     *                       concurrency below maxConcurrency
+     * @param maxConcurrency maximum number of jobs running concurrently
+     * @param minAvailable   minimum available heap to admit a new job, in
+     *                       bytes
+     * @param timeOut        time-out for each job, in seconds (no time-out
+     *                       if not positive)
+     */
+    public BatchScheduler (ExecutorService executor,
+                           int maxConcurrency,
+                           long minAvailable,
+                           int timeOut)
+    {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException(
+                    "Illegal maxConcurrency " + maxConcurrency);
+        }
+
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+        this.minAvailable = minAvailable;
+        this.timeOut = timeOut;
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //-----//
+    // run //
+    //-----//
+    /**
+     * Run all the provided jobs, and wait for their completion.
+     *
+     * @param jobs the jobs to run
+     * @return true if all jobs succeeded, false if any failed or timed out
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean run (final List<Job> jobs)
+            throws InterruptedException
+    {
+        return run(
+                new Feed()
+        {
+            private boolean fed;
+
+            @Override
+            public List<Job> next ()
+            {
+                if (fed) {
+                    return null;
+                }
+
+                fed = true;
+
+                return jobs;
+            }
+        },
+                POLL_PERIOD);
+    }
+
+    //-----//
+    // run //
+    //-----//
+    /**
+     * Run the jobs provided by a feed, until the feed is exhausted, and
+     * wait for their completion.
+     * The feed is polled at each loop iteration, so that new jobs are
+     * admitted while others are running.
+     *
+     * @param feed   the provider of jobs
+     * @param period maximum wait between two loop iterations, in ms
+     * @return true if all jobs succeeded, false if any failed or timed out
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean run (Feed feed,
+                        long period)
+            throws InterruptedException
+    {
+        final List<Job> pendings = new ArrayList<>();
+        final List<Execution> actives = new ArrayList<>();
+        boolean feeding = true;
+        boolean success = true;
+
+        try {
+            while (feeding || !pendings.isEmpty() || !actives.isEmpty()) {
+                // Collect new jobs, if any
+                if (feeding) {
+                    List<Job> jobs = feed.next();
+
+                    if (jobs == null) {
+                        feeding = false;
+                    } else if (!jobs.isEmpty()) {
+                        pendings.addAll(jobs);
+                        Collections.sort(pendings, Job.byDecreasingWeight);
+                    }
+                }
+
+                // Admit as many jobs as possible
+                while (!pendings.isEmpty() && canAdmit(actives.size())) {
+                    Execution execution = new Execution(pendings.remove(0));
+                    logger.debug("Starting {}", execution.job);
+                    execution.future = executor.submit(execution);
+                    actives.add(execution);
+                }
+
+                // Wait for thread exits, if any
+                Execution exited = exits.poll(period, TimeUnit.MILLISECONDS);
+
+                while (exited != null) {
+                    if (zombies.remove(exited)) {
+                        logger.info(
+                                "Cancelled {} has finally exited",
+                                exited.job);
+                    } else if (actives.remove(exited)) {
+                        success &= exited.checkResult();
+                    }
+
+                    exited = exits.poll();
+                }
+
+                // Cancel jobs beyond their deadline
+                final long now = System.currentTimeMillis();
+
+                for (Iterator<Execution> it = actives.iterator();
+                        it.hasNext();) {
+                    Execution execution = it.next();
+
+                    if (now > execution.deadline) {
+                        it.remove();
+                        success = false;
+
+                        if (execution.cancel()) {
+                            zombies.add(execution);
+                            logger.warn(
+                                    "{} timed out after {} s, still running",
+                                    execution.job,
+                                    timeOut);
+                        } else {
+                            logger.warn(
+                                    "{} timed out after {} s, cancelled",
+                                    execution.job,
+                                    timeOut);
+                        }
+                    }
+                }
+            }
+        } finally {
+            // Jobs not admitted yet, when interrupted
+            for (Job job : pendings) {
+                job.cancelled();
+            }
+        }
+
+        if (!zombies.isEmpty()) {
+            logger.warn("Cancelled jobs still running: {}", zombies);
+        }
+
+        return success;
+    }
+
+    //----------//
+    // canAdmit //
+    //----------//
+    /**
+     * Check whether a new job can be admitted.
+     *
+     * @param activeCount number of live (not cancelled) jobs running
+     * @return true if admitted
+     */
+    private boolean canAdmit (int activeCount)
+    {
+        if (activeCount == 0) {
+            if (!zombies.isEmpty()) {
+                logger.debug("Admission despite zombies {}", zombies);
+            }
+
+            return true; // Always allow progress
+        }
+
+        if ((activeCount + zombies.size()) >= maxConcurrency) {
+            return false;
+        }
+
+        long available = Memory.available();
+
+        if (available < minAvailable) {
+            logger.debug(
+                    "Admission delayed, available heap {} < {}",
+                    available,
+                    minAvailable);
+
+            return false;
+        }
+
+        return true;
+    }
+
+    //~ Inner Interfaces -------------------------------------------------------
+    //------//
+    // Feed //
+    //------//
+    /**
+     * A provider of jobs, polled by the scheduler.
+     */
+    public static interface Feed
+    {
+        //~ Methods ------------------------------------------------------------
+
+        /**
+         * Report the jobs that became available since previous call.
+         *
+         * @return the new jobs (perhaps empty), or null when no more job
+         *         will ever be provided
+         */
+        List<Job> next ();
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //-----//
+    // Job //
+    //-----//
+    /**
+     * A job to be scheduled.
+     */
+    public static class Job
+    {
+        //~ Static fields/initializers -----------------------------------------
+
+        /** To sort jobs by decreasing weight */
+        public static final Comparator<Job> byDecreasingWeight = new Comparator<Job>()
+        {
+            @Override
+            public int compare (Job j1,
+                                Job j2)
+            {
+                return Long.compare(j2.weight, j1.weight);
+            }
+        };
+
+        //~ Instance fields ----------------------------------------------------
+        /** Job name, meant for messages */
+        public final String name;
+
+        /** Job weight, the heaviest jobs being started first */
+        public final long weight;
+
+        /** The job processing */
+        public final Callable<Void> task;
+
+        //~ Constructors -------------------------------------------------------
+        /**
+         * Create a job.
+         *
+         * @param name   job name
+         * @param weight job weight, such as input file size
+         * @param task   the job processing
+         */
+        public Job (String name,
+                    long weight,
+                    Callable<Void> task)
+        {
+            this.name = name;
+            this.weight = weight;
+            this.task = task;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        /**
+         * Called, on the scheduling thread, when the job is cancelled
+         * before its task could start, and thus the task will never run.
+         * This happens when the job times out before being started, or when
+         * the scheduler is interrupted before admitting the job.
+         * This implementation does nothing.
+         */
+        public void cancelled ()
+        {
+        }
+
+        @Override
+        public String toString ()
+        {
+            return "{Job " + name + "}";
+        }
+    }
+
+    //-----------//
+    // Execution //
+    //-----------//
+    /**
+     * Wrapper around the task of a job, which reports the exit of its
+     * thread, even after a cancellation.
+     */
+    private class Execution
+            implements Callable<Void>
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** The job at hand */
+        final Job job;
+
+        /** Time limit for the job */
+        final long deadline;
+
+        /** Set once the task is started or cancelled */
+        final AtomicBoolean claimed = new AtomicBoolean();
+
+        /** Future of execution */
+        Future<Void> future;
+
+        /** Failure if any, published to scheduler via exits queue */
+        Throwable failure;
+
+        //~ Constructors -------------------------------------------------------
+        public Execution (Job job)
+        {
+            this.job = job;
+            deadline = (timeOut > 0)
+                       ? (System.currentTimeMillis() + (1000L * timeOut))
+                       : Long.MAX_VALUE;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        public Void call ()
+        {
+            if (!claimed.compareAndSet(false, true)) {
+                return null; // Cancelled before start
+            }
+
+            try {
+                job.task.call();
+            } catch (Throwable ex) {
+                failure = ex;
+            } finally {
+                exits.add(this);
+            }
+
+            return null;
+        }
+
+        @Override
+        public String toString ()
+        {
+            return job.toString();
+        }
+
+        /**
+         * Cancel the execution, interrupting its thread if started.
+         *
+         * @return true if the task thread is still running
+         */
+        boolean cancel ()
+        {
+            future.cancel(true);
+
+            if (claimed.compareAndSet(false, true)) {
+                job.cancelled(); // Task will never start
+
+                return false;
+            }
+
+            return true;
+        }
+
+        /**
+         * Report the job result, once its thread has exited.
+         *
+         * @return true if successful
+         */
+        boolean checkResult ()
+        {
+            if (failure == null) {
+                logger.debug("Completed {}", job);
+
+                return true;
+            }
+
+            logger.warn(job + " failed", failure);
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                               I d S t o r e                                //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.util;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Class {@code IdStore} stores entities indexed by a dense integer id,
+ * as allocated by the store itself.
+ *
+ * <p>Since ids are allocated in sequence, the entities are kept in a growable
+ * array rather than in a hash map, so that lookup, insertion and removal
+ * need neither hashing nor boxing of the id.
+ * The array is made of chunks of doubling sizes: growing the store only
+ * appends a new chunk, existing chunks are never copied nor replaced.
+ * All slots are atomic references, hence an entity put in the store is safely
+ * published to any thread which gets it.</p>
+ *
+ * <p>All methods are thread-safe and lock-free. The collection of
+ * {@link #values} is a read-only view, whose iteration follows the id order
+ * and is weakly consistent, like the values of a ConcurrentHashMap.</p>
+ *
+ * @param <E> the type of stored entities
+ * @author Hervé Bitteur
+ */
+@ThreadSafe
+public class IdStore<E>
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Log2 of the size of first chunk */
+    private static final int FIRST_SHIFT = 6;
+
+    /** Size of first chunk */
+    private static final int FIRST_SIZE = 1 << FIRST_SHIFT;
+
+    /** Maximum number of chunks, to cover all positive ids */
+    private static final int MAX_CHUNKS = 31 - FIRST_SHIFT;
+
+    //~ Instance fields --------------------------------------------------------
+    /** Chunks of slots, chunk k being of size FIRST_SIZE * 2**k */
+    private final AtomicReferenceArray<AtomicReferenceArray<E>> chunks = new AtomicReferenceArray<>(
+            MAX_CHUNKS);
+
+    /** Last id allocated */
+    private final AtomicInteger lastId = new AtomicInteger(0);
+
+    /** Number of entities currently stored */
+    private final AtomicInteger count = new AtomicInteger(0);
+
+    /** Read-only view on stored entities */
+    private final Collection<E> values = new Values();
+
+    //~ Methods ----------------------------------------------------------------
+    //-----//
+    // get //
+    //-----//
+    /**
+     * Report the entity stored with the provided id.
+     *
+     * @param id the entity id
+     * @return the entity found, or null
+     */
+    public E get (int id)
+    {
+        if ((id < 0) || (id > lastId.get())) {
+            return null;
+        }
+
+        AtomicReferenceArray<E> chunk = chunks.get(chunkOf(id));
+
+        return (chunk != null) ? chunk.get(offsetOf(id)) : null;
+    }
+
+    //-----------//
+    // getLastId //
+    //-----------//
+    /**
+     * Report the last id allocated so far.
+     *
+     * @return the last id, 0 if none
+     */
+    public int getLastId ()
+    {
+        return lastId.get();
+    }
+
+    //---------//
+    // isEmpty //
+    //---------//
+    /**
+     * Tell whether the store contains no entity.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty ()
+    {
+        return count.get() == 0;
+    }
+
+    //--------//
+    // nextId //
+    //--------//
+    /**
+     * Allocate a new id, the first one being 1.
+     *
+     * @return the new id
+     */
+    public int nextId ()
+    {
+        return lastId.incrementAndGet();
+    }
+
+    //-----//
+    // put //
+    //-----//
+    /**
+     * Store an entity with the provided id, which is normally an id
+     * allocated by {@link #nextId}.
+     * A larger id is accepted, and then considered as allocated.
+     *
+     * @param id     the entity id
+     * @param entity the entity to store
+     * @return the entity previously stored with this id, or null
+     */
+    public E put (int id,
+                  E entity)
+    {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative id " + id);
+        }
+
+        if (entity == null) {
+            throw new IllegalArgumentException("Cannot store a null entity");
+        }
+
+        // Make sure the id is not allocated again
+        for (int last = lastId.get(); id > last; last = lastId.get()) {
+            if (lastId.compareAndSet(last, id)) {
+                break;
+            }
+        }
+
+        E previous = getChunk(chunkOf(id))
+                .getAndSet(offsetOf(id), entity);
+
+        if (previous == null) {
+            count.incrementAndGet();
+        }
+
+        return previous;
+    }
+
+    //--------//
+    // remove //
+    //--------//
+    /**
+     * Remove the entity stored with the provided id, if any.
+     *
+     * @param id the entity id
+     * @return the entity removed, or null
+     */
+    public E remove (int id)
+    {
+        if ((id < 0) || (id > lastId.get())) {
+            return null;
+        }
+
+        AtomicReferenceArray<E> chunk = chunks.get(chunkOf(id));
+
+        if (chunk == null) {
+            return null;
+        }
+
+        E previous = chunk.getAndSet(offsetOf(id), null);
+
+        if (previous != null) {
+            count.decrementAndGet();
+        }
+
+        return previous;
+    }
+
+    //--------//
+    // remove //
+    //--------//
+    /**
+     * Remove the entity stored with the provided id, only if it is
+     * equal to the provided entity.
+     *
+     * @param id     the entity id
+     * @param entity the entity to remove
+     * @return true if the entity was removed
+     */
+    public boolean remove (int id,
+                           E entity)
+    {
+        if ((entity == null) || (id < 0) || (id > lastId.get())) {
+            return false;
+        }
+
+        AtomicReferenceArray<E> chunk = chunks.get(chunkOf(id));
+
+        if (chunk == null) {
+            return false;
+        }
+
+        final int offset = offsetOf(id);
+
+        for (E current = chunk.get(offset); entity.equals(current);
+                current = chunk.get(offset)) {
+            if (chunk.compareAndSet(offset, current, null)) {
+                count.decrementAndGet();
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    //------//
+    // size //
+    //------//
+    /**
+     * Report the number of entities currently stored.
+     *
+     * @return the count of entities
+     */
+    public int size ()
+    {
+        return count.get();
+    }
+
+    //--------//
+    // values //
+    //--------//
+    /**
+     * Report a read-only view on the stored entities, by increasing id.
+     *
+     * @return the view on entities
+     */
+    public Collection<E> values ()
+    {
+        return values;
+    }
+
+    //---------//
+    // chunkOf //
+    //---------//
+    private static int chunkOf (int id)
+    {
+        // Position of the highest bit of (id + FIRST_SIZE), minus FIRST_SHIFT
+        return 31 - Integer.numberOfLeadingZeros(id + FIRST_SIZE)
+               - FIRST_SHIFT;
+    }
+
+    //----------//
+    // getChunk //
+    //----------//
+    /**
+     * Report the chunk of provided index, creating it if needed.
+     */
+    private AtomicReferenceArray<E> getChunk (int index)
+    {
+        AtomicReferenceArray<E> chunk = chunks.get(index);
+
+        if (chunk == null) {
+            chunks.compareAndSet(
+                    index,
+                    null,
+                    new AtomicReferenceArray<E>(FIRST_SIZE << index));
+            chunk = chunks.get(index); // Ours or a competitor's
+        }
+
+        return chunk;
+    }
+
+    //----------//
+    // offsetOf //
+    //----------//
+    private static int offsetOf (int id)
+    {
+        final int pos = id + FIRST_SIZE;
+
+        return pos - Integer.highestOneBit(pos);
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //--------//
+    // Values //
+    //--------//
+    /**
+     * Read-only view on stored entities.
+     */
+    private class Values
+            extends AbstractCollection<E>
+    {
+        //~ Methods ------------------------------------------------------------
+
+        @Override
+        public boolean isEmpty ()
+        {
+            return IdStore.this.isEmpty();
+        }
+
+        @Override
+        public Iterator<E> iterator ()
+        {
+            return new Iterator<E>()
+            {
+                /** Last id to browse */
+                private final int last = lastId.get();
+
+                /** Current id */
+                private int id = -1;
+
+                /** Next entity, if any */
+                private E next = advance();
+
+                @Override
+                public boolean hasNext ()
+                {
+                    return next != null;
+                }
+
+                @Override
+                public E next ()
+                {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+
+                    E current = next;
+                    next = advance();
+
+                    return current;
+                }
+
+                @Override
+                public void remove ()
+                {
+                    throw new UnsupportedOperationException("Read-only view");
+                }
+
+                private E advance ()
+                {
+                    while (id < last) {
+                        E entity = get(++id);
+
+                        if (entity != null) {
+                            return entity;
+                        }
+                    }
+
+                    return null;
+                }
+            };
+        }
+
+        @Override
+        public int size ()
+        {
+            return IdStore.this.size();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                          J a x b C o n t e x t s                           //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * Class {@code JaxbContexts} is the central registry of the JAXB contexts
+ * used by the application, one context per root class.
+ *
+ * <p>Creating a JAXB context is costly (typically a few seconds for the
+ * first one in a JVM), while a context is thread-safe once created.
+ * Contexts can thus be built in the background at startup (see
+ * {@link #preload}), and are then shared by all users.</p>
+ *
+ * <p>Marshaller and Unmarshaller instances, which are not thread-safe, are
+ * kept in per-context pools: each (un)marshalling borrows an instance and
+ * gives it back when done, so that concurrent users neither share an
+ * instance nor pay its creation every time.</p>
+ *
+ * @author Hervé Bitteur
+ */
+public class JaxbContexts
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            JaxbContexts.class);
+
+    /** Registered entries, per root class */
+    private static final ConcurrentMap<Class<?>, Entry> entries = new ConcurrentHashMap<>();
+
+    //~ Constructors -----------------------------------------------------------
+    private JaxbContexts ()
+    {
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //------------//
+    // getContext //
+    //------------//
+    /**
+     * Report the JAXB context for the provided root class.
+     * If the context is being built in the background, this method waits for
+     * its completion.
+     *
+     * @param classe the root class
+     * @return the shared context
+     * @throws JAXBException if the context could not be created
+     */
+    public static JAXBContext getContext (Class<?> classe)
+            throws JAXBException
+    {
+        return getEntry(classe).getContext();
+    }
+
+    //---------//
+    // marshal //
+    //---------//
+    /**
+     * Marshal an object, using a pooled marshaller.
+     *
+     * @param classe      the root class of the JAXB context to use
+     * @param jaxbElement the object to marshal
+     * @param os          the output stream, which is not closed by this method
+     * @param formatted   true for a formatted (indented) output
+     * @throws JAXBException
+     */
+    public static void marshal (Class<?> classe,
+                                Object jaxbElement,
+                                OutputStream os,
+                                boolean formatted)
+            throws JAXBException
+    {
+        Entry entry = getEntry(classe);
+        Marshaller m = entry.marshallers.poll();
+
+        if (m == null) {
+            m = entry.getContext().createMarshaller();
+        }
+
+        m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formatted);
+        m.marshal(jaxbElement, os);
+
+        // Give it back only when everything went OK
+        entry.marshallers.offer(m);
+    }
+
+    //---------//
+    // preload //
+    //---------//
+    /**
+     * Launch the background creation of the contexts for the provided root
+     * classes, unless already done.
+     *
+     * @param classes the root classes
+     */
+    public static void preload (Class<?>... classes)
+    {
+        for (Class<?> classe : classes) {
+            final Entry entry = getEntry(classe);
+
+            if (!entry.task.isDone()) {
+                OmrExecutors.getCachedLowExecutor().submit(
+                        new Callable<Void>()
+                {
+                    @Override
+                    public Void call ()
+                    {
+                        entry.task.run();
+
+                        return null;
+                    }
+                });
+            }
+        }
+    }
+
+    //-----------//
+    // unmarshal //
+    //-----------//
+    /**
+     * Unmarshal an object, using a pooled unmarshaller.
+     *
+     * @param classe the root class of the JAXB context to use
+     * @param is     the input stream, which is not closed by this method
+     * @return the unmarshalled object
+     * @throws JAXBException
+     */
+    public static Object unmarshal (Class<?> classe,
+                                    InputStream is)
+            throws JAXBException
+    {
+        Entry entry = getEntry(classe);
+        Unmarshaller um = entry.unmarshallers.poll();
+
+        if (um == null) {
+            um = entry.getContext().createUnmarshaller();
+        }
+
+        Object obj = um.unmarshal(is);
+
+        // Give it back only when everything went OK
+        entry.unmarshallers.offer(um);
+
+        return obj;
+    }
+
+    //----------//
+    // getEntry //
+    //----------//
+    private static Entry getEntry (Class<?> classe)
+    {
+        Entry entry = entries.get(classe);
+
+        if (entry == null) {
+            Entry newEntry = new Entry(classe);
+            entry = entries.putIfAbsent(classe, newEntry);
+
+            if (entry == null) {
+                entry = newEntry;
+            }
+        }
+
+        return entry;
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //-------//
+    // Entry //
+    //-------//
+    /**
+     * The context of a root class, with its pools of (un)marshallers.
+     */
+    private static class Entry
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** Context creation, run only once */
+        final FutureTask<JAXBContext> task;
+
+        /** Available marshallers */
+        final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+
+        /** Available unmarshallers */
+        final Queue<Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<>();
+
+        //~ Constructors -------------------------------------------------------
+        public Entry (final Class<?> classe)
+        {
+            task = new FutureTask<>(
+                    new Callable<JAXBContext>()
+            {
+                @Override
+                public JAXBContext call ()
+                        throws JAXBException
+                {
+                    long start = System.currentTimeMillis();
+                    JAXBContext context = JAXBContext.newInstance(classe);
+                    logger.debug("JAXB context for {} created in {} ms",
+                            classe.getSimpleName(),
+                            System.currentTimeMillis() - start);
+
+                    return context;
+                }
+            });
+        }
+
+        //~ Methods ------------------------------------------------------------
+        public JAXBContext getContext ()
+                throws JAXBException
+        {
+            // No-op if already run or being run by another thread
+            task.run();
+
+            try {
+                return task.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new JAXBException(ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof JAXBException) {
+                    throw (JAXBException) ex.getCause();
+                }
+
+                throw new JAXBException(ex.getCause());
+            }
+        }
+    }
+}
@@ -42,6 +42,20 @@ public class Memory
     }
 
     //~ Methods ----------------------------------------------------------------
+    //-----------//
+    // available //
+    //-----------//
+    /**
+     * Get the size of memory still available, that is the maximum heap
+     * size minus the currently occupied memory.
+     *
+     * @return this size
+     */
+    public static long available ()
+    {
+        return rt.maxMemory() - occupied();
+    }
+
     //------//
     // free //
     //------//
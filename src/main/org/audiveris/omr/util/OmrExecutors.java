@@ -31,10 +31,19 @@ import org.audiveris.omr.step.ProcessingCancellationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -45,8 +54,19 @@ import java.util.concurrent.atomic.AtomicInteger;
  * <li>lowExecutor: a fixed nb (#cpu+1) of threads with low priority</li>
  * <li>highExecutor: a fixed nb (#cpu+1) of threads with high priority</li>
  * <li>cachedLowExecutor: a varying nb of threads with low priority</li>
+ * <li>forkJoinPool: a work-stealing pool of (#cpu) threads with low
+ * priority, meant for nested parallelism via {@link #invokeAll}</li>
  * </ul>
  *
+ * <p>Nested parallel levels (pages, systems, rows) must not block pool
+ * threads while waiting for their sub-tasks, otherwise a fixed pool may
+ * starve and a cached pool may explode. Hence they use {@link #invokeAll},
+ * which forks the sub-tasks in the fork/join pool and joins them
+ * cooperatively: a waiting thread executes pending sub-tasks meanwhile.
+ * A task that has to wait for an external resource (OCR engine, external
+ * process) should do so via {@link #managedBlock}, so that the pool can
+ * keep its parallelism level.</p>
+ *
  * @author Hervé Bitteur
  */
 public class OmrExecutors
@@ -83,11 +103,14 @@ public class OmrExecutors
 
     private static final Pool cachedLows = new CachedLows();
 
+    private static final Pool forkJoins = new ForkJoins();
+
     /** To handle all the pools as a whole */
     private static Collection<Pool> allPools = Arrays.asList(
             cachedLows,
             lows,
-            highs);
+            highs,
+            forkJoins);
 
     /** To prevent parallel creation of pools when closing */
     private static volatile boolean creationAllowed = true;
@@ -114,6 +137,19 @@ public class OmrExecutors
         return cachedLows.getPool();
     }
 
+    //-----------------//
+    // getForkJoinPool //
+    //-----------------//
+    /**
+     * Return the (single) work-stealing pool
+     *
+     * @return the fork/join pool, allocated if needed
+     */
+    public static ForkJoinPool getForkJoinPool ()
+    {
+        return (ForkJoinPool) forkJoins.getPool();
+    }
+
     //-----------------//
     // getHighExecutor //
     //-----------------//
@@ -153,6 +189,82 @@ public class OmrExecutors
         return cpuCount;
     }
 
+    //-----------//
+    // invokeAll //
+    //-----------//
+    /**
+     * Run the provided tasks in the fork/join pool, and wait for their
+     * completion, like {@link ExecutorService#invokeAll} does.
+     *
+     * <p>When called from a fork/join pool thread (a nested level), the
+     * tasks are forked and then joined, the calling thread executing pending
+     * tasks while waiting. Otherwise, the calling thread simply waits.</p>
+     *
+     * <p>If the calling thread gets interrupted, the running tasks are
+     * interrupted and the pending ones are cancelled.</p>
+     *
+     * @param <T>   type of task result
+     * @param tasks the tasks to run
+     * @return the futures of the tasks, all of them being done
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static <T> List<Future<T>> invokeAll (
+            Collection<? extends Callable<T>> tasks)
+            throws InterruptedException
+    {
+        final TaskGroup<T> group = new TaskGroup<>();
+
+        for (Callable<T> task : tasks) {
+            group.fork(task);
+        }
+
+        return group.join();
+    }
+
+    //--------------//
+    // managedBlock //
+    //--------------//
+    /**
+     * Perform a blocking wait, letting the fork/join pool compensate for
+     * the blocked thread if needed.
+     *
+     * @param blocking the blocking action
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static void managedBlock (final Blocking blocking)
+            throws InterruptedException
+    {
+        if (!(Thread.currentThread() instanceof ForkJoinWorkerThread)) {
+            blocking.block();
+
+            return;
+        }
+
+        ForkJoinPool.managedBlock(
+                new ForkJoinPool.ManagedBlocker()
+        {
+            private boolean done;
+
+            @Override
+            public boolean block ()
+                    throws InterruptedException
+            {
+                if (!done) {
+                    blocking.block();
+                    done = true;
+                }
+
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable ()
+            {
+                return done;
+            }
+        });
+    }
+
     //---------//
     // restart //
     //---------//
@@ -191,6 +303,26 @@ public class OmrExecutors
         logger.debug("OmrExecutors closed");
     }
 
+    //~ Inner Interfaces -------------------------------------------------------
+    //----------//
+    // Blocking //
+    //----------//
+    /**
+     * A blocking action, such as waiting for a resource or a process.
+     */
+    public static interface Blocking
+    {
+        //~ Methods ------------------------------------------------------------
+
+        /**
+         * Perform the blocking action.
+         *
+         * @throws InterruptedException if interrupted while blocked
+         */
+        void block ()
+                throws InterruptedException;
+    }
+
     //~ Inner Classes ----------------------------------------------------------
     //------//
     // Pool //
@@ -309,6 +441,12 @@ public class OmrExecutors
                 60, //15,
                 "Time to wait for terminating tasks");
 
+        //
+        Constant.Integer forkJoinParallelism = new Constant.Integer(
+                "threads",
+                0,
+                "Number of fork/join threads (0 for number of CPUs)");
+
     }
 
     //
@@ -421,6 +559,40 @@ public class OmrExecutors
         }
     }
 
+    //-----------//
+    // ForkJoins //
+    //-----------//
+    /** Work-stealing pool with low priority */
+    private static class ForkJoins
+            extends Pool
+    {
+        //~ Methods ------------------------------------------------------------
+
+        @Override
+        public String getName ()
+        {
+            return "forkJoin";
+        }
+
+        @Override
+        protected ExecutorService createPool ()
+        {
+            int parallelism = constants.forkJoinParallelism.getValue();
+
+            if (!defaultParallelism.getTarget()) {
+                parallelism = 1;
+            } else if (parallelism <= 0) {
+                parallelism = cpuCount;
+            }
+
+            return new ForkJoinPool(
+                    parallelism,
+                    new WorkerFactory(getName(), Thread.MIN_PRIORITY),
+                    null,
+                    false);
+        }
+    }
+
     //-------//
     // Highs //
     //-------//
@@ -445,6 +617,64 @@ public class OmrExecutors
         }
     }
 
+    //---------------//
+    // Interruptible //
+    //---------------//
+    /**
+     * Wrapper of a task, which remembers the thread running the task, so
+     * that the task can be interrupted.
+     */
+    private static class Interruptible<T>
+            implements Callable<T>
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        private final Callable<T> task;
+
+        private Thread runner;
+
+        //~ Constructors -------------------------------------------------------
+        public Interruptible (Callable<T> task)
+        {
+            this.task = task;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        public T call ()
+                throws Exception
+        {
+            // The thread may be joining an interrupted enclosing task
+            final boolean enclosingInterrupted;
+
+            synchronized (this) {
+                enclosingInterrupted = Thread.interrupted();
+                runner = Thread.currentThread();
+            }
+
+            try {
+                return task.call();
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    Thread.interrupted(); // Keep the pool thread clean
+
+                    if (enclosingInterrupted) {
+                        Thread.currentThread()
+                                .interrupt();
+                    }
+                }
+            }
+        }
+
+        public synchronized void interrupt ()
+        {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+
     //------//
     // Lows //
     //------//
@@ -468,4 +698,164 @@ public class OmrExecutors
                     new Factory(getName(), Thread.MIN_PRIORITY, 0));
         }
     }
+
+    //-----------//
+    // TaskGroup //
+    //-----------//
+    /**
+     * A group of tasks forked in the fork/join pool one after the other,
+     * as soon as each task is known, and then joined all together, with the
+     * same policy as {@link #invokeAll}.
+     *
+     * <p>A group must be used by a single thread, the one which created
+     * it.</p>
+     *
+     * @param <T> type of task result
+     */
+    public static class TaskGroup<T>
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** The fork/join pool */
+        private final ForkJoinPool pool = getForkJoinPool();
+
+        /** The thread which forks and joins */
+        private final Thread thread = Thread.currentThread();
+
+        /** Is this a nested parallel level? */
+        private final boolean nested = (thread instanceof ForkJoinWorkerThread)
+                                       && (((ForkJoinWorkerThread) thread).getPool()
+                                           == pool);
+
+        /** To interrupt the running tasks */
+        private final List<Interruptible<T>> wrappers = new ArrayList<>();
+
+        /** The forked tasks */
+        private final List<ForkJoinTask<T>> forks = new ArrayList<>();
+
+        //~ Methods ------------------------------------------------------------
+        //--------//
+        // cancel //
+        //--------//
+        /**
+         * Cancel the pending tasks and interrupt the running ones.
+         */
+        public void cancel ()
+        {
+            for (ForkJoinTask<T> fork : forks) {
+                fork.cancel(false);
+            }
+
+            for (Interruptible<T> wrapper : wrappers) {
+                wrapper.interrupt();
+            }
+        }
+
+        //------//
+        // fork //
+        //------//
+        /**
+         * Start the provided task in the fork/join pool.
+         *
+         * @param task the task to run
+         */
+        public void fork (Callable<T> task)
+        {
+            Interruptible<T> wrapper = new Interruptible<>(task);
+            wrappers.add(wrapper);
+
+            ForkJoinTask<T> fork = ForkJoinTask.adapt(wrapper);
+            forks.add(nested ? fork.fork() : pool.submit(fork));
+        }
+
+        //------//
+        // join //
+        //------//
+        /**
+         * Wait for the completion of all the forked tasks.
+         * If the calling thread gets interrupted, the group is cancelled.
+         *
+         * @return the futures of the tasks, all of them being done
+         * @throws InterruptedException if interrupted while waiting
+         */
+        public List<Future<T>> join ()
+                throws InterruptedException
+        {
+            try {
+                for (ForkJoinTask<T> fork : forks) {
+                    if (nested) {
+                        fork.quietlyJoin();
+
+                        if (thread.isInterrupted()) {
+                            throw new InterruptedException();
+                        }
+                    } else {
+                        try {
+                            fork.get();
+                        } catch (ExecutionException |
+                                 CancellationException ex) {
+                            // Reported by the future itself
+                        }
+                    }
+                }
+            } catch (InterruptedException ex) {
+                cancel();
+
+                throw ex;
+            }
+
+            return new ArrayList<Future<T>>(forks);
+        }
+    }
+
+    //--------//
+    // Worker //
+    //--------//
+    private static class Worker
+            extends ForkJoinWorkerThread
+    {
+        //~ Constructors -------------------------------------------------------
+
+        Worker (ForkJoinPool pool)
+        {
+            super(pool);
+        }
+    }
+
+    //---------------//
+    // WorkerFactory //
+    //---------------//
+    private static class WorkerFactory
+            implements ForkJoinPool.ForkJoinWorkerThreadFactory
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        private final String threadPrefix;
+
+        private final int threadPriority;
+
+        private final AtomicInteger threadNumber = new AtomicInteger(0);
+
+        //~ Constructors -------------------------------------------------------
+        WorkerFactory (String threadPrefix,
+                       int threadPriority)
+        {
+            this.threadPrefix = threadPrefix;
+            this.threadPriority = threadPriority;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        public ForkJoinWorkerThread newThread (ForkJoinPool pool)
+        {
+            ForkJoinWorkerThread t = new Worker(pool);
+            t.setName(threadPrefix + "-thread-" + threadNumber.incrementAndGet());
+
+            if (t.getPriority() != threadPriority) {
+                t.setPriority(threadPriority);
+            }
+
+            return t;
+        }
+    }
 }
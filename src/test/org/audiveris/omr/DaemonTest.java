@@ -0,0 +1,169 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                            D a e m o n T e s t                             //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr;
+
+import org.audiveris.omr.step.Steps;
+
+import org.audiveris.omr.util.BatchScheduler;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+
+/**
+ * Class {@code DaemonTest} checks the reading of spooled jobs and the
+ * reporting of their status.
+ *
+ * @author Hervé Bitteur
+ */
+public class DaemonTest
+{
+    //~ Methods ----------------------------------------------------------------
+
+    @Test
+    public void testRecover ()
+            throws Exception
+    {
+        File spool = Files.createTempDirectory("spool")
+                .toFile();
+        write(new File(spool, "a.running"), "input = a.png\n");
+        write(new File(spool, "b.job"), "input = b.png\n");
+
+        Daemon daemon = new Daemon(
+                spool,
+                new BatchScheduler(
+                Executors.newCachedThreadPool(),
+                1,
+                0,
+                0));
+        daemon.recover();
+
+        // The job left running has failed, the waiting one is untouched
+        assertFalse(new File(spool, "a.running").exists());
+        assertTrue(new File(spool, "a.failed").exists());
+
+        Properties status = read(new File(spool, "a.status"));
+        assertEquals("FAILED", status.get("state"));
+        assertEquals("a.png", status.get("input"));
+        assertTrue(new File(spool, "b.job").exists());
+    }
+
+    @Test
+    public void testRequest ()
+    {
+        Properties props = new Properties();
+        props.setProperty("input", "foo.png");
+        props.setProperty("steps", "scale, grid");
+        props.setProperty("pages", "3 1");
+        props.setProperty("export", "out");
+
+        Daemon.Request request = new Daemon.Request(props);
+        assertEquals(new File("foo.png"), request.input);
+        assertTrue(request.steps.contains(Steps.valueOf(Steps.GRID)));
+        assertTrue(request.steps.contains(Steps.valueOf(Steps.EXPORT)));
+        assertEquals("[1, 3]", request.pages.toString());
+        assertEquals(new File("out"), request.export);
+        assertNull(request.print);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRequestNoInput ()
+    {
+        new Daemon.Request(new Properties());
+    }
+
+    @Test
+    public void testTakeJobs ()
+            throws Exception
+    {
+        File spool = Files.createTempDirectory("spool")
+                .toFile();
+        write(new File(spool, "a.job"), "input = missing.png\nsteps = grid\n");
+        write(new File(spool, "b.job"), "steps = grid\n");
+        write(new File(spool, "c.tmp"), "input = other.png\n");
+
+        Daemon daemon = new Daemon(
+                spool,
+                new BatchScheduler(
+                Executors.newCachedThreadPool(),
+                1,
+                0,
+                0));
+        List<BatchScheduler.Job> jobs = daemon.takeJobs();
+
+        // Only the valid job is taken, the invalid one has failed
+        assertEquals(1, jobs.size());
+        assertEquals("a", jobs.get(0).name);
+        assertTrue(new File(spool, "a.running").exists());
+        assertEquals("RUNNING", read(new File(spool, "a.status")).get("state"));
+        assertTrue(new File(spool, "b.failed").exists());
+        assertEquals("FAILED", read(new File(spool, "b.status")).get("state"));
+        assertTrue(new File(spool, "c.tmp").exists());
+        assertTrue(daemon.takeJobs().isEmpty());
+
+        // Processing fails on missing input
+        try {
+            jobs.get(0).task.call();
+            fail("Missing input accepted");
+        } catch (IOException expected) {
+        }
+
+        assertTrue(new File(spool, "a.failed").exists());
+        assertFalse(new File(spool, "a.running").exists());
+
+        Properties status = read(new File(spool, "a.status"));
+        assertEquals("FAILED", status.get("state"));
+        assertNotNull(status.get("message"));
+    }
+
+    private Properties read (File file)
+            throws IOException
+    {
+        Properties props = new Properties();
+
+        try (InputStream is = new FileInputStream(file)) {
+            props.load(is);
+        }
+
+        return props;
+    }
+
+    private void write (File file,
+                        String content)
+            throws IOException
+    {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(content);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                        C h e c k S u i t e T e s t                         //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.check;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+/**
+ * Class {@code CheckSuiteTest} checks that the compiled evaluation of a
+ * suite gives the same grades and failures as the evaluation in
+ * declaration order.
+ *
+ * @author Hervé Bitteur
+ */
+public class CheckSuiteTest
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    //~ Methods ----------------------------------------------------------------
+
+    @Test
+    public void testSameGrades ()
+    {
+        CheckSuite<Item> suite = new CheckSuite<>("Test", 0.5);
+        suite.add(1, new ItemCheck(0, constants.low0, constants.high0));
+        suite.add(2.5, new ItemCheck(1, constants.low1, constants.high1));
+        suite.add(0.3, new ItemCheck(2, constants.low2, constants.high2));
+        suite.add(4, new ItemCheck(3, constants.low3, constants.high3)); // Most selective
+
+        // No debug, otherwise checks are always run in declaration order
+        Logger logger = (Logger) LoggerFactory.getLogger(CheckSuite.class);
+        Level level = logger.getLevel();
+        logger.setLevel(Level.INFO);
+
+        Random random = new Random(456);
+        int reds = 0;
+
+        try {
+            for (int i = 0; i < 10000; i++) {
+                Item item = new Item(random);
+                double expected = gradeInOrder(suite, item);
+                double grade = suite.pass(item);
+                assertEquals(expected, grade, 0.0);
+
+                if (grade == Check.RED) {
+                    reds++;
+                    assertSame(failureInOrder(suite, item), item.result);
+                }
+            }
+        } finally {
+            logger.setLevel(level);
+        }
+
+        assertTrue(reds > 0);
+        assertTrue(suite.getStatistics().contains("Check#3"));
+    }
+
+    //----------------//
+    // failureInOrder //
+    //----------------//
+    /** Reference failure, of the first RED check in declaration order. */
+    private FailureResult failureInOrder (CheckSuite<Item> suite,
+                                         Item item)
+    {
+        for (Check<Item> check : suite.getChecks()) {
+            if (check.pass(item, null, false).flag == Check.RED) {
+                return check.getRedResult();
+            }
+        }
+
+        return null;
+    }
+
+    //--------------//
+    // gradeInOrder //
+    //--------------//
+    /** Reference computation, check after check. */
+    private double gradeInOrder (CheckSuite<Item> suite,
+                                 Item item)
+    {
+        double grade = 0;
+
+        for (int i = 0; i < suite.getChecks().size(); i++) {
+            CheckResult result = suite.getChecks().get(i).pass(item, null, false);
+
+            if (result.flag == Check.RED) {
+                return Check.RED;
+            }
+
+            grade += (result.flag * suite.getWeights().get(i));
+        }
+
+        return grade / suite.getTotalWeight();
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Double low0 = new Constant.Double("Value", 0.1, "Low bound");
+
+        Constant.Double high0 = new Constant.Double("Value", 0.6, "High bound");
+
+        Constant.Double low1 = new Constant.Double("Value", 0.2, "Low bound");
+
+        Constant.Double high1 = new Constant.Double("Value", 0.5, "High bound");
+
+        Constant.Double low2 = new Constant.Double("Value", 0.05, "Low bound");
+
+        Constant.Double high2 = new Constant.Double("Value", 0.9, "High bound");
+
+        Constant.Double low3 = new Constant.Double("Value", 0.7, "Low bound");
+
+        Constant.Double high3 = new Constant.Double("Value", 0.8, "High bound");
+
+    }
+
+    private static class Item
+            implements Checkable
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        final double[] values = new double[4];
+
+        Result result;
+
+        //~ Constructors -------------------------------------------------------
+        public Item (Random random)
+        {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = random.nextDouble();
+            }
+        }
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        public boolean isVip ()
+        {
+            return false;
+        }
+
+        @Override
+        public void setResult (Result result)
+        {
+            this.result = result;
+        }
+
+        @Override
+        public void setVip ()
+        {
+        }
+    }
+
+    private static class ItemCheck
+            extends Check<Item>
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        private final int index;
+
+        //~ Constructors -------------------------------------------------------
+        public ItemCheck (int index,
+                          Constant.Double low,
+                          Constant.Double high)
+        {
+            super(
+                    "Check#" + index,
+                    "Test check",
+                    low,
+                    high,
+                    true,
+                    new FailureResult("Test-Failure#" + index));
+            this.index = index;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        protected double getValue (Item item)
+        {
+            return item.values[index];
+        }
+    }
+}
@@ -0,0 +1,88 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                  C o n s t a n t S n a p s h o t T e s t                   //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.constant;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Class {@code ConstantSnapshotTest} checks the snapshots of constant
+ * values.
+ *
+ * @author Hervé Bitteur
+ */
+public class ConstantSnapshotTest
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    //~ Methods ----------------------------------------------------------------
+
+    @Test
+    public void testSnapshot ()
+    {
+        ConstantManager manager = ConstantManager.getInstance();
+        constants.ratio.getValue(); // To register the constant set
+
+        try {
+            ConstantSnapshot first = manager.getSnapshot();
+            assertEquals(2.5, first.getValue(constants.ratio), 0);
+            assertEquals(12, first.getValue(constants.count));
+            assertTrue(first.isSet(constants.flag));
+
+            // No change, same snapshot
+            assertSame(first, manager.getSnapshot());
+
+            constants.ratio.setValue(3.5);
+            constants.flag.setValue(false);
+
+            ConstantSnapshot second = manager.getSnapshot();
+            assertNotSame(first, second);
+            assertEquals(3.5, second.getValue(constants.ratio), 0);
+            assertFalse(second.isSet(constants.flag));
+
+            // First snapshot is not impacted
+            assertEquals(2.5, first.getValue(constants.ratio), 0);
+            assertTrue(first.isSet(constants.flag));
+        } finally {
+            constants.ratio.reset();
+            constants.flag.reset();
+        }
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Ratio ratio = new Constant.Ratio(2.5, "Test ratio");
+
+        Constant.Integer count = new Constant.Integer("Items", 12, "Test count");
+
+        Constant.Boolean flag = new Constant.Boolean(true, "Test flag");
+
+    }
+}
@@ -28,7 +28,7 @@ import org.audiveris.omr.lag.Roi;
 import org.audiveris.omr.lag.BasicLag;
 import org.audiveris.omr.lag.Section;
 import org.audiveris.omr.lag.Lag;
-import org.audiveris.omr.math.Histogram;
+import org.audiveris.omr.math.IntHistogram;
 
 import org.audiveris.omr.run.Orientation;
 import org.audiveris.omr.run.Run;
@@ -511,28 +511,28 @@ public class LagTest
 
         Roi                roi = new BasicRoi(new Rectangle(0, 0, 6, 7));
 
-        String             expV = "{Histogram 1-5 size:5 [1:5 2:3 3:2 4:1 5:6]}";
-        String             expH = "{Histogram 0-6 size:7 [0:1 1:4 2:4 3:2 4:2 5:2 6:2]}";
+        String             expV = "{IntHistogram 1-5 size:5 [1:5 2:3 3:2 4:1 5:6]}";
+        String             expH = "{IntHistogram 0-6 size:7 [0:1 1:4 2:4 3:2 4:2 5:2 6:2]}";
 
-        Histogram<Integer> histoVS = roi.getSectionHistogram(
+        IntHistogram histoVS = roi.getSectionHistogram(
             Orientation.VERTICAL,
             Collections.singletonList(s1));
         System.out.println("histoVS=" + histoVS);
         assertEquals("Wrong histogram", expV, histoVS.toString());
 
-        Histogram<Integer> histoHS = roi.getSectionHistogram(
+        IntHistogram histoHS = roi.getSectionHistogram(
             Orientation.HORIZONTAL,
             Collections.singletonList(s1));
         System.out.println("histoHS=" + histoHS);
         assertEquals("Wrong histogram", expH, histoHS.toString());
 
-        Histogram<Integer> histoVR = roi.getRunHistogram(
+        IntHistogram histoVR = roi.getRunHistogram(
             Orientation.VERTICAL,
             vTable);
         System.out.println("histoVR=" + histoVR);
         assertEquals("Wrong histogram", expV, histoVR.toString());
 
-        Histogram<Integer> histoHR = roi.getRunHistogram(
+        IntHistogram histoHR = roi.getRunHistogram(
             Orientation.HORIZONTAL,
             vTable);
         System.out.println("histoHR=" + histoHR);
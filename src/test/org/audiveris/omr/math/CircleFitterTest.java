@@ -0,0 +1,135 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                      C i r c l e F i t t e r T e s t                       //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.math;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.util.Random;
+
+/**
+ * Class {@code CircleFitterTest} checks the incremental circle fitter
+ * against the full fit of Circle.
+ *
+ * @author Hervé Bitteur
+ */
+public class CircleFitterTest
+{
+    //~ Methods ----------------------------------------------------------------
+
+    @Test
+    public void testExactArc ()
+    {
+        CircleFitter fitter = new CircleFitter();
+
+        for (int i = 0; i <= 20; i++) {
+            double angle = (Math.PI * i) / 40;
+            fitter.includePoint(
+                    1500 + (200 * Math.cos(angle)),
+                    800 + (200 * Math.sin(angle)));
+        }
+
+        Point2D center = fitter.getCenter();
+        assertEquals(1500, center.getX(), 1e-6);
+        assertEquals(800, center.getY(), 1e-6);
+        assertEquals(200, fitter.getRadius(), 1e-6);
+        assertEquals(0, fitter.getDistance(), 1e-6);
+    }
+
+    @Test
+    public void testExclusion ()
+    {
+        CircleFitter fitter = new CircleFitter();
+        double[][] points = noisyArc(200, 1);
+
+        for (double[] p : points) {
+            fitter.includePoint(p[0], p[1]);
+        }
+
+        double radius = fitter.getRadius();
+        double distance = fitter.getDistance();
+
+        // Add then remove an outlier
+        fitter.includePoint(1000, 1000);
+        assertTrue(fitter.getDistance() > distance);
+        fitter.excludePoint(1000, 1000);
+
+        assertEquals(points.length, fitter.getNumberOfPoints());
+        assertEquals(radius, fitter.getRadius(), 1e-6);
+        assertEquals(distance, fitter.getDistance(), 1e-9);
+    }
+
+    @Test
+    public void testSameAsCircle ()
+    {
+        double[][] points = noisyArc(300, 2);
+        double[] xx = new double[points.length];
+        double[] yy = new double[points.length];
+        CircleFitter fitter = new CircleFitter();
+
+        for (int i = 0; i < points.length; i++) {
+            xx[i] = points[i][0];
+            yy[i] = points[i][1];
+            fitter.includePoint(xx[i], yy[i]);
+        }
+
+        Circle circle = new Circle(xx, yy);
+        assertEquals(circle.getCenter().x, fitter.getCenter().x, 1e-3);
+        assertEquals(circle.getCenter().y, fitter.getCenter().y, 1e-3);
+        assertEquals(circle.getRadius(), fitter.getRadius(), 1e-3);
+
+        // Distance is only approximated
+        assertEquals(
+                circle.getDistance(),
+                fitter.getDistance(),
+                0.05 * circle.getDistance());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTooFewPoints ()
+    {
+        CircleFitter fitter = new CircleFitter();
+        fitter.includePoint(0, 0);
+        fitter.includePoint(10, 0);
+        fitter.getRadius();
+    }
+
+    private double[][] noisyArc (int count,
+                                 double noise)
+    {
+        Random random = new Random(123);
+        double[][] points = new double[count][];
+
+        for (int i = 0; i < count; i++) {
+            double angle = (Math.PI * i) / (2 * count);
+            double r = 150 + (noise * (random.nextDouble() - 0.5));
+            points[i] = new double[]{
+                2000 + (r * Math.cos(angle)), 600 - (r * Math.sin(angle))
+            };
+        }
+
+        return points;
+    }
+}
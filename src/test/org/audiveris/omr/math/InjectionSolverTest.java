@@ -26,6 +26,8 @@ package org.audiveris.omr.math;
 import org.audiveris.omr.math.InjectionSolver;
 import junit.framework.*;
 
+import java.util.Random;
+
 /**
  *
  * @author Hervé Bitteur
@@ -57,6 +59,62 @@ public class InjectionSolverTest
         //assertEquals(expResult, result);
     }
 
+    /**
+     * Check that Hungarian algorithm is as good as brute force on small
+     * sizes.
+     */
+    public void testHungarianOptimality ()
+    {
+        System.out.println("hungarianOptimality");
+
+        Random random = new Random(123);
+
+        for (int n = 1; n <= 5; n++) {
+            for (int m = n; m <= 7; m++) {
+                for (int trial = 0; trial < 20; trial++) {
+                    MatrixDistance distance = new MatrixDistance(n, m, random);
+                    int[] brute = new InjectionSolver(n, m, distance).
+                            solveBruteForce();
+                    int[] hungarian = new InjectionSolver(n, m, distance).
+                            solveHungarian();
+
+                    assertInjection(hungarian, m);
+                    assertEquals(
+                            "n=" + n + " m=" + m + " trial=" + trial,
+                            distance.cost(brute),
+                            distance.cost(hungarian));
+                }
+            }
+        }
+    }
+
+    /**
+     * Check that a large problem gets solved (by Hungarian algorithm).
+     */
+    public void testLargeSolve ()
+    {
+        System.out.println("largeSolve");
+
+        MatrixDistance distance = new MatrixDistance(12, 24, new Random(456));
+        int[] result = new InjectionSolver(12, 24, distance).solve();
+        int[] hungarian = new InjectionSolver(12, 24, distance).solveHungarian();
+
+        assertInjection(result, 24);
+        assertEquals(distance.cost(hungarian), distance.cost(result));
+    }
+
+    private void assertInjection (int[] config,
+                                  int rangeSize)
+    {
+        boolean[] taken = new boolean[rangeSize];
+
+        for (int ir : config) {
+            assertTrue(ir >= 0 && ir < rangeSize);
+            assertFalse("Range element used twice", taken[ir]);
+            taken[ir] = true;
+        }
+    }
+
     protected void setUp ()
         throws Exception
     {
@@ -82,4 +140,40 @@ public class InjectionSolverTest
             return Math.abs((1 + in) - ip);
         }
     }
+
+    public static class MatrixDistance
+        implements InjectionSolver.Distance
+    {
+        private final int[][] matrix;
+
+        public MatrixDistance (int domainSize,
+                               int rangeSize,
+                               Random random)
+        {
+            matrix = new int[domainSize][rangeSize];
+
+            for (int[] row : matrix) {
+                for (int ir = 0; ir < rangeSize; ir++) {
+                    row[ir] = random.nextInt(100);
+                }
+            }
+        }
+
+        public int cost (int[] config)
+        {
+            int total = 0;
+
+            for (int id = 0; id < config.length; id++) {
+                total += matrix[id][config[id]];
+            }
+
+            return total;
+        }
+
+        public int getDistance (int id,
+                                int ir)
+        {
+            return matrix[id][ir];
+        }
+    }
 }
@@ -0,0 +1,134 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                      I n t H i s t o g r a m T e s t                       //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.math;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Class {@code IntHistogramTest} checks that IntHistogram reports the
+ * same results as the map-based Histogram.
+ *
+ * @author Hervé Bitteur
+ */
+public class IntHistogramTest
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    private static final int[] keys = {3, 4, 5, 8, 10, 11, 12, 13, 15};
+
+    private static final int[] counts = {2, 10, 12, 3, 6, 0, 9, 7, 8};
+
+    //~ Methods ----------------------------------------------------------------
+    @Test
+    public void testIncremental ()
+    {
+        IntHistogram histo = createIntHistogram();
+        assertEquals(5, histo.getMaxBucket());
+        assertEquals(12, histo.getMaxCount());
+
+        histo.increaseCount(5, -5);
+        assertEquals(4, histo.getMaxBucket());
+        assertEquals(10, histo.getMaxCount());
+        assertEquals(52, histo.getTotalCount());
+
+        histo.increaseCount(15, 2);
+        assertEquals(4, histo.getMaxBucket());
+
+        histo.increaseCount(15, 1);
+        assertEquals(15, histo.getMaxBucket());
+
+        histo.clear();
+        assertEquals(0, histo.size());
+        assertEquals(0, histo.getTotalCount());
+        assertEquals(Integer.MIN_VALUE, histo.getMaxCount());
+    }
+
+    @Test
+    public void testOutOfRange ()
+    {
+        IntHistogram histo = new IntHistogram(0, 9);
+
+        try {
+            histo.increaseCount(10, 1);
+            fail("Out of range bucket accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        assertEquals(0, histo.getCount(-1));
+    }
+
+    @Test
+    public void testSameAsHistogram ()
+    {
+        Histogram<Integer> ref = createHistogram();
+        IntHistogram histo = createIntHistogram();
+
+        assertEquals(ref.dataString(), histo.dataString());
+        assertEquals(ref.size(), histo.size());
+        assertEquals(ref.getTotalCount(), histo.getTotalCount());
+        assertEquals((int) ref.firstBucket(), histo.firstBucket());
+        assertEquals((int) ref.lastBucket(), histo.lastBucket());
+        assertEquals((int) ref.getMaxBucket(), histo.getMaxBucket());
+        assertEquals(ref.getMaxCount(), histo.getMaxCount());
+        assertEquals(ref.getQuorumValue(0.2), histo.getQuorumValue(0.2));
+        assertEquals(
+                ref.getLocalMaxima().toString(),
+                histo.getLocalMaxima().toString());
+
+        for (int minCount = 0; minCount <= 13; minCount++) {
+            assertEquals(
+                    ref.getPeaks(minCount, true, true).toString(),
+                    histo.getPeaks(minCount, true, true).toString());
+            assertEquals(
+                    ref.getPeaks(minCount, false, false).toString(),
+                    histo.getPeaks(minCount, false, false).toString());
+            assertEquals(
+                    ref.getDoublePeaks(minCount).toString(),
+                    histo.getDoublePeaks(minCount).toString());
+        }
+    }
+
+    private Histogram<Integer> createHistogram ()
+    {
+        Histogram<Integer> histo = new Histogram<>();
+
+        for (int i = 0; i < keys.length; i++) {
+            histo.increaseCount(keys[i], counts[i]);
+        }
+
+        return histo;
+    }
+
+    private IntHistogram createIntHistogram ()
+    {
+        IntHistogram histo = new IntHistogram(0, 20);
+
+        for (int i = 0; i < keys.length; i++) {
+            histo.increaseCount(keys[i], counts[i]);
+        }
+
+        return histo;
+    }
+}
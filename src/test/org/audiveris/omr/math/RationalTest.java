@@ -323,4 +323,40 @@ public class RationalTest
         result = instance.toString();
         assertEquals(expResult, result);
     }
+
+    /**
+     * Test of valueOf method, of class Rational.
+     */
+    @Test
+    public void testValueOf ()
+    {
+        System.out.println("valueOf");
+
+        Rational result = Rational.valueOf(-6, -8);
+        assertEquals(new Rational(3, 4), result);
+        assertSame(result, Rational.valueOf(3, 4));
+        assertSame(Rational.ZERO, Rational.valueOf(0, 5));
+        assertSame(Rational.ONE, new Rational(1, 3).times(3));
+        assertSame(result, new Rational(1, 2).plus(new Rational(1, 4)));
+    }
+
+    /**
+     * Test of arithmetic close to int limits, of class Rational.
+     */
+    @Test
+    public void testLargeValues ()
+    {
+        System.out.println("largeValues");
+
+        Rational big = new Rational(Integer.MAX_VALUE - 1, 3);
+        assertEquals(new Rational(Integer.MAX_VALUE - 1, 9), big.divides(3));
+        assertEquals(new Rational(1, 3), big.times(big.inverse()).divides(3));
+        assertEquals(1, big.compareTo(new Rational(Integer.MAX_VALUE - 2, 3)));
+
+        try {
+            Rational.MAX_VALUE.plus(1);
+            fail("Overflow not detected");
+        } catch (ArithmeticException ex) {
+        }
+    }
 }
@@ -0,0 +1,231 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                        B i t s B u f f e r T e s t                         //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.run;
+
+import static org.audiveris.omr.run.Orientation.*;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class {@code BitsBufferTest} checks the word-level operations of
+ * BitsBuffer against a plain pixel by pixel model, as well as the
+ * conversions with RunsTable.
+ *
+ * @author Hervé Bitteur
+ */
+public class BitsBufferTest
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Width not a multiple of word size, to check row padding */
+    private static final Dimension dim = new Dimension(150, 7);
+
+    //~ Methods ----------------------------------------------------------------
+    @Test
+    public void testCardinality ()
+    {
+        boolean[][] model = randomModel(1);
+        BitsBuffer bits = fill(model);
+        int total = 0;
+
+        for (int y = 0; y < dim.height; y++) {
+            for (int x1 = 0; x1 < dim.width; x1 += 7) {
+                for (int x2 = x1; x2 < dim.width; x2 += 13) {
+                    assertEquals(
+                            count(model[y], x1, x2),
+                            bits.cardinality(y, x1, x2));
+                }
+            }
+
+            total += count(model[y], 0, dim.width - 1);
+        }
+
+        assertEquals(total, bits.cardinality());
+    }
+
+    @Test
+    public void testCombinations ()
+    {
+        boolean[][] m1 = randomModel(2);
+        boolean[][] m2 = randomModel(3);
+        BitsBuffer and = fill(m1);
+        BitsBuffer or = fill(m1);
+        BitsBuffer andNot = fill(m1);
+        BitsBuffer b2 = fill(m2);
+        and.and(b2);
+        or.or(b2);
+        andNot.andNot(b2);
+
+        for (int y = 0; y < dim.height; y++) {
+            for (int x = 0; x < dim.width; x++) {
+                assertEquals(m1[y][x] && m2[y][x], and.isFore(x, y));
+                assertEquals(m1[y][x] || m2[y][x], or.isFore(x, y));
+                assertEquals(m1[y][x] && !m2[y][x], andNot.isFore(x, y));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncompatible ()
+    {
+        new BitsBuffer(dim).and(new BitsBuffer(new Dimension(10, 7)));
+    }
+
+    @Test
+    public void testNextBits ()
+    {
+        boolean[][] model = randomModel(4);
+        BitsBuffer bits = fill(model);
+
+        for (int y = 0; y < dim.height; y++) {
+            for (int x = 0; x <= dim.width; x++) {
+                int set = -1;
+                int clear = dim.width;
+
+                for (int i = dim.width - 1; i >= x; i--) {
+                    if (model[y][i]) {
+                        set = i;
+                    } else {
+                        clear = i;
+                    }
+                }
+
+                assertEquals(set, bits.nextSetBit(y, x));
+                assertEquals(clear, bits.nextClearBit(y, x));
+            }
+        }
+    }
+
+    @Test
+    public void testRunsRoundTrip ()
+    {
+        BitsBuffer bits = fill(randomModel(5));
+        bits.setRange(0, 0, dim.width - 1); // A full row
+        bits.setRange(1, 60, 70); // Across a word boundary
+
+        for (Orientation orientation : Orientation.values()) {
+            RunsTable table = new RunsTableFactory(orientation, bits, 0)
+                    .createTable("bits");
+            BitsBuffer back = table.getBits();
+
+            for (int y = 0; y < dim.height; y++) {
+                for (int x = 0; x < dim.width; x++) {
+                    assertEquals(bits.isFore(x, y), back.isFore(x, y));
+                    assertEquals(bits.getPixel(x, y), table.getPixel(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSameRunsAsPixels ()
+    {
+        RunsTable table = new RunsTableFactory(
+                HORIZONTAL,
+                fill(randomModel(6)),
+                0).createTable("bits");
+
+        for (int minLength : new int[]{1, 3}) {
+            RunsTable fromBits = new RunsTableFactory(
+                    HORIZONTAL,
+                    table.getBits(),
+                    minLength).createTable("bits");
+            RunsTable fromPixels = new RunsTableFactory(
+                    HORIZONTAL,
+                    table.getBuffer(),
+                    minLength).createTable("pixels");
+            assertTrue(fromBits.isIdentical(fromPixels));
+        }
+    }
+
+    @Test
+    public void testSetRange ()
+    {
+        BitsBuffer bits = new BitsBuffer(dim);
+        bits.setRange(2, 63, 64);
+        bits.setRange(3, 10, 140);
+        bits.setRange(4, 5, 4); // Empty range
+
+        assertEquals(2, bits.cardinality(2, 0, dim.width - 1));
+        assertTrue(bits.isFore(63, 2) && bits.isFore(64, 2));
+        assertEquals(131, bits.cardinality(3, 0, dim.width - 1));
+        assertEquals(10, bits.nextSetBit(3, 0));
+        assertEquals(141, bits.nextClearBit(3, 10));
+        assertEquals(-1, bits.nextSetBit(4, 0));
+        assertEquals(133, bits.cardinality());
+
+        bits.clear(64, 2);
+        assertEquals(0, bits.getPixel(63, 2));
+        assertEquals(PixelSource.BACKGROUND, bits.getPixel(64, 2));
+    }
+
+    private int count (boolean[] row,
+                       int x1,
+                       int x2)
+    {
+        int count = 0;
+
+        for (int x = x1; x <= x2; x++) {
+            if (row[x]) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private BitsBuffer fill (boolean[][] model)
+    {
+        BitsBuffer bits = new BitsBuffer(dim);
+
+        for (int y = 0; y < dim.height; y++) {
+            for (int x = 0; x < dim.width; x++) {
+                if (model[y][x]) {
+                    bits.set(x, y);
+                }
+            }
+        }
+
+        return bits;
+    }
+
+    private boolean[][] randomModel (long seed)
+    {
+        Random random = new Random(seed);
+        boolean[][] model = new boolean[dim.height][dim.width];
+
+        for (boolean[] row : model) {
+            for (int x = 0; x < row.length; x++) {
+                row[x] = random.nextInt(3) == 0;
+            }
+        }
+
+        return model;
+    }
+}
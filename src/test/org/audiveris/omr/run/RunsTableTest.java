@@ -30,10 +30,17 @@ import org.audiveris.omr.run.RunsTableFactory;
 import org.audiveris.omr.run.Orientation;
 import static org.audiveris.omr.run.Orientation.*;
 
+import org.audiveris.omr.util.Predicate;
+
 import static org.junit.Assert.*;
 import org.junit.Test;
 
 import java.awt.Dimension;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -224,6 +231,43 @@ public class RunsTableTest
         assertEquals(expResult, result);
     }
 
+    //--------------//
+    // testModCount //
+    //--------------//
+    /**
+     * Test of getModCount method, of class RunsTable.
+     */
+    @Test
+    public void testModCount ()
+    {
+        System.out.println("modCount");
+
+        RunsTable instance = createHorizontalInstance();
+        RunsTable removed = new RunsTable("removed", HORIZONTAL, dim);
+        int count = instance.getModCount();
+
+        instance.purge(
+                new Predicate<Run>()
+        {
+            @Override
+            public boolean check (Run run)
+            {
+                return run.getLength() == 1;
+            }
+        },
+                removed);
+        assertTrue(instance.getModCount() > count);
+        assertTrue(removed.getModCount() > 0);
+
+        count = instance.getModCount();
+        instance.removeRun(0, instance.getSequence(0).get(0));
+        assertTrue(instance.getModCount() > count);
+
+        count = instance.getModCount();
+        instance.include(removed);
+        assertTrue(instance.getModCount() > count);
+    }
+
     //    /**
     //     * Test of setMaxForeground method, of class RunsTable.
     //     */
@@ -316,6 +360,29 @@ public class RunsTableTest
         assertEquals(expResult, result);
     }
 
+    //---------------//
+    // testWriteRead //
+    //---------------//
+    /**
+     * Test of write and read methods, of class RunsTable.
+     */
+    @Test
+    public void testWriteRead ()
+            throws IOException
+    {
+        System.out.println("writeRead");
+
+        RunsTable instance = createVerticalInstance();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        instance.write(new DataOutputStream(bytes));
+
+        RunsTable result = RunsTable.read(
+                new DataInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(instance.toString(), result.toString());
+        assertTrue(instance.isIdentical(result));
+    }
+
     //--------------------------//
     // createHorizontalInstance //
     //--------------------------//
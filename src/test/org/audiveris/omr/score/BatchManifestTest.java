@@ -0,0 +1,196 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                     B a t c h M a n i f e s t T e s t                      //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.score;
+
+import org.audiveris.omr.step.Step;
+import org.audiveris.omr.step.Steps;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Class {@code BatchManifestTest} checks that a reopened batch manifest
+ * reports the inputs already processed.
+ *
+ * @author Hervé Bitteur
+ */
+public class BatchManifestTest
+{
+    //~ Instance fields --------------------------------------------------------
+
+    private final Step scoreStep = Steps.valueOf(Steps.SCORE);
+
+    private final Step exportStep = Steps.valueOf(Steps.EXPORT);
+
+    private final List<Step> steps = Arrays.asList(scoreStep, exportStep);
+
+    private final Step sheetStep = Steps.valueOf(Steps.GRID);
+
+    private final List<Step> sheetSteps = Arrays.asList(sheetStep, scoreStep);
+
+    //~ Methods ----------------------------------------------------------------
+    @Test
+    public void testPageSelection ()
+            throws Exception
+    {
+        File folder = Files.createTempDirectory("manifest")
+                .toFile();
+        File file = new File(folder, "batch.manifest");
+        File input = write(new File(folder, "a.pdf"), "pages 1 to 3");
+
+        // Processing of page 1 only
+        BatchManifest manifest = new BatchManifest(file);
+        manifest.start(input, pages(1));
+        manifest.recordSheetStep(input, 1, sheetStep);
+        manifest.recordScoreStep(input, scoreStep);
+        assertTrue(manifest.complete(input, sheetSteps, pages(1)));
+        manifest.close();
+
+        manifest = new BatchManifest(file);
+        assertTrue(manifest.isComplete(input, sheetSteps, pages(1)));
+        assertFalse(manifest.isComplete(input, sheetSteps, pages(1, 2)));
+        assertFalse(manifest.isComplete(input, sheetSteps, null));
+
+        // Processing of all pages, page 3 failing
+        manifest.start(input, null);
+
+        for (int index = 1; index <= 2; index++) {
+            manifest.recordSheetStep(input, index, sheetStep);
+        }
+
+        manifest.recordScoreStep(input, scoreStep);
+        assertFalse(manifest.complete(input, sheetSteps, pages(1, 2, 3)));
+        manifest.close();
+
+        manifest = new BatchManifest(file);
+        assertFalse(manifest.isComplete(input, sheetSteps, null));
+        assertFalse(manifest.isComplete(input, sheetSteps, pages(1, 2)));
+
+        // Processing of all pages
+        manifest.start(input, null);
+
+        for (int index = 1; index <= 3; index++) {
+            manifest.recordSheetStep(input, index, sheetStep);
+        }
+
+        manifest.recordScoreStep(input, scoreStep);
+        assertTrue(manifest.complete(input, sheetSteps, pages(1, 2, 3)));
+        manifest.close();
+
+        manifest = new BatchManifest(file);
+        assertTrue(manifest.isComplete(input, sheetSteps, null));
+        assertTrue(manifest.isComplete(input, sheetSteps, pages(2, 3)));
+        assertFalse(manifest.isComplete(input, sheetSteps, pages(4)));
+        manifest.close();
+    }
+
+    @Test
+    public void testResume ()
+            throws Exception
+    {
+        File folder = Files.createTempDirectory("manifest")
+                .toFile();
+        File file = new File(folder, "batch.manifest");
+        File input = write(new File(folder, "a.png"), "image a");
+        File other = write(new File(folder, "b.png"), "image b");
+        File output = write(new File(folder, "a.xml"), "score a");
+
+        BatchManifest manifest = new BatchManifest(file);
+        manifest.start(input, null);
+        manifest.recordScoreStep(input, scoreStep);
+        assertFalse(manifest.complete(input, steps, pages(1), output));
+        manifest.recordScoreStep(input, exportStep);
+        assertTrue(manifest.complete(input, steps, pages(1), output, null));
+
+        // Interrupted input
+        manifest.start(other, null);
+        manifest.recordScoreStep(other, scoreStep);
+        manifest.close();
+
+        // Restart
+        manifest = new BatchManifest(file);
+        assertTrue(manifest.isComplete(input, steps, null));
+        assertTrue(
+                manifest.isComplete(input, Arrays.asList(scoreStep), null));
+        assertFalse(manifest.isComplete(other, steps, null));
+        assertFalse(
+                manifest.isComplete(new File(folder, "c.png"), steps, null));
+
+        // Modified output
+        write(output, "modified score a");
+        assertFalse(manifest.isComplete(input, steps, null));
+        manifest.close();
+    }
+
+    @Test
+    public void testTruncatedJournal ()
+            throws Exception
+    {
+        File folder = Files.createTempDirectory("manifest")
+                .toFile();
+        File file = new File(folder, "batch.manifest");
+        File input = write(new File(folder, "a.png"), "image a");
+
+        BatchManifest manifest = new BatchManifest(file);
+        manifest.start(input, null);
+        manifest.recordScoreStep(input, scoreStep);
+        manifest.recordScoreStep(input, exportStep);
+        assertTrue(manifest.complete(input, steps, null));
+        manifest.close();
+
+        // Simulate a crash while writing a record
+        try (FileWriter writer = new FileWriter(file, true)) {
+            writer.write(input.getCanonicalPath() + "\tsco");
+        }
+
+        manifest = new BatchManifest(file);
+        assertTrue(manifest.isComplete(input, steps, null));
+        manifest.close();
+    }
+
+    private SortedSet<Integer> pages (Integer... ids)
+    {
+        return new TreeSet<>(Arrays.asList(ids));
+    }
+
+    private File write (File file,
+                        String content)
+            throws IOException
+    {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(content);
+        }
+
+        return file;
+    }
+}
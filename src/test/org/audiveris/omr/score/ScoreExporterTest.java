@@ -0,0 +1,138 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                     S c o r e E x p o r t e r T e s t                      //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.score;
+
+import org.audiveris.omr.score.entity.Measure;
+import org.audiveris.omr.score.entity.Page;
+import org.audiveris.omr.score.entity.ScorePart;
+import org.audiveris.omr.score.entity.ScoreSystem;
+import org.audiveris.omr.score.entity.Staff;
+import org.audiveris.omr.score.entity.SystemPart;
+import org.audiveris.omr.sheet.Scale;
+
+import static org.junit.Assert.*;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class {@code ScoreExporterTest} checks that a streamed export writes
+ * the same MusicXML document as an export of the whole proxymusic tree.
+ *
+ * @author Hervé Bitteur
+ */
+public class ScoreExporterTest
+{
+    //~ Methods ----------------------------------------------------------------
+
+    @Test
+    public void testStreamedSameAsTree ()
+            throws Exception
+    {
+        Score score = createScore();
+        String tree = export(score, false);
+        String streamed = export(score, true);
+
+        assertTrue(tree.contains("<part id=\"P2\">"));
+        assertEquals(tree, streamed);
+    }
+
+    //-------------//
+    // createScore //
+    //-------------//
+    /**
+     * Build a one-system score, with a one-staff part on top of a
+     * two-staff part, each part containing one empty measure.
+     */
+    private Score createScore ()
+            throws Exception
+    {
+        Score score = new Score(new File("multi-part.png"));
+        List<ScorePart> scoreParts = Arrays.asList(
+                new ScorePart(1, 1),
+                new ScorePart(2, 2));
+        score.setPartList(scoreParts);
+
+        Page page;
+
+        try {
+            page = new Page(
+                    score,
+                    1,
+                    new BufferedImage(2000, 1000, BufferedImage.TYPE_BYTE_GRAY));
+        } catch (RuntimeException ex) {
+            Assume.assumeNoException(ex); // No usable JAI implementation
+
+            return null;
+        }
+
+        page.setScale(new Scale(20, 3));
+        page.setPartList(scoreParts);
+
+        ScoreSystem system = new ScoreSystem(
+                null,
+                page,
+                new Point(100, 100),
+                new Dimension(1800, 600));
+        int y = 100;
+
+        for (ScorePart scorePart : scoreParts) {
+            SystemPart part = new SystemPart(system, null);
+            part.setId(scorePart.getId());
+            part.setScorePart(scorePart);
+
+            for (int s = 0; s < scorePart.getStaffCount(); s++) {
+                new Staff(null, part, new Point(100, y), 1800, 80);
+                y += 200;
+            }
+
+            new Measure(part);
+        }
+
+        return score;
+    }
+
+    //--------//
+    // export //
+    //--------//
+    private String export (Score score,
+                           boolean streaming)
+            throws Exception
+    {
+        ScoreExporter exporter = new ScoreExporter(score);
+        exporter.setStreaming(streaming);
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        exporter.export(os, false);
+
+        return os.toString("UTF-8");
+    }
+}
@@ -0,0 +1,139 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                  S e l e c t i o n S e r v i c e T e s t                   //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.selection;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import org.bushe.swing.event.EventSubscriber;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Class {@code SelectionServiceTest} checks the coalescing of events
+ * published while dragging.
+ *
+ * @author Hervé Bitteur
+ */
+public class SelectionServiceTest
+{
+    //~ Instance fields --------------------------------------------------------
+
+    private final SelectionService service = new SelectionService(
+            "test",
+            new Class<?>[]{LocationEvent.class});
+
+    /** Events received by subscriber */
+    private final List<Rectangle> received = new ArrayList<>();
+
+    //~ Methods ----------------------------------------------------------------
+    @Test
+    public void testCoalescing ()
+            throws Exception
+    {
+        SwingUtilities.invokeAndWait(
+                new Runnable()
+        {
+            @Override
+            public void run ()
+            {
+                subscribe();
+
+                for (int i = 1; i <= 3; i++) {
+                    publish(i, MouseMovement.DRAGGING);
+                }
+
+                // Nothing dispatched yet, but latest value is available
+                assertTrue(received.isEmpty());
+                assertEquals(
+                        new Rectangle(3, 3, 1, 1),
+                        service.getSelection(LocationEvent.class));
+
+                // Next non-dragging event flushes the pending one first
+                publish(4, MouseMovement.RELEASING);
+                assertEquals(2, received.size());
+                assertEquals(3, received.get(0).x);
+                assertEquals(4, received.get(1).x);
+            }
+        });
+    }
+
+    @Test
+    public void testFlush ()
+            throws Exception
+    {
+        SwingUtilities.invokeAndWait(
+                new Runnable()
+        {
+            @Override
+            public void run ()
+            {
+                subscribe();
+                publish(1, MouseMovement.DRAGGING);
+                publish(2, MouseMovement.DRAGGING);
+                service.flush();
+                assertEquals(1, received.size());
+                assertEquals(2, received.get(0).x);
+            }
+        });
+    }
+
+    @Test
+    public void testOutsideEdt ()
+    {
+        subscribe();
+        publish(1, MouseMovement.DRAGGING);
+        publish(2, MouseMovement.DRAGGING);
+        assertEquals(2, received.size());
+    }
+
+    private void publish (int x,
+                          MouseMovement movement)
+    {
+        service.publish(
+                new LocationEvent(
+                this,
+                SelectionHint.LOCATION_INIT,
+                movement,
+                new Rectangle(x, x, 1, 1)));
+    }
+
+    private void subscribe ()
+    {
+        service.subscribeStrongly(
+                LocationEvent.class,
+                new EventSubscriber<LocationEvent>()
+        {
+            @Override
+            public void onEvent (LocationEvent event)
+            {
+                received.add(event.getData());
+            }
+        });
+    }
+}
@@ -0,0 +1,138 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                    P a g e P r e f e t c h e r T e s t                     //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet.picture;
+
+import static org.junit.Assert.*;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Class {@code PagePrefetcherTest} checks the page after page decoding
+ * of a multi-page TIFF file.
+ *
+ * @author Hervé Bitteur
+ */
+public class PagePrefetcherTest
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    private static final int PAGES = 5;
+
+    //~ Methods ----------------------------------------------------------------
+
+    @Test
+    public void testAllPages ()
+            throws Exception
+    {
+        File file = createTiff();
+        PagePrefetcher prefetcher = PagePrefetcher.open(file, null, 0, file);
+        assertNotNull(prefetcher);
+
+        try {
+            assertEquals(PAGES, prefetcher.size());
+
+            for (int id = 1; id <= PAGES; id++) {
+                assertTrue(prefetcher.hasNext());
+                assertEquals(id, prefetcher.nextId());
+
+                RenderedImage image = prefetcher.next();
+                assertEquals(100 + id, image.getWidth());
+            }
+
+            assertFalse(prefetcher.hasNext());
+        } finally {
+            prefetcher.close();
+        }
+
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testSomePages ()
+            throws Exception
+    {
+        File file = createTiff();
+        PagePrefetcher prefetcher = PagePrefetcher.open(
+                file,
+                new TreeSet<>(Arrays.asList(2, 4)),
+                0,
+                file);
+
+        try {
+            assertEquals(2, prefetcher.size());
+            assertEquals(2, prefetcher.nextId());
+            assertEquals(102, prefetcher.next().getWidth());
+            assertEquals(4, prefetcher.nextId());
+        } finally {
+            prefetcher.close(); // With a pending decoding
+        }
+
+        assertFalse(file.exists());
+    }
+
+    //------------//
+    // createTiff //
+    //------------//
+    private File createTiff ()
+            throws Exception
+    {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(
+                "tiff");
+        Assume.assumeTrue(writers.hasNext());
+
+        ImageWriter writer = writers.next();
+        File file = File.createTempFile("prefetch-", ".tif");
+
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(out);
+            writer.prepareWriteSequence(null);
+
+            for (int id = 1; id <= PAGES; id++) {
+                BufferedImage image = new BufferedImage(
+                        100 + id,
+                        50,
+                        BufferedImage.TYPE_BYTE_GRAY);
+                writer.writeToSequence(new IIOImage(image, null, null), null);
+            }
+
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+
+        return file;
+    }
+}
@@ -0,0 +1,274 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                        C a c h i n g O C R T e s t                         //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.text;
+
+import org.audiveris.omr.sheet.SystemInfo;
+import org.audiveris.omr.util.JaxbContexts;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class {@code CachingOCRTest} checks the caching of OCR results.
+ *
+ * @author Hervé Bitteur
+ */
+public class CachingOCRTest
+{
+    //~ Methods ----------------------------------------------------------------
+
+    @Test
+    public void testBatchHits ()
+    {
+        FakeOCR fake = new FakeOCR();
+        CachingOCR cache = new CachingOCR(fake);
+        BufferedImage image = createImage(40, 20, 3);
+        image.getRaster().setSample(25, 5, 0, 255);
+
+        List<Rectangle> regions = Arrays.asList(
+                new Rectangle(100, 200, 20, 20),
+                new Rectangle(120, 200, 20, 20));
+        List<List<TextLine>> first = cache.recognize(
+                image,
+                new Point(100, 200),
+                regions,
+                "eng",
+                OCR.LayoutMode.SINGLE_BLOCK,
+                null,
+                "test");
+        assertEquals(2, fake.regionCount);
+        assertEquals(2, first.size());
+
+        // Same content elsewhere is a hit, other content is a miss
+        BufferedImage other = createImage(40, 20, 3);
+        other.getRaster().setSample(30, 10, 0, 255);
+
+        List<List<TextLine>> second = cache.recognize(
+                other,
+                new Point(0, 0),
+                Arrays.asList(
+                new Rectangle(0, 0, 20, 20),
+                new Rectangle(20, 0, 20, 20)),
+                "eng",
+                OCR.LayoutMode.SINGLE_BLOCK,
+                null,
+                "test");
+        assertEquals(3, fake.regionCount);
+
+        second = cache.recognize(
+                other,
+                new Point(0, 0),
+                Arrays.asList(new Rectangle(20, 0, 20, 20)),
+                "eng",
+                OCR.LayoutMode.SINGLE_BLOCK,
+                null,
+                "test");
+        assertEquals(3, fake.regionCount);
+        assertEquals(
+                new Rectangle(22, 1, 5, 6),
+                second.get(0).get(0).getWords().get(0).getBounds());
+    }
+
+    @Test
+    public void testHitIsTranslated ()
+    {
+        FakeOCR fake = new FakeOCR();
+        CachingOCR cache = new CachingOCR(fake);
+        BufferedImage image = createImage(20, 10, 7);
+
+        List<TextLine> first = cache.recognize(
+                image,
+                new Point(100, 200),
+                "eng",
+                OCR.LayoutMode.SINGLE_BLOCK,
+                null,
+                "test");
+        List<TextLine> second = cache.recognize(
+                createImage(20, 10, 7),
+                new Point(10, 20),
+                "eng",
+                OCR.LayoutMode.SINGLE_BLOCK,
+                null,
+                "test");
+        assertEquals(1, fake.callCount);
+        assertNotSame(first.get(0), second.get(0));
+
+        TextWord word = second.get(0).getWords().get(0);
+        assertEquals("word", word.getValue());
+        assertEquals(new Rectangle(12, 21, 5, 6), word.getBounds());
+        assertEquals(
+                new Rectangle(12, 21, 2, 6),
+                word.getChars().get(0).getBounds());
+        assertEquals(21.0, word.getBaseline().getY1(), 0.001);
+
+        // Different language is a miss
+        cache.recognize(
+                image,
+                new Point(100, 200),
+                "fra",
+                OCR.LayoutMode.SINGLE_BLOCK,
+                null,
+                "test");
+        assertEquals(2, fake.callCount);
+    }
+
+    @Test
+    public void testMarshalling ()
+            throws Exception
+    {
+        List<TextLine> lines = createLines(new Point(10, 10));
+        CachingOCR.OcrResult result = new CachingOCR.OcrResult(
+                lines,
+                new Point(10, 10));
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        JaxbContexts.marshal(CachingOCR.OcrResult.class, result, os, true);
+
+        CachingOCR.OcrResult copy = (CachingOCR.OcrResult) JaxbContexts.
+                unmarshal(
+                CachingOCR.OcrResult.class,
+                new ByteArrayInputStream(os.toByteArray()));
+        TextWord word = copy.toLines(null, new Point(10, 10)).get(0).
+                getWords().get(0);
+        assertEquals("word", word.getValue());
+        assertEquals(new Rectangle(12, 11, 5, 6), word.getBounds());
+        assertEquals(87, (int) word.getConfidence());
+        assertEquals("Serif", word.getFontInfo().fontName);
+        assertEquals(2, word.getChars().size());
+    }
+
+    private static BufferedImage createImage (int width,
+                                              int height,
+                                              int x)
+    {
+        BufferedImage image = new BufferedImage(
+                width,
+                height,
+                BufferedImage.TYPE_BYTE_GRAY);
+        image.getRaster().setSample(x, 2, 0, 255);
+
+        return image;
+    }
+
+    private static List<TextLine> createLines (Point origin)
+    {
+        TextLine line = new TextLine(null);
+        TextWord word = new TextWord(
+                new Rectangle(origin.x + 2, origin.y + 1, 5, 6),
+                "word",
+                new Line2D.Double(
+                origin.x + 2,
+                origin.y + 1,
+                origin.x + 7,
+                origin.y + 1),
+                87,
+                FontInfo.createDefault(12),
+                line);
+        word.addChar(
+                new TextChar(
+                new Rectangle(origin.x + 2, origin.y + 1, 2, 6),
+                "wo"));
+        word.addChar(
+                new TextChar(
+                new Rectangle(origin.x + 4, origin.y + 1, 3, 6),
+                "rd"));
+        line.appendWord(word);
+
+        return new ArrayList<>(Collections.singletonList(line));
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    private static class FakeOCR
+            implements OCR
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        int callCount;
+
+        int regionCount;
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        public Set<String> getLanguages ()
+        {
+            return Collections.singleton("eng");
+        }
+
+        @Override
+        public boolean isAvailable ()
+        {
+            return true;
+        }
+
+        @Override
+        public List<TextLine> recognize (BufferedImage image,
+                                         Point topLeft,
+                                         String languageCode,
+                                         LayoutMode layoutMode,
+                                         SystemInfo system,
+                                         String label)
+        {
+            callCount++;
+
+            return createLines(topLeft);
+        }
+
+        @Override
+        public List<List<TextLine>> recognize (BufferedImage image,
+                                               Point topLeft,
+                                               List<Rectangle> regions,
+                                               String languageCode,
+                                               LayoutMode layoutMode,
+                                               SystemInfo system,
+                                               String label)
+        {
+            callCount++;
+
+            List<List<TextLine>> results = new ArrayList<>();
+
+            for (Rectangle region : regions) {
+                regionCount++;
+                results.add(createLines(region.getLocation()));
+            }
+
+            return results;
+        }
+
+        @Override
+        public void shutdown ()
+        {
+        }
+    }
+}
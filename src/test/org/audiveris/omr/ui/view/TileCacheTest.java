@@ -0,0 +1,142 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                         T i l e C a c h e T e s t                          //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.ui.view;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+
+/**
+ * Class {@code TileCacheTest} checks the caching of tiles, both in
+ * foreground and in background modes.
+ *
+ * @author Hervé Bitteur
+ */
+public class TileCacheTest
+{
+    //~ Instance fields --------------------------------------------------------
+
+    /** Number of tile paintings */
+    private final AtomicInteger paintings = new AtomicInteger();
+
+    /** Painter of a black square at (10,10) */
+    private final TileCache.Painter painter = new TileCache.Painter()
+    {
+        @Override
+        public void paint (Graphics2D g)
+        {
+            paintings.incrementAndGet();
+            g.setColor(Color.BLACK);
+            g.fillRect(10, 10, 20, 20);
+        }
+    };
+
+    //~ Methods ----------------------------------------------------------------
+    @Test
+    public void testBackground ()
+            throws Exception
+    {
+        final TileCache cache = new TileCache(new JPanel(), 64, 10, true);
+        final BufferedImage img = new BufferedImage(
+                100,
+                100,
+                BufferedImage.TYPE_INT_ARGB);
+
+        // First rendering only triggers the rasterization
+        onEdt(cache, img, 1.0);
+        assertEquals(0, img.getRGB(15, 15));
+
+        // Wait for the tile to be handed over
+        for (int i = 0; (i < 100) && (img.getRGB(15, 15) == 0); i++) {
+            Thread.sleep(20);
+            onEdt(cache, img, 1.0);
+        }
+
+        assertEquals(Color.BLACK.getRGB(), img.getRGB(15, 15));
+        assertEquals(1, paintings.get());
+    }
+
+    @Test
+    public void testForeground ()
+    {
+        TileCache cache = new TileCache(new JPanel(), 64, 10, false);
+        BufferedImage img = new BufferedImage(
+                200,
+                200,
+                BufferedImage.TYPE_INT_ARGB);
+
+        render(cache, img, "A", 1.0);
+        assertEquals(Color.BLACK.getRGB(), img.getRGB(15, 15));
+        assertEquals(0, img.getRGB(35, 35));
+        assertEquals(1, paintings.get()); // Just one tile within clip
+
+        // Same stamp: tile reused
+        render(cache, img, "A", 1.0);
+        assertEquals(1, paintings.get());
+
+        // New zoom ratio: 4 tiles for 128x128 zoomed pixels
+        render(cache, img, "A", 2.0);
+        assertEquals(5, paintings.get());
+        assertEquals(Color.BLACK.getRGB(), img.getRGB(59, 59));
+
+        // New stamp: tile repainted
+        render(cache, img, "B", 1.0);
+        assertEquals(6, paintings.get());
+    }
+
+    private void onEdt (final TileCache cache,
+                        final BufferedImage img,
+                        final double ratio)
+            throws Exception
+    {
+        SwingUtilities.invokeAndWait(
+                new Runnable()
+        {
+            @Override
+            public void run ()
+            {
+                render(cache, img, "A", ratio);
+            }
+        });
+    }
+
+    private void render (TileCache cache,
+                         BufferedImage img,
+                         Object stamp,
+                         double ratio)
+    {
+        Graphics2D g = img.createGraphics();
+        g.clipRect(0, 0, (int) (64 * ratio), (int) (64 * ratio));
+        g.scale(ratio, ratio);
+        cache.render(g, stamp, painter);
+        g.dispose();
+    }
+}
@@ -0,0 +1,264 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                    B a t c h S c h e d u l e r T e s t                     //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+// </editor-fold>
+package org.audiveris.omr.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class {@code BatchSchedulerTest} checks ordering, bounded concurrency
+ * and per-job time-out of the batch scheduler, including cancelled jobs
+ * that do not react to interruption.
+ *
+ * @author Hervé Bitteur
+ */
+public class BatchSchedulerTest
+{
+    //~ Instance fields --------------------------------------------------------
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    private final List<String> started = Collections.synchronizedList(
+            new ArrayList<String>());
+
+    //~ Methods ----------------------------------------------------------------
+    @Test
+    public void testCancelledBeforeStart ()
+            throws Exception
+    {
+        // A single thread, kept busy beyond the time-out of "queued"
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        single.submit(sleeper("busy", 2500));
+
+        final List<String> cancelled = new ArrayList<>();
+        List<BatchScheduler.Job> jobs = new ArrayList<>();
+        jobs.add(
+                new BatchScheduler.Job("queued", 1, sleeper("queued", 10))
+        {
+            @Override
+            public void cancelled ()
+            {
+                cancelled.add(name);
+            }
+        });
+
+        BatchScheduler scheduler = new BatchScheduler(single, 2, 0, 1);
+        assertFalse(scheduler.run(jobs));
+        assertEquals(Arrays.asList("queued"), cancelled);
+        single.shutdown();
+        assertTrue(single.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("busy"), started);
+    }
+
+    @Test
+    public void testCancelledByInterrupt ()
+            throws Exception
+    {
+        final List<String> cancelled = new ArrayList<>();
+        List<BatchScheduler.Job> jobs = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            jobs.add(
+                    new BatchScheduler.Job("j" + i, i, sleeper("j" + i, 10))
+            {
+                @Override
+                public void cancelled ()
+                {
+                    cancelled.add(name);
+                }
+            });
+        }
+
+        // Only the heaviest job is admitted before the interruption
+        BatchScheduler scheduler = new BatchScheduler(executor, 1, 0, 10);
+        Thread.currentThread()
+                .interrupt();
+
+        try {
+            scheduler.run(jobs);
+            fail("InterruptedException expected");
+        } catch (InterruptedException expected) {
+        }
+
+        assertEquals(Arrays.asList("j1", "j0"), cancelled);
+    }
+
+    @Test
+    public void testConcurrencyAndOrder ()
+            throws Exception
+    {
+        List<BatchScheduler.Job> jobs = new ArrayList<>();
+
+        for (int i = 0; i < 6; i++) {
+            jobs.add(new BatchScheduler.Job("j" + i, i, sleeper("j" + i, 50)));
+        }
+
+        BatchScheduler scheduler = new BatchScheduler(executor, 2, 0, 10);
+        assertTrue(scheduler.run(jobs));
+        assertEquals(6, started.size());
+        assertEquals("j5", started.get(0)); // Heaviest first
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    public void testFeed ()
+            throws Exception
+    {
+        final long start = System.currentTimeMillis();
+
+        // "late" arrives while "first" is running, and must not wait for it
+        BatchScheduler.Feed feed = new BatchScheduler.Feed()
+        {
+            private int count;
+
+            @Override
+            public List<BatchScheduler.Job> next ()
+            {
+                final long elapsed = System.currentTimeMillis() - start;
+                List<BatchScheduler.Job> jobs = new ArrayList<>();
+
+                if (count == 0) {
+                    jobs.add(job("first", 1, 1500));
+                    count++;
+                } else if ((count == 1) && (elapsed > 300)) {
+                    jobs.add(job("late", 2, 10));
+                    count++;
+                } else if (count == 2) {
+                    return null;
+                }
+
+                return jobs;
+            }
+        };
+
+        BatchScheduler scheduler = new BatchScheduler(executor, 2, 0, 10);
+        assertTrue(scheduler.run(feed, 50));
+        assertEquals(Arrays.asList("first", "late"), started);
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    public void testTimeOut ()
+            throws Exception
+    {
+        List<BatchScheduler.Job> jobs = new ArrayList<>();
+        jobs.add(new BatchScheduler.Job("long", 2, sleeper("long", 60000)));
+        jobs.add(new BatchScheduler.Job("short", 1, sleeper("short", 10)));
+
+        BatchScheduler scheduler = new BatchScheduler(executor, 2, 0, 1);
+        long start = System.currentTimeMillis();
+        assertFalse(scheduler.run(jobs));
+        assertTrue((System.currentTimeMillis() - start) < 10000);
+        assertEquals(2, started.size());
+    }
+
+    @Test
+    public void testZombieCounted ()
+            throws Exception
+    {
+        List<BatchScheduler.Job> jobs = new ArrayList<>();
+        jobs.add(
+                new BatchScheduler.Job(
+                "stubborn",
+                3,
+                sleeper("stubborn", 4000, false)));
+        jobs.add(new BatchScheduler.Job("a", 2, sleeper("a", 1500)));
+        jobs.add(new BatchScheduler.Job("b", 1, sleeper("b", 1500)));
+        jobs.add(new BatchScheduler.Job("c", 0, sleeper("c", 1500)));
+
+        // "stubborn" times out at 2s but goes on until 4s, so "c" must wait
+        BatchScheduler scheduler = new BatchScheduler(executor, 2, 0, 2);
+        assertFalse(scheduler.run(jobs));
+        assertEquals(4, started.size());
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    private BatchScheduler.Job job (String name,
+                                    int weight,
+                                    long millis)
+    {
+        return new BatchScheduler.Job(name, weight, sleeper(name, millis));
+    }
+
+    private Callable<Void> sleeper (final String name,
+                                    final long millis)
+    {
+        return sleeper(name, millis, true);
+    }
+
+    private Callable<Void> sleeper (final String name,
+                                    final long millis,
+                                    final boolean interruptible)
+    {
+        return new Callable<Void>()
+        {
+            @Override
+            public Void call ()
+                    throws Exception
+            {
+                started.add(name);
+
+                int count = running.incrementAndGet();
+
+                synchronized (maxRunning) {
+                    maxRunning.set(Math.max(maxRunning.get(), count));
+                }
+
+                try {
+                    final long end = System.currentTimeMillis() + millis;
+                    long left;
+
+                    while ((left = end - System.currentTimeMillis()) > 0) {
+                        try {
+                            Thread.sleep(left);
+                        } catch (InterruptedException ex) {
+                            if (interruptible) {
+                                throw ex;
+                            }
+                        }
+                    }
+                } finally {
+                    running.decrementAndGet();
+                }
+
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                           I d S t o r e T e s t                            //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * Class {@code IdStoreTest} checks the array-based store of entities.
+ *
+ * @author Hervé Bitteur
+ */
+public class IdStoreTest
+{
+    //~ Methods ----------------------------------------------------------------
+
+    @Test
+    public void testConcurrentInsertion ()
+            throws Exception
+    {
+        final IdStore<Integer> store = new IdStore<>();
+        final int perTask = 5000;
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++) {
+            tasks.add(
+                    new Callable<Void>()
+            {
+                @Override
+                public Void call ()
+                {
+                    for (int i = 0; i < perTask; i++) {
+                        int id = store.nextId();
+                        store.put(id, id);
+                    }
+
+                    return null;
+                }
+            });
+        }
+
+        for (Future<Void> future : OmrExecutors.invokeAll(tasks)) {
+            future.get();
+        }
+
+        assertEquals(4 * perTask, store.getLastId());
+        assertEquals(4 * perTask, store.size());
+
+        for (int id = 1; id <= store.getLastId(); id++) {
+            assertEquals(Integer.valueOf(id), store.get(id));
+        }
+    }
+
+    @Test
+    public void testGrowthAndRemoval ()
+    {
+        IdStore<String> store = new IdStore<>();
+        assertTrue(store.isEmpty());
+        assertNull(store.get(1));
+
+        for (int i = 0; i < 1000; i++) {
+            int id = store.nextId();
+            store.put(id, "e" + id);
+        }
+
+        assertEquals(1000, store.size());
+        assertEquals("e1", store.get(1));
+        assertEquals("e64", store.get(64));
+        assertEquals("e1000", store.get(1000));
+        assertNull(store.get(1001));
+
+        assertEquals("e500", store.remove(500));
+        assertNull(store.remove(500));
+        assertFalse(store.remove(501, "other"));
+        assertTrue(store.remove(501, "e501"));
+        assertEquals(998, store.size());
+
+        // Restoration
+        assertNull(store.put(500, "e500"));
+        assertEquals(999, store.size());
+
+        // Iteration follows id order, skipping removed entities
+        int previous = 0;
+        int count = 0;
+
+        for (String value : store.values()) {
+            int id = Integer.parseInt(value.substring(1));
+            assertTrue(id > previous);
+            assertTrue(id != 501);
+            previous = id;
+            count++;
+        }
+
+        assertEquals(999, count);
+        assertEquals(999, store.values().size());
+    }
+}
@@ -0,0 +1,123 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                      J a x b C o n t e x t s T e s t                       //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Class {@code JaxbContextsTest} checks the shared JAXB contexts and the
+ * pooled (un)marshallers.
+ *
+ * @author Hervé Bitteur
+ */
+public class JaxbContextsTest
+{
+    //~ Methods ----------------------------------------------------------------
+
+    @Test
+    public void testConcurrentRoundTrips ()
+            throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < 50; i++) {
+                final int value = i;
+                futures.add(
+                        executor.submit(
+                        new Callable<Integer>()
+                {
+                    @Override
+                    public Integer call ()
+                            throws Exception
+                    {
+                        return roundTrip(value).value;
+                    }
+                }));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(i, (int) futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSharedContext ()
+            throws Exception
+    {
+        JaxbContexts.preload(Item.class);
+        assertSame(
+                JaxbContexts.getContext(Item.class),
+                JaxbContexts.getContext(Item.class));
+        assertEquals(7, roundTrip(7).value);
+    }
+
+    private Item roundTrip (int value)
+            throws Exception
+    {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        JaxbContexts.marshal(Item.class, new Item(value), os, true);
+
+        return (Item) JaxbContexts.unmarshal(
+                Item.class,
+                new ByteArrayInputStream(os.toByteArray()));
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    @XmlRootElement(name = "item")
+    public static class Item
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        @XmlAttribute
+        int value;
+
+        //~ Constructors -------------------------------------------------------
+        public Item ()
+        {
+        }
+
+        public Item (int value)
+        {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                      O m r E x e c u t o r s T e s t                       //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+// Copyright © Hervé Bitteur and others 2000-2017. All rights reserved.
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class {@code OmrExecutorsTest} checks nested parallelism in the
+ * fork/join pool, and the incremental forking of task groups.
+ *
+ * @author Hervé Bitteur
+ */
+public class OmrExecutorsTest
+{
+    //~ Methods ----------------------------------------------------------------
+
+    @Test
+    public void testException ()
+            throws Exception
+    {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        tasks.add(
+                new Callable<Integer>()
+        {
+            @Override
+            public Integer call ()
+            {
+                throw new IllegalStateException("Failure");
+            }
+        });
+        tasks.add(leaf(1));
+
+        List<Future<Integer>> futures = OmrExecutors.invokeAll(tasks);
+        assertEquals(1, (int) futures.get(1).get());
+
+        try {
+            futures.get(0).get();
+            fail("Exception not reported");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testManagedBlock ()
+            throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(1);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+
+        // More blocked tasks than pool threads
+        for (int i = 0; i < (OmrExecutors.getNumberOfCpus() + 2); i++) {
+            tasks.add(
+                    new Callable<Integer>()
+            {
+                @Override
+                public Integer call ()
+                        throws Exception
+                {
+                    OmrExecutors.managedBlock(
+                            new OmrExecutors.Blocking()
+                    {
+                        @Override
+                        public void block ()
+                                throws InterruptedException
+                        {
+                            latch.await(10, TimeUnit.SECONDS);
+                        }
+                    });
+
+                    return 1;
+                }
+            });
+        }
+
+        // The releasing task still gets a thread
+        tasks.add(
+                new Callable<Integer>()
+        {
+            @Override
+            public Integer call ()
+            {
+                latch.countDown();
+
+                return 0;
+            }
+        });
+
+        long start = System.currentTimeMillis();
+        assertEquals(tasks.size() - 1, sum(OmrExecutors.invokeAll(tasks)));
+        assertTrue((System.currentTimeMillis() - start) < 5000);
+    }
+
+    @Test
+    public void testNested ()
+            throws Exception
+    {
+        // 3 nested levels, as pages, systems and rows
+        assertEquals(10 * 10 * 10, sum(OmrExecutors.invokeAll(level(3))));
+    }
+
+    @Test
+    public void testTaskGroup ()
+            throws Exception
+    {
+        final CountDownLatch started = new CountDownLatch(1);
+        OmrExecutors.TaskGroup<Integer> group = new OmrExecutors.TaskGroup<>();
+        group.fork(
+                new Callable<Integer>()
+        {
+            @Override
+            public Integer call ()
+            {
+                started.countDown();
+
+                return 2;
+            }
+        });
+
+        // First task runs before the group is joined, even before next fork
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        group.fork(leaf(1));
+        assertEquals(3, sum(group.join()));
+    }
+
+    private Callable<Integer> leaf (final int value)
+    {
+        return new Callable<Integer>()
+        {
+            @Override
+            public Integer call ()
+            {
+                return value;
+            }
+        };
+    }
+
+    private List<Callable<Integer>> level (final int depth)
+    {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            if (depth == 1) {
+                tasks.add(leaf(1));
+            } else {
+                tasks.add(
+                        new Callable<Integer>()
+                {
+                    @Override
+                    public Integer call ()
+                            throws Exception
+                    {
+                        return sum(OmrExecutors.invokeAll(level(depth - 1)));
+                    }
+                });
+            }
+        }
+
+        return tasks;
+    }
+
+    private int sum (List<Future<Integer>> futures)
+            throws Exception
+    {
+        int sum = 0;
+
+        for (Future<Integer> future : futures) {
+            sum += future.get();
+        }
+
+        return sum;
+    }
+}